@@ -60,7 +60,8 @@ CREATE TABLE pae.stages(
                            versionNumber INTEGER
 );
 
-
+-- Les index sont créés par les migrations (src/main/resources/db/migration), appliquées au
+-- démarrage du serveur
 
 -- Insertions pour les entreprises
 INSERT INTO pae.enterprises (tradeName, designation, phoneNumber, email, street, streetNumber, postalCode, city, country, versionNumber)
@@ -0,0 +1,47 @@
+package be.vinci.pae.business;
+
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * The CollectionVersion record is the version of a whole list, which tags the list without reading
+ * it. It is read by an aggregate query of a DAO, or computed from a list already in memory with the
+ * same result. It changes whenever an item is added, which increases the count and the greatest id,
+ * removed, which decreases the count, or updated, which increases its version number and so the sum
+ * of the version numbers.
+ *
+ * @param count      the number of items
+ * @param maxId      the greatest id of the items, 0 if there is none
+ * @param versionSum the sum of the version numbers of the items
+ */
+public record CollectionVersion(long count, long maxId, long versionSum) {
+
+  /**
+   * Computes the version of a list in memory.
+   *
+   * @param items   the items of the list
+   * @param id      the id of an item
+   * @param version the version number of an item
+   * @param <T>     the type of the items
+   * @return the version of the list
+   */
+  public static <T> CollectionVersion of(Collection<? extends T> items,
+      ToIntFunction<? super T> id, ToIntFunction<? super T> version) {
+    long maxId = 0;
+    long versionSum = 0;
+    for (T item : items) {
+      maxId = Math.max(maxId, id.applyAsInt(item));
+      versionSum += version.applyAsInt(item);
+    }
+    return new CollectionVersion(items.size(), maxId, versionSum);
+  }
+
+  /**
+   * Returns the version as a short text, suitable for an entity tag.
+   *
+   * @return the count, greatest id and sum of the version numbers, separated by dashes
+   */
+  public String tag() {
+    return count + "-" + maxId + "-" + versionSum;
+  }
+}
@@ -0,0 +1,46 @@
+package be.vinci.pae.business;
+
+import java.util.List;
+
+/**
+ * The Page class holds one page of a list and the cursor of the next page.
+ *
+ * @param <T> the type of the items of the page
+ */
+public final class Page<T> {
+
+  // The items of the page
+  private final List<T> items;
+
+  // The cursor of the next page, null if this page is the last one
+  private final String next;
+
+  /**
+   * Creates a page.
+   *
+   * @param items the items of the page
+   * @param next  the cursor of the next page, or null if this page is the last one
+   */
+  public Page(List<T> items, String next) {
+    this.items = items;
+    this.next = next;
+  }
+
+  /**
+   * Returns the items of the page.
+   *
+   * @return the items of the page
+   */
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * Returns the cursor of the next page, to send back as the after parameter.
+   *
+   * @return the cursor of the next page, or null if this page is the last one
+   */
+  public String getNext() {
+    return next;
+  }
+}
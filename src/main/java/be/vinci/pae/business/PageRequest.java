@@ -0,0 +1,162 @@
+package be.vinci.pae.business;
+
+import be.vinci.pae.exception.WrongBodyDataException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The PageRequest class describes the page of a list asked by a client: how many items it wants,
+ * the field the list is sorted on and the cursor of the previous page. The cursor is opaque for
+ * the client: it holds the sort of the list, the sort value and the id of the last item of the
+ * previous page, so that the next page starts right after it whatever was inserted or deleted in
+ * the meantime.
+ */
+public final class PageRequest {
+
+  // Number of items of a page when the client does not specify it
+  public static final int DEFAULT_LIMIT = 20;
+
+  // Maximum number of items of a page
+  public static final int MAX_LIMIT = 100;
+
+  // Field sorting the list when the client does not specify it
+  public static final String DEFAULT_SORT = "id";
+
+  // Separator of the parts of a cursor
+  private static final char SEPARATOR = '\n';
+
+  // Maximum number of items of the page
+  private final int limit;
+
+  // Field sorting the list
+  private final String sort;
+
+  // Whether the list is sorted in descending order
+  private final boolean descending;
+
+  // Sort value of the last item of the previous page, null for the first page
+  private final String afterValue;
+
+  // Id of the last item of the previous page
+  private final int afterId;
+
+  private PageRequest(int limit, String sort, boolean descending, String afterValue,
+      int afterId) {
+    this.limit = limit;
+    this.sort = sort;
+    this.descending = descending;
+    this.afterValue = afterValue;
+    this.afterId = afterId;
+  }
+
+  /**
+   * Creates a page request from the query parameters of a list endpoint. The sort is the name of a
+   * field, prefixed by a minus sign for a descending order.
+   *
+   * @param limit the maximum number of items of the page, or null for the default limit
+   * @param after the cursor returned with the previous page, or null for the first page
+   * @param sort  the field sorting the list, or null to sort on the id
+   * @return the page request, or null if none of the parameters is given and the whole list is
+   *         asked for
+   * @throws WrongBodyDataException if the limit is out of range or the cursor is invalid
+   */
+  public static PageRequest of(Integer limit, String after, String sort) {
+    if (limit == null && after == null && sort == null) {
+      return null;
+    }
+    int size = limit == null ? DEFAULT_LIMIT : limit;
+    if (size < 1 || size > MAX_LIMIT) {
+      throw new WrongBodyDataException("The limit must be between 1 and " + MAX_LIMIT);
+    }
+    String fullSort = sort == null || sort.isBlank() ? DEFAULT_SORT : sort.trim();
+    boolean descending = fullSort.startsWith("-");
+    String field = descending ? fullSort.substring(1) : fullSort;
+    if (after == null || after.isEmpty()) {
+      return new PageRequest(size, field, descending, null, 0);
+    }
+    String cursor;
+    try {
+      cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new WrongBodyDataException("Invalid cursor");
+    }
+    int first = cursor.indexOf(SEPARATOR);
+    int last = cursor.lastIndexOf(SEPARATOR);
+    if (first < 0 || first == last || !cursor.substring(0, first).equals(fullSort)) {
+      throw new WrongBodyDataException("Invalid cursor");
+    }
+    try {
+      return new PageRequest(size, field, descending, cursor.substring(first + 1, last),
+          Integer.parseInt(cursor.substring(last + 1)));
+    } catch (NumberFormatException e) {
+      throw new WrongBodyDataException("Invalid cursor");
+    }
+  }
+
+  /**
+   * Creates the cursor of the page following an item.
+   *
+   * @param value the sort value of the item
+   * @param id    the id of the item
+   * @return the opaque cursor to send back as the after parameter
+   */
+  public String cursor(String value, int id) {
+    String cursor = (descending ? "-" : "") + sort + SEPARATOR + value + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the maximum number of items of the page.
+   *
+   * @return the maximum number of items
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Returns the field sorting the list, without its direction.
+   *
+   * @return the field sorting the list
+   */
+  public String getSort() {
+    return sort;
+  }
+
+  /**
+   * Returns whether the list is sorted in descending order.
+   *
+   * @return true for a descending order
+   */
+  public boolean isDescending() {
+    return descending;
+  }
+
+  /**
+   * Returns whether this request asks for the first page.
+   *
+   * @return true if there is no cursor
+   */
+  public boolean isFirstPage() {
+    return afterValue == null;
+  }
+
+  /**
+   * Returns the sort value of the last item of the previous page.
+   *
+   * @return the sort value, or null for the first page
+   */
+  public String getAfterValue() {
+    return afterValue;
+  }
+
+  /**
+   * Returns the id of the last item of the previous page.
+   *
+   * @return the id of the last item
+   */
+  public int getAfterId() {
+    return afterId;
+  }
+}
@@ -0,0 +1,62 @@
+package be.vinci.pae.business.admin;
+
+import java.util.Map;
+
+/**
+ * AdminUCC interface.
+ */
+public interface AdminUCC {
+
+  /**
+   * Get the runtime statistics of the database layer, such as the state of the connection pool and
+   * the counters of the prepared statement cache.
+   *
+   * @return the statistics of the database layer
+   */
+  Map<String, Object> getDatabaseStats();
+
+  /**
+   * Get the timings of the SQL statements, aggregated for each SQL text and sorted by the total
+   * time spent running them.
+   *
+   * @param limit the maximum number of SQL texts returned
+   * @return the statistics of the SQL statements
+   */
+  Map<String, Object> getStatementStats(int limit);
+
+  /**
+   * Get the counters of the caches of the UCCs, such as their size, hits and misses.
+   *
+   * @return the counters of each cache, by name
+   */
+  Map<String, Object> getCacheStats();
+
+  /**
+   * Get the state of the pool of threads hashing the passwords, such as its queue, rejections and
+   * timings.
+   *
+   * @return the statistics of the password hashing
+   */
+  Map<String, Object> getPasswordHashStats();
+
+  /**
+   * Get the state of the threads running the HTTP requests, such as their utilisation, the depth
+   * of their queue and the rejected requests, along with the settings of the server.
+   *
+   * @return the statistics of the worker pool of the server
+   */
+  Map<String, Object> getServerStats();
+
+  /**
+   * Get the counters of the compression of the responses for each endpoint, such as the bytes
+   * saved and the time spent compressing.
+   *
+   * @return the counters of each endpoint, by name
+   */
+  Map<String, Object> getCompressionStats();
+
+  /**
+   * Empty every cache of the UCCs, forcing the next reads to go to the database.
+   */
+  void clearCaches();
+}
@@ -0,0 +1,126 @@
+package be.vinci.pae.business.admin;
+
+import be.vinci.pae.business.cache.CacheRegistry;
+import be.vinci.pae.business.user.PasswordHasher;
+import be.vinci.pae.dal.DALMonitoring;
+import be.vinci.pae.main.ServerMonitoring;
+import be.vinci.pae.utils.CompressionStats;
+import jakarta.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AdminUCCImpl is a class that implements the AdminUCC interface. It gathers the runtime statistics
+ * exposed by the Data Access Layer (DAL) and by the HTTP server for the administration endpoints.
+ */
+public class AdminUCCImpl implements AdminUCC {
+
+  /**
+   * Instance of DALMonitoring for reading the statistics of the data access layer. Injected by the
+   * dependency injection framework.
+   */
+  @Inject
+  private DALMonitoring dalMonitoring;
+
+  /**
+   * Instance of CacheRegistry for reading the counters of the caches. Injected by the dependency
+   * injection framework.
+   */
+  @Inject
+  private CacheRegistry cacheRegistry;
+
+  /**
+   * Instance of PasswordHasher for reading the state of its pool of threads. Injected by the
+   * dependency injection framework.
+   */
+  @Inject
+  private PasswordHasher passwordHasher;
+
+  /**
+   * Instance of ServerMonitoring for reading the state of the threads of the HTTP server. Injected
+   * by the dependency injection framework.
+   */
+  @Inject
+  private ServerMonitoring serverMonitoring;
+
+  /**
+   * Instance of CompressionStats for reading the counters of the compression of the responses.
+   * Injected by the dependency injection framework.
+   */
+  @Inject
+  private CompressionStats compressionStats;
+
+  /**
+   * Get the runtime statistics of the database layer.
+   *
+   * @return the statistics of the connection pool, of the sessions and of the statement cache
+   */
+  @Override
+  public Map<String, Object> getDatabaseStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("connectionPool", dalMonitoring.getConnectionPoolStats());
+    stats.put("sessions", dalMonitoring.getSessionStats());
+    stats.put("statementCache", dalMonitoring.getStatementCacheStats());
+    return stats;
+  }
+
+  /**
+   * Get the timings of the SQL statements.
+   *
+   * @param limit the maximum number of SQL texts returned
+   * @return the percentiles, rows and parameter types of the most expensive SQL texts
+   */
+  @Override
+  public Map<String, Object> getStatementStats(int limit) {
+    return dalMonitoring.getStatementStats(limit);
+  }
+
+  /**
+   * Get the counters of the caches of the UCCs.
+   *
+   * @return the size, hits, misses, loads and evictions of each cache
+   */
+  @Override
+  public Map<String, Object> getCacheStats() {
+    return cacheRegistry.snapshot();
+  }
+
+  /**
+   * Get the state of the pool of threads hashing the passwords.
+   *
+   * @return the cost, queue, rejections and timings of the password hashing
+   */
+  @Override
+  public Map<String, Object> getPasswordHashStats() {
+    return passwordHasher.snapshot();
+  }
+
+  /**
+   * Get the state of the threads running the HTTP requests.
+   *
+   * @return the threads, queue, rejections and wait times of the worker pool, and the settings of
+   *     the server
+   */
+  @Override
+  public Map<String, Object> getServerStats() {
+    return serverMonitoring.getWorkerPoolStats();
+  }
+
+  /**
+   * Get the counters of the compression of the responses.
+   *
+   * @return the responses, bytes saved and compression time of each endpoint
+   */
+  @Override
+  public Map<String, Object> getCompressionStats() {
+    return compressionStats.snapshot();
+  }
+
+  /**
+   * Empty every cache of the UCCs.
+   */
+  @Override
+  public void clearCaches() {
+    cacheRegistry.invalidateAll();
+  }
+}
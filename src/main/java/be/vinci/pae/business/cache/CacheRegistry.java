@@ -0,0 +1,75 @@
+package be.vinci.pae.business.cache;
+
+import be.vinci.pae.utils.Config;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * The CacheRegistry class creates the caches of the UCCs and keeps them by name, so that a write
+ * path can invalidate a cache owned by another UCC and the administration endpoints can read their
+ * counters. The size and time to live of a cache are read from the Config class, from properties
+ * named after the cache: cacheEnterprisesMaxSize and cacheEnterprisesTtlSeconds for the
+ * enterprises cache, for example.
+ */
+public class CacheRegistry {
+
+  // The caches, by name
+  private final Map<String, VersionedCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a cache and registers it under its name, replacing any cache with the same name.
+   *
+   * @param name              the name of the cache
+   * @param defaultMaxSize    the maximum number of entries, unless configured
+   * @param defaultTtlSeconds the time to live of the entries in seconds, unless configured
+   * @param version           the version number of a value, or null if the values are not
+   *                          versioned
+   * @param <K>               the type of the keys
+   * @param <V>               the type of the values
+   * @return the new cache
+   */
+  public <K, V> VersionedCache<K, V> create(String name, long defaultMaxSize,
+      long defaultTtlSeconds, ToIntFunction<? super V> version) {
+    String prefix = "cache" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    VersionedCache<K, V> cache = new VersionedCache<>(name,
+        Config.getLongProperty(prefix + "MaxSize", defaultMaxSize),
+        Duration.ofSeconds(Config.getLongProperty(prefix + "TtlSeconds", defaultTtlSeconds)),
+        version);
+    caches.put(name, cache);
+    return cache;
+  }
+
+  /**
+   * Removes every value of a cache. Nothing is done if no cache has this name, which is the case
+   * when the UCC owning it is not cached.
+   *
+   * @param name the name of the cache
+   */
+  public void invalidate(String name) {
+    VersionedCache<?, ?> cache = caches.get(name);
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  /**
+   * Removes every value of every cache.
+   */
+  public void invalidateAll() {
+    caches.values().forEach(VersionedCache::invalidateAll);
+  }
+
+  /**
+   * Returns the counters of every cache, suitable for JSON serialization.
+   *
+   * @return the counters of each cache, by name
+   */
+  public Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new TreeMap<>();
+    caches.forEach((name, cache) -> snapshot.put(name, cache.snapshot()));
+    return snapshot;
+  }
+}
@@ -0,0 +1,186 @@
+package be.vinci.pae.business.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * The VersionedCache class is a bounded read-through cache of values read by the UCCs. It relies on
+ * Caffeine, whose W-TinyLFU eviction keeps the most frequently read entries when the cache is full,
+ * and drops the entries after a time to live.
+ *
+ * <p>Two rules keep the cache from serving stale values. When the values carry a version number,
+ * a value never replaces a cached value with a greater version, so a read that started before a
+ * write cannot overwrite what the write cached. And every invalidation increases a generation
+ * counter: a value read while an invalidation happened is not kept, as it may have been read
+ * before the write that caused the invalidation.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public final class VersionedCache<K, V> {
+
+  // The name of the cache
+  private final String name;
+
+  // The maximum number of entries and their time to live
+  private final long maxSize;
+  private final Duration timeToLive;
+
+  // The entries
+  private final Cache<K, V> cache;
+
+  // The version number of a value, null if the values are not versioned
+  private final ToIntFunction<? super V> version;
+
+  // Number of invalidations, read before and after loading a value
+  private final AtomicLong generation = new AtomicLong();
+
+  // Counters of the cache, besides the ones kept by Caffeine
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder discardedLoads = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  /**
+   * Creates a new cache.
+   *
+   * @param name       the name of the cache
+   * @param maxSize    the maximum number of entries
+   * @param timeToLive the time after which an entry is dropped
+   * @param version    the version number of a value, or null if the values are not versioned
+   */
+  VersionedCache(String name, long maxSize, Duration timeToLive,
+      ToIntFunction<? super V> version) {
+    this.name = name;
+    this.maxSize = maxSize;
+    this.timeToLive = timeToLive;
+    this.version = version;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(timeToLive)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the name of the cache.
+   *
+   * @return the name of the cache
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the cached value of a key, loading and caching it if it is not cached. A null value is
+   * returned as is and not cached.
+   *
+   * @param key    the key
+   * @param loader the loader reading the value, typically from the database
+   * @return the value of the key
+   */
+  public V get(K key, Supplier<? extends V> loader) {
+    V cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    long start = generation.get();
+    V loaded = loader.get();
+    loads.increment();
+    if (loaded == null) {
+      return null;
+    }
+    V current = cache.asMap().merge(key, loaded, this::newest);
+    if (generation.get() != start) {
+      // An invalidation happened during the load, the value may predate it
+      cache.asMap().remove(key, current);
+      discardedLoads.increment();
+      return loaded;
+    }
+    return current;
+  }
+
+  /**
+   * Returns the cached value of a key without loading it. The lookup is not counted as a hit or a
+   * miss, as it only tells which value the next read would return.
+   *
+   * @param key the key
+   * @return the cached value, or null if the key is not cached
+   */
+  public V peek(K key) {
+    return cache.asMap().get(key);
+  }
+
+  /**
+   * Caches the value of a key written by a UCC, unless a value with a greater version is already
+   * cached.
+   *
+   * @param key   the key
+   * @param value the written value
+   */
+  public void put(K key, V value) {
+    cache.asMap().merge(key, value, this::newest);
+  }
+
+  /**
+   * Removes the value of a key.
+   *
+   * @param key the key
+   */
+  public void invalidate(K key) {
+    generation.incrementAndGet();
+    invalidations.increment();
+    cache.invalidate(key);
+  }
+
+  /**
+   * Removes every value.
+   */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    invalidations.increment();
+    cache.invalidateAll();
+  }
+
+  /**
+   * Returns the newest of two values of a key, the new one if the values are not versioned.
+   *
+   * @param cached   the cached value
+   * @param incoming the incoming value
+   * @return the value to keep
+   */
+  private V newest(V cached, V incoming) {
+    if (version == null) {
+      return incoming;
+    }
+    return version.applyAsInt(incoming) >= version.applyAsInt(cached) ? incoming : cached;
+  }
+
+  /**
+   * Returns a snapshot of the counters of the cache, suitable for JSON serialization.
+   *
+   * @return the settings, size and counters of the cache
+   */
+  public Map<String, Object> snapshot() {
+    CacheStats stats = cache.stats();
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("maxSize", maxSize);
+    snapshot.put("timeToLiveSeconds", timeToLive.toSeconds());
+    snapshot.put("size", cache.estimatedSize());
+    snapshot.put("hits", stats.hitCount());
+    snapshot.put("misses", stats.missCount());
+    snapshot.put("hitRatio", stats.hitRate());
+    snapshot.put("loads", loads.sum());
+    snapshot.put("discardedLoads", discardedLoads.sum());
+    snapshot.put("invalidations", invalidations.sum());
+    snapshot.put("evictions", stats.evictionCount());
+    return snapshot;
+  }
+}
@@ -1,5 +1,7 @@
 package be.vinci.pae.business.contact;
 
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import java.util.List;
 
 /**
@@ -74,6 +76,15 @@ public interface ContactUCC {
    */
   List<ContactDTO> getEnterpriseContacts(int id);
 
+  /**
+   * Retrieves one page of the contacts associated with a specific enterprise.
+   *
+   * @param id      The unique identifier of the enterprise.
+   * @param request The requested page.
+   * @return The contacts of the page and the cursor of the next page.
+   */
+  Page<ContactDTO> getEnterpriseContactsPage(int id, PageRequest request);
+
   /**
    * Retrieves the contacts associated with a specific user.
    *
@@ -81,4 +92,13 @@ public interface ContactUCC {
    * @return The contacts related to the specified user.
    */
   List<ContactDTO> getUserContacts(int id);
+
+  /**
+   * Retrieves one page of the contacts associated with a specific user.
+   *
+   * @param id      The unique identifier of the user.
+   * @param request The requested page.
+   * @return The contacts of the page and the cursor of the next page.
+   */
+  Page<ContactDTO> getUserContactsPage(int id, PageRequest request);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package be.vinci.pae.business.contact;
 
 import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.contact.ContactDTO.Status;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.dal.DALServices;
@@ -51,6 +53,23 @@ public class ContactUCCImpl implements ContactUCC {
     }
   }
 
+  /**
+   * Retrieves one page of the contacts associated with a specific user.
+   *
+   * @param id      The unique identifier of the user.
+   * @param request The requested page.
+   * @return The contacts of the page and the cursor of the next page.
+   */
+  @Override
+  public Page<ContactDTO> getUserContactsPage(int id, PageRequest request) {
+    try {
+      dalServices.open();
+      return myContactDAO.getPageByUser(id, request);
+    } finally {
+      dalServices.close();
+    }
+  }
+
   /**
    * Creates a new contact for the specified user and enterprise IDs.
    *
@@ -231,6 +250,23 @@ public class ContactUCCImpl implements ContactUCC {
     }
   }
 
+  /**
+   * Retrieves one page of the contacts associated with a specific enterprise.
+   *
+   * @param id      The unique identifier of the enterprise.
+   * @param request The requested page.
+   * @return The contacts of the page and the cursor of the next page.
+   */
+  @Override
+  public Page<ContactDTO> getEnterpriseContactsPage(int id, PageRequest request) {
+    try {
+      dalServices.open();
+      return myContactDAO.getPageByEnterprise(id, request);
+    } finally {
+      dalServices.close();
+    }
+  }
+
   /**
    * Retrieves the contacts associated with a specific user. This method opens a connection to the
    * data access layer, fetches all contacts associated with the given user ID, and then closes the
@@ -0,0 +1,145 @@
+package be.vinci.pae.business.entreprise;
+
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
+import be.vinci.pae.business.cache.CacheRegistry;
+import be.vinci.pae.business.cache.VersionedCache;
+import be.vinci.pae.business.responsable.CachedResponsableStageUCC;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * CachedEnterpriseUCC is a decorator of EnterpriseUCCImpl that caches the enterprises read by id
+ * and the list of all the enterprises, which are read on every dashboard load but rarely change.
+ * The write paths keep the caches up to date: a created or blacklisted enterprise is cached with
+ * its new version number, which a concurrent read of an older version cannot replace, and the
+ * lists containing it are invalidated. The pages, statistics and streams are not cached.
+ *
+ * <p>The versions are taken from the cached values when there are some, so that they always
+ * describe what the next read returns, and read from the database otherwise.
+ */
+public class CachedEnterpriseUCC implements EnterpriseUCC {
+
+  /**
+   * Name of the cache of the enterprises, by id.
+   */
+  public static final String ENTERPRISES_CACHE = "enterprises";
+
+  /**
+   * Name of the cache of the list of all the enterprises.
+   */
+  public static final String LIST_CACHE = "enterpriseList";
+
+  // Key of the list of all the enterprises in its cache
+  private static final String ALL = "all";
+
+  /**
+   * Instance of EnterpriseUCCImpl reading and writing the enterprises. Injected by the dependency
+   * injection framework.
+   */
+  @Inject
+  private EnterpriseUCCImpl enterpriseUCC;
+
+  /**
+   * Instance of CacheRegistry creating the caches. Injected by the dependency injection framework.
+   */
+  @Inject
+  private CacheRegistry cacheRegistry;
+
+  // The enterprises, by id
+  private VersionedCache<Integer, EnterpriseDTO> enterprises;
+
+  // The list of all the enterprises
+  private VersionedCache<String, List<EnterpriseDTO>> list;
+
+  /**
+   * Creates the caches once the dependencies are injected.
+   */
+  @PostConstruct
+  void createCaches() {
+    enterprises = cacheRegistry.create(ENTERPRISES_CACHE, 10_000, 600,
+        EnterpriseDTO::getVersionNumber);
+    list = cacheRegistry.create(LIST_CACHE, 1, 300, null);
+  }
+
+  @Override
+  public EnterpriseDTO getEnterpriseInfo(int id) {
+    return enterprises.get(id, () -> enterpriseUCC.getEnterpriseInfo(id));
+  }
+
+  @Override
+  public Integer getEnterpriseVersion(int id) {
+    EnterpriseDTO cached = enterprises.peek(id);
+    if (cached != null) {
+      return cached.getVersionNumber();
+    }
+    return enterpriseUCC.getEnterpriseVersion(id);
+  }
+
+  @Override
+  public List<EnterpriseDTO> getAll() {
+    return list.get(ALL, () -> List.copyOf(enterpriseUCC.getAll()));
+  }
+
+  @Override
+  public CollectionVersion getListVersion() {
+    List<EnterpriseDTO> cached = list.peek(ALL);
+    if (cached != null) {
+      return CollectionVersion.of(cached, EnterpriseDTO::getIdEnterprise,
+          EnterpriseDTO::getVersionNumber);
+    }
+    return enterpriseUCC.getListVersion();
+  }
+
+  @Override
+  public void streamAll(Consumer<? super EnterpriseDTO> consumer) {
+    enterpriseUCC.streamAll(consumer);
+  }
+
+  @Override
+  public Page<EnterpriseDTO> getPage(PageRequest request) {
+    return enterpriseUCC.getPage(request);
+  }
+
+  @Override
+  public EnterpriseDTO addEnterprise(EnterpriseDTO enterprise) {
+    EnterpriseDTO created = enterpriseUCC.addEnterprise(enterprise);
+    enterprises.put(created.getIdEnterprise(), created);
+    list.invalidateAll();
+    return created;
+  }
+
+  /**
+   * Blacklist an enterprise, then caches it with its new version number. The lists of the
+   * enterprises and of the internship supervisors, which embed their enterprise, are invalidated.
+   *
+   * @param idEnterprise    the id of the enterprise
+   * @param blacklistReason the reason for blacklisting the enterprise
+   * @param versionNumber   the version number of the enterprise
+   * @return the enterprise information
+   */
+  @Override
+  public EnterpriseDTO blacklist(int idEnterprise, String blacklistReason, int versionNumber) {
+    EnterpriseDTO blacklisted;
+    try {
+      blacklisted = enterpriseUCC.blacklist(idEnterprise, blacklistReason, versionNumber);
+    } catch (RuntimeException e) {
+      // The cached enterprise may be the reason of the failure, such as an outdated version
+      enterprises.invalidate(idEnterprise);
+      throw e;
+    }
+    enterprises.put(idEnterprise, blacklisted);
+    list.invalidateAll();
+    cacheRegistry.invalidate(CachedResponsableStageUCC.LIST_CACHE);
+    return blacklisted;
+  }
+
+  @Override
+  public Map<Integer, Map<String, Integer>> getStats() {
+    return enterpriseUCC.getStats();
+  }
+}
@@ -1,8 +1,12 @@
 package be.vinci.pae.business.entreprise;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.exception.ConflictException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * EnterpriseUCC interface.
@@ -17,6 +21,14 @@ public interface EnterpriseUCC {
    */
   EnterpriseDTO getEnterpriseInfo(int id);
 
+  /**
+   * Get the version number of an enterprise, without reading the enterprise.
+   *
+   * @param id The id of the enterprise
+   * @return The version number of the enterprise, or null if it does not exist
+   */
+  Integer getEnterpriseVersion(int id);
+
   /**
    * Retrieves a list of all companies.
    *
@@ -24,6 +36,29 @@ public interface EnterpriseUCC {
    */
   List<EnterpriseDTO> getAll();
 
+  /**
+   * Get the version of the list of all companies, without reading the companies.
+   *
+   * @return The version of the list of all companies.
+   */
+  CollectionVersion getListVersion();
+
+  /**
+   * Reads all companies progressively, handing each one to a consumer as soon as it is read from
+   * the database.
+   *
+   * @param consumer The consumer receiving each enterprise.
+   */
+  void streamAll(Consumer<? super EnterpriseDTO> consumer);
+
+  /**
+   * Retrieves one page of the companies.
+   *
+   * @param request The requested page.
+   * @return The companies of the page and the cursor of the next page.
+   */
+  Page<EnterpriseDTO> getPage(PageRequest request);
+
   /**
    * Adds a new enterprise to the database. This method starts a transaction and checks if the
    * enterprise's email and trade name with designation already exist in the database. If they do,
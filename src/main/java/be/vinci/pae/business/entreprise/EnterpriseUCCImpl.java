@@ -1,5 +1,8 @@
 package be.vinci.pae.business.entreprise;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.enterprise.EnterpriseDAO;
 import be.vinci.pae.exception.ConflictException;
@@ -7,6 +10,7 @@ import be.vinci.pae.exception.ObjectNotFoundException;
 import jakarta.inject.Inject;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * EnterpriseUCCImpl is a class that implements the EnterpriseUCC interface. It provides the
@@ -47,6 +51,22 @@ public class EnterpriseUCCImpl implements EnterpriseUCC {
     }
   }
 
+  /**
+   * Get the version number of an enterprise.
+   *
+   * @param id the id of the enterprise
+   * @return the version number of the enterprise, or null if it does not exist
+   */
+  @Override
+  public Integer getEnterpriseVersion(int id) {
+    try {
+      dalServices.open();
+      return myEnterpriseDAO.getVersion(id);
+    } finally {
+      dalServices.close();
+    }
+  }
+
   /**
    * Get all enterprises.
    *
@@ -66,6 +86,55 @@ public class EnterpriseUCCImpl implements EnterpriseUCC {
     }
   }
 
+  /**
+   * Get the version of the list of all enterprises.
+   *
+   * @return the version of the list of all enterprises
+   */
+  @Override
+  public CollectionVersion getListVersion() {
+    try {
+      dalServices.open();
+      return myEnterpriseDAO.getListVersion();
+    } finally {
+      dalServices.close();
+    }
+  }
+
+  /**
+   * Stream all enterprises. The enterprises are read in a read-only transaction, which lets the
+   * database send them progressively instead of all at once.
+   *
+   * @param consumer the consumer receiving each enterprise
+   */
+  @Override
+  public void streamAll(Consumer<? super EnterpriseDTO> consumer) {
+    try {
+      dalServices.startReadOnlyTransaction();
+      myEnterpriseDAO.forEach(consumer);
+      dalServices.commit();
+    } catch (Exception e) {
+      dalServices.rollback();
+      throw e;
+    }
+  }
+
+  /**
+   * Retrieves one page of the enterprises.
+   *
+   * @param request the requested page
+   * @return the enterprises of the page and the cursor of the next page
+   */
+  @Override
+  public Page<EnterpriseDTO> getPage(PageRequest request) {
+    try {
+      dalServices.open();
+      return myEnterpriseDAO.getPage(request);
+    } finally {
+      dalServices.close();
+    }
+  }
+
   /**
    * Adds a new enterprise to the database. This method starts a transaction and checks if the
    * enterprise's email and trade name with designation already exist in the database. If they do,
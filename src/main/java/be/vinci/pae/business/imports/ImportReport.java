@@ -0,0 +1,112 @@
+package be.vinci.pae.business.imports;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ImportReport class describes the result of a bulk import: how many rows were read and
+ * imported, and why each rejected row was rejected.
+ */
+public class ImportReport {
+
+  // Number of rows read from the file, the header excluded
+  private final int totalRows;
+
+  // Number of rows inserted in the database
+  private final int importedRows;
+
+  // The rejected rows, in the order of the file
+  private final List<RowError> errors = new ArrayList<>();
+
+  /**
+   * Creates a report.
+   *
+   * @param totalRows    the number of rows read from the file, the header excluded
+   * @param importedRows the number of rows inserted in the database
+   * @param errors       the rejected rows, as a map from their line to the reason of the rejection,
+   *                     sorted by line
+   */
+  public ImportReport(int totalRows, int importedRows, Map<Integer, String> errors) {
+    this.totalRows = totalRows;
+    this.importedRows = importedRows;
+    errors.forEach((line, message) -> this.errors.add(new RowError(line, message)));
+  }
+
+  /**
+   * Returns the number of rows read from the file, the header excluded.
+   *
+   * @return the number of rows read
+   */
+  public int getTotalRows() {
+    return totalRows;
+  }
+
+  /**
+   * Returns the number of rows inserted in the database.
+   *
+   * @return the number of imported rows
+   */
+  public int getImportedRows() {
+    return importedRows;
+  }
+
+  /**
+   * Returns the number of rejected rows.
+   *
+   * @return the number of rejected rows
+   */
+  public int getRejectedRows() {
+    return errors.size();
+  }
+
+  /**
+   * Returns the rejected rows, in the order of the file.
+   *
+   * @return the rejected rows
+   */
+  public List<RowError> getErrors() {
+    return errors;
+  }
+
+  /**
+   * A rejected row of the imported file.
+   */
+  public static class RowError {
+
+    // The line of the row in the file
+    private final int line;
+
+    // The reason of the rejection
+    private final String message;
+
+    /**
+     * Creates a rejected row.
+     *
+     * @param line    the line of the row in the file
+     * @param message the reason of the rejection
+     */
+    public RowError(int line, String message) {
+      this.line = line;
+      this.message = message;
+    }
+
+    /**
+     * Returns the line of the row in the file.
+     *
+     * @return the line of the row
+     */
+    public int getLine() {
+      return line;
+    }
+
+    /**
+     * Returns the reason of the rejection.
+     *
+     * @return the reason of the rejection
+     */
+    public String getMessage() {
+      return message;
+    }
+  }
+}
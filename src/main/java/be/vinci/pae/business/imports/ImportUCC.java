@@ -0,0 +1,36 @@
+package be.vinci.pae.business.imports;
+
+import be.vinci.pae.exception.WrongBodyDataException;
+import java.io.InputStream;
+
+/**
+ * ImportUCC interface.
+ */
+public interface ImportUCC {
+
+  /**
+   * Imports enterprises from a CSV file. The first line of the file names the columns: tradeName,
+   * designation, phoneNumber, email, street, streetNumber, postalCode, city and country. The rows
+   * are validated and loaded one at a time, the file is never held in memory. The invalid rows and
+   * the rows conflicting with existing enterprises are rejected, the other ones are imported.
+   *
+   * @param csv       the content of the CSV file
+   * @param delimiter the character separating the fields
+   * @return the report of the import
+   * @throws WrongBodyDataException if a column is missing or the file is not valid CSV
+   */
+  ImportReport importEnterprises(InputStream csv, char delimiter);
+
+  /**
+   * Imports internship supervisors from a CSV file. The first line of the file names the columns:
+   * lastName, firstName, email, phoneNumber and enterprise, the id of the enterprise of the
+   * supervisor. The invalid rows, the rows whose enterprise does not exist and the rows whose email
+   * already exists are rejected, the other ones are imported.
+   *
+   * @param csv       the content of the CSV file
+   * @param delimiter the character separating the fields
+   * @return the report of the import
+   * @throws WrongBodyDataException if a column is missing or the file is not valid CSV
+   */
+  ImportReport importResponsableStages(InputStream csv, char delimiter);
+}
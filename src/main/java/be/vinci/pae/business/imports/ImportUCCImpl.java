@@ -0,0 +1,321 @@
+package be.vinci.pae.business.imports;
+
+import be.vinci.pae.business.cache.CacheRegistry;
+import be.vinci.pae.business.entreprise.CachedEnterpriseUCC;
+import be.vinci.pae.business.responsable.CachedResponsableStageUCC;
+import be.vinci.pae.dal.DALServices;
+import be.vinci.pae.dal.imports.ImportDAO;
+import be.vinci.pae.dal.imports.ImportSink;
+import be.vinci.pae.exception.FatalException;
+import be.vinci.pae.exception.WrongBodyDataException;
+import be.vinci.pae.logger.Log4J;
+import be.vinci.pae.utils.Config;
+import be.vinci.pae.utils.CsvReader;
+import be.vinci.pae.utils.Util;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * ImportUCCImpl is a class that implements the ImportUCC interface. It reads the CSV files one row
+ * at a time, validates each row with the same rules as the single creation endpoints, and streams
+ * the valid rows to the Data Access Layer (DAL), which merges them into the database. The whole
+ * import runs in a single transaction, after which the cached lists of the imported entities are
+ * invalidated.
+ *
+ * <p>The upload is first spooled to a temporary file, bounded in size by importMaxSize and in
+ * duration by importMaxReadMillis, so that a slow client never holds a connection, a transaction
+ * or a staging table of the database. The transaction only starts once the whole file is received.
+ */
+public class ImportUCCImpl implements ImportUCC {
+
+  // Columns of the enterprise files, in the order expected by the ImportDAO
+  private static final String[] ENTERPRISE_COLUMNS = {"tradeName", "designation", "phoneNumber",
+      "email", "street", "streetNumber", "postalCode", "city", "country"};
+
+  // Columns of the internship supervisor files, in the order expected by the ImportDAO
+  private static final String[] RESPONSABLE_COLUMNS = {"lastName", "firstName", "email",
+      "phoneNumber", "enterprise"};
+
+  // Default maximum size of an uploaded file, in bytes
+  private static final long DEFAULT_MAX_SIZE = 10L * 1024 * 1024;
+
+  // Default maximum duration of the upload of a file, in milliseconds
+  private static final long DEFAULT_MAX_READ_MILLIS = 60_000;
+
+  // Size of the buffer used to spool the uploaded files
+  private static final int SPOOL_BUFFER_SIZE = 8_192;
+
+  // Format of a valid email
+  private static final Pattern EMAIL_PATTERN = Pattern.compile(
+      "^[A-Za-z0-9_.+-]+@[A-Za-z0-9-]+\\.[A-Za-z0-9-.]+[A-Za-z]+$");
+
+  /**
+   * Instance of ImportDAO for loading the rows in the database. Injected by the dependency
+   * injection framework.
+   */
+  @Inject
+  private ImportDAO importDAO;
+
+  /**
+   * Instance of DALServices for performing operations related to the data access layer. Injected by
+   * the dependency injection framework.
+   */
+  @Inject
+  private DALServices dalServices;
+
+  /**
+   * Instance of CacheRegistry for invalidating the cached lists once the rows are imported.
+   * Injected by the dependency injection framework.
+   */
+  @Inject
+  private CacheRegistry cacheRegistry;
+
+  @Override
+  public ImportReport importEnterprises(InputStream csv, char delimiter) {
+    ImportReport report = importRows(csv, delimiter, ENTERPRISE_COLUMNS,
+        ImportUCCImpl::validateEnterprise, importDAO::startEnterpriseImport,
+        importDAO::mergeEnterprises);
+    cacheRegistry.invalidate(CachedEnterpriseUCC.LIST_CACHE);
+    return report;
+  }
+
+  @Override
+  public ImportReport importResponsableStages(InputStream csv, char delimiter) {
+    ImportReport report = importRows(csv, delimiter, RESPONSABLE_COLUMNS,
+        ImportUCCImpl::validateResponsable, importDAO::startResponsableStageImport,
+        importDAO::mergeResponsableStages);
+    cacheRegistry.invalidate(CachedResponsableStageUCC.LIST_CACHE);
+    return report;
+  }
+
+  /**
+   * Imports the rows of a CSV file. The header is matched against the expected columns, then each
+   * row is validated and either rejected or streamed to the staging table. Once the file is read,
+   * the staged rows are merged and the rows rejected by the merge are added to the report.
+   *
+   * @param csv       the content of the CSV file
+   * @param delimiter the character separating the fields
+   * @param columns   the expected columns, in the order of the staging table
+   * @param validator the validation of a row, returning the reason of its rejection or null
+   * @param start     the creation of the staging table
+   * @param merge     the merge of the staged rows
+   * @return the report of the import
+   */
+  private ImportReport importRows(InputStream csv, char delimiter, String[] columns,
+      Function<String[], String> validator, Supplier<ImportSink> start,
+      Supplier<SortedMap<Integer, String>> merge) {
+    Path file = spool(csv);
+    try (CsvReader reader = new CsvReader(
+        new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), delimiter)) {
+      return importRows(reader, columns, validator, start, merge);
+    } catch (IOException e) {
+      throw new FatalException(e);
+    } finally {
+      delete(file);
+    }
+  }
+
+  /**
+   * Imports the rows of a spooled CSV file.
+   *
+   * @param reader    the reader of the spooled file
+   * @param columns   the expected columns, in the order of the staging table
+   * @param validator the validation of a row, returning the reason of its rejection or null
+   * @param start     the creation of the staging table
+   * @param merge     the merge of the staged rows
+   * @return the report of the import
+   */
+  private ImportReport importRows(CsvReader reader, String[] columns,
+      Function<String[], String> validator, Supplier<ImportSink> start,
+      Supplier<SortedMap<Integer, String>> merge) {
+    int[] positions;
+    try {
+      positions = locateColumns(reader.next(), columns);
+    } catch (IOException e) {
+      throw new WrongBodyDataException("Invalid CSV file: " + e.getMessage());
+    }
+    SortedMap<Integer, String> errors = new TreeMap<>();
+    ImportSink sink = null;
+    try {
+      dalServices.startTransaction();
+      sink = start.get();
+      int total = 0;
+      List<String> fields;
+      while ((fields = reader.next()) != null) {
+        total++;
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+          String value = positions[i] < fields.size() ? fields.get(positions[i]).trim() : "";
+          values[i] = value.isEmpty() ? null : value;
+        }
+        String error = validator.apply(values);
+        if (error != null) {
+          errors.put(reader.getRecordLine(), error);
+        } else {
+          sink.write(reader.getRecordLine(), values);
+        }
+      }
+      final long staged = sink.finish();
+      sink = null;
+      SortedMap<Integer, String> rejected = merge.get();
+      dalServices.commit();
+      errors.putAll(rejected);
+      return new ImportReport(total, (int) staged - rejected.size(), errors);
+    } catch (IOException e) {
+      cancel(sink);
+      throw new WrongBodyDataException("Invalid CSV file: " + e.getMessage());
+    } catch (RuntimeException e) {
+      cancel(sink);
+      throw e;
+    }
+  }
+
+  /**
+   * Copies an upload to a temporary file. The upload is rejected as soon as it exceeds
+   * importMaxSize bytes or has been read for longer than importMaxReadMillis, the time being
+   * checked each time a block of the upload is received.
+   *
+   * @param csv the uploaded file
+   * @return the temporary file holding the whole upload
+   * @throws WrongBodyDataException if the upload is too large, too slow or interrupted
+   */
+  private static Path spool(InputStream csv) {
+    long maxSize = Config.getLongProperty("importMaxSize", DEFAULT_MAX_SIZE);
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+        Config.getLongProperty("importMaxReadMillis", DEFAULT_MAX_READ_MILLIS));
+    Path file;
+    try {
+      file = Files.createTempFile("import-", ".csv");
+    } catch (IOException e) {
+      throw new FatalException(e);
+    }
+    try (OutputStream output = Files.newOutputStream(file)) {
+      byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+      long size = 0;
+      int read;
+      while ((read = csv.read(buffer)) != -1) {
+        size += read;
+        if (size > maxSize) {
+          throw new WrongBodyDataException("The file exceeds " + maxSize + " bytes");
+        }
+        if (System.nanoTime() - deadline > 0) {
+          throw new WrongBodyDataException("The upload of the file took too long");
+        }
+        output.write(buffer, 0, read);
+      }
+      return file;
+    } catch (IOException e) {
+      delete(file);
+      throw new WrongBodyDataException("Unable to read the file: " + e.getMessage());
+    } catch (RuntimeException e) {
+      delete(file);
+      throw e;
+    }
+  }
+
+  /**
+   * Deletes a spooled file.
+   *
+   * @param file the spooled file
+   */
+  private static void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      Log4J.LOGGER.warn("Unable to delete the spooled file " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Cancels the running COPY operation, if any, and rolls back the transaction.
+   *
+   * @param sink the sink of the running COPY operation, or null
+   */
+  private void cancel(ImportSink sink) {
+    if (sink != null) {
+      sink.cancel();
+    }
+    dalServices.rollback();
+  }
+
+  /**
+   * Finds the position of each expected column in the header of the file. The names are compared
+   * without regard to case.
+   *
+   * @param header  the fields of the header, null if the file is empty
+   * @param columns the expected columns
+   * @return the position of each expected column in the rows
+   * @throws WrongBodyDataException if the file is empty or a column is missing
+   */
+  private static int[] locateColumns(List<String> header, String[] columns) {
+    if (header == null) {
+      throw new WrongBodyDataException("The file is empty");
+    }
+    List<String> names = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+    int[] positions = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      positions[i] = names.indexOf(columns[i].toLowerCase(Locale.ROOT));
+      if (positions[i] < 0) {
+        throw new WrongBodyDataException("Missing column " + columns[i]);
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Validates a row of an enterprise file.
+   *
+   * @param values the values of the row, in the order of ENTERPRISE_COLUMNS
+   * @return the reason of the rejection of the row, or null if it is valid
+   */
+  private static String validateEnterprise(String[] values) {
+    for (int i : new int[]{0, 4, 5, 6, 7, 8}) {
+      if (Util.checkEmptyString(values[i])) {
+        return "Missing " + ENTERPRISE_COLUMNS[i];
+      }
+    }
+    if (values[3] != null && !EMAIL_PATTERN.matcher(values[3]).matches()) {
+      return "Wrong email format";
+    }
+    return null;
+  }
+
+  /**
+   * Validates a row of an internship supervisor file.
+   *
+   * @param values the values of the row, in the order of RESPONSABLE_COLUMNS
+   * @return the reason of the rejection of the row, or null if it is valid
+   */
+  private static String validateResponsable(String[] values) {
+    for (int i : new int[]{0, 1, 3, 4}) {
+      if (Util.checkEmptyString(values[i])) {
+        return "Missing " + RESPONSABLE_COLUMNS[i];
+      }
+    }
+    if (values[2] != null && !EMAIL_PATTERN.matcher(values[2]).matches()) {
+      return "Wrong email format";
+    }
+    try {
+      if (Integer.parseInt(values[4]) < 1) {
+        return "Invalid enterprise id";
+      }
+    } catch (NumberFormatException e) {
+      return "Invalid enterprise id";
+    }
+    return null;
+  }
+}
@@ -0,0 +1,85 @@
+package be.vinci.pae.business.responsable;
+
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
+import be.vinci.pae.business.cache.CacheRegistry;
+import be.vinci.pae.business.cache.VersionedCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * CachedResponsableStageUCC is a decorator of ResponsableStageUCCImpl that caches the list of all
+ * the internship supervisors. The list is invalidated when a supervisor is created, and by the
+ * other write paths changing it through the CacheRegistry, such as the blacklisting of an
+ * enterprise or an import. The pages and streams are not cached.
+ */
+public class CachedResponsableStageUCC implements ResponsableStageUCC {
+
+  /**
+   * Name of the cache of the list of all the internship supervisors.
+   */
+  public static final String LIST_CACHE = "responsableStageList";
+
+  // Key of the list of all the internship supervisors in its cache
+  private static final String ALL = "all";
+
+  // Instance of ResponsableStageUCCImpl reading and writing the internship supervisors
+  @Inject
+  private ResponsableStageUCCImpl responsableStageUCC;
+
+  // Instance of CacheRegistry creating the caches
+  @Inject
+  private CacheRegistry cacheRegistry;
+
+  // The list of all the internship supervisors
+  private VersionedCache<String, List<ResponsableStageDTO>> list;
+
+  /**
+   * Creates the cache once the dependencies are injected.
+   */
+  @PostConstruct
+  void createCaches() {
+    list = cacheRegistry.create(LIST_CACHE, 1, 300, null);
+  }
+
+  @Override
+  public ResponsableStageDTO createResponsableStage(ResponsableStageDTO responsableStageDTO) {
+    ResponsableStageDTO created = responsableStageUCC.createResponsableStage(responsableStageDTO);
+    list.invalidateAll();
+    return created;
+  }
+
+  @Override
+  public List<ResponsableStageDTO> getAllResponsableStage() {
+    return list.get(ALL, () -> List.copyOf(responsableStageUCC.getAllResponsableStage()));
+  }
+
+  /**
+   * Get the version of the list of all the internship supervisors, computed from the cached list
+   * if there is one, so that it describes the list the next read returns.
+   *
+   * @return the version of the list of all the internship supervisors
+   */
+  @Override
+  public CollectionVersion getListVersion() {
+    List<ResponsableStageDTO> cached = list.peek(ALL);
+    if (cached != null) {
+      return CollectionVersion.of(cached, ResponsableStageDTO::getResponsableId,
+          responsable -> responsable.getEnterpriseDTO().getVersionNumber());
+    }
+    return responsableStageUCC.getListVersion();
+  }
+
+  @Override
+  public void streamAllResponsableStage(Consumer<? super ResponsableStageDTO> consumer) {
+    responsableStageUCC.streamAllResponsableStage(consumer);
+  }
+
+  @Override
+  public Page<ResponsableStageDTO> getResponsableStagePage(PageRequest request) {
+    return responsableStageUCC.getResponsableStagePage(request);
+  }
+}
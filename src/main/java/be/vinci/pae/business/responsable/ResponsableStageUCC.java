@@ -1,6 +1,10 @@
 package be.vinci.pae.business.responsable;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * ResponsableStageUCC interface. This interface provides methods for creating a new internship
@@ -22,4 +26,27 @@ public interface ResponsableStageUCC {
    * @return the internship supervisor
    */
   List<ResponsableStageDTO> getAllResponsableStage();
+
+  /**
+   * Get the version of the list of all the internship supervisors, without reading them.
+   *
+   * @return the version of the list of all the internship supervisors
+   */
+  CollectionVersion getListVersion();
+
+  /**
+   * Read all the internship supervisors progressively, handing each one to a consumer as soon as it
+   * is read from the database.
+   *
+   * @param consumer the consumer receiving each internship supervisor
+   */
+  void streamAllResponsableStage(Consumer<? super ResponsableStageDTO> consumer);
+
+  /**
+   * Retrieves one page of the internship supervisors.
+   *
+   * @param request the requested page
+   * @return the internship supervisors of the page and the cursor of the next page
+   */
+  Page<ResponsableStageDTO> getResponsableStagePage(PageRequest request);
 }
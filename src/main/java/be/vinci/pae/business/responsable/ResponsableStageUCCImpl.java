@@ -1,6 +1,9 @@
 package be.vinci.pae.business.responsable;
 
+import be.vinci.pae.business.CollectionVersion;
 import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.enterprise.EnterpriseDAO;
@@ -8,6 +11,7 @@ import be.vinci.pae.dal.responsable.ResponsableStageDAO;
 import be.vinci.pae.exception.ObjectNotFoundException;
 import jakarta.inject.Inject;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * ResponsableStageUCCImpl is a class that implements the ResponsableStageUCC interface. It provides
@@ -76,4 +80,53 @@ public class ResponsableStageUCCImpl implements ResponsableStageUCC {
       dalServices.close();
     }
   }
+
+  /**
+   * Get the version of the list of all the internship supervisors.
+   *
+   * @return the version of the list of all the internship supervisors
+   */
+  @Override
+  public CollectionVersion getListVersion() {
+    try {
+      dalServices.open();
+      return responsableStageDAO.getListVersion();
+    } finally {
+      dalServices.close();
+    }
+  }
+
+  /**
+   * Read all the internship supervisors progressively, in a read-only transaction that lets the
+   * database send them progressively instead of all at once.
+   *
+   * @param consumer the consumer receiving each internship supervisor
+   */
+  @Override
+  public void streamAllResponsableStage(Consumer<? super ResponsableStageDTO> consumer) {
+    try {
+      dalServices.startReadOnlyTransaction();
+      responsableStageDAO.forEach(consumer);
+      dalServices.commit();
+    } catch (Exception e) {
+      dalServices.rollback();
+      throw e;
+    }
+  }
+
+  /**
+   * Retrieves one page of the internship supervisors.
+   *
+   * @param request the requested page
+   * @return the internship supervisors of the page and the cursor of the next page
+   */
+  @Override
+  public Page<ResponsableStageDTO> getResponsableStagePage(PageRequest request) {
+    try {
+      dalServices.open();
+      return responsableStageDAO.getPage(request);
+    } finally {
+      dalServices.close();
+    }
+  }
 }
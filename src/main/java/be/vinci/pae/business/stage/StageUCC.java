@@ -16,6 +16,14 @@ public interface StageUCC {
    */
   StageDTO getOne(int id);
 
+  /**
+   * This method is used to retrieve the version of a stage by its id, without reading the stage.
+   *
+   * @param id The id of the stage.
+   * @return The version of the stage, or null if no stage is found.
+   */
+  String getVersion(int id);
+
   /**
    * This method is used to create a stage in the database.
    *
@@ -61,6 +61,22 @@ public class StageUCCImpl implements StageUCC {
     }
   }
 
+  /**
+   * This method is used to retrieve the version of a stage by its id.
+   *
+   * @param id The id of the stage.
+   * @return The version of the stage, or null if no stage is found.
+   */
+  @Override
+  public String getVersion(int id) {
+    try {
+      dalServices.open();
+      return stageDAO.getVersion(id);
+    } finally {
+      dalServices.close();
+    }
+  }
+
   /**
    * This method is used to create a stage in the database.
    *
@@ -129,47 +145,50 @@ public class StageUCCImpl implements StageUCC {
   /**
    * Retrieves a list of school years without a stage. This method opens a connection to the
    * database, retrieves a list of school years without a stage from the StageDAO, and then closes
-   * the connection. If an exception occurs during this process, the connection is closed before the
-   * exception is propagated.
+   * the connection before computing the statistics. If an exception occurs during this process, the
+   * connection is closed before the exception is propagated.
    *
    * @return A list of school years without a stage.
    */
   @Override
   public Map<String, Map<String, Integer>> getStatsStages() {
+    List<String> yearsWithoutStage;
+    Map<String, Integer> statsStages;
     try {
       dalServices.open();
-      Map<String, Map<String, Integer>> stats = new HashMap<>();
-      List<String> yearsWithoutStage = stageDAO.getStudentsWithoutStage();
-      Map<String, Integer> statsStages = stageDAO.getNumberStagesBySchoolYear();
-      AtomicInteger withStage = new AtomicInteger();
-      statsStages.forEach((key, value) -> {
-        withStage.addAndGet(value);
-        stats.put(key, new HashMap<>());
-        stats.get(key).put("withStage", value);
-        stats.get(key).put("withoutStage", 0);
-      });
-      AtomicInteger withoutStage = new AtomicInteger();
-      yearsWithoutStage.forEach(year -> {
-        if (year.split(" ")[1].equals("null")) {
-          withoutStage.addAndGet(1);
-        }
-        List<String> l = getAllSchoolYears(year);
-        l.forEach(y -> {
-          if (!stats.containsKey(y)) {
-            stats.put(y, new HashMap<>());
-            stats.get(y).put("withStage", 0);
-          }
-          stats.get(y).put("withoutStage", stats.get(y).getOrDefault("withoutStage", 0) + 1);
-        });
-      });
-      Map<String, Integer> allYears = new HashMap<>();
-      allYears.put("withStage", withStage.get());
-      allYears.put("withoutStage", withoutStage.get());
-      stats.put("allYears", allYears);
-      return stats;
+      yearsWithoutStage = stageDAO.getStudentsWithoutStage();
+      statsStages = stageDAO.getNumberStagesBySchoolYear();
     } finally {
       dalServices.close();
     }
+    // The statistics are computed once the connection is given back
+    Map<String, Map<String, Integer>> stats = new HashMap<>();
+    AtomicInteger withStage = new AtomicInteger();
+    statsStages.forEach((key, value) -> {
+      withStage.addAndGet(value);
+      stats.put(key, new HashMap<>());
+      stats.get(key).put("withStage", value);
+      stats.get(key).put("withoutStage", 0);
+    });
+    AtomicInteger withoutStage = new AtomicInteger();
+    yearsWithoutStage.forEach(year -> {
+      if (year.split(" ")[1].equals("null")) {
+        withoutStage.addAndGet(1);
+      }
+      List<String> l = getAllSchoolYears(year);
+      l.forEach(y -> {
+        if (!stats.containsKey(y)) {
+          stats.put(y, new HashMap<>());
+          stats.get(y).put("withStage", 0);
+        }
+        stats.get(y).put("withoutStage", stats.get(y).getOrDefault("withoutStage", 0) + 1);
+      });
+    });
+    Map<String, Integer> allYears = new HashMap<>();
+    allYears.put("withStage", withStage.get());
+    allYears.put("withoutStage", withoutStage.get());
+    stats.put("allYears", allYears);
+    return stats;
   }
 
   /**
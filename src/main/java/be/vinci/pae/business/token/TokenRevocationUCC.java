@@ -0,0 +1,33 @@
+package be.vinci.pae.business.token;
+
+import java.time.Instant;
+
+/**
+ * TokenRevocationUCC interface.
+ */
+public interface TokenRevocationUCC {
+
+  /**
+   * Revokes a token, which is then rejected until it expires.
+   *
+   * @param jti       the id of the token
+   * @param expiresAt the expiration of the token
+   */
+  void revoke(String jti, Instant expiresAt);
+
+  /**
+   * Tells whether a token was revoked. The revoked tokens are kept in memory, so that this method
+   * never goes to the database.
+   *
+   * @param jti the id of the token
+   * @return true if the token was revoked, false otherwise
+   */
+  boolean isRevoked(String jti);
+
+  /**
+   * Deletes the revoked tokens which have expired and reloads the others from the database.
+   *
+   * @return the number of deleted tokens
+   */
+  int compact();
+}
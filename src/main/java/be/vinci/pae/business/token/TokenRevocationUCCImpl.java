@@ -0,0 +1,183 @@
+package be.vinci.pae.business.token;
+
+import be.vinci.pae.dal.DALServices;
+import be.vinci.pae.dal.token.RevokedTokenDAO;
+import be.vinci.pae.logger.Log4J;
+import be.vinci.pae.utils.BloomFilter;
+import be.vinci.pae.utils.Config;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * TokenRevocationUCCImpl is a class that implements the TokenRevocationUCC interface. The revoked
+ * tokens are stored in the database and kept in memory, in a Bloom filter and in an exact set. The
+ * authorization filter checks each request against the Bloom filter, which answers in a few
+ * nanoseconds that almost every token was not revoked, and looks at the exact set only when the
+ * filter answers that a token may have been revoked.
+ *
+ * <p>The memory is loaded from the database at startup and every tokenRevocationCompactionMinutes,
+ * when the expired tokens are deleted. A token revoked by another instance of the server is only
+ * known after the next compaction.
+ */
+public class TokenRevocationUCCImpl implements TokenRevocationUCC {
+
+  // Probability that the Bloom filter sends a token which was not revoked to the exact set
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  // Instance of RevokedTokenDAO for interacting with the database
+  @Inject
+  private RevokedTokenDAO myRevokedTokenDAO;
+
+  // Instance of DALServices for performing common DAL operations
+  @Inject
+  private DALServices dalServices;
+
+  // Number of revoked tokens the Bloom filter is sized for
+  private int expectedTokens;
+
+  // The revoked tokens kept in memory, replaced as a whole when they are reloaded
+  private volatile Revocations revocations;
+
+  // Lock ordering the writes of the revoked tokens, which do not pin a virtual thread
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  /**
+   * Loads the revoked tokens and schedules their compaction.
+   */
+  @PostConstruct
+  void init() {
+    expectedTokens = Config.getIntProperty("tokenRevocationExpected", 10_000);
+    revocations = new Revocations(Map.of(), expectedTokens);
+    try {
+      compact();
+    } catch (RuntimeException e) {
+      Log4J.LOGGER.error("Unable to load the revoked tokens", e);
+    }
+    long minutes = Config.getLongProperty("tokenRevocationCompactionMinutes", 60);
+    if (minutes <= 0) {
+      return;
+    }
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "token-revocation-compaction");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        int deleted = compact();
+        Log4J.LOGGER.info("Token revocation list compacted: {} expired tokens deleted", deleted);
+      } catch (RuntimeException e) {
+        Log4J.LOGGER.error("Unable to compact the revoked tokens", e);
+      }
+    }, minutes, minutes, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Revokes a token. It is stored in the database before being added to the memory, so that a
+   * revocation which failed is never reported as done.
+   *
+   * @param jti       the id of the token
+   * @param expiresAt the expiration of the token
+   */
+  @Override
+  public void revoke(String jti, Instant expiresAt) {
+    writeLock.lock();
+    try {
+      try {
+        dalServices.startTransaction();
+        myRevokedTokenDAO.createOne(jti, expiresAt);
+        dalServices.commit();
+      } catch (Exception e) {
+        dalServices.rollback();
+        throw e;
+      }
+      Revocations current = revocations;
+      if (current.tokens.size() >= current.capacity) {
+        // The filter is full: a larger one keeps its false positives rare
+        Map<String, Instant> tokens = new ConcurrentHashMap<>(current.tokens);
+        tokens.put(jti, expiresAt);
+        revocations = new Revocations(tokens, expectedTokens);
+      } else {
+        current.tokens.put(jti, expiresAt);
+        current.bloom.add(jti);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Tells whether a token was revoked, from the Bloom filter and then from the exact set.
+   *
+   * @param jti the id of the token
+   * @return true if the token was revoked, false otherwise
+   */
+  @Override
+  public boolean isRevoked(String jti) {
+    Revocations current = revocations;
+    return current.bloom.mightContain(jti) && current.tokens.containsKey(jti);
+  }
+
+  /**
+   * Deletes the expired tokens from the database and replaces the memory by the remaining ones.
+   *
+   * @return the number of deleted tokens
+   */
+  @Override
+  public int compact() {
+    writeLock.lock();
+    try {
+      Instant now = Instant.now();
+      int deleted;
+      Map<String, Instant> tokens;
+      try {
+        dalServices.startTransaction();
+        deleted = myRevokedTokenDAO.deleteExpired(now);
+        tokens = myRevokedTokenDAO.getAllActive(now);
+        dalServices.commit();
+      } catch (Exception e) {
+        dalServices.rollback();
+        throw e;
+      }
+      revocations = new Revocations(tokens, expectedTokens);
+      return deleted;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * The revoked tokens kept in memory, and the Bloom filter of their ids.
+   */
+  private static final class Revocations {
+
+    // The expiration of each revoked token, by id
+    private final Map<String, Instant> tokens;
+
+    // The filter of the ids of the tokens
+    private final BloomFilter bloom;
+
+    // Number of tokens the filter is sized for
+    private final int capacity;
+
+    /**
+     * Builds the filter of a set of tokens, sized for at least twice their number.
+     *
+     * @param tokens   the expiration of each revoked token, by id
+     * @param expected the minimum number of tokens the filter is sized for
+     */
+    private Revocations(Map<String, Instant> tokens, int expected) {
+      this.tokens = new ConcurrentHashMap<>(tokens);
+      this.capacity = Math.max(expected, 2 * tokens.size());
+      this.bloom = new BloomFilter(capacity, FALSE_POSITIVE_PROBABILITY);
+      tokens.keySet().forEach(bloom::add);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package be.vinci.pae.business.user;
+
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
+import be.vinci.pae.business.cache.CacheRegistry;
+import be.vinci.pae.business.cache.VersionedCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * CachedUserUCC is a decorator of UserUCCImpl that caches the users read by id. The authorization
+ * filter reads the authenticated user on every request, so each hit of the cache is a database
+ * round trip saved. The entries live for a short time, and the write paths cache the user they
+ * wrote with its new version number, or drop it when the write fails.
+ *
+ * <p>The callers modify the users they receive, the resources for example set the new data of a
+ * user on the authenticated one before saving it. The cache thus keeps its own copies and hands out
+ * a new copy on each read.
+ */
+public class CachedUserUCC implements UserUCC {
+
+  /**
+   * Name of the cache of the users, by id.
+   */
+  public static final String USERS_CACHE = "users";
+
+  // Instance of UserUCCImpl reading and writing the users
+  @Inject
+  private UserUCCImpl userUCC;
+
+  // Instance of CacheRegistry creating the caches
+  @Inject
+  private CacheRegistry cacheRegistry;
+
+  // Instance of DomainFactory creating the copies of the users
+  @Inject
+  private DomainFactory domainFactory;
+
+  // The users, by id
+  private VersionedCache<Integer, UserDTO> users;
+
+  /**
+   * Creates the cache once the dependencies are injected.
+   */
+  @PostConstruct
+  void createCaches() {
+    users = cacheRegistry.create(USERS_CACHE, 10_000, 30, UserDTO::getVersionNumber);
+  }
+
+  /**
+   * Authenticates a user, and caches it as the next request will most likely read it.
+   *
+   * @param email    The email of the user to authenticate.
+   * @param password The password of the user to authenticate.
+   * @return the authenticated user
+   */
+  @Override
+  public UserDTO login(String email, String password) {
+    UserDTO user = userUCC.login(email, password);
+    if (user != null) {
+      users.put(user.getIdUser(), copy(user));
+    }
+    return user;
+  }
+
+  @Override
+  public UserDTO refreshUser(int id) {
+    return copy(users.get(id, () -> copy(userUCC.refreshUser(id))));
+  }
+
+  /**
+   * Returns the version number of the cached user, without copying it, or reads it when the user
+   * is not cached.
+   *
+   * @param id the id of the user
+   * @return the version number of the user, or null if it does not exist
+   */
+  @Override
+  public Integer getUserVersion(int id) {
+    UserDTO cached = users.peek(id);
+    return cached != null ? cached.getVersionNumber() : userUCC.getUserVersion(id);
+  }
+
+  @Override
+  public UserDTO register(UserDTO user) {
+    UserDTO registered = userUCC.register(user);
+    users.put(registered.getIdUser(), copy(registered));
+    return registered;
+  }
+
+  @Override
+  public UserDTO editData(UserDTO user, String password, String newPassword, int versionNumber) {
+    UserDTO edited;
+    try {
+      edited = userUCC.editData(user, password, newPassword, versionNumber);
+    } catch (RuntimeException e) {
+      // The cached user may be outdated, which is a reason for the write to fail
+      users.invalidate(user.getIdUser());
+      throw e;
+    }
+    users.put(edited.getIdUser(), copy(edited));
+    return edited;
+  }
+
+  @Override
+  public List<UserDTO> getAllUsers() {
+    return userUCC.getAllUsers();
+  }
+
+  @Override
+  public CollectionVersion getUsersVersion() {
+    return userUCC.getUsersVersion();
+  }
+
+  @Override
+  public void streamAllUsers(Consumer<? super UserDTO> consumer) {
+    userUCC.streamAllUsers(consumer);
+  }
+
+  @Override
+  public Page<UserDTO> getUsersPage(PageRequest request) {
+    return userUCC.getUsersPage(request);
+  }
+
+  /**
+   * Copies a user.
+   *
+   * @param user the user to copy, or null
+   * @return a new user with the same data, or null
+   */
+  private UserDTO copy(UserDTO user) {
+    if (user == null) {
+      return null;
+    }
+    UserDTO copy = domainFactory.getUser();
+    copy.setIdUser(user.getIdUser());
+    copy.setEmail(user.getEmail());
+    copy.setPassword(user.getPassword());
+    copy.setLastName(user.getLastName());
+    copy.setFirstName(user.getFirstName());
+    copy.setPhoneNumber(user.getPhoneNumber());
+    copy.setRegistrationDate(user.getRegistrationDate());
+    copy.setSchoolYear(user.getSchoolYear());
+    if (user.getRole() != null) {
+      copy.setRole(user.getRole().name());
+    }
+    copy.setVersionNumber(user.getVersionNumber());
+    return copy;
+  }
+}
@@ -0,0 +1,251 @@
+package be.vinci.pae.business.user;
+
+import be.vinci.pae.exception.FatalException;
+import be.vinci.pae.exception.ServiceUnavailableException;
+import be.vinci.pae.logger.Log4J;
+import be.vinci.pae.utils.Config;
+import be.vinci.pae.utils.LatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * The PasswordHasher class hashes and checks the passwords with BCrypt on its own pool of threads.
+ * A BCrypt operation costs hundreds of milliseconds of CPU, so running them on the threads of the
+ * HTTP server would let a burst of logins starve every other request. The pool has a fixed number
+ * of threads and a bounded queue: once the queue is full, the operations are rejected at once
+ * with a ServiceUnavailableException instead of waiting.
+ *
+ * <p>The cost of the new hashes is read from the passwordHashCost property. When
+ * passwordHashCalibrate is true, it is instead chosen at startup as the cost whose hashing takes
+ * about passwordHashTargetMillis on the current hardware. The hashes with another cost are
+ * reported by needsRehash, so that they can be replaced on the next successful login.
+ */
+public class PasswordHasher {
+
+  // Smallest and largest costs accepted by BCrypt
+  private static final int MIN_COST = 4;
+  private static final int MAX_COST = 30;
+
+  // Cost used to measure the speed of the hardware during the calibration
+  private static final int CALIBRATION_COST = 8;
+
+  // The threads running the BCrypt operations
+  private ThreadPoolExecutor executor;
+
+  // Maximum time a caller waits for its operation, in milliseconds
+  private long timeoutMillis;
+
+  // Cost of the new hashes
+  private volatile int cost;
+
+  // Time spent by the operations in the queue
+  private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+  // Time spent running the operations
+  private final LatencyHistogram runTimes = new LatencyHistogram();
+
+  // Number of operations rejected because the queue was full
+  private final LongAdder rejected = new LongAdder();
+
+  // Number of operations abandoned by their caller after the timeout
+  private final LongAdder timeouts = new LongAdder();
+
+  // Number of hashes found with another cost than the current one
+  private final LongAdder outdatedHashes = new LongAdder();
+
+  /**
+   * Creates the pool of threads and chooses the cost of the new hashes.
+   */
+  @PostConstruct
+  void init() {
+    int threads = Config.getIntProperty("passwordHashThreads",
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    int queueSize = Config.getIntProperty("passwordHashQueueSize", 64);
+    timeoutMillis = Config.getLongProperty("passwordHashTimeoutMillis", 10_000);
+    AtomicInteger threadNumber = new AtomicInteger();
+    executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize), runnable -> {
+          Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    if (Config.getBoolProperty("passwordHashCalibrate", false)) {
+      cost = calibrate(Config.getLongProperty("passwordHashTargetMillis", 250));
+    } else {
+      cost = Config.getIntProperty("passwordHashCost", 10);
+    }
+  }
+
+  /**
+   * Checks a password against a hash.
+   *
+   * @param password the password to check
+   * @param hash     the BCrypt hash of the expected password
+   * @return true if the password matches the hash, false otherwise
+   * @throws ServiceUnavailableException if too many passwords are already being hashed
+   */
+  public boolean check(String password, String hash) {
+    return run(() -> BCrypt.checkpw(password, hash));
+  }
+
+  /**
+   * Hashes a password with the current cost.
+   *
+   * @param password the password to hash
+   * @return the BCrypt hash of the password
+   * @throws ServiceUnavailableException if too many passwords are already being hashed
+   */
+  public String hash(String password) {
+    int hashCost = cost;
+    return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(hashCost)));
+  }
+
+  /**
+   * Tells whether a hash was computed with another cost than the current one.
+   *
+   * @param hash the BCrypt hash
+   * @return true if the password should be hashed again with the current cost
+   */
+  public boolean needsRehash(String hash) {
+    if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') {
+      return false;
+    }
+    // A BCrypt hash starts with $2a$, $2b$ or $2y$ followed by the cost on two digits
+    int hashCost;
+    try {
+      hashCost = Integer.parseInt(hash.substring(4, 6));
+    } catch (NumberFormatException e) {
+      return false;
+    }
+    if (hashCost == cost) {
+      return false;
+    }
+    outdatedHashes.increment();
+    return true;
+  }
+
+  /**
+   * Returns the cost of the new hashes.
+   *
+   * @return the BCrypt cost
+   */
+  public int getCost() {
+    return cost;
+  }
+
+  /**
+   * Returns the state and counters of the pool, suitable for JSON serialization.
+   *
+   * @return the size, queue, rejections and timings of the pool
+   */
+  public Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("cost", cost);
+    snapshot.put("threads", executor.getMaximumPoolSize());
+    snapshot.put("active", executor.getActiveCount());
+    snapshot.put("queued", executor.getQueue().size());
+    snapshot.put("queueCapacity",
+        executor.getQueue().size() + executor.getQueue().remainingCapacity());
+    snapshot.put("completed", executor.getCompletedTaskCount());
+    snapshot.put("rejected", rejected.sum());
+    snapshot.put("timeouts", timeouts.sum());
+    snapshot.put("outdatedHashes", outdatedHashes.sum());
+    snapshot.put("waitTime", waitTimes.snapshot());
+    snapshot.put("runTime", runTimes.snapshot());
+    return snapshot;
+  }
+
+  /**
+   * Runs an operation on the pool and waits for its result.
+   *
+   * @param operation the BCrypt operation
+   * @param <T>       the type of the result
+   * @return the result of the operation
+   * @throws ServiceUnavailableException if the queue is full or the operation takes too long
+   */
+  private <T> T run(Callable<T> operation) {
+    long submittedAt = System.nanoTime();
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        long startedAt = System.nanoTime();
+        waitTimes.record(startedAt - submittedAt);
+        try {
+          return operation.call();
+        } finally {
+          runTimes.record(System.nanoTime() - startedAt);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new ServiceUnavailableException("Too many authentications in progress",
+          retryAfterSeconds());
+    }
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      timeouts.increment();
+      throw new ServiceUnavailableException("Too many authentications in progress",
+          retryAfterSeconds());
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new FatalException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new FatalException(e.getCause());
+    }
+  }
+
+  /**
+   * Estimates the time needed to empty the queue.
+   *
+   * @return the estimated time, in seconds, and at least one second
+   */
+  private int retryAfterSeconds() {
+    double queuedMillis = executor.getQueue().size() * runTimes.getMeanMillis()
+        / executor.getMaximumPoolSize();
+    return (int) Math.max(1, Math.ceil(queuedMillis / 1000));
+  }
+
+  /**
+   * Chooses the cost whose hashing takes about the target time. Each increment of the cost doubles
+   * the time of a hash, so the time measured with a small cost is enough to choose it.
+   *
+   * @param targetMillis the target time of a hash, in milliseconds
+   * @return the chosen cost
+   */
+  private static int calibrate(long targetMillis) {
+    String salt = BCrypt.gensalt(CALIBRATION_COST);
+    // The first hash warms up the code
+    BCrypt.hashpw("calibration", salt);
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      long start = System.nanoTime();
+      BCrypt.hashpw("calibration", salt);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    double measuredMillis = Math.max(best, 1) / 1_000_000.0;
+    int chosen = CALIBRATION_COST
+        + (int) Math.round(Math.log(targetMillis / measuredMillis) / Math.log(2));
+    chosen = Math.max(MIN_COST, Math.min(MAX_COST, chosen));
+    Log4J.LOGGER.info("Password hashing calibrated: cost {} ({} ms at cost {}, target {} ms)",
+        chosen, String.format("%.1f", measuredMillis), CALIBRATION_COST, targetMillis);
+    return chosen;
+  }
+}
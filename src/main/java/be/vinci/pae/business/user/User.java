@@ -12,17 +12,20 @@ public interface User extends UserDTO {
    * authentication. It takes a string representing the password to check and returns a boolean
    * indicating whether the provided password matches the user's password.
    *
+   * @param hasher   the hasher checking the password
    * @param password the password to check
    * @return true if the provided password matches the user's password, false otherwise
    */
-  boolean checkPassword(String password);
+  boolean checkPassword(PasswordHasher hasher, String password);
 
   /**
    * Hashes the user's password. This method is used during user registration and password update
-   * operations. It takes no parameters and does not return a value. After this method is called,
-   * the user's password will be hashed using a secure hashing algorithm.
+   * operations. After this method is called, the user's password will be hashed using a secure
+   * hashing algorithm.
+   *
+   * @param hasher the hasher hashing the password
    */
-  void hashPassword();
+  void hashPassword(PasswordHasher hasher);
 
   /**
    * Checks if the email and role of the user are logically consistent. If the email ends with
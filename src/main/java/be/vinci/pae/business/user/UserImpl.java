@@ -1,7 +1,6 @@
 package be.vinci.pae.business.user;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import org.mindrot.jbcrypt.BCrypt;
 
 /**
  * UserImpl is a class that implements the User interface. It provides the implementation for the
@@ -231,24 +230,27 @@ public class UserImpl implements User {
   }
 
   /**
-   * Checks if the provided password matches the user's password. It uses the BCrypt.checkpw method
-   * to compare the provided password with the user's hashed password.
+   * Checks if the provided password matches the user's password. It uses the PasswordHasher to
+   * compare the provided password with the user's hashed password.
    *
+   * @param hasher   the hasher checking the password
    * @param password the password to check
    * @return true if the provided password matches the user's password, false otherwise
    */
   @Override
-  public boolean checkPassword(String password) {
-    return BCrypt.checkpw(password, this.password);
+  public boolean checkPassword(PasswordHasher hasher, String password) {
+    return hasher.check(password, this.password);
   }
 
   /**
-   * Hashes the user's password using the BCrypt.hashpw method. The hashed password is then stored
-   * in the password property of the User object.
+   * Hashes the user's password with the PasswordHasher. The hashed password is then stored in the
+   * password property of the User object.
+   *
+   * @param hasher the hasher hashing the password
    */
   @Override
-  public void hashPassword() {
-    this.password = BCrypt.hashpw(this.password, BCrypt.gensalt());
+  public void hashPassword(PasswordHasher hasher) {
+    this.password = hasher.hash(this.password);
   }
 
   /**
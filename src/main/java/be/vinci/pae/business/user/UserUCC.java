@@ -1,7 +1,11 @@
 package be.vinci.pae.business.user;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.exception.FatalException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The UserUCC interface provides the structure for a Use Case Controller (UCC) that handles the
@@ -33,6 +37,16 @@ public interface UserUCC {
    */
   UserDTO refreshUser(int id);
 
+  /**
+   * Get the version number of a user, without reading the user. The authorization filter compares
+   * it with the version number signed in a token, to detect the users changed or deleted since the
+   * token was issued.
+   *
+   * @param id The id of the user
+   * @return The version number of the user, or null if it does not exist
+   */
+  Integer getUserVersion(int id);
+
   /**
    * This method is used to register a new user. It takes a UserDTO object containing the user data
    * as a parameter and returns a UserDTO object representing the created user. If the user
@@ -65,5 +79,31 @@ public interface UserUCC {
    */
   List<UserDTO> getAllUsers();
 
+  /**
+   * Retrieves the version of the list of all users, without reading the users.
+   *
+   * @return The version of the list of all users.
+   * @throws FatalException if a database access error occurs.
+   */
+  CollectionVersion getUsersVersion();
+
+  /**
+   * Reads all users progressively, handing each one to a consumer as soon as it is read from the
+   * database.
+   *
+   * @param consumer The consumer receiving each user.
+   * @throws FatalException if a database access error occurs.
+   */
+  void streamAllUsers(Consumer<? super UserDTO> consumer);
+
+  /**
+   * Retrieves one page of the users.
+   *
+   * @param request The requested page.
+   * @return The users of the page and the cursor of the next page.
+   * @throws FatalException if a database access error occurs.
+   */
+  Page<UserDTO> getUsersPage(PageRequest request);
+
 
 }
\ No newline at end of file
@@ -1,15 +1,21 @@
 package be.vinci.pae.business.user;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.user.UserDAO;
 import be.vinci.pae.exception.ConflictException;
+import be.vinci.pae.exception.ServiceUnavailableException;
 import be.vinci.pae.exception.UnauthorizedException;
 import be.vinci.pae.exception.WrongBodyDataException;
+import be.vinci.pae.logger.Log4J;
 import be.vinci.pae.utils.Util;
 import jakarta.inject.Inject;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * UserUCCImpl is a class that implements the UserUCC interface. It provides the implementation for
@@ -27,29 +33,41 @@ public class UserUCCImpl implements UserUCC {
   @Inject
   private DALServices dalServices;
 
+  // Instance of PasswordHasher running the BCrypt operations on its own threads
+  @Inject
+  private PasswordHasher passwordHasher;
+
   /**
    * This method is used to authenticate a user. It first checks if the user exists and if the
-   * password is correct. If the checks pass, it logs in the user and returns the user's data.
+   * password is correct. If the checks pass, it logs in the user and returns the user's data. The
+   * password is hashed again when its hash was computed with another cost than the current one.
+   * The password is checked once the connection is given back, as it takes much longer than the
+   * query.
    *
    * @param email    The email of the user to authenticate.
    * @param password The password of the user to authenticate.
    * @return A UserDTO object if the user is authenticated, null otherwise.
-   * @throws UnauthorizedException if the email or password is incorrect.
+   * @throws UnauthorizedException       if the email or password is incorrect.
+   * @throws ServiceUnavailableException if too many passwords are already being checked.
    */
   public UserDTO login(String email, String password) {
+    User userTemp;
     try {
       // Retrieve the user by email
       dalServices.open();
-      User userTemp = (User) myUserDAO.getOneByEmail(email);
-      // Check if the user exists and the password is correct
-      if (userTemp == null || !userTemp.checkPassword(password)) {
-        throw new UnauthorizedException("email or password incorrect");
-      }
-      // Return the authenticated user
-      return userTemp;
+      userTemp = (User) myUserDAO.getOneByEmail(email);
     } finally {
       dalServices.close();
     }
+    // Check if the user exists and the password is correct
+    if (userTemp == null || !userTemp.checkPassword(passwordHasher, password)) {
+      throw new UnauthorizedException("email or password incorrect");
+    }
+    if (passwordHasher.needsRehash(userTemp.getPassword())) {
+      rehashPassword(userTemp, password);
+    }
+    // Return the authenticated user
+    return userTemp;
   }
 
   /**
@@ -74,9 +92,10 @@ public class UserUCCImpl implements UserUCC {
   }
 
   /**
-   * This method is used to register a new user. It first checks if the user role is not null, then
-   * checks if the user already exists in the database. If the user does not exist, it hashes the
-   * user password, sets the registration date to the current date, and creates the user in the
+   * This method is used to register a new user. It first checks if the user role is not null and
+   * hashes the user password, before starting the transaction so that the hashing does not hold a
+   * connection. It then checks if the user already exists in the database. If the user does not
+   * exist, it sets the registration date to the current date, and creates the user in the
    * database. If the user creation is successful, it commits the transaction and returns the user
    * data.
    *
@@ -93,6 +112,8 @@ public class UserUCCImpl implements UserUCC {
     if (!userTemp.checkEmailAndRoleLogic()) {
       throw new WrongBodyDataException("This role is not allowed for this email");
     }
+    // Hash the user password
+    userTemp.hashPassword(passwordHasher);
     try {
       // Start a new transaction
       dalServices.startTransaction();
@@ -101,8 +122,6 @@ public class UserUCCImpl implements UserUCC {
         // If the user already exists, rollback the transaction and return null
         throw new ConflictException("this resource already exists");
       }
-      // Hash the user password
-      userTemp.hashPassword();
       // Set the registration date to the current date
       DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
       userTemp.setRegistrationDate(LocalDate.now().format(formatter));
@@ -141,13 +160,79 @@ public class UserUCCImpl implements UserUCC {
     }
   }
 
+  /**
+   * Get the version number of a user, without reading the user.
+   *
+   * @param id the id of the user
+   * @return the version number of the user, or null if it does not exist
+   */
+  @Override
+  public Integer getUserVersion(int id) {
+    try {
+      dalServices.open();
+      return myUserDAO.getVersion(id);
+    } finally {
+      dalServices.close();
+    }
+  }
+
+  /**
+   * Retrieves the version of the list of all users, read with an aggregate query.
+   *
+   * @return the version of the list of all users
+   */
+  @Override
+  public CollectionVersion getUsersVersion() {
+    try {
+      dalServices.open();
+      return myUserDAO.getListVersion();
+    } finally {
+      dalServices.close();
+    }
+  }
+
+  /**
+   * Reads all users progressively. This method starts a read-only transaction, which lets the
+   * database send the users progressively instead of all at once, and hands each user to the
+   * consumer as soon as it is read.
+   *
+   * @param consumer the consumer receiving each user
+   */
+  @Override
+  public void streamAllUsers(Consumer<? super UserDTO> consumer) {
+    try {
+      dalServices.startReadOnlyTransaction();
+      myUserDAO.forEach(consumer);
+      dalServices.commit();
+    } catch (Exception e) {
+      dalServices.rollback();
+      throw e;
+    }
+  }
+
+  /**
+   * Retrieves one page of the users.
+   *
+   * @param request the requested page
+   * @return the users of the page and the cursor of the next page
+   */
+  @Override
+  public Page<UserDTO> getUsersPage(PageRequest request) {
+    try {
+      dalServices.open();
+      return myUserDAO.getPage(request);
+    } finally {
+      dalServices.close();
+    }
+  }
+
   /**
    * This method is used to edit the data of an existing user. It takes a UserDTO object as a
-   * parameter, which contains the updated user data. The method first starts a new transaction,
-   * then checks if the user already exists in the database by email. If the user does not exist, it
-   * rolls back the transaction and throws a ConflictException. If the user exists, it hashes the
-   * user password, updates the user data in the database, commits the transaction, and returns the
-   * updated UserDTO object.
+   * parameter, which contains the updated user data. The method first checks the current password
+   * and hashes the new one, before starting the transaction so that the hashing does not hold a
+   * connection. It then updates the user data in the database. If the user does not exist or its
+   * version changed, it rolls back the transaction and throws a ConflictException. Otherwise, it
+   * commits the transaction and returns the updated UserDTO object.
    *
    * @param user          The UserDTO object containing the updated user data.
    * @param password      The current password of the user.
@@ -159,17 +244,15 @@ public class UserUCCImpl implements UserUCC {
    */
   public UserDTO editData(UserDTO user, String password, String newPassword, int versionNumber) {
     User userTemp = (User) user;
+    if (!userTemp.checkPassword(passwordHasher, password)) {
+      throw new WrongBodyDataException("password incorrect");
+    }
+    if (newPassword != null) {
+      userTemp.setPassword(newPassword);
+      userTemp.hashPassword(passwordHasher);
+    }
     try {
       dalServices.startTransaction();
-
-      if (!userTemp.checkPassword(password)) {
-        throw new WrongBodyDataException("password incorrect");
-      }
-      if (newPassword != null) {
-        userTemp.setPassword(newPassword);
-        userTemp.hashPassword();
-      }
-
       userTemp.setVersionNumber(versionNumber + 1);
       myUserDAO.updateOne(userTemp);
       dalServices.commit();
@@ -180,5 +263,25 @@ public class UserUCCImpl implements UserUCC {
     }
   }
 
-
-}
\ No newline at end of file
+  /**
+   * Hashes the password of a user again with the current cost, after a successful login. A failure
+   * is only logged, as the user is authenticated anyway and the next login will try again.
+   *
+   * @param user     the authenticated user
+   * @param password the password of the user
+   */
+  private void rehashPassword(User user, String password) {
+    String oldHash = user.getPassword();
+    try {
+      String newHash = passwordHasher.hash(password);
+      dalServices.startTransaction();
+      if (myUserDAO.updatePasswordHash(user.getIdUser(), oldHash, newHash)) {
+        user.setPassword(newHash);
+      }
+      dalServices.commit();
+    } catch (RuntimeException e) {
+      dalServices.rollback();
+      Log4J.LOGGER.warn("Unable to rehash the password of user {}", user.getIdUser(), e);
+    }
+  }
+}
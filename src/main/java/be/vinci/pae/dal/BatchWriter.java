@@ -0,0 +1,237 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.exception.FatalException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The BatchWriter class writes lists of rows in chunks of a bounded size, each chunk being a single
+ * round trip to the database.
+ *
+ * <p>Without generated keys, the rows are sent as a JDBC batch, which the driver merges into
+ * multi-row INSERT statements when reWriteBatchedInserts is set. The driver does not merge the
+ * batches returning generated keys, so the inserts whose keys are needed are written as multi-row
+ * INSERT ... VALUES (...), (...) RETURNING statements instead.
+ *
+ * <p>PostgreSQL does not guarantee the order of the rows returned by RETURNING, so the keys are
+ * sorted before being matched with the rows. This relies on the keys being drawn from a sequence
+ * while the rows of the VALUES list are inserted one after the other, in the order of the list:
+ * within one statement, the keys then increase with the position of their row, even when other
+ * sessions draw from the sequence at the same time. This is how PostgreSQL executes a multi-row
+ * VALUES list, but it is not a documented guarantee, and it does not hold for a key which is not
+ * drawn from a sequence, nor for a sequence which cycles. It is a known risk of the keyed batches.
+ */
+final class BatchWriter {
+
+  // Maximum number of bind parameters of a PostgreSQL statement
+  static final int MAX_PARAMETERS = 32_767;
+
+  // Number of rows of a chunk
+  private final int batchSize;
+
+  // Wraps the prepared statements, to time them
+  private final BiFunction<PreparedStatement, String, PreparedStatement> instrument;
+
+  /**
+   * Creates a batch writer.
+   *
+   * @param batchSize  the number of rows of a chunk
+   * @param instrument wraps each prepared statement along with its SQL text
+   */
+  BatchWriter(int batchSize,
+      BiFunction<PreparedStatement, String, PreparedStatement> instrument) {
+    this.batchSize = batchSize;
+    this.instrument = instrument;
+  }
+
+  /**
+   * Executes a query once for each row, in JDBC batches of batchSize rows.
+   *
+   * @param conn   the connection
+   * @param query  the query to execute for each row
+   * @param rows   the rows to write
+   * @param binder the binder setting the parameters of the query from a row
+   * @param <T>    the type of the rows
+   * @return the number of rows written
+   * @throws SQLException if the batch fails
+   */
+  <T> int execute(Connection conn, String query, List<? extends T> rows,
+      StatementBinder<? super T> binder) throws SQLException {
+    int written = 0;
+    try (PreparedStatement ps = instrument.apply(conn.prepareStatement(query), query)) {
+      for (int from = 0; from < rows.size(); from += batchSize) {
+        for (T row : rows.subList(from, Math.min(from + batchSize, rows.size()))) {
+          binder.bind(ps, 0, row);
+          ps.addBatch();
+        }
+        for (int count : ps.executeBatch()) {
+          // The rewritten inserts do not report a count for each row
+          written += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Inserts the rows with multi-row INSERT statements of batchSize rows at most, and hands the
+   * generated key of each row to the caller. A chunk is smaller when its parameters would exceed
+   * the limit of a statement.
+   *
+   * @param conn      the connection
+   * @param query     the INSERT query of a single row, ending with its VALUES list
+   * @param rows      the rows to insert
+   * @param binder    the binder setting the parameters of the query from a row
+   * @param keyColumn the name of the generated key column
+   * @param keySetter the consumer receiving each row along with its generated key
+   * @param <T>       the type of the rows
+   * @return the number of rows inserted
+   * @throws SQLException  if an insert fails
+   * @throws FatalException if the query has no VALUES list, or a key is missing
+   */
+  <T> int insertReturningKeys(Connection conn, String query, List<? extends T> rows,
+      StatementBinder<? super T> binder, String keyColumn, ObjIntConsumer<? super T> keySetter)
+      throws SQLException {
+    int parameters = countParameters(valuesList(query));
+    int rowsPerChunk = rowsPerChunk(parameters);
+    int written = 0;
+    PreparedStatement full = null;
+    try {
+      for (int from = 0; from < rows.size(); from += rowsPerChunk) {
+        List<? extends T> chunk = rows.subList(from, Math.min(from + rowsPerChunk, rows.size()));
+        if (chunk.size() == rowsPerChunk) {
+          // The full chunks share the same statement
+          if (full == null) {
+            full = prepare(conn, multiRowInsert(query, rowsPerChunk, keyColumn));
+          }
+          written += insertChunk(full, parameters, chunk, binder, keySetter);
+        } else {
+          try (PreparedStatement last = prepare(conn,
+              multiRowInsert(query, chunk.size(), keyColumn))) {
+            written += insertChunk(last, parameters, chunk, binder, keySetter);
+          }
+        }
+      }
+    } finally {
+      if (full != null) {
+        full.close();
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Returns the number of rows of the chunks of a multi-row insert.
+   *
+   * @param parameters the number of parameters of a row
+   * @return the number of rows of a chunk
+   */
+  int rowsPerChunk(int parameters) {
+    return Math.max(1, Math.min(batchSize, MAX_PARAMETERS / Math.max(1, parameters)));
+  }
+
+  /**
+   * Builds the multi-row version of an INSERT query, returning the generated keys.
+   *
+   * @param query     the INSERT query of a single row, ending with its VALUES list
+   * @param rows      the number of rows
+   * @param keyColumn the name of the generated key column
+   * @return the multi-row INSERT query
+   * @throws FatalException if the query has no VALUES list
+   */
+  static String multiRowInsert(String query, int rows, String keyColumn) {
+    String single = query.strip();
+    String values = valuesList(single);
+    StringBuilder sql = new StringBuilder(single.length() + rows * (values.length() + 2))
+        .append(single, 0, single.length() - values.length());
+    for (int i = 0; i < rows; i++) {
+      sql.append(i == 0 ? "" : ", ").append(values);
+    }
+    return sql.append(" RETURNING ").append(keyColumn).toString();
+  }
+
+  /**
+   * Returns the VALUES list of an INSERT query, the parenthesized list after its last VALUES
+   * keyword.
+   *
+   * @param query the INSERT query
+   * @return the VALUES list, with its parentheses
+   * @throws FatalException if the query does not end with a VALUES list
+   */
+  private static String valuesList(String query) {
+    String trimmed = query.strip();
+    int keyword = trimmed.toUpperCase(Locale.ROOT).lastIndexOf("VALUES");
+    String values = keyword < 0 ? "" : trimmed.substring(keyword + "VALUES".length()).strip();
+    if (!values.startsWith("(") || !values.endsWith(")")) {
+      throw new FatalException("A batched insert must end with its VALUES list: " + query);
+    }
+    return values;
+  }
+
+  /**
+   * Counts the parameters of a VALUES list.
+   *
+   * @param values the VALUES list
+   * @return the number of parameters
+   */
+  private static int countParameters(String values) {
+    return (int) values.chars().filter(c -> c == '?').count();
+  }
+
+  /**
+   * Prepares and wraps a statement.
+   *
+   * @param conn the connection
+   * @param sql  the SQL text
+   * @return the wrapped statement
+   * @throws SQLException if the statement cannot be prepared
+   */
+  private PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+    return instrument.apply(conn.prepareStatement(sql), sql);
+  }
+
+  /**
+   * Inserts one chunk with a multi-row statement and reads the keys of its rows, matched with the
+   * rows in increasing order.
+   *
+   * @param ps         the multi-row statement, with as many rows as the chunk
+   * @param parameters the number of parameters of a row
+   * @param chunk      the rows of the chunk
+   * @param binder     the binder setting the parameters of a row
+   * @param keySetter  the consumer receiving each row along with its generated key
+   * @param <T>        the type of the rows
+   * @return the number of rows inserted
+   * @throws SQLException   if the insert fails
+   * @throws FatalException if fewer keys than rows are returned
+   */
+  private static <T> int insertChunk(PreparedStatement ps, int parameters,
+      List<? extends T> chunk, StatementBinder<? super T> binder,
+      ObjIntConsumer<? super T> keySetter) throws SQLException {
+    for (int i = 0; i < chunk.size(); i++) {
+      binder.bind(ps, i * parameters, chunk.get(i));
+    }
+    int[] keys = new int[chunk.size()];
+    try (ResultSet rs = ps.executeQuery()) {
+      for (int i = 0; i < keys.length; i++) {
+        if (!rs.next()) {
+          throw new FatalException("Missing generated key for a batched row");
+        }
+        keys[i] = rs.getInt(1);
+      }
+    }
+    // The returned rows are in no guaranteed order, unlike the keys drawn from the sequence
+    Arrays.sort(keys);
+    for (int i = 0; i < keys.length; i++) {
+      keySetter.accept(chunk.get(i), keys[i]);
+    }
+    return chunk.size();
+  }
+}
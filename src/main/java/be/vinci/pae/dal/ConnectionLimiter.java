@@ -0,0 +1,91 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.exception.FatalException;
+import be.vinci.pae.utils.LatencyHistogram;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ConnectionLimiter class bounds the number of sessions holding a pooled connection at the same
+ * time. The sessions beyond the limit wait for a permit, in their order of arrival, before
+ * borrowing their connection.
+ *
+ * <p>With the limit sized to its pool, the pool always has a connection for the sessions holding
+ * a permit, so the sessions never wait inside dbcp2. A virtual thread waiting for a permit releases
+ * its carrier thread, whereas one waiting in the synchronized sections of the pool would pin it.
+ */
+final class ConnectionLimiter {
+
+  // The permits of the sessions
+  private final Semaphore permits;
+
+  // Number of permits
+  private final int limit;
+
+  // Maximum time a session waits for a permit, in milliseconds, negative to wait without limit
+  private final long maxWaitMillis;
+
+  // Time spent waiting for a permit
+  private final LatencyHistogram waitTime = new LatencyHistogram();
+
+  // Number of sessions which did not get a permit in time
+  private final LongAdder timeouts = new LongAdder();
+
+  /**
+   * Creates a limiter.
+   *
+   * @param limit         the number of sessions allowed to hold a connection at the same time
+   * @param maxWaitMillis the maximum time a session waits for a permit, negative to wait without
+   *                      limit
+   */
+  ConnectionLimiter(int limit, long maxWaitMillis) {
+    this.permits = new Semaphore(limit, true);
+    this.limit = limit;
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  /**
+   * Waits for a permit.
+   *
+   * @throws FatalException if no permit was obtained in time, or the thread was interrupted
+   */
+  void acquire() {
+    long start = System.nanoTime();
+    try {
+      if (maxWaitMillis < 0) {
+        permits.acquire();
+      } else if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+        timeouts.increment();
+        throw new FatalException("Timed out waiting for a database connection");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FatalException(e);
+    } finally {
+      waitTime.record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Gives a permit back.
+   */
+  void release() {
+    permits.release();
+  }
+
+  /**
+   * Returns the state and counters of the limiter, suitable for JSON serialization.
+   *
+   * @return the limit, the permits in use, the waiting sessions and the wait times
+   */
+  Map<String, Object> snapshot() {
+    return Map.of(
+        "limit", limit,
+        "inUse", limit - permits.availablePermits(),
+        "waiting", permits.getQueueLength(),
+        "timeouts", timeouts.sum(),
+        "waitTime", waitTime.snapshot());
+  }
+}
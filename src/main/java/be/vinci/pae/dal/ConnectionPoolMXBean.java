@@ -0,0 +1,86 @@
+package be.vinci.pae.dal;
+
+/**
+ * The ConnectionPoolMXBean interface exposes the live state of a database connection pool through
+ * JMX.
+ */
+public interface ConnectionPoolMXBean {
+
+  /**
+   * Returns the number of connections currently borrowed from the pool.
+   *
+   * @return the number of active connections
+   */
+  int getActive();
+
+  /**
+   * Returns the number of connections currently idle in the pool.
+   *
+   * @return the number of idle connections
+   */
+  int getIdle();
+
+  /**
+   * Returns the number of threads currently waiting for a connection.
+   *
+   * @return the number of waiting threads
+   */
+  int getWaiters();
+
+  /**
+   * Returns the maximum number of connections of the pool.
+   *
+   * @return the maximum number of connections
+   */
+  int getMaxTotal();
+
+  /**
+   * Returns the number of connections borrowed since the start of the application.
+   *
+   * @return the number of borrowed connections
+   */
+  long getBorrowCount();
+
+  /**
+   * Returns the number of borrow attempts that failed, for example because the maximum wait time
+   * elapsed.
+   *
+   * @return the number of failed borrow attempts
+   */
+  long getBorrowFailures();
+
+  /**
+   * Returns the mean time spent waiting for a connection.
+   *
+   * @return the mean borrow wait time, in milliseconds
+   */
+  double getBorrowWaitMeanMillis();
+
+  /**
+   * Returns the 99th percentile of the time spent waiting for a connection.
+   *
+   * @return the 99th percentile of the borrow wait time, in milliseconds
+   */
+  double getBorrowWaitP99Millis();
+
+  /**
+   * Returns the longest time spent waiting for a connection.
+   *
+   * @return the maximum borrow wait time, in milliseconds
+   */
+  double getBorrowWaitMaxMillis();
+
+  /**
+   * Returns the age of the oldest connection of the pool.
+   *
+   * @return the age of the oldest connection, in seconds
+   */
+  long getOldestConnectionAgeSeconds();
+
+  /**
+   * Returns the mean age of the connections of the pool.
+   *
+   * @return the mean age of the connections, in seconds
+   */
+  long getMeanConnectionAgeSeconds();
+}
@@ -0,0 +1,149 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.utils.LatencyHistogram;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.DefaultPooledObjectInfo;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+/**
+ * The ConnectionPoolMonitor class borrows the connections of a pool and keeps track of how long the
+ * borrowing threads had to wait. It also reads the live state of the pool, such as the number of
+ * active and idle connections, the waiting threads and the age of the connections.
+ */
+class ConnectionPoolMonitor implements ConnectionPoolMXBean {
+
+  // The monitored pool
+  private final BasicDataSource dataSource;
+
+  // Time spent waiting for a connection
+  private final LatencyHistogram borrowWait = new LatencyHistogram();
+
+  // Number of failed borrow attempts
+  private final LongAdder borrowFailures = new LongAdder();
+
+  /**
+   * Creates a monitor for a pool.
+   *
+   * @param dataSource the pool to monitor
+   */
+  ConnectionPoolMonitor(BasicDataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Borrows a connection from the pool and records the time spent waiting for it.
+   *
+   * @return the borrowed connection
+   * @throws SQLException if no connection could be borrowed
+   */
+  Connection borrow() throws SQLException {
+    long start = System.nanoTime();
+    try {
+      return dataSource.getConnection();
+    } catch (SQLException e) {
+      borrowFailures.increment();
+      throw e;
+    } finally {
+      borrowWait.record(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public int getActive() {
+    return dataSource.getNumActive();
+  }
+
+  @Override
+  public int getIdle() {
+    return dataSource.getNumIdle();
+  }
+
+  @Override
+  public int getWaiters() {
+    GenericObjectPool<PoolableConnection> pool = dataSource.getConnectionPool();
+    return pool == null ? 0 : pool.getNumWaiters();
+  }
+
+  @Override
+  public int getMaxTotal() {
+    return dataSource.getMaxTotal();
+  }
+
+  @Override
+  public long getBorrowCount() {
+    return borrowWait.getCount();
+  }
+
+  @Override
+  public long getBorrowFailures() {
+    return borrowFailures.sum();
+  }
+
+  @Override
+  public double getBorrowWaitMeanMillis() {
+    return borrowWait.getMeanMillis();
+  }
+
+  @Override
+  public double getBorrowWaitP99Millis() {
+    return borrowWait.getPercentileMillis(99);
+  }
+
+  @Override
+  public double getBorrowWaitMaxMillis() {
+    return borrowWait.getMaxMillis();
+  }
+
+  @Override
+  public long getOldestConnectionAgeSeconds() {
+    long now = System.currentTimeMillis();
+    return listConnections().stream()
+        .mapToLong(info -> now - info.getCreateTime())
+        .max().orElse(0) / 1_000;
+  }
+
+  @Override
+  public long getMeanConnectionAgeSeconds() {
+    long now = System.currentTimeMillis();
+    return (long) listConnections().stream()
+        .mapToLong(info -> now - info.getCreateTime())
+        .average().orElse(0) / 1_000;
+  }
+
+  /**
+   * Returns a snapshot of the state of the pool, suitable for JSON serialization.
+   *
+   * @return the gauges of the pool and the histogram of the borrow wait times
+   */
+  Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("active", getActive());
+    snapshot.put("idle", getIdle());
+    snapshot.put("waiters", getWaiters());
+    snapshot.put("maxTotal", getMaxTotal());
+    snapshot.put("minIdle", dataSource.getMinIdle());
+    snapshot.put("maxWaitMs", dataSource.getMaxWaitDuration().toMillis());
+    snapshot.put("borrowFailures", getBorrowFailures());
+    snapshot.put("borrowWait", borrowWait.snapshot());
+    snapshot.put("oldestConnectionAgeSeconds", getOldestConnectionAgeSeconds());
+    snapshot.put("meanConnectionAgeSeconds", getMeanConnectionAgeSeconds());
+    return snapshot;
+  }
+
+  /**
+   * Lists the connections of the pool, borrowed or idle.
+   *
+   * @return the information of the connections, empty if the pool has not been created yet
+   */
+  private Set<DefaultPooledObjectInfo> listConnections() {
+    GenericObjectPool<PoolableConnection> pool = dataSource.getConnectionPool();
+    return pool == null ? Set.of() : pool.listAllObjects();
+  }
+}
@@ -1,6 +1,9 @@
 package be.vinci.pae.dal;
 
 import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import org.postgresql.copy.CopyManager;
 
 /**
  * The DALBackServices interface provides a method for preparing SQL queries. Classes implementing
@@ -19,4 +22,54 @@ public interface DALBackServices {
    */
   PreparedStatement getPreparedStatement(String query);
 
+  /**
+   * Prepares a SQL query whose rows are read progressively instead of being loaded at once, so that
+   * the memory used does not depend on the number of rows. It can only be used in a transaction.
+   *
+   * @param query The SQL query to prepare.
+   * @return A PreparedStatement object that represents the prepared query.
+   */
+  PreparedStatement getStreamingStatement(String query);
+
+  /**
+   * Returns the PostgreSQL COPY API of the connection of the current session. The COPY operations
+   * run in the session of the current thread, so they are part of the current transaction if one is
+   * started.
+   *
+   * @return The CopyManager of the current connection.
+   */
+  CopyManager getCopyManager();
+
+  /**
+   * Executes a SQL query once for each row of a list, in JDBC batches. The rows are sent to the
+   * database in chunks whose size is set by the dbBatchSize property, each chunk being a single
+   * round trip. The query runs in the session of the current thread, so it is part of the current
+   * transaction if one is started.
+   *
+   * @param query  The SQL query to execute for each row.
+   * @param rows   The rows to write.
+   * @param binder The binder setting the parameters of the query from a row.
+   * @param <T>    The type of the rows.
+   * @return The number of rows written.
+   */
+  <T> int executeBatch(String query, List<? extends T> rows, StatementBinder<? super T> binder);
+
+  /**
+   * Inserts each row of a list and hands the generated key of each inserted row back to the
+   * caller. The rows are sent to the database in chunks whose size is set by the dbBatchSize
+   * property, each chunk being a single multi-row INSERT returning the generated keys. The keys
+   * of a chunk are matched with its rows in increasing order, so the key column must be drawn
+   * from a sequence.
+   *
+   * @param query     The INSERT query of a single row, ending with its VALUES list and without a
+   *                  RETURNING clause.
+   * @param rows      The rows to insert.
+   * @param binder    The binder setting the parameters of the query from a row.
+   * @param keyColumn The name of the generated key column, in lower case.
+   * @param keySetter The consumer receiving each row along with its generated key.
+   * @param <T>       The type of the rows.
+   * @return The number of rows inserted.
+   */
+  <T> int executeBatch(String query, List<? extends T> rows, StatementBinder<? super T> binder,
+      String keyColumn, ObjIntConsumer<? super T> keySetter);
 }
\ No newline at end of file
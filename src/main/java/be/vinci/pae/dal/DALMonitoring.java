@@ -0,0 +1,40 @@
+package be.vinci.pae.dal;
+
+import java.util.Map;
+
+/**
+ * The DALMonitoring interface provides read-only access to the runtime statistics of the Data
+ * Access Layer, such as the state of the connection pool. The returned maps are snapshots that can
+ * be serialized to JSON as they are.
+ */
+public interface DALMonitoring {
+
+  /**
+   * Returns the live state of the database connection pool.
+   *
+   * @return a snapshot of the gauges of the connection pool
+   */
+  Map<String, Object> getConnectionPoolStats();
+
+  /**
+   * Returns the duration of the database sessions and how long they actually held a connection.
+   *
+   * @return a snapshot of the histograms of the sessions
+   */
+  Map<String, Object> getSessionStats();
+
+  /**
+   * Returns the counters of the prepared statement cache.
+   *
+   * @return a snapshot of the counters of the statement cache
+   */
+  Map<String, Object> getStatementCacheStats();
+
+  /**
+   * Returns the timings of the executed statements for each SQL text, the most expensive first.
+   *
+   * @param limit the maximum number of SQL texts returned
+   * @return a snapshot of the percentiles, rows and parameter types of each SQL text
+   */
+  Map<String, Object> getStatementStats(int limit);
+}
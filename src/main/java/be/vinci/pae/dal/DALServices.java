@@ -22,6 +22,13 @@ public interface DALServices {
    */
   void startTransaction();
 
+  /**
+   * Starts a database transaction that only reads data. Such a transaction can run on a read-only
+   * replica, and is required to read the results of a query progressively with a server-side
+   * cursor. It ends with commit() or rollback() like any other transaction.
+   */
+  void startReadOnlyTransaction();
+
   /**
    * Commits the current database transaction. Implementations should ensure that this method
    * commits the current transaction and closes the database connection.
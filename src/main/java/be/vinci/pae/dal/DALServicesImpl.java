@@ -1,39 +1,363 @@
 package be.vinci.pae.dal;
 
 import be.vinci.pae.exception.FatalException;
+import be.vinci.pae.logger.Log4J;
 import be.vinci.pae.utils.Config;
+import be.vinci.pae.utils.LatencyHistogram;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjIntConsumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 /**
  * The DALServicesImpl class implements the DALBackServices and DALServices interfaces. It provides
  * methods for database connection and query preparation. This class is responsible for handling the
  * database connection and executing SQL queries. It uses a ThreadLocal object to hold the
  * Connection object for each thread. It also uses a BasicDataSource object to manage the database
- * connection pool.
+ * connection pool, whose parameters are read from the Config class.
+ *
+ * <p>When a replica is configured with the dbReplicaURL property, the sessions opened with open()
+ * only read data and are routed to the replica on read-only connections, while the transactions
+ * always run on the primary. The primary is used instead when the replica is down or lags too much.
+ *
+ * <p>When the dbLazyConnection property is true, open() and startTransaction() only start a
+ * session: the connection is borrowed when the first statement is prepared, so that the validation
+ * and computations done by the UCCs before their first query do not hold a pooled connection.
+ *
+ * <p>Unless the dbStatementStats property is false, the statements handed out are timed and their
+ * statistics are aggregated for each SQL text. The executions lasting longer than dbSlowQueryMillis
+ * are written to the slow query log. If dbSlowQueryExplain is true, their EXPLAIN ANALYZE plan is
+ * then captured in the background, on a connection of its own, and written to the same log.
+ *
+ * <p>Unless the dbHoldTimeStats property is false, the time during which the sessions hold their
+ * connection is also aggregated for each UCC method opening them, along with the time they spend
+ * running SQL. A session holding its connection longer than dbHoldTimeWarnMillis and more than
+ * dbHoldTimeWarnRatio times its SQL time is logged as a warning.
+ *
+ * <p>The number of sessions holding a connection of the primary at the same time is bounded by
+ * dbMaxConcurrency, which defaults to the size of its pool, and the number of sessions holding a
+ * connection of the replica by dbReplicaMaxConcurrency, which defaults to the size of the replica
+ * pool. A session takes the permit of the pool it is routed to, so the sessions falling back to the
+ * primary never outnumber its connections. The sessions beyond the bound wait for their turn
+ * before borrowing a connection, which keeps the virtual threads out of the pool's synchronized
+ * code.
  */
-public class DALServicesImpl implements DALBackServices, DALServices {
+public class DALServicesImpl implements DALBackServices, DALServices, DALMonitoring {
 
-  // ThreadLocal object to hold the Connection object for each thread
-  private final ThreadLocal<Connection> threadLocalConnection = new ThreadLocal<>();
+  // ThreadLocal object to hold the session, and its Connection object, of each thread
+  private final ThreadLocal<Session> threadLocalSession = new ThreadLocal<>();
 
   // BasicDataSource object to manage the database connection pool
-  private final BasicDataSource dataSource = new BasicDataSource();
+  private final BasicDataSource dataSource;
+
+  // Monitor borrowing the connections of the pool and exposing its gauges
+  private final ConnectionPoolMonitor poolMonitor;
+
+  // Router to the read-only replica, null if no replica is configured
+  private final ReplicaRouter replicaRouter;
+
+  // Counters of the prepared statements pooled on each connection, null if disabled
+  private final StatementCache statementCache;
+
+  // Timings of the statements for each SQL text, null if disabled
+  private final StatementStats statementStats;
+
+  // Whether the connection is only borrowed when the first statement is prepared
+  private final boolean lazyConnection;
+
+  // Writer of the batches, sending dbBatchSize rows to the database at once
+  private final BatchWriter batchWriter;
+
+  // Number of rows fetched at once by the streamed queries
+  private final int fetchSize;
+
+  // Time between the start and the end of the sessions
+  private final LatencyHistogram sessionTime = new LatencyHistogram();
+
+  // Time during which the sessions held a connection
+  private final LatencyHistogram connectionHoldTime = new LatencyHistogram();
+
+  // Number of sessions that ended without borrowing a connection
+  private final LongAdder sessionsWithoutConnection = new LongAdder();
+
+  // Hold and SQL times of the sessions of each UCC method, null if disabled
+  private final HoldTimeStats holdTimeStats;
+
+  // Bound on the sessions holding a connection of the primary at the same time, null if disabled
+  private final ConnectionLimiter primaryLimiter;
+
+  // Bound on the sessions holding a connection of the replica at the same time, null if disabled
+  // or if no replica is configured
+  private final ConnectionLimiter replicaLimiter;
 
   /**
    * The constructor for the DALServicesImpl class. It establishes a connection to the database
-   * using the BasicDataSource object and the database credentials from the Config class.
+   * using the BasicDataSource object and the database credentials from the Config class. The
+   * prepared statements are pooled unless the dbStatementCacheSize property is set to 0.
    */
   public DALServicesImpl() {
-    this.dataSource.setUrl(Config.getProperty("dbURL"));
-    this.dataSource.setUsername(Config.getProperty("dbUser"));
-    this.dataSource.setPassword(Config.getProperty("dbPassword"));
+    this(primaryDataSource(), replicaDataSource());
+  }
+
+  /**
+   * Creates the services on the given pools, the other parameters being read from the Config
+   * class.
+   *
+   * @param dataSource        the pool of the primary
+   * @param replicaDataSource the pool of the replica, or null if no replica is configured
+   */
+  DALServicesImpl(BasicDataSource dataSource, BasicDataSource replicaDataSource) {
+    this.lazyConnection = Config.getBoolProperty("dbLazyConnection", false);
+    this.batchWriter = new BatchWriter(Math.max(1, Config.getIntProperty("dbBatchSize", 500)),
+        this::instrument);
+    this.fetchSize = Math.max(1, Config.getIntProperty("dbFetchSize", 500));
+    this.dataSource = dataSource;
+    this.poolMonitor = new ConnectionPoolMonitor(dataSource);
+    registerMBean("be.vinci.pae:type=ConnectionPool,name=primary", this.poolMonitor);
+
+    if (replicaDataSource != null) {
+      this.replicaRouter = new ReplicaRouter(replicaDataSource,
+          Config.getLongProperty("dbReplicaMaxLagMillis", 5_000),
+          Config.getLongProperty("dbReplicaLagCheckMillis", 1_000),
+          Config.getLongProperty("dbReplicaRetryMillis", 30_000));
+      registerMBean("be.vinci.pae:type=ConnectionPool,name=replica",
+          this.replicaRouter.getPoolMonitor());
+    } else {
+      this.replicaRouter = null;
+    }
+
+    int statementCacheSize = Config.getIntProperty("dbStatementCacheSize", 64);
+    if (statementCacheSize > 0) {
+      poolStatements(this.dataSource, statementCacheSize);
+      if (replicaDataSource != null) {
+        poolStatements(replicaDataSource, statementCacheSize);
+      }
+      this.statementCache = new StatementCache(statementCacheSize);
+      registerMBean("be.vinci.pae:type=StatementCache", this.statementCache);
+    } else {
+      this.statementCache = null;
+    }
+
+    this.primaryLimiter = newLimiter(
+        Config.getIntProperty("dbMaxConcurrency", this.dataSource.getMaxTotal()));
+    this.replicaLimiter = replicaDataSource == null ? null : newLimiter(
+        Config.getIntProperty("dbReplicaMaxConcurrency", replicaDataSource.getMaxTotal()));
+
+    if (Config.getBoolProperty("dbHoldTimeStats", true)) {
+      this.holdTimeStats = new HoldTimeStats(Config.getLongProperty("dbHoldTimeWarnMillis", 100),
+          Double.parseDouble(Config.getProperty("dbHoldTimeWarnRatio", "5")));
+    } else {
+      this.holdTimeStats = null;
+    }
+
+    if (Config.getBoolProperty("dbStatementStats", true)) {
+      this.statementStats = new StatementStats(
+          Config.getIntProperty("dbStatementStatsMaxStatements", 500),
+          Config.getLongProperty("dbSlowQueryMillis", 500),
+          Config.getBoolProperty("dbSlowQueryExplain", false)
+              ? new PlanCapture(new ExplainConnections(),
+                  Config.getIntProperty("dbSlowQueryExplainQueue", 16))
+              : null,
+          Config.getLongProperty("dbSlowQueryExplainIntervalMillis", 60_000),
+          this::addSqlTime);
+    } else {
+      this.statementStats = null;
+    }
+  }
+
+  /**
+   * Creates the pool of the primary from the Config class.
+   *
+   * @return the pool of the primary
+   */
+  private static BasicDataSource primaryDataSource() {
+    BasicDataSource dataSource = new BasicDataSource();
+    dataSource.setUrl(Config.getProperty("dbURL"));
+    dataSource.setUsername(Config.getProperty("dbUser"));
+    dataSource.setPassword(Config.getProperty("dbPassword"));
+    configurePool(dataSource, "db");
+    // Lets the driver merge the batched inserts into multi-row INSERT statements, which it only
+    // does for the batches without generated keys
+    dataSource.addConnectionProperty("reWriteBatchedInserts",
+        String.valueOf(Config.getBoolProperty("dbReWriteBatchedInserts", true)));
+    return dataSource;
+  }
+
+  /**
+   * Enables the prepared statement pool of dbcp2 on a pool, before its first connection is
+   * created. The statement pools are reached through the pooled connections to read their
+   * counters.
+   *
+   * @param pool    the pool of connections
+   * @param maxSize the maximum number of statements kept for each connection
+   */
+  private static void poolStatements(BasicDataSource pool, int maxSize) {
+    pool.setPoolPreparedStatements(true);
+    pool.setMaxOpenPreparedStatements(maxSize);
+    pool.setAccessToUnderlyingConnectionAllowed(true);
+  }
+
+  /**
+   * Creates the bound on the sessions holding a connection of a pool.
+   *
+   * @param limit the number of sessions allowed to hold a connection of the pool at the same time
+   * @return the limiter, or null if the limit is not positive
+   */
+  private static ConnectionLimiter newLimiter(int limit) {
+    if (limit <= 0) {
+      return null;
+    }
+    return new ConnectionLimiter(limit, Config.getLongProperty("dbMaxWaitMillis", -1));
+  }
+
+  /**
+   * Creates the pool of the replica from the Config class.
+   *
+   * @return the pool of the replica, or null if the dbReplicaURL property is not set
+   */
+  private static BasicDataSource replicaDataSource() {
+    String replicaUrl = Config.getProperty("dbReplicaURL", null);
+    if (replicaUrl == null) {
+      return null;
+    }
+    BasicDataSource replicaDataSource = new BasicDataSource();
+    replicaDataSource.setUrl(replicaUrl);
+    replicaDataSource.setUsername(
+        Config.getProperty("dbReplicaUser", Config.getProperty("dbUser")));
+    replicaDataSource.setPassword(
+        Config.getProperty("dbReplicaPassword", Config.getProperty("dbPassword")));
+    replicaDataSource.setDefaultReadOnly(true);
+    configurePool(replicaDataSource, "dbReplica");
+    return replicaDataSource;
+  }
+
+  /**
+   * Configures the sizing, validation and eviction parameters of a pool from the Config class. Each
+   * parameter is read from a property made of the given prefix followed by the parameter name, for
+   * example dbMaxTotal. The defaults are the ones of dbcp2.
+   *
+   * @param pool   the pool to configure
+   * @param prefix the prefix of the properties
+   */
+  private static void configurePool(BasicDataSource pool, String prefix) {
+    pool.setMaxTotal(Config.getIntProperty(prefix + "MaxTotal", 8));
+    pool.setMaxIdle(Config.getIntProperty(prefix + "MaxIdle", 8));
+    pool.setMinIdle(Config.getIntProperty(prefix + "MinIdle", 0));
+    pool.setInitialSize(Config.getIntProperty(prefix + "InitialSize", 0));
+    pool.setMaxWait(Duration.ofMillis(Config.getLongProperty(prefix + "MaxWaitMillis", -1)));
+
+    // Validation of the connections
+    pool.setValidationQuery(Config.getProperty(prefix + "ValidationQuery", null));
+    pool.setValidationQueryTimeout(
+        Duration.ofSeconds(Config.getIntProperty(prefix + "ValidationQueryTimeoutSeconds", -1)));
+    pool.setTestOnBorrow(Config.getBoolProperty(prefix + "TestOnBorrow", true));
+    pool.setTestOnReturn(Config.getBoolProperty(prefix + "TestOnReturn", false));
+    pool.setTestWhileIdle(Config.getBoolProperty(prefix + "TestWhileIdle", false));
+
+    // Eviction of the idle and old connections
+    pool.setDurationBetweenEvictionRuns(
+        Duration.ofMillis(Config.getLongProperty(prefix + "TimeBetweenEvictionRunsMillis", -1)));
+    pool.setMinEvictableIdle(
+        Duration.ofMillis(Config.getLongProperty(prefix + "MinEvictableIdleMillis", 1_800_000)));
+    pool.setNumTestsPerEvictionRun(Config.getIntProperty(prefix + "NumTestsPerEvictionRun", 3));
+    pool.setMaxConn(
+        Duration.ofMillis(Config.getLongProperty(prefix + "MaxConnLifetimeMillis", -1)));
+  }
+
+  @Override
+  public Map<String, Object> getConnectionPoolStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("primary", poolMonitor.snapshot());
+    if (replicaRouter != null) {
+      stats.put("replica", replicaRouter.snapshot());
+    }
+    Map<String, Object> limits = new LinkedHashMap<>();
+    if (primaryLimiter != null) {
+      limits.put("primary", primaryLimiter.snapshot());
+    }
+    if (replicaLimiter != null) {
+      limits.put("replica", replicaLimiter.snapshot());
+    }
+    if (!limits.isEmpty()) {
+      stats.put("concurrencyLimit", limits);
+    }
+    return stats;
+  }
+
+  @Override
+  public Map<String, Object> getSessionStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("lazyConnection", lazyConnection);
+    stats.put("sessionsWithoutConnection", sessionsWithoutConnection.sum());
+    stats.put("sessionTime", sessionTime.snapshot());
+    stats.put("connectionHoldTime", connectionHoldTime.snapshot());
+    if (holdTimeStats != null) {
+      stats.put("byMethod", holdTimeStats.snapshot());
+    }
+    return stats;
+  }
+
+  @Override
+  public Map<String, Object> getStatementCacheStats() {
+    return statementCache == null ? Map.of("enabled", false) : statementCache.snapshot();
+  }
+
+  @Override
+  public Map<String, Object> getStatementStats(int limit) {
+    return statementStats == null ? Map.of("enabled", false) : statementStats.snapshot(limit);
   }
 
   /**
-   * Prepares a SQL query for execution.
+   * Adds the time of a statement execution to the SQL time of the session of the current thread.
+   *
+   * @param nanos the time of the execution
+   */
+  private void addSqlTime(long nanos) {
+    Session session = threadLocalSession.get();
+    if (session != null) {
+      session.sqlNanos += nanos;
+    }
+  }
+
+  /**
+   * Creates a session, remembering the method which opened it when the hold times are recorded.
+   *
+   * @param readOnly whether the session only reads data
+   * @return the new session
+   */
+  private Session newSession(boolean readOnly) {
+    return new Session(readOnly, holdTimeStats == null ? null : HoldTimeStats.caller());
+  }
+
+  /**
+   * Wraps a statement to time its executions, unless the statement statistics are disabled.
+   *
+   * @param ps    the statement
+   * @param query the SQL text of the statement
+   * @return the timed statement, or the statement itself
+   */
+  private PreparedStatement instrument(PreparedStatement ps, String query) {
+    return statementStats == null ? ps : statementStats.instrument(ps, query);
+  }
+
+  /**
+   * Prepares a SQL query for execution. The connection of the session is borrowed at this point if
+   * it has not been yet. When the statements are pooled, the statement is taken from the pool of
+   * the connection and closing it gives it back to the pool. The statement is timed when the
+   * statement statistics are enabled.
    *
    * @param query The SQL query to prepare.
    * @return A PreparedStatement object that represents the prepared query.
@@ -41,65 +365,341 @@ public class DALServicesImpl implements DALBackServices, DALServices {
    */
   @Override
   public PreparedStatement getPreparedStatement(String query) {
+    Session session = threadLocalSession.get();
+    if (session == null) {
+      throw new FatalException("No database session is open on this thread");
+    }
+    try {
+      PreparedStatement ps = connectionOf(session).prepareStatement(query);
+      if (statementCache != null) {
+        // A pooled statement keeps the fetch size of its previous streamed execution
+        ps.setFetchSize(0);
+      }
+      return instrument(ps, query);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Prepares a SQL query whose rows are read progressively. The driver fetches the rows by chunks
+   * of dbFetchSize rows with a server-side cursor, which requires the session to be a transaction.
+   *
+   * @param query The SQL query to prepare.
+   * @return A PreparedStatement object that represents the prepared query.
+   * @throws FatalException if the session is not a transaction or a SQLException is thrown.
+   */
+  @Override
+  public PreparedStatement getStreamingStatement(String query) {
+    Session session = threadLocalSession.get();
+    if (session == null || !session.transaction) {
+      throw new FatalException("Streaming a query requires a transaction");
+    }
+    PreparedStatement ps = getPreparedStatement(query);
     try {
-      return threadLocalConnection.get().prepareStatement(query);
+      ps.setFetchSize(fetchSize);
+      return ps;
     } catch (SQLException e) {
+      try {
+        ps.close();
+      } catch (SQLException ignored) {
+        // The statement is discarded anyway
+      }
       throw new FatalException(e);
     }
   }
 
   /**
-   * Opens a new database connection and sets it in the ThreadLocal. This method checks if a
-   * connection already exists in the ThreadLocal. If it does, the method returns without doing
-   * anything. If it doesn't, the method retrieves a new connection from the dataSource and sets it
-   * in the ThreadLocal. If a SQLException is thrown during this process, a FatalException is
-   * thrown.
+   * Returns the PostgreSQL COPY API of the connection of the current session, borrowing the
+   * connection if it has not been yet.
+   *
+   * @return The CopyManager of the current connection.
+   * @throws FatalException if the connection is not a PostgreSQL connection.
+   */
+  @Override
+  public CopyManager getCopyManager() {
+    Session session = threadLocalSession.get();
+    if (session == null) {
+      throw new FatalException("No database session is open on this thread");
+    }
+    try {
+      return connectionOf(session).unwrap(PGConnection.class).getCopyAPI();
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  @Override
+  public <T> int executeBatch(String query, List<? extends T> rows,
+      StatementBinder<? super T> binder) {
+    return executeBatch(query, rows, binder, null, null);
+  }
+
+  /**
+   * Executes a SQL query once for each row of a list, in chunks of dbBatchSize rows. The batch
+   * statements are pooled like the other statements, the chunks of a same size sharing their SQL
+   * text. Without a key column, each chunk is a JDBC batch. With a key column, each chunk is a
+   * single multi-row INSERT returning the generated keys, which are handed out in the order of the
+   * rows.
+   *
+   * @param query     The SQL query to execute for each row.
+   * @param rows      The rows to write.
+   * @param binder    The binder setting the parameters of the query from a row.
+   * @param keyColumn The name of the generated key column, or null if the keys are not needed.
+   * @param keySetter The consumer receiving each row along with its generated key, or null.
+   * @param <T>       The type of the rows.
+   * @return The number of rows written.
+   * @throws FatalException if a SQLException is thrown when executing the batch.
+   */
+  @Override
+  public <T> int executeBatch(String query, List<? extends T> rows,
+      StatementBinder<? super T> binder, String keyColumn, ObjIntConsumer<? super T> keySetter) {
+    Session session = threadLocalSession.get();
+    if (session == null) {
+      throw new FatalException("No database session is open on this thread");
+    }
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    Connection conn = connectionOf(session);
+    try {
+      if (keyColumn == null) {
+        return batchWriter.execute(conn, query, rows, binder);
+      }
+      return batchWriter.insertReturningKeys(conn, query, rows, binder, keyColumn, keySetter);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Registers a monitoring bean in the platform MBean server. A failure is only logged, as the
+   * application can run without its monitoring beans.
+   *
+   * @param name the JMX name of the bean
+   * @param bean the bean to register
+   */
+  private void registerMBean(String name, Object bean) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName objectName = new ObjectName(name);
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+      server.registerMBean(bean, objectName);
+    } catch (JMException e) {
+      Log4J.LOGGER.warn("Unable to register the MBean " + name + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Opens a new read-only database session and sets it in the ThreadLocal. This method checks if a
+   * session already exists in the ThreadLocal. If it does, the method returns without doing
+   * anything. If it doesn't, the method starts a new session and, unless the connection is borrowed
+   * lazily, retrieves a read-only connection from the replica, or a connection from the primary
+   * dataSource when no replica is available.
    *
    * @throws FatalException if a SQLException is thrown when retrieving a connection from the
    *                        dataSource
    */
   public void open() {
-    // Check if a connection already exists in the ThreadLocal
-    if (threadLocalConnection.get() != null) {
+    // Check if a session already exists in the ThreadLocal
+    if (threadLocalSession.get() != null) {
       return;
     }
+    Session session = newSession(true);
+    threadLocalSession.set(session);
+    if (!lazyConnection) {
+      connectionOf(session);
+    }
+  }
+
+  /**
+   * Starts a database transaction by setting auto-commit to false. The transaction always runs on
+   * a connection of the primary dataSource: when the session was opened with open() and already
+   * holds a connection to the replica, that connection is given back and one of the primary is
+   * borrowed instead.
+   *
+   * @throws RuntimeException if a SQLException is thrown when setting auto-commit.
+   */
+  @Override
+  public void startTransaction() {
+    Session session = threadLocalSession.get();
+    if (session == null) {
+      session = newSession(false);
+      threadLocalSession.set(session);
+    }
+    session.transaction = true;
+    // The writes of the transaction must run on the primary
+    session.readOnly = false;
+    if (session.replica) {
+      giveBackReplica(session);
+    }
+    if (session.connection != null) {
+      try {
+        session.connection.setAutoCommit(false);
+      } catch (SQLException e) {
+        throw new FatalException(e);
+      }
+    } else if (!lazyConnection) {
+      connectionOf(session);
+    }
+  }
+
+  /**
+   * Gives back the replica connection of a session opened with open(), before the session turns
+   * into a transaction, so that the transaction borrows a connection of the primary instead.
+   *
+   * @param session the session of the current thread
+   * @throws FatalException if a SQLException is thrown when closing the connection
+   */
+  private void giveBackReplica(Session session) {
+    Connection replica = session.connection;
+    ConnectionLimiter limiter = session.limiter;
+    session.connection = null;
+    session.limiter = null;
+    session.replica = false;
     try {
-      // Retrieve a new connection from the dataSource
-      Connection conn = dataSource.getConnection();
-      // Set the new connection in the ThreadLocal
-      threadLocalConnection.set(conn);
+      replica.close();
     } catch (SQLException e) {
-      // Throw a FatalException if a SQLException is thrown
       throw new FatalException(e);
+    } finally {
+      release(limiter);
     }
   }
 
   /**
-   * Starts a database transaction by setting auto-commit to false.
+   * Starts a read-only database transaction. Like a session opened with open(), it is routed to
+   * the replica when one is available, but the auto-commit of its connection is disabled, which
+   * lets the driver fetch the rows of the streamed queries with a cursor.
    *
    * @throws RuntimeException if a SQLException is thrown when setting auto-commit.
    */
   @Override
-  public void startTransaction() {
+  public void startReadOnlyTransaction() {
+    if (threadLocalSession.get() != null) {
+      throw new FatalException("A database session is already open on this thread");
+    }
+    Session session = newSession(true);
+    session.transaction = true;
+    threadLocalSession.set(session);
+    if (!lazyConnection) {
+      connectionOf(session);
+    }
+  }
+
+  /**
+   * Returns the connection of a session, borrowing it if the session does not hold one yet. The
+   * read-only sessions are routed to the replica when it is available, the other ones to the
+   * primary, and the session keeps the permit of the pool it was routed to.
+   *
+   * @param session the session of the current thread
+   * @return the connection of the session
+   * @throws FatalException if a SQLException is thrown when retrieving or setting up the connection
+   */
+  private Connection connectionOf(Session session) {
+    if (session.connection != null) {
+      return session.connection;
+    }
     try {
-      open();
-      threadLocalConnection.get().setAutoCommit(false);
+      Borrowed borrowed = borrow(session.readOnly);
+      Connection conn = borrowed.connection();
+      if (statementCache != null) {
+        statementCache.register(conn);
+      }
+      session.connection = conn;
+      session.limiter = borrowed.limiter();
+      session.replica = borrowed.replica();
+      session.borrowedAt = System.nanoTime();
+      if (session.transaction) {
+        conn.setAutoCommit(false);
+      }
+      return conn;
     } catch (SQLException e) {
+      // Throw a FatalException if a SQLException is thrown
       throw new FatalException(e);
     }
   }
 
   /**
-   * Commits the current database transaction and closes the connection.
+   * Borrows a connection under the permit of its pool. A read-only connection is borrowed from the
+   * replica under a permit of the replica; when the replica is down or lags too much, that permit
+   * is given back and the connection is borrowed from the primary under a permit of the primary.
+   *
+   * @param readOnly whether the connection only reads data and can come from the replica
+   * @return the connection and the permit it holds
+   * @throws SQLException if no connection of the primary could be borrowed
+   */
+  private Borrowed borrow(boolean readOnly) throws SQLException {
+    if (readOnly && replicaRouter != null) {
+      acquire(replicaLimiter);
+      Connection conn;
+      try {
+        conn = replicaRouter.borrow();
+      } catch (RuntimeException e) {
+        release(replicaLimiter);
+        throw e;
+      }
+      if (conn != null) {
+        return new Borrowed(conn, replicaLimiter, true);
+      }
+      release(replicaLimiter);
+    }
+    acquire(primaryLimiter);
+    try {
+      return new Borrowed(poolMonitor.borrow(), primaryLimiter, false);
+    } catch (SQLException | RuntimeException e) {
+      release(primaryLimiter);
+      throw e;
+    }
+  }
+
+  /**
+   * Ends the session of the current thread and records how long it lasted and how long it held a
+   * connection.
+   *
+   * @return the session, or null if the thread has no session
+   */
+  private Session endSession() {
+    Session session = threadLocalSession.get();
+    threadLocalSession.remove();
+    if (session == null) {
+      return null;
+    }
+    long end = System.nanoTime();
+    sessionTime.record(end - session.startedAt);
+    if (session.connection == null) {
+      sessionsWithoutConnection.increment();
+    } else {
+      connectionHoldTime.record(end - session.borrowedAt);
+      if (holdTimeStats != null) {
+        holdTimeStats.record(session.owner, end - session.borrowedAt,
+            statementStats == null ? -1 : session.sqlNanos);
+      }
+    }
+    if (Log4J.LOGGER.isDebugEnabled()) {
+      Log4J.LOGGER.debug(String.format("Database session of %.3f ms, connection held %.3f ms",
+          (end - session.startedAt) / 1_000_000.0,
+          session.connection == null ? 0 : (end - session.borrowedAt) / 1_000_000.0));
+    }
+    return session;
+  }
+
+  /**
+   * Commits the current database transaction and closes the connection. Nothing is done if no
+   * connection was borrowed during the transaction.
    *
    * @throws RuntimeException if a SQLException is thrown when committing the transaction or closing
    *                          the connection.
    */
   @Override
   public void commit() {
-    Connection conn = threadLocalConnection.get();
+    Session session = endSession();
+    if (session == null || session.connection == null) {
+      return;
+    }
+    Connection conn = session.connection;
     try (conn) {
-      threadLocalConnection.remove();
       conn.commit();
       conn.setAutoCommit(true);
     } catch (SQLException e) {
@@ -109,20 +709,26 @@ public class DALServicesImpl implements DALBackServices, DALServices {
         throw new FatalException(e);
       }
       throw new FatalException(e);
+    } finally {
+      release(session.limiter);
     }
   }
 
   /**
-   * Rolls back the current database transaction and closes the connection.
+   * Rolls back the current database transaction and closes the connection. Nothing is done if no
+   * connection was borrowed during the transaction.
    *
    * @throws RuntimeException if a SQLException is thrown when rolling back the transaction or
    *                          closing the connection.
    */
   @Override
   public void rollback() {
-    Connection conn = threadLocalConnection.get();
+    Session session = endSession();
+    if (session == null || session.connection == null) {
+      return;
+    }
+    Connection conn = session.connection;
     try (conn) {
-      threadLocalConnection.remove();
       conn.rollback();
       conn.setAutoCommit(true);
     } catch (SQLException e) {
@@ -132,25 +738,134 @@ public class DALServicesImpl implements DALBackServices, DALServices {
         throw new FatalException(e);
       }
       throw new FatalException(e);
+    } finally {
+      release(session.limiter);
     }
   }
 
   /**
-   * Closes the current database connection and removes it from the ThreadLocal. This method
-   * retrieves the Connection object from the ThreadLocal and attempts to close it. The Connection
-   * object is then removed from the ThreadLocal. If a SQLException is thrown during the process, a
-   * RuntimeException is thrown.
+   * Closes the current database session and removes it from the ThreadLocal. The connection of the
+   * session, if one was borrowed, is given back to the pool. If a SQLException is thrown during the
+   * process, a RuntimeException is thrown.
    *
    * @throws RuntimeException if a SQLException is thrown when closing the connection.
    */
   @Override
   public void close() {
+    Session session = endSession();
+    if (session == null || session.connection == null) {
+      return;
+    }
+    Connection conn = session.connection;
     try {
-      Connection conn = threadLocalConnection.get();
-      threadLocalConnection.remove();
       conn.close();
     } catch (SQLException e) {
       throw new FatalException(e);
+    } finally {
+      release(session.limiter);
+    }
+  }
+
+  /**
+   * Waits for a permit of a pool.
+   *
+   * @param limiter the limiter of the pool, or null if the pool is not bounded
+   */
+  private static void acquire(ConnectionLimiter limiter) {
+    if (limiter != null) {
+      limiter.acquire();
+    }
+  }
+
+  /**
+   * Gives back a permit of a pool once its connection is back in the pool.
+   *
+   * @param limiter the limiter of the pool, or null if the pool is not bounded
+   */
+  private static void release(ConnectionLimiter limiter) {
+    if (limiter != null) {
+      limiter.release();
+    }
+  }
+
+  /**
+   * A borrowed connection, with the permit of its pool.
+   *
+   * @param connection the connection
+   * @param limiter    the limiter of its pool, or null if the pool is not bounded
+   * @param replica    whether the connection was borrowed from the replica
+   */
+  private record Borrowed(Connection connection, ConnectionLimiter limiter, boolean replica) {
+
+  }
+
+  /**
+   * The source of the connections capturing the plan of the slow queries. They are read-only
+   * queries, so they run on the replica when it is available. Each capture holds a permit of its
+   * pool like a session does, so it never takes the connection of a waiting session.
+   */
+  private final class ExplainConnections implements PlanCapture.ConnectionSource {
+
+    // Limiter whose permit is held by each borrowed connection
+    private final Map<Connection, ConnectionLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public Connection borrow() throws SQLException {
+      Borrowed borrowed = DALServicesImpl.this.borrow(true);
+      if (borrowed.limiter() != null) {
+        limiters.put(borrowed.connection(), borrowed.limiter());
+      }
+      return borrowed.connection();
+    }
+
+    @Override
+    public void giveBack(Connection conn) {
+      try {
+        conn.close();
+      } catch (SQLException e) {
+        Log4J.LOGGER.warn("Unable to close the connection of a plan capture: " + e.getMessage());
+      } finally {
+        release(limiters.remove(conn));
+      }
+    }
+  }
+
+  /**
+   * The database session of a thread, from open() or startTransaction() to close(), commit() or
+   * rollback().
+   */
+  private static final class Session {
+
+    // Whether the session only reads data and can run on the replica
+    private boolean readOnly;
+
+    // Time at which the session started, in System.nanoTime() units
+    private final long startedAt = System.nanoTime();
+
+    // Whether a transaction has been started in the session
+    private boolean transaction;
+
+    // The connection of the session, null until it is borrowed
+    private Connection connection;
+
+    // Whether the connection of the session was borrowed from the replica
+    private boolean replica;
+
+    // Limiter whose permit the session holds, null if it holds none
+    private ConnectionLimiter limiter;
+
+    // Time at which the connection was borrowed, in System.nanoTime() units
+    private long borrowedAt;
+
+    // The method which opened the session, null if the hold times are not recorded
+    private final String owner;
+
+    // Time spent running SQL, in nanoseconds
+    private long sqlNanos;
+
+    Session(boolean readOnly, String owner) {
+      this.readOnly = readOnly;
+      this.owner = owner;
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.logger.Log4J;
+import be.vinci.pae.utils.LatencyHistogram;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The HoldTimeStats class aggregates, for each UCC method opening database sessions, the time
+ * during which its sessions held a pooled connection and the time they spent running SQL. A
+ * session holding its connection much longer than it runs SQL keeps the connection away from the
+ * other requests while doing other work, such as hashing a password. Such a session is logged as a
+ * warning when it held its connection longer than the warning threshold and more than the given
+ * ratio of its SQL time.
+ *
+ * <p>The SQL time is measured by the statement statistics: without them, only the hold times are
+ * recorded and no warning is logged.
+ */
+final class HoldTimeStats {
+
+  // Name of the sessions whose caller is not found
+  private static final String UNKNOWN = "(unknown)";
+
+  // Walker finding the method that opened a session
+  private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+  // Hold time above which a session may be logged
+  private final long warnNanos;
+
+  // Ratio of the hold time to the SQL time above which a session is logged
+  private final double warnRatio;
+
+  // The aggregated times of each UCC method
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new statistics registry.
+   *
+   * @param warnMillis the hold time above which a session may be logged, negative to disable the
+   *                   warnings
+   * @param warnRatio  the ratio of the hold time to the SQL time above which a session is logged
+   */
+  HoldTimeStats(long warnMillis, double warnRatio) {
+    this.warnNanos = warnMillis < 0 ? -1 : warnMillis * 1_000_000;
+    this.warnRatio = warnRatio;
+  }
+
+  /**
+   * Finds the method opening a session: the first caller outside of the data access layer.
+   *
+   * @return the simple name of its class followed by its name
+   */
+  static String caller() {
+    return STACK_WALKER.walk(frames -> frames
+        .filter(frame -> !frame.getClassName().startsWith("be.vinci.pae.dal."))
+        .findFirst()
+        .map(frame -> {
+          String className = frame.getClassName();
+          return className.substring(className.lastIndexOf('.') + 1) + "."
+              + frame.getMethodName();
+        })
+        .orElse(UNKNOWN));
+  }
+
+  /**
+   * Records a session which held a connection.
+   *
+   * @param owner     the method which opened the session
+   * @param holdNanos the time during which the session held its connection
+   * @param sqlNanos  the time the session spent running SQL, negative if it was not measured
+   */
+  void record(String owner, long holdNanos, long sqlNanos) {
+    Entry entry = entries.computeIfAbsent(owner == null ? UNKNOWN : owner, key -> new Entry());
+    entry.holdTime.record(holdNanos);
+    if (sqlNanos < 0) {
+      return;
+    }
+    entry.sqlTime.record(sqlNanos);
+    entry.idleTime.record(holdNanos - sqlNanos);
+    if (warnNanos < 0 || holdNanos < warnNanos || holdNanos < warnRatio * sqlNanos) {
+      return;
+    }
+    entry.warnings.increment();
+    Log4J.LOGGER.warn(String.format(
+        "%s held a database connection %.3f ms for %.3f ms of SQL", owner,
+        holdNanos / 1_000_000.0, sqlNanos / 1_000_000.0));
+  }
+
+  /**
+   * Returns the times of each UCC method, suitable for JSON serialization.
+   *
+   * @return the hold, SQL and idle times and the number of warnings of each method, by name
+   */
+  Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new TreeMap<>();
+    entries.forEach((owner, entry) -> snapshot.put(owner, Map.of(
+        "holdTime", entry.holdTime.snapshot(),
+        "sqlTime", entry.sqlTime.snapshot(),
+        "idleTime", entry.idleTime.snapshot(),
+        "warnings", entry.warnings.sum())));
+    return snapshot;
+  }
+
+  /**
+   * The aggregated times of the sessions of a UCC method.
+   */
+  private static final class Entry {
+
+    // Time during which the sessions held a connection
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+
+    // Time spent running SQL
+    private final LatencyHistogram sqlTime = new LatencyHistogram();
+
+    // Time during which a connection was held without running SQL
+    private final LatencyHistogram idleTime = new LatencyHistogram();
+
+    // Number of sessions logged as holding their connection for too long
+    private final LongAdder warnings = new LongAdder();
+  }
+}
@@ -0,0 +1,143 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.logger.Log4J;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The PlanCapture class captures the EXPLAIN ANALYZE plan of the slow queries off the request path.
+ * The SQL text and the parameters of a slow execution are handed to a single background thread,
+ * which runs the query again on a connection of its own and writes the plan to the slow query log.
+ * The request that ran the slow query neither waits for the plan nor holds its connection longer.
+ *
+ * <p>The plan is captured outside of the transaction of the request, so it does not see the rows
+ * that transaction wrote without committing them. The captures are queued up to a bound, beyond
+ * which they are dropped rather than delaying the next ones.
+ */
+final class PlanCapture {
+
+  // Source of the connections running the captures
+  private final ConnectionSource connections;
+
+  // Single thread running the captures, one at a time
+  private final ThreadPoolExecutor executor;
+
+  // Number of captures dropped because the queue was full
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * Creates a plan capture.
+   *
+   * @param connections the source of the connections running the captures
+   * @param queueSize   the maximum number of captures waiting for the background thread
+   */
+  PlanCapture(ConnectionSource connections, int queueSize) {
+    this.connections = connections;
+    this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+          Thread thread = new Thread(runnable, "slow-query-explain");
+          thread.setDaemon(true);
+          return thread;
+        }, (runnable, pool) -> dropped.increment());
+  }
+
+  /**
+   * Queues the capture of the plan of a query.
+   *
+   * @param sql      the SQL text of the query
+   * @param bindings the setter calls of its parameters, in the order of their indexes
+   */
+  void submit(String sql, List<TimedStatement.Binding> bindings) {
+    executor.execute(
+        () -> Log4J.SLOW_QUERIES.warn("Plan of " + sql + "\n" + explain(sql, bindings)));
+  }
+
+  /**
+   * Runs a query with EXPLAIN ANALYZE on a connection of the source. The capture runs in a
+   * transaction that is always rolled back.
+   *
+   * @param sql      the SQL text of the query
+   * @param bindings the setter calls of its parameters
+   * @return the plan of the query, or the reason why it could not be captured
+   */
+  String explain(String sql, List<TimedStatement.Binding> bindings) {
+    StringBuilder plan = new StringBuilder();
+    Connection conn = null;
+    try {
+      conn = connections.borrow();
+      conn.setAutoCommit(false);
+      try (PreparedStatement explain = conn.prepareStatement(
+          "EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+        for (TimedStatement.Binding binding : bindings) {
+          binding.apply(explain);
+        }
+        try (ResultSet rs = explain.executeQuery()) {
+          while (rs.next()) {
+            plan.append(rs.getString(1)).append('\n');
+          }
+        }
+      }
+      return plan.toString();
+    } catch (SQLException | ReflectiveOperationException | RuntimeException e) {
+      // A RuntimeException is thrown when no connection could be borrowed in time
+      return "EXPLAIN ANALYZE failed: " + e.getMessage();
+    } finally {
+      if (conn != null) {
+        giveBack(conn);
+      }
+    }
+  }
+
+  /**
+   * Rolls back the capture and gives its connection back to the source.
+   *
+   * @param conn the connection of the capture
+   */
+  private void giveBack(Connection conn) {
+    try {
+      conn.rollback();
+      conn.setAutoCommit(true);
+    } catch (SQLException e) {
+      Log4J.LOGGER.warn("Unable to roll back the capture of a plan: " + e.getMessage());
+    } finally {
+      connections.giveBack(conn);
+    }
+  }
+
+  /**
+   * Returns the number of captures dropped because the queue was full.
+   *
+   * @return the number of dropped captures
+   */
+  long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * The source of the connections running the captures.
+   */
+  interface ConnectionSource {
+
+    /**
+     * Borrows a connection.
+     *
+     * @return the connection
+     * @throws SQLException if no connection could be borrowed
+     */
+    Connection borrow() throws SQLException;
+
+    /**
+     * Gives back a borrowed connection.
+     *
+     * @param conn the connection
+     */
+    void giveBack(Connection conn);
+  }
+}
@@ -0,0 +1,175 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.logger.Log4J;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+/**
+ * The ReplicaRouter class hands out read-only connections to a PostgreSQL replica. It keeps track
+ * of the health of the replica: when a connection cannot be borrowed, the replica is considered
+ * down for a while, and the replication lag is measured periodically on a borrowed connection. In
+ * both cases the router returns null so that the caller falls back to the primary.
+ */
+class ReplicaRouter {
+
+  // Replication lag in milliseconds, 0 when the replica has replayed everything it received
+  private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+      + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+      + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) "
+      + "END";
+
+  // Monitor borrowing the connections of the replica pool
+  private final ConnectionPoolMonitor poolMonitor;
+
+  // Maximum accepted replication lag, in milliseconds
+  private final long maxLagMillis;
+
+  // Delay between two measures of the replication lag, in milliseconds
+  private final long lagCheckIntervalMillis;
+
+  // Delay before trying the replica again after a failure, in milliseconds
+  private final long retryDelayMillis;
+
+  // Time before which the replica is not used, in System.currentTimeMillis() units
+  private volatile long unavailableUntil;
+
+  // Last measured replication lag, in milliseconds
+  private volatile long lastLagMillis;
+
+  // Time at which the lag has to be measured again
+  private final AtomicLong nextLagCheck = new AtomicLong();
+
+  // Counters of the routing decisions
+  private final LongAdder routed = new LongAdder();
+  private final LongAdder fallbacks = new LongAdder();
+
+  /**
+   * Creates a router for a replica pool.
+   *
+   * @param dataSource             the pool of connections to the replica
+   * @param maxLagMillis           the maximum accepted replication lag, in milliseconds
+   * @param lagCheckIntervalMillis the delay between two measures of the lag, in milliseconds
+   * @param retryDelayMillis       the delay before trying the replica again after a failure, in
+   *                               milliseconds
+   */
+  ReplicaRouter(BasicDataSource dataSource, long maxLagMillis, long lagCheckIntervalMillis,
+      long retryDelayMillis) {
+    this.poolMonitor = new ConnectionPoolMonitor(dataSource);
+    this.maxLagMillis = maxLagMillis;
+    this.lagCheckIntervalMillis = lagCheckIntervalMillis;
+    this.retryDelayMillis = retryDelayMillis;
+  }
+
+  /**
+   * Borrows a read-only connection from the replica.
+   *
+   * @return a connection to the replica, or null if the replica is down or lagging and the primary
+   *         has to be used instead
+   */
+  Connection borrow() {
+    long now = System.currentTimeMillis();
+    if (now < unavailableUntil) {
+      fallbacks.increment();
+      return null;
+    }
+    Connection conn;
+    try {
+      conn = poolMonitor.borrow();
+    } catch (SQLException e) {
+      markUnavailable(now, "Replica unavailable, falling back to the primary: " + e.getMessage());
+      return null;
+    }
+    long nextCheck = nextLagCheck.get();
+    if (now >= nextCheck && nextLagCheck.compareAndSet(nextCheck, now + lagCheckIntervalMillis)
+        && !checkLag(conn, now)) {
+      closeQuietly(conn);
+      return null;
+    }
+    routed.increment();
+    return conn;
+  }
+
+  /**
+   * Measures the replication lag on a connection to the replica.
+   *
+   * @param conn a connection to the replica
+   * @param now  the current time
+   * @return true if the replica can be used, false if it lags too much or the lag cannot be read
+   */
+  private boolean checkLag(Connection conn, long now) {
+    try (PreparedStatement ps = conn.prepareStatement(LAG_QUERY);
+        ResultSet rs = ps.executeQuery()) {
+      rs.next();
+      lastLagMillis = rs.getLong(1);
+    } catch (SQLException e) {
+      markUnavailable(now, "Unable to read the replication lag: " + e.getMessage());
+      return false;
+    }
+    if (lastLagMillis > maxLagMillis) {
+      // Keep reading from the primary until the next measure
+      markUnavailable(now,
+          "Replica lagging by " + lastLagMillis + " ms, falling back to the primary");
+      unavailableUntil = now + lagCheckIntervalMillis;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Stops routing to the replica for the retry delay.
+   *
+   * @param now     the current time
+   * @param message the reason, logged as a warning
+   */
+  private void markUnavailable(long now, String message) {
+    fallbacks.increment();
+    unavailableUntil = now + retryDelayMillis;
+    nextLagCheck.set(0);
+    Log4J.LOGGER.warn(message);
+  }
+
+  /**
+   * Closes a connection, ignoring any error.
+   *
+   * @param conn the connection to close
+   */
+  private static void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException ignored) {
+      // The connection is discarded anyway
+    }
+  }
+
+  /**
+   * Returns the monitor of the replica pool.
+   *
+   * @return the monitor of the replica pool
+   */
+  ConnectionPoolMonitor getPoolMonitor() {
+    return poolMonitor;
+  }
+
+  /**
+   * Returns a snapshot of the state of the replica, suitable for JSON serialization.
+   *
+   * @return the routing counters, the last measured lag and the gauges of the replica pool
+   */
+  Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("available", System.currentTimeMillis() >= unavailableUntil);
+    snapshot.put("lastLagMs", lastLagMillis);
+    snapshot.put("maxLagMs", maxLagMillis);
+    snapshot.put("routedSessions", routed.sum());
+    snapshot.put("fallbackSessions", fallbacks.sum());
+    snapshot.put("pool", poolMonitor.snapshot());
+    return snapshot;
+  }
+}
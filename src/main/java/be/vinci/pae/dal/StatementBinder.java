@@ -0,0 +1,26 @@
+package be.vinci.pae.dal;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * The StatementBinder interface sets the parameters of a prepared statement from one row of a
+ * batch. It is used by the DAOs to describe how their objects are written in a batch. As a
+ * multi-row statement holds the parameters of several rows, the parameters of a row are set after
+ * an offset.
+ *
+ * @param <T> the type of the rows of the batch
+ */
+@FunctionalInterface
+public interface StatementBinder<T> {
+
+  /**
+   * Sets the parameters of the statement from a row, the first one at index offset + 1.
+   *
+   * @param ps     the statement whose parameters are set
+   * @param offset the number of parameters set before those of the row
+   * @param row    the row to bind
+   * @throws SQLException if a parameter cannot be set
+   */
+  void bind(PreparedStatement ps, int offset, T row) throws SQLException;
+}
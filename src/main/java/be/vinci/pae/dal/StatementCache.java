@@ -0,0 +1,135 @@
+package be.vinci.pae.dal;
+
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.apache.commons.dbcp2.PoolingConnection;
+import org.apache.commons.pool2.KeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+
+/**
+ * The StatementCache class exposes the counters of the prepared statement pools of dbcp2. With
+ * poolPreparedStatements enabled, each physical connection of the pool keeps its prepared
+ * statements, keyed by their SQL text, so that they survive the close() calls of the DAOs and the
+ * open() and close() cycles of the DAL. Reusing the same statement lets the PostgreSQL driver
+ * switch to a server-side prepared statement instead of parsing and planning the query again. The
+ * statements left open by a DAO are given back to the pool along with their connection.
+ *
+ * <p>The statement pool of a connection is registered the first time the connection is borrowed.
+ * The counters of the pools closed along with their connection are kept in the totals.
+ */
+class StatementCache implements StatementCacheMXBean {
+
+  // Maximum number of statements kept for each connection
+  private final int maxSizePerConnection;
+
+  // The statement pools of the open connections
+  private final Set<GenericKeyedObjectPool<?, ?>> pools = ConcurrentHashMap.newKeySet();
+
+  // Counters of the statement pools of the closed connections
+  private final LongAdder closedBorrows = new LongAdder();
+  private final LongAdder closedCreations = new LongAdder();
+  private final LongAdder closedDestructions = new LongAdder();
+
+  /**
+   * Creates a new statement cache.
+   *
+   * @param maxSizePerConnection the maximum number of statements kept for each connection
+   */
+  StatementCache(int maxSizePerConnection) {
+    this.maxSizePerConnection = maxSizePerConnection;
+  }
+
+  /**
+   * Registers the statement pool of a borrowed connection, if it has one.
+   *
+   * @param connection the connection handed out by dbcp2
+   */
+  void register(Connection connection) {
+    Connection conn = connection;
+    while (conn instanceof DelegatingConnection<?> delegating) {
+      if (conn instanceof PoolingConnection pooling) {
+        KeyedObjectPool<?, ?> pool = pooling.getStatementPool();
+        if (pool instanceof GenericKeyedObjectPool<?, ?> generic && !generic.isClosed()) {
+          pools.add(generic);
+        }
+        return;
+      }
+      conn = delegating.getDelegate();
+    }
+  }
+
+  /**
+   * Moves the counters of the pools closed along with their connection to the totals.
+   */
+  private void purgeClosedPools() {
+    for (GenericKeyedObjectPool<?, ?> pool : pools) {
+      if (pool.isClosed() && pools.remove(pool)) {
+        closedBorrows.add(pool.getBorrowedCount());
+        closedCreations.add(pool.getCreatedCount());
+        closedDestructions.add(pool.getDestroyedCount());
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the counters of the cache, suitable for JSON serialization.
+   *
+   * @return the counters of the cache
+   */
+  Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("enabled", true);
+    snapshot.put("maxSizePerConnection", getMaxSizePerConnection());
+    snapshot.put("size", getSize());
+    snapshot.put("hits", getHits());
+    snapshot.put("misses", getMisses());
+    snapshot.put("evictions", getEvictions());
+    snapshot.put("hitRatio", getHitRatio());
+    return snapshot;
+  }
+
+  @Override
+  public long getHits() {
+    purgeClosedPools();
+    long borrows = closedBorrows.sum() + pools.stream()
+        .mapToLong(GenericKeyedObjectPool::getBorrowedCount).sum();
+    return Math.max(0, borrows - getMisses());
+  }
+
+  @Override
+  public long getMisses() {
+    purgeClosedPools();
+    return closedCreations.sum() + pools.stream()
+        .mapToLong(GenericKeyedObjectPool::getCreatedCount).sum();
+  }
+
+  @Override
+  public long getEvictions() {
+    purgeClosedPools();
+    return closedDestructions.sum() + pools.stream()
+        .mapToLong(GenericKeyedObjectPool::getDestroyedCount).sum();
+  }
+
+  @Override
+  public int getSize() {
+    purgeClosedPools();
+    return pools.stream().mapToInt(pool -> pool.getNumIdle() + pool.getNumActive()).sum();
+  }
+
+  @Override
+  public int getMaxSizePerConnection() {
+    return maxSizePerConnection;
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hitCount = getHits();
+    long total = hitCount + getMisses();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+}
@@ -0,0 +1,51 @@
+package be.vinci.pae.dal;
+
+/**
+ * The StatementCacheMXBean interface exposes the counters of the prepared statement cache through
+ * JMX. The counters are cumulated over every pooled connection since the start of the application.
+ */
+public interface StatementCacheMXBean {
+
+  /**
+   * Returns the number of statements served from the cache.
+   *
+   * @return the number of cache hits
+   */
+  long getHits();
+
+  /**
+   * Returns the number of statements that had to be prepared because they were not cached.
+   *
+   * @return the number of cache misses
+   */
+  long getMisses();
+
+  /**
+   * Returns the number of statements closed because the cache of their connection was full or
+   * the connection was closed by the pool.
+   *
+   * @return the number of evictions
+   */
+  long getEvictions();
+
+  /**
+   * Returns the number of statements currently cached, all connections combined.
+   *
+   * @return the number of cached statements
+   */
+  int getSize();
+
+  /**
+   * Returns the maximum number of statements cached for each connection.
+   *
+   * @return the maximum size of the cache of a connection
+   */
+  int getMaxSizePerConnection();
+
+  /**
+   * Returns the ratio between the hits and the total number of requested statements.
+   *
+   * @return the hit ratio, between 0 and 1
+   */
+  double getHitRatio();
+}
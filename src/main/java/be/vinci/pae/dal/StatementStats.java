@@ -0,0 +1,268 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.logger.Log4J;
+import be.vinci.pae.utils.LatencyHistogram;
+import java.sql.PreparedStatement;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * The StatementStats class aggregates the timings of the statements executed through the DAL, for
+ * each distinct SQL text: the time spent executing them, the time spent fetching their rows, the
+ * number of rows they returned or modified and the types of their bound parameters. The statements
+ * handed out to the DAOs are wrapped by TimedStatement, which reports each execution here.
+ *
+ * <p>An execution lasting longer than the slow query threshold is logged by the slowQueries
+ * logger, configured in log4j2.xml to write to its own file. When enabled, the plan of a slow
+ * query is captured with EXPLAIN ANALYZE by PlanCapture, at most once per SQL text in a given
+ * interval. The query runs a second time to be explained, in the background and on another
+ * connection, so the plan is logged after the slow execution. Only the queries that do not write
+ * are explained this way.
+ */
+class StatementStats {
+
+  // Key grouping the statements received once the maximum number of SQL texts is reached
+  private static final String OVERFLOW = "(other statements)";
+
+  // Maximum number of distinct parameter types kept for each SQL text
+  private static final int MAX_SHAPES = 8;
+
+  // Maximum number of distinct SQL texts
+  private final int maxStatements;
+
+  // Duration above which an execution is logged as slow, negative if disabled
+  private final long slowQueryNanos;
+
+  // Capture of the plan of the slow queries, null if disabled
+  private final PlanCapture planCapture;
+
+  // Minimum time between two captures of the plan of the same SQL text
+  private final long explainIntervalNanos;
+
+  // The aggregated timings of each SQL text
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  // Number of slow executions
+  private final LongAdder slowQueries = new LongAdder();
+
+  // Receiver of the time of each execution, on the thread which ran it
+  private final LongConsumer executionListener;
+
+  /**
+   * Creates a new statistics registry.
+   *
+   * @param maxStatements         the maximum number of distinct SQL texts
+   * @param slowQueryMillis       the duration above which an execution is slow, negative to disable
+   *                              the slow query log
+   * @param planCapture           the capture of the plan of the slow queries, null to disable it
+   * @param explainIntervalMillis the minimum time between two captures for the same SQL text
+   * @param executionListener     the receiver of the time of each execution, called on the thread
+   *                              which ran it
+   */
+  StatementStats(int maxStatements, long slowQueryMillis, PlanCapture planCapture,
+      long explainIntervalMillis, LongConsumer executionListener) {
+    this.maxStatements = maxStatements;
+    this.slowQueryNanos = slowQueryMillis < 0 ? -1 : slowQueryMillis * 1_000_000;
+    this.planCapture = planCapture;
+    this.explainIntervalNanos = explainIntervalMillis * 1_000_000;
+    this.executionListener = executionListener;
+  }
+
+  /**
+   * Wraps a statement so that its executions are timed and reported to this registry.
+   *
+   * @param statement the statement to wrap
+   * @param sql       the SQL text of the statement
+   * @return the timed statement
+   */
+  PreparedStatement instrument(PreparedStatement statement, String sql) {
+    return new TimedStatement(statement, sql, this, entry(sql), planCapture != null)
+        .proxy();
+  }
+
+  /**
+   * Returns the entry of a SQL text, creating it if the maximum number of SQL texts has not been
+   * reached.
+   *
+   * @param sql the SQL text
+   * @return the entry of the SQL text, or the overflow entry
+   */
+  private Entry entry(String sql) {
+    Entry entry = entries.get(sql);
+    if (entry != null) {
+      return entry;
+    }
+    String key = entries.size() < maxStatements ? sql : OVERFLOW;
+    return entries.computeIfAbsent(key, k -> new Entry(explainIntervalNanos));
+  }
+
+  /**
+   * Records a finished execution, and logs it if it is slow.
+   *
+   * @param statement the statement that ran the execution
+   * @param entry     the entry of its SQL text
+   * @param execution the execution
+   */
+  void record(TimedStatement statement, Entry entry, TimedStatement.Execution execution) {
+    long total = execution.executionNanos + execution.fetchNanos;
+    executionListener.accept(total);
+    entry.executionTime.record(execution.executionNanos);
+    entry.fetchTime.record(execution.fetchNanos);
+    entry.totalTime.record(total);
+    entry.rows.add(execution.rows);
+    entry.maxRows.accumulate(execution.rows);
+    entry.shape(execution.shape).increment();
+    if (slowQueryNanos < 0 || total < slowQueryNanos) {
+      return;
+    }
+    slowQueries.increment();
+    entry.slowQueries.increment();
+    StringBuilder message = new StringBuilder(String.format(
+        "%.3f ms (execution %.3f ms, fetch %.3f ms), %d rows, parameters %s: %s",
+        total / 1_000_000.0, execution.executionNanos / 1_000_000.0,
+        execution.fetchNanos / 1_000_000.0, execution.rows, execution.shape,
+        statement.sql()));
+    if (planCapture != null && TimedStatement.isQuery(statement.sql()) && entry.tryExplain()) {
+      planCapture.submit(statement.sql(), statement.bindings());
+    }
+    Log4J.SLOW_QUERIES.warn(message.toString());
+  }
+
+  /**
+   * Records an execution that threw an exception, and logs the SQL text that failed.
+   *
+   * @param statement the statement that ran the execution
+   * @param entry     the entry of its SQL text
+   * @param nanos     the time spent before the exception
+   * @param e         the exception
+   */
+  void recordFailure(TimedStatement statement, Entry entry, long nanos, Throwable e) {
+    entry.failures.increment();
+    executionListener.accept(nanos);
+    entry.executionTime.record(nanos);
+    Log4J.LOGGER.warn(String.format("SQL statement failed after %.3f ms (%s): %s",
+        nanos / 1_000_000.0, e.getMessage(), statement.sql()));
+  }
+
+  /**
+   * Returns a snapshot of the statistics, suitable for JSON serialization. The SQL texts are
+   * sorted by the total time spent running them, the most expensive first.
+   *
+   * @param limit the maximum number of SQL texts returned
+   * @return the settings of the registry and the statistics of the most expensive SQL texts
+   */
+  Map<String, Object> snapshot(int limit) {
+    List<Map.Entry<String, Entry>> sorted = entries.entrySet().stream()
+        .sorted(Comparator.comparingDouble(
+            (Map.Entry<String, Entry> e) -> e.getValue().totalTime.getTotalMillis()).reversed())
+        .limit(limit)
+        .toList();
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("enabled", true);
+    snapshot.put("slowQueryMillis", slowQueryNanos < 0 ? -1 : slowQueryNanos / 1_000_000);
+    snapshot.put("explainSlowQueries", planCapture != null);
+    snapshot.put("droppedExplains", planCapture == null ? 0 : planCapture.getDropped());
+    snapshot.put("distinctStatements", entries.size());
+    snapshot.put("slowQueries", slowQueries.sum());
+    snapshot.put("statements", sorted.stream().map(e -> e.getValue().snapshot(e.getKey()))
+        .toList());
+    return snapshot;
+  }
+
+  /**
+   * The aggregated timings of one SQL text.
+   */
+  static final class Entry {
+
+    // Time spent executing the statement, until the first rows are available
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+
+    // Time spent reading the rows of the result
+    private final LatencyHistogram fetchTime = new LatencyHistogram();
+
+    // Time spent executing the statement and reading its rows
+    private final LatencyHistogram totalTime = new LatencyHistogram();
+
+    // Number of rows read or modified, in total and at most in one execution
+    private final LongAdder rows = new LongAdder();
+    private final LongAccumulator maxRows = new LongAccumulator(Math::max, 0);
+
+    // Number of executions that threw an exception
+    private final LongAdder failures = new LongAdder();
+
+    // Number of slow executions
+    private final LongAdder slowQueries = new LongAdder();
+
+    // Number of executions for each list of parameter types
+    private final Map<String, LongAdder> shapes = new ConcurrentHashMap<>();
+
+    // Minimum time between two captures of the plan
+    private final long explainIntervalNanos;
+
+    // Time at which the plan was last captured, in System.nanoTime() units
+    private final AtomicLong lastExplain;
+
+    Entry(long explainIntervalNanos) {
+      this.explainIntervalNanos = explainIntervalNanos;
+      this.lastExplain = new AtomicLong(System.nanoTime() - explainIntervalNanos);
+    }
+
+    /**
+     * Returns the counter of a list of parameter types.
+     *
+     * @param shape the list of parameter types
+     * @return the counter of its executions
+     */
+    private LongAdder shape(String shape) {
+      LongAdder counter = shapes.get(shape);
+      if (counter != null) {
+        return counter;
+      }
+      String key = shapes.size() < MAX_SHAPES ? shape : "(other)";
+      return shapes.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    /**
+     * Reserves the capture of the plan, if it has not been captured during the interval.
+     *
+     * @return true if the plan must be captured
+     */
+    private boolean tryExplain() {
+      long now = System.nanoTime();
+      long last = lastExplain.get();
+      return now - last >= explainIntervalNanos && lastExplain.compareAndSet(last, now);
+    }
+
+    /**
+     * Returns a snapshot of the entry, suitable for JSON serialization.
+     *
+     * @param sql the SQL text of the entry
+     * @return the timings, rows and parameter types of the SQL text
+     */
+    private Map<String, Object> snapshot(String sql) {
+      long executions = totalTime.getCount();
+      Map<String, Object> snapshot = new LinkedHashMap<>();
+      snapshot.put("sql", sql);
+      snapshot.put("executions", executions);
+      snapshot.put("failures", failures.sum());
+      snapshot.put("slowQueries", slowQueries.sum());
+      snapshot.put("totalTime", totalTime.snapshot());
+      snapshot.put("executionTime", executionTime.snapshot());
+      snapshot.put("fetchTime", fetchTime.snapshot());
+      snapshot.put("rows", rows.sum());
+      snapshot.put("meanRows", executions == 0 ? 0 : (double) rows.sum() / executions);
+      snapshot.put("maxRows", maxRows.get());
+      Map<String, Long> parameters = new LinkedHashMap<>();
+      shapes.forEach((shape, count) -> parameters.put(shape, count.sum()));
+      snapshot.put("parameterTypes", parameters);
+      return snapshot;
+    }
+  }
+}
@@ -0,0 +1,354 @@
+package be.vinci.pae.dal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * The TimedStatement class wraps the prepared statements handed out to the DAOs to time their
+ * executions. The execution time runs from the call to execute until the driver returns, the fetch
+ * time sums the calls to next() on the result. An execution is reported to StatementStats once its
+ * result has been read to the end or closed, or when the statement is executed again or closed.
+ *
+ * <p>The types of the bound parameters are recorded with each execution. When the plan of the slow
+ * queries is captured, the setter calls are also kept, so that the plan can be captured in the
+ * background with the same parameters.
+ */
+final class TimedStatement implements InvocationHandler {
+
+  // The wrapped statement
+  private final PreparedStatement statement;
+
+  // The SQL text of the statement
+  private final String sql;
+
+  // The registry receiving the executions
+  private final StatementStats stats;
+
+  // The entry of the SQL text in the registry
+  private final StatementStats.Entry entry;
+
+  // The proxy handed out to the DAOs
+  private final PreparedStatement proxy;
+
+  // The type of each bound parameter, by index
+  private final Map<Integer, String> types = new TreeMap<>();
+
+  // The setter call of each bound parameter, by index, null if they are not kept
+  private final Map<Integer, Binding> bindings;
+
+  // The execution whose result has not been read to the end yet
+  private Execution pending;
+
+  TimedStatement(PreparedStatement statement, String sql, StatementStats stats,
+      StatementStats.Entry entry, boolean keepBindings) {
+    this.statement = statement;
+    this.sql = sql;
+    this.stats = stats;
+    this.entry = entry;
+    this.bindings = keepBindings ? new TreeMap<>() : null;
+    this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+        PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+  }
+
+  /**
+   * Returns the proxy handed out to the DAOs.
+   *
+   * @return the timed statement
+   */
+  PreparedStatement proxy() {
+    return proxy;
+  }
+
+  /**
+   * Returns the SQL text of the statement.
+   *
+   * @return the SQL text
+   */
+  String sql() {
+    return sql;
+  }
+
+  /**
+   * Tells whether a SQL text only reads data, and can thus be run again by EXPLAIN ANALYZE.
+   *
+   * @param sql the SQL text
+   * @return true if the SQL text is a SELECT or WITH query
+   */
+  static boolean isQuery(String sql) {
+    String start = sql.stripLeading().toUpperCase(Locale.ROOT);
+    return start.startsWith("SELECT") || (start.startsWith("WITH") && !start.contains("INSERT")
+        && !start.contains("UPDATE") && !start.contains("DELETE"));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String name = method.getName();
+    if (name.startsWith("set") && args != null && args.length >= 2
+        && args[0] instanceof Integer index) {
+      types.put(index, typeOf(name, args[1]));
+      if (bindings != null) {
+        bindings.put(index, new Binding(method, args));
+      }
+    }
+    switch (name) {
+      case "clearParameters" -> {
+        types.clear();
+        if (bindings != null) {
+          bindings.clear();
+        }
+      }
+      case "executeQuery", "execute", "executeUpdate", "executeLargeUpdate", "executeBatch",
+          "executeLargeBatch" -> {
+        if (args == null || args.length == 0) {
+          return execute(method);
+        }
+      }
+      case "getResultSet" -> {
+        Object result = forward(method, args);
+        return pending == null || result == null ? result : timed((ResultSet) result, pending);
+      }
+      case "close" -> finishPending();
+      default -> {
+        // Forwarded as is
+      }
+    }
+    return forward(method, args);
+  }
+
+  /**
+   * Runs an execute method of the statement and times it.
+   *
+   * @param method the execute method
+   * @return the result of the method, with its ResultSet timed
+   * @throws Throwable the exception thrown by the statement
+   */
+  private Object execute(Method method) throws Throwable {
+    finishPending();
+    long start = System.nanoTime();
+    Object result;
+    try {
+      result = forward(method, null);
+    } catch (Throwable e) {
+      stats.recordFailure(this, entry, System.nanoTime() - start, e);
+      throw e;
+    }
+    Execution execution = new Execution(System.nanoTime() - start, shape());
+    switch (method.getName()) {
+      case "executeQuery" -> {
+        pending = execution;
+        return timed((ResultSet) result, execution);
+      }
+      case "execute" -> {
+        if ((Boolean) result) {
+          pending = execution;
+          return result;
+        }
+        execution.rows = Math.max(statement.getUpdateCount(), 0);
+      }
+      case "executeUpdate" -> execution.rows = (Integer) result;
+      case "executeLargeUpdate" -> execution.rows = (Long) result;
+      case "executeBatch" -> {
+        for (int count : (int[]) result) {
+          execution.rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+      }
+      default -> {
+        for (long count : (long[]) result) {
+          execution.rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+      }
+    }
+    finish(execution);
+    return result;
+  }
+
+  /**
+   * Reports an execution to the registry, unless it has already been reported.
+   *
+   * @param execution the execution
+   */
+  private void finish(Execution execution) {
+    if (execution.finished) {
+      return;
+    }
+    execution.finished = true;
+    if (pending == execution) {
+      pending = null;
+    }
+    stats.record(this, entry, execution);
+  }
+
+  /**
+   * Reports the execution whose result has not been read to the end, if any.
+   */
+  private void finishPending() {
+    if (pending != null) {
+      finish(pending);
+    }
+  }
+
+  /**
+   * Wraps a result to time the reading of its rows.
+   *
+   * @param rs        the result
+   * @param execution the execution that produced it
+   * @return the timed result
+   */
+  private ResultSet timed(ResultSet rs, Execution execution) {
+    return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+        new Class<?>[]{ResultSet.class}, (resultProxy, method, args) -> {
+          switch (method.getName()) {
+            case "next" -> {
+              long start = System.nanoTime();
+              boolean hasRow = (Boolean) forward(rs, method, args);
+              execution.fetchNanos += System.nanoTime() - start;
+              if (hasRow) {
+                execution.rows++;
+              } else {
+                finish(execution);
+              }
+              return hasRow;
+            }
+            case "close" -> finish(execution);
+            default -> {
+              // Forwarded as is
+            }
+          }
+          return forward(rs, method, args);
+        });
+  }
+
+  /**
+   * Returns a copy of the setter calls of the bound parameters, in the order of their indexes, to
+   * be replayed on the EXPLAIN ANALYZE statement.
+   *
+   * @return the setter calls, empty if they are not kept
+   */
+  List<Binding> bindings() {
+    if (bindings == null) {
+      return List.of();
+    }
+    return bindings.values().stream()
+        .map(binding -> new Binding(binding.method, binding.args.clone()))
+        .toList();
+  }
+
+  /**
+   * Returns the list of the types of the bound parameters, for example (String, Int, Null).
+   *
+   * @return the list of the parameter types
+   */
+  private String shape() {
+    StringJoiner shape = new StringJoiner(", ", "(", ")");
+    types.values().forEach(shape::add);
+    return shape.toString();
+  }
+
+  /**
+   * Returns the type of a bound parameter from the name of its setter, or from the class of the
+   * value for setObject.
+   *
+   * @param setter the name of the setter
+   * @param value  the bound value
+   * @return the type of the parameter
+   */
+  private static String typeOf(String setter, Object value) {
+    if (setter.equals("setObject")) {
+      return value == null ? "Null" : value.getClass().getSimpleName();
+    }
+    return setter.substring(3);
+  }
+
+  /**
+   * Calls a method on the wrapped statement.
+   *
+   * @param method the method
+   * @param args   its arguments
+   * @return the result of the method
+   * @throws Throwable the exception thrown by the method
+   */
+  private Object forward(Method method, Object[] args) throws Throwable {
+    return forward(statement, method, args);
+  }
+
+  /**
+   * Calls a method on a wrapped object, unwrapping the exception it throws.
+   *
+   * @param target the wrapped object
+   * @param method the method
+   * @param args   its arguments
+   * @return the result of the method
+   * @throws Throwable the exception thrown by the method
+   */
+  private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * An execution of the statement.
+   */
+  static final class Execution {
+
+    // Time spent in the execute method
+    final long executionNanos;
+
+    // Types of the parameters bound for the execution
+    final String shape;
+
+    // Time spent reading the rows
+    long fetchNanos;
+
+    // Number of rows read or modified
+    long rows;
+
+    // Whether the execution has been reported
+    private boolean finished;
+
+    Execution(long executionNanos, String shape) {
+      this.executionNanos = executionNanos;
+      this.shape = shape;
+    }
+  }
+
+  /**
+   * A setter call binding a parameter.
+   *
+   * @param method the setter
+   * @param args   its arguments
+   */
+  record Binding(Method method, Object[] args) {
+
+    /**
+     * Calls the setter on another statement.
+     *
+     * @param ps the statement
+     * @throws SQLException                 if the parameter cannot be set
+     * @throws ReflectiveOperationException if the setter cannot be called
+     */
+    void apply(PreparedStatement ps) throws SQLException, ReflectiveOperationException {
+      try {
+        method.invoke(ps, args);
+      } catch (InvocationTargetException e) {
+        if (e.getCause() instanceof SQLException sqlException) {
+          throw sqlException;
+        }
+        throw e;
+      }
+    }
+  }
+}
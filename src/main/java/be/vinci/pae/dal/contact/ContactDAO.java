@@ -1,5 +1,7 @@
 package be.vinci.pae.dal.contact;
 
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.contact.ContactDTO;
 import java.util.List;
 
@@ -42,6 +44,15 @@ public interface ContactDAO {
    */
   List<ContactDTO> getContactsByUser(int id);
 
+  /**
+   * Returns one page of the contacts of a user, sorted on the requested field.
+   *
+   * @param id      the id of the user
+   * @param request the requested page
+   * @return the contacts of the page and the cursor of the next page
+   */
+  Page<ContactDTO> getPageByUser(int id, PageRequest request);
+
   /**
    * Returns all the contacts of an enterprise.
    *
@@ -50,6 +61,15 @@ public interface ContactDAO {
    */
   List<ContactDTO> getContactsByEnterprise(int id);
 
+  /**
+   * Returns one page of the contacts of an enterprise, sorted on the requested field.
+   *
+   * @param id      the id of the enterprise
+   * @param request the requested page
+   * @return the contacts of the page and the cursor of the next page
+   */
+  Page<ContactDTO> getPageByEnterprise(int id, PageRequest request);
+
   /**
    * Retrieves the contact associated with the specified user, enterprise IDs, and school year.
    *
@@ -69,6 +89,14 @@ public interface ContactDAO {
    */
   ContactDTO createOne(ContactDTO contact);
 
+  /**
+   * Creates several contacts in batches, setting the generated id of each one.
+   *
+   * @param contacts The ContactDTO objects containing the new contact information.
+   * @return The newly created ContactDTO objects.
+   */
+  List<ContactDTO> createMany(List<ContactDTO> contacts);
+
   /**
    * Retrieves the accepted contact for the specified user.
    *
@@ -1,19 +1,24 @@
 package be.vinci.pae.dal.contact;
 
 import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.contact.ContactDTO;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.dal.DALBackServices;
-import be.vinci.pae.dal.utils.Util;
+import be.vinci.pae.dal.utils.Keyset;
+import be.vinci.pae.dal.utils.RowMapper;
 import be.vinci.pae.exception.ConflictException;
 import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.ObjectNotFoundException;
 import jakarta.inject.Inject;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The ContactDAOImpl class implements the ContactDAO interface. It provides methods for changing
@@ -24,6 +29,29 @@ import java.util.List;
  */
 public class ContactDAOImpl implements ContactDAO {
 
+  // Query inserting a contact, shared by the single and the batched inserts
+  private static final String INSERT_QUERY =
+      "INSERT INTO pae.contacts (userId, enterprise, contactStatus, schoolYear, versionNumber) "
+          + "VALUES (?, ?, ?, ?, ?)";
+
+  // Tables and conditions of the queries reading the contacts of a user with their enterprise
+  private static final String SELECT_BY_USER = "SELECT CO.*, EN.* "
+      + "FROM pae.contacts CO, pae.enterprises EN";
+  private static final String WHERE_BY_USER = "EN.idEnterprise = CO.enterprise AND CO.userId = ?";
+
+  // Tables and conditions of the queries reading the contacts of an enterprise with their user
+  private static final String SELECT_BY_ENTERPRISE = "SELECT CO.*, U.*, EN.* "
+      + "FROM pae.contacts CO, pae.enterprises EN, pae.users U";
+  private static final String WHERE_BY_ENTERPRISE = "CO.enterprise= EN.identerprise "
+      + " AND CO.userid=U.iduser "
+      + " AND CO.enterprise = ?";
+
+  // Columns on which the lists of contacts can be sorted and paged
+  private static final Keyset<ContactDTO> KEYSET =
+      new Keyset<ContactDTO>("CO.idContact", ContactDTO::getIdContact)
+          .sortable("schoolYear", "CO.schoolYear", ContactDTO::getSchoolYear)
+          .sortable("contactStatus", "CO.contactStatus", ContactDTO::getContactStatus);
+
   // Instance of DALBackServices for performing common DAL operations
   @Inject
   private DALBackServices dalBackServices;
@@ -106,7 +134,7 @@ public class ContactDAOImpl implements ContactDAO {
       ps.setInt(1, id);
       try (var rs = ps.executeQuery()) {
         if (rs.next()) {
-          return (ContactDTO) Util.fillInfos(rs, domainFactory.getContact());
+          return RowMapper.of(rs, "contacts", domainFactory::getContact).map(rs);
         }
         return null;
       }
@@ -126,29 +154,66 @@ public class ContactDAOImpl implements ContactDAO {
    */
   @Override
   public List<ContactDTO> getContactsByUser(int id) {
-    String query = "SELECT CO.*, EN.* "
-        + "FROM pae.contacts CO, pae.enterprises EN "
-        + "WHERE EN.idEnterprise = CO.enterprise AND CO.userId = ?";
+    String query = SELECT_BY_USER + " WHERE " + WHERE_BY_USER;
 
     try (var ps = dalBackServices.getPreparedStatement(query)) {
       ps.setInt(1, id);
-
-      try (var rs = ps.executeQuery()) {
-        List<ContactDTO> contacts = new ArrayList<>();
-        while (rs.next()) {
-          EnterpriseDTO myEnterprise = (EnterpriseDTO) Util.fillInfos(rs,
-              domainFactory.getEnterprise());
-          ContactDTO contactDTO = (ContactDTO) Util.fillInfos(rs, domainFactory.getContact());
-          contactDTO.setEnterpriseDTO(myEnterprise);
-          contacts.add(contactDTO);
-        }
-        return contacts;
-      }
+      List<ContactDTO> contacts = new ArrayList<>();
+      mapWithEnterprise(ps, contacts::add);
+      return contacts;
     } catch (Exception e) {
       throw new FatalException(e);
     }
   }
 
+  /**
+   * Returns one page of the contacts of a user, along with their enterprise. The page starts right
+   * after the contact of the cursor, so reading any page costs the same whatever its position in
+   * the list.
+   *
+   * @param id      The id of the user.
+   * @param request The requested page.
+   * @return the contacts of the page and the cursor of the next page.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public Page<ContactDTO> getPageByUser(int id, PageRequest request) {
+    String query = KEYSET.sql(SELECT_BY_USER, WHERE_BY_USER, request);
+    List<ContactDTO> contacts = new ArrayList<>();
+    try (var ps = dalBackServices.getPreparedStatement(query)) {
+      ps.setInt(1, id);
+      KEYSET.bind(ps, 2, request);
+      mapWithEnterprise(ps, contacts::add);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+    return KEYSET.page(contacts, request);
+  }
+
+  /**
+   * Executes a query joining the contacts with their enterprise and maps each row to a ContactDTO
+   * object.
+   *
+   * @param ps       The query to execute.
+   * @param consumer The consumer receiving each contact.
+   * @throws SQLException if a SQLException occurs.
+   */
+  private void mapWithEnterprise(PreparedStatement ps, Consumer<? super ContactDTO> consumer)
+      throws SQLException {
+    try (ResultSet rs = ps.executeQuery()) {
+      RowMapper<ContactDTO> contactMapper = RowMapper.of(rs, "contacts",
+          domainFactory::getContact);
+      RowMapper<EnterpriseDTO> enterpriseMapper = RowMapper.of(rs, "enterprises",
+          domainFactory::getEnterprise);
+      while (rs.next()) {
+        EnterpriseDTO myEnterprise = enterpriseMapper.map(rs);
+        ContactDTO contactDTO = contactMapper.map(rs);
+        contactDTO.setEnterpriseDTO(myEnterprise);
+        consumer.accept(contactDTO);
+      }
+    }
+  }
+
   /**
    * Retrieves the contact associated with the specified user, enterprise IDs, and school year.
    *
@@ -169,7 +234,7 @@ public class ContactDAOImpl implements ContactDAO {
       ps.setString(3, schoolYear);
       try (var rs = ps.executeQuery()) {
         if (rs.next()) {
-          return (ContactDTO) Util.fillInfos(rs, domainFactory.getContact());
+          return RowMapper.of(rs, "contacts", domainFactory::getContact).map(rs);
         }
       }
     } catch (Exception e) {
@@ -186,33 +251,68 @@ public class ContactDAOImpl implements ContactDAO {
    */
   @Override
   public List<ContactDTO> getContactsByEnterprise(int id) {
-    String query = "SELECT CO.*, U.*, EN.* "
-        + "FROM pae.contacts CO, pae.enterprises EN, pae.users U "
-        + "WHERE CO.enterprise= EN.identerprise "
-        + " AND CO.userid=U.iduser "
-        + " AND CO.enterprise = ?";
+    String query = SELECT_BY_ENTERPRISE + " WHERE " + WHERE_BY_ENTERPRISE;
+
+    try (var ps = dalBackServices.getPreparedStatement(query)) {
+      ps.setInt(1, id);
+      List<ContactDTO> contacts = new ArrayList<>();
+      mapWithUserAndEnterprise(ps, contacts::add);
+      return contacts;
+    } catch (Exception e) {
+      throw new FatalException(e);
+    }
+  }
 
+  /**
+   * Returns one page of the contacts of an enterprise, along with their user and enterprise. The
+   * page starts right after the contact of the cursor, so reading any page costs the same whatever
+   * its position in the list.
+   *
+   * @param id      the id of the enterprise
+   * @param request the requested page
+   * @return the contacts of the page and the cursor of the next page
+   */
+  @Override
+  public Page<ContactDTO> getPageByEnterprise(int id, PageRequest request) {
+    String query = KEYSET.sql(SELECT_BY_ENTERPRISE, WHERE_BY_ENTERPRISE, request);
+    List<ContactDTO> contacts = new ArrayList<>();
     try (var ps = dalBackServices.getPreparedStatement(query)) {
       ps.setInt(1, id);
+      KEYSET.bind(ps, 2, request);
+      mapWithUserAndEnterprise(ps, contacts::add);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+    return KEYSET.page(contacts, request);
+  }
 
-      try (var rs = ps.executeQuery()) {
-        List<ContactDTO> contacts = new ArrayList<>();
-        while (rs.next()) {
-          ContactDTO contactDTO = (ContactDTO) Util.fillInfos(rs, domainFactory.getContact());
+  /**
+   * Executes a query joining the contacts with their user and enterprise and maps each row to a
+   * ContactDTO object.
+   *
+   * @param ps       The query to execute.
+   * @param consumer The consumer receiving each contact.
+   * @throws SQLException if a SQLException occurs.
+   */
+  private void mapWithUserAndEnterprise(PreparedStatement ps,
+      Consumer<? super ContactDTO> consumer) throws SQLException {
+    try (ResultSet rs = ps.executeQuery()) {
+      RowMapper<ContactDTO> contactMapper = RowMapper.of(rs, "contacts",
+          domainFactory::getContact);
+      RowMapper<EnterpriseDTO> enterpriseMapper = RowMapper.of(rs, "enterprises",
+          domainFactory::getEnterprise);
+      RowMapper<UserDTO> userMapper = RowMapper.of(rs, "users", domainFactory::getUser);
+      while (rs.next()) {
+        ContactDTO contactDTO = contactMapper.map(rs);
 
-          EnterpriseDTO myEnterprise = (EnterpriseDTO) Util.fillInfos(rs,
-              domainFactory.getEnterprise());
-          contactDTO.setEnterpriseDTO(myEnterprise);
+        EnterpriseDTO myEnterprise = enterpriseMapper.map(rs);
+        contactDTO.setEnterpriseDTO(myEnterprise);
 
-          UserDTO myUser = (UserDTO) Util.fillInfos(rs, domainFactory.getUser());
-          contactDTO.setUserDTO(myUser);
+        UserDTO myUser = userMapper.map(rs);
+        contactDTO.setUserDTO(myUser);
 
-          contacts.add(contactDTO);
-        }
-        return contacts;
+        consumer.accept(contactDTO);
       }
-    } catch (Exception e) {
-      throw new FatalException(e);
     }
   }
 
@@ -224,15 +324,9 @@ public class ContactDAOImpl implements ContactDAO {
    */
   @Override
   public ContactDTO createOne(ContactDTO contact) {
-    String query =
-        "INSERT INTO pae.contacts (userId, enterprise, contactStatus, schoolYear, versionNumber) "
-            + "VALUES (?, ?, ?, ?, ?) RETURNING idContact";
+    String query = INSERT_QUERY + " RETURNING idContact";
     try (PreparedStatement newContact = dalBackServices.getPreparedStatement(query)) {
-      newContact.setInt(1, contact.getUserId());
-      newContact.setInt(2, contact.getEnterprise());
-      newContact.setString(3, contact.getContactStatus().toString());
-      newContact.setString(4, contact.getSchoolYear());
-      newContact.setInt(5, contact.getVersionNumber());
+      bindInsert(newContact, 0, contact);
       try (var rs = newContact.executeQuery()) {
         if (rs.next()) {
           contact.setIdContact(rs.getInt(1));
@@ -245,6 +339,37 @@ public class ContactDAOImpl implements ContactDAO {
     }
   }
 
+  /**
+   * Creates several contacts using batched inserts. The generated id of each contact is set on its
+   * ContactDTO object.
+   *
+   * @param contacts The ContactDTO objects containing the new contact information.
+   * @return The newly created ContactDTO objects.
+   */
+  @Override
+  public List<ContactDTO> createMany(List<ContactDTO> contacts) {
+    dalBackServices.executeBatch(INSERT_QUERY, contacts, ContactDAOImpl::bindInsert, "idcontact",
+        ContactDTO::setIdContact);
+    return contacts;
+  }
+
+  /**
+   * Sets the parameters of the insert query from a contact.
+   *
+   * @param ps      The insert statement.
+   * @param offset  The number of parameters set before those of the contact.
+   * @param contact The contact to insert.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void bindInsert(PreparedStatement ps, int offset, ContactDTO contact)
+      throws SQLException {
+    ps.setInt(offset + 1, contact.getUserId());
+    ps.setInt(offset + 2, contact.getEnterprise());
+    ps.setString(offset + 3, contact.getContactStatus().toString());
+    ps.setString(offset + 4, contact.getSchoolYear());
+    ps.setInt(offset + 5, contact.getVersionNumber());
+  }
+
   /**
    * Retrieves the accepted contact for the specified user.
    *
@@ -259,7 +384,7 @@ public class ContactDAOImpl implements ContactDAO {
       contact.setInt(1, idUser);
       try (var rs = contact.executeQuery()) {
         if (rs.next()) {
-          return (ContactDTO) Util.fillInfos(rs, domainFactory.getContact());
+          return RowMapper.of(rs, "contacts", domainFactory::getContact).map(rs);
         }
         return null;
       }
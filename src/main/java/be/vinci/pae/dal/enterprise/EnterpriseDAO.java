@@ -1,8 +1,12 @@
 package be.vinci.pae.dal.enterprise;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * The EnterpriseDAO interface provides the structure for a Data Access Object (DAO) that handles
@@ -19,6 +23,14 @@ public interface EnterpriseDAO {
    */
   EnterpriseDTO getOneById(int id);
 
+  /**
+   * Reads only the version number of an enterprise, without reading the enterprise.
+   *
+   * @param id the id of the enterprise
+   * @return the version number of the enterprise, or null if it does not exist
+   */
+  Integer getVersion(int id);
+
   /**
    * Retrieves a list of all companies from the database.
    *
@@ -26,6 +38,30 @@ public interface EnterpriseDAO {
    */
   List<EnterpriseDTO> getAll();
 
+  /**
+   * Reads the version of the list of all the companies with an aggregate query, without reading
+   * the companies.
+   *
+   * @return the version of the list of all the companies
+   */
+  CollectionVersion getListVersion();
+
+  /**
+   * Reads all the companies progressively, handing each one to a consumer as soon as it is read.
+   * It must be called inside a transaction.
+   *
+   * @param consumer The consumer receiving each enterprise.
+   */
+  void forEach(Consumer<? super EnterpriseDTO> consumer);
+
+  /**
+   * Retrieves one page of the companies, sorted on the requested field.
+   *
+   * @param request The requested page.
+   * @return The companies of the page and the cursor of the next page.
+   */
+  Page<EnterpriseDTO> getPage(PageRequest request);
+
   /**
    * Fetches an enterprise from the database by its email.
    *
@@ -52,6 +88,14 @@ public interface EnterpriseDAO {
    */
   EnterpriseDTO createOne(EnterpriseDTO enterprise);
 
+  /**
+   * Creates several enterprises in the database in batches, setting the generated id of each one.
+   *
+   * @param enterprises The EnterpriseDTO objects containing the data of the new enterprises.
+   * @return The EnterpriseDTO objects with the IDs of the created enterprises.
+   */
+  List<EnterpriseDTO> createMany(List<EnterpriseDTO> enterprises);
+
   /**
    * Blacklists an enterprise in the database.
    *
@@ -1,9 +1,14 @@
 package be.vinci.pae.dal.enterprise;
 
+import be.vinci.pae.business.CollectionVersion;
 import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.dal.DALBackServices;
-import be.vinci.pae.dal.utils.Util;
+import be.vinci.pae.dal.utils.Keyset;
+import be.vinci.pae.dal.utils.RowMapper;
+import be.vinci.pae.dal.utils.VersionQueries;
 import be.vinci.pae.exception.ConflictException;
 import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.ObjectNotFoundException;
@@ -15,6 +20,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * The EnterpriseDAOImpl class implements the EnterpriseDAO interface. It provides methods for
@@ -24,6 +30,18 @@ import java.util.Map;
  */
 public class EnterpriseDAOImpl implements EnterpriseDAO {
 
+  // Query inserting an enterprise, shared by the single and the batched inserts
+  private static final String INSERT_QUERY =
+      "INSERT INTO pae.enterprises (tradeName, designation, postalCode, city, email, "
+          + "phoneNumber, street, streetNumber, country, versionNumber) "
+          + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  // Columns on which the list of the enterprises can be sorted and paged
+  private static final Keyset<EnterpriseDTO> KEYSET =
+      new Keyset<EnterpriseDTO>("idEnterprise", EnterpriseDTO::getIdEnterprise)
+          .sortable("tradeName", "tradeName", EnterpriseDTO::getTradeName)
+          .sortable("city", "city", EnterpriseDTO::getCity);
+
   // Instance of DALBackServices for performing common DAL operations
   @Inject
   private DALBackServices dalBackServices;
@@ -48,8 +66,7 @@ public class EnterpriseDAOImpl implements EnterpriseDAO {
       ps.setInt(1, id);
       try (var rs = ps.executeQuery()) {
         if (rs.next()) {
-          EnterpriseDTO enterprise = domainFactory.getEnterprise();
-          return (EnterpriseDTO) Util.fillInfos(rs, enterprise);
+          return RowMapper.of(rs, "enterprises", domainFactory::getEnterprise).map(rs);
         }
         return null;
       }
@@ -58,6 +75,27 @@ public class EnterpriseDAOImpl implements EnterpriseDAO {
     }
   }
 
+  /**
+   * Reads only the version number of an enterprise, which is enough to tell whether a client
+   * already holds its latest state.
+   *
+   * @param id The ID of the enterprise.
+   * @return The version number of the enterprise, or null if no enterprise is found.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public Integer getVersion(int id) {
+    try (var ps = dalBackServices.getPreparedStatement(
+        "SELECT versionNumber FROM pae.enterprises WHERE idEnterprise = ?")) {
+      ps.setInt(1, id);
+      try (var rs = ps.executeQuery()) {
+        return rs.next() ? rs.getInt(1) : null;
+      }
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
   /**
    * Retrieves a list of all companies from the database.
    *
@@ -69,18 +107,86 @@ public class EnterpriseDAOImpl implements EnterpriseDAO {
 
     try (PreparedStatement companies =
         dalBackServices.getPreparedStatement("SELECT * FROM pae.enterprises")) {
-      try (ResultSet rs = companies.executeQuery()) {
-        while (rs.next()) {
-          EnterpriseDTO company = domainFactory.getEnterprise();
-          companyList.add((EnterpriseDTO) Util.fillInfos(rs, company));
-        }
-      }
+      mapAll(companies, companyList::add);
     } catch (SQLException e) {
       throw new FatalException(e);
     }
     return companyList;
   }
 
+  /**
+   * Reads the version of the list of all the companies, from the count, greatest id and sum of
+   * the version numbers of the companies.
+   *
+   * @return The version of the list of all the companies.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public CollectionVersion getListVersion() {
+    try (PreparedStatement version = dalBackServices.getPreparedStatement(
+        VersionQueries.select("idEnterprise", "versionNumber") + "FROM pae.enterprises")) {
+      return VersionQueries.read(version);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * This method reads all the enterprises from the database progressively and hands each one to a
+   * consumer as soon as it is read. Only a few rows are held in memory at once.
+   *
+   * @param consumer The consumer receiving each enterprise.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public void forEach(Consumer<? super EnterpriseDTO> consumer) {
+    try (PreparedStatement companies =
+        dalBackServices.getStreamingStatement("SELECT * FROM pae.enterprises")) {
+      mapAll(companies, consumer);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Retrieves one page of the companies. The page starts right after the company of the cursor, so
+   * reading any page costs the same whatever its position in the list.
+   *
+   * @param request The requested page.
+   * @return The companies of the page and the cursor of the next page.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public Page<EnterpriseDTO> getPage(PageRequest request) {
+    String query = KEYSET.sql("SELECT * FROM pae.enterprises", null, request);
+    List<EnterpriseDTO> companyList = new ArrayList<>();
+    try (PreparedStatement companies = dalBackServices.getPreparedStatement(query)) {
+      KEYSET.bind(companies, 1, request);
+      mapAll(companies, companyList::add);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+    return KEYSET.page(companyList, request);
+  }
+
+  /**
+   * Executes a query on the enterprises table and maps each row to an EnterpriseDTO object.
+   *
+   * @param ps       The query to execute.
+   * @param consumer The consumer receiving each enterprise.
+   * @throws SQLException if a SQLException occurs.
+   */
+  private void mapAll(PreparedStatement ps, Consumer<? super EnterpriseDTO> consumer)
+      throws SQLException {
+    try (ResultSet rs = ps.executeQuery()) {
+      RowMapper<EnterpriseDTO> mapper = RowMapper.of(rs, "enterprises",
+          domainFactory::getEnterprise);
+      while (rs.next()) {
+        consumer.accept(mapper.map(rs));
+      }
+    }
+  }
+
   /**
    * This method fetches an enterprise from the database by its email. It prepares a SQL statement,
    * executes it, and maps the result to an EnterpriseDTO object. If no enterprise is found, it
@@ -98,7 +204,7 @@ public class EnterpriseDAOImpl implements EnterpriseDAO {
       ps.setString(1, email);
       try (ResultSet rs = ps.executeQuery()) {
         if (rs.next()) {
-          return (EnterpriseDTO) Util.fillInfos(rs, domainFactory.getEnterprise());
+          return RowMapper.of(rs, "enterprises", domainFactory::getEnterprise).map(rs);
         }
       }
     } catch (SQLException e) {
@@ -128,7 +234,7 @@ public class EnterpriseDAOImpl implements EnterpriseDAO {
       companies.setString(3, designation);
       try (ResultSet rs = companies.executeQuery()) {
         if (rs.next()) {
-          return (EnterpriseDTO) Util.fillInfos(rs, domainFactory.getEnterprise());
+          return RowMapper.of(rs, "enterprises", domainFactory::getEnterprise).map(rs);
         }
       }
     } catch (SQLException e) {
@@ -149,19 +255,8 @@ public class EnterpriseDAOImpl implements EnterpriseDAO {
   @Override
   public EnterpriseDTO createOne(EnterpriseDTO enterprise) {
     try (PreparedStatement ps = dalBackServices.getPreparedStatement(
-        "INSERT INTO pae.enterprises (tradeName, designation, postalCode, city, email, "
-            + "phoneNumber, street, streetNumber, country, versionNumber) "
-            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING idEnterprise")) {
-      ps.setString(1, enterprise.getTradeName());
-      ps.setString(2, enterprise.getDesignation());
-      ps.setString(3, enterprise.getPostalCode());
-      ps.setString(4, enterprise.getCity());
-      ps.setString(5, enterprise.getEmail());
-      ps.setString(6, enterprise.getPhoneNumber());
-      ps.setString(7, enterprise.getStreet());
-      ps.setString(8, enterprise.getStreetNumber());
-      ps.setString(9, enterprise.getCountry());
-      ps.setInt(10, enterprise.getVersionNumber());
+        INSERT_QUERY + " RETURNING idEnterprise")) {
+      bindInsert(ps, 0, enterprise);
       try (ResultSet rs = ps.executeQuery()) {
         if (rs.next()) {
           enterprise.setIdEnterprise(rs.getInt(1));
@@ -174,6 +269,43 @@ public class EnterpriseDAOImpl implements EnterpriseDAO {
     return null;
   }
 
+  /**
+   * Creates several enterprises in the database with batched inserts. The generated id of each
+   * enterprise is set on its EnterpriseDTO object.
+   *
+   * @param enterprises The EnterpriseDTO objects containing the data of the new enterprises.
+   * @return The EnterpriseDTO objects with the IDs of the created enterprises.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public List<EnterpriseDTO> createMany(List<EnterpriseDTO> enterprises) {
+    dalBackServices.executeBatch(INSERT_QUERY, enterprises, EnterpriseDAOImpl::bindInsert,
+        "identerprise", EnterpriseDTO::setIdEnterprise);
+    return enterprises;
+  }
+
+  /**
+   * Sets the parameters of the insert query from an enterprise.
+   *
+   * @param ps         The insert statement.
+   * @param offset     The number of parameters set before those of the enterprise.
+   * @param enterprise The enterprise to insert.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void bindInsert(PreparedStatement ps, int offset, EnterpriseDTO enterprise)
+      throws SQLException {
+    ps.setString(offset + 1, enterprise.getTradeName());
+    ps.setString(offset + 2, enterprise.getDesignation());
+    ps.setString(offset + 3, enterprise.getPostalCode());
+    ps.setString(offset + 4, enterprise.getCity());
+    ps.setString(offset + 5, enterprise.getEmail());
+    ps.setString(offset + 6, enterprise.getPhoneNumber());
+    ps.setString(offset + 7, enterprise.getStreet());
+    ps.setString(offset + 8, enterprise.getStreetNumber());
+    ps.setString(offset + 9, enterprise.getCountry());
+    ps.setInt(offset + 10, enterprise.getVersionNumber());
+  }
+
   /**
    * Blacklists an enterprise in the database.
    *
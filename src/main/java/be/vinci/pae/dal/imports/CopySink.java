@@ -0,0 +1,104 @@
+package be.vinci.pae.dal.imports;
+
+import be.vinci.pae.exception.FatalException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * The CopySink class streams rows to a table with a PostgreSQL COPY FROM STDIN operation, in the
+ * text format. The rows are encoded in a buffer that is sent to the server each time it is full, so
+ * the memory used does not depend on the number of rows.
+ */
+class CopySink implements ImportSink {
+
+  // Size above which the buffer is sent to the server
+  private static final int FLUSH_SIZE = 64 * 1024;
+
+  // The running COPY operation
+  private final CopyIn copyIn;
+
+  // Buffer of the encoded rows
+  private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 1_024);
+
+  /**
+   * Creates a sink for a running COPY operation.
+   *
+   * @param copyIn the COPY operation receiving the rows
+   */
+  CopySink(CopyIn copyIn) {
+    this.copyIn = copyIn;
+  }
+
+  @Override
+  public void write(int line, String... values) {
+    buffer.append(line);
+    for (String value : values) {
+      buffer.append('\t');
+      appendValue(value);
+    }
+    buffer.append('\n');
+    if (buffer.length() >= FLUSH_SIZE) {
+      flush();
+    }
+  }
+
+  @Override
+  public long finish() {
+    flush();
+    try {
+      return copyIn.endCopy();
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  @Override
+  public void cancel() {
+    if (copyIn.isActive()) {
+      try {
+        copyIn.cancelCopy();
+      } catch (SQLException ignored) {
+        // The transaction is rolled back anyway
+      }
+    }
+  }
+
+  /**
+   * Appends a value in the text format of COPY, escaping the characters having a special meaning.
+   *
+   * @param value the value to append, null for NULL
+   */
+  private void appendValue(String value) {
+    if (value == null) {
+      buffer.append("\\N");
+      return;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\' -> buffer.append("\\\\");
+        case '\t' -> buffer.append("\\t");
+        case '\n' -> buffer.append("\\n");
+        case '\r' -> buffer.append("\\r");
+        default -> buffer.append(c);
+      }
+    }
+  }
+
+  /**
+   * Sends the buffered rows to the server.
+   */
+  private void flush() {
+    if (buffer.length() == 0) {
+      return;
+    }
+    byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+    buffer.setLength(0);
+    try {
+      copyIn.writeToCopy(bytes, 0, bytes.length);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+}
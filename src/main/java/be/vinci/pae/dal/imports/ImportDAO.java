@@ -0,0 +1,47 @@
+package be.vinci.pae.dal.imports;
+
+import java.util.SortedMap;
+
+/**
+ * The ImportDAO interface provides the structure for a Data Access Object (DAO) that loads the
+ * enterprises and the internship supervisors in bulk. The rows are first streamed to a temporary
+ * staging table, then merged into the real table with set-based queries. The methods must be called
+ * inside a transaction, as the staging tables are dropped at its end.
+ */
+public interface ImportDAO {
+
+  /**
+   * Creates the staging table of the enterprises and starts streaming rows to it. The values of a
+   * row are, in order: tradeName, designation, phoneNumber, email, street, streetNumber,
+   * postalCode, city and country.
+   *
+   * @return The sink receiving the rows.
+   */
+  ImportSink startEnterpriseImport();
+
+  /**
+   * Merges the staged enterprises into the enterprises table. The rows whose email, or trade name
+   * and designation, already exist in the table or on an earlier line of the file are rejected.
+   *
+   * @return The rejected rows, as a map from their line to the reason of the rejection.
+   */
+  SortedMap<Integer, String> mergeEnterprises();
+
+  /**
+   * Creates the staging table of the internship supervisors and starts streaming rows to it. The
+   * values of a row are, in order: lastName, firstName, email, phoneNumber and the id of the
+   * enterprise.
+   *
+   * @return The sink receiving the rows.
+   */
+  ImportSink startResponsableStageImport();
+
+  /**
+   * Merges the staged internship supervisors into the responsables_stages table. The rows whose
+   * enterprise does not exist, or whose email already exists in the table or on an earlier line of
+   * the file, are rejected.
+   *
+   * @return The rejected rows, as a map from their line to the reason of the rejection.
+   */
+  SortedMap<Integer, String> mergeResponsableStages();
+}
@@ -0,0 +1,170 @@
+package be.vinci.pae.dal.imports;
+
+import be.vinci.pae.dal.DALBackServices;
+import be.vinci.pae.exception.FatalException;
+import jakarta.inject.Inject;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The ImportDAOImpl class implements the ImportDAO interface. The rows are loaded in temporary
+ * tables with COPY FROM STDIN, which is much faster than one INSERT per row, then checked and
+ * inserted with a few queries working on the whole table, whatever the number of rows.
+ */
+public class ImportDAOImpl implements ImportDAO {
+
+  // Queries rejecting the staged enterprises that conflict with existing or earlier ones
+  private static final String[] ENTERPRISE_CHECKS = {
+      "UPDATE import_enterprises s SET error = 'Email already exists' "
+          + "WHERE s.email IS NOT NULL AND EXISTS (SELECT 1 FROM pae.enterprises e "
+          + "WHERE LOWER(e.email) = LOWER(s.email))",
+      "UPDATE import_enterprises s SET error = 'Trade name and designation already exists' "
+          + "WHERE s.error IS NULL AND EXISTS (SELECT 1 FROM pae.enterprises e "
+          + "WHERE LOWER(e.tradeName) = LOWER(s.tradeName) "
+          + "AND (LOWER(e.designation) = LOWER(s.designation) "
+          + "OR e.designation IS NULL AND s.designation IS NULL))",
+      "UPDATE import_enterprises s SET error = 'Duplicate of an earlier line' "
+          + "WHERE s.error IS NULL AND EXISTS (SELECT 1 FROM import_enterprises o "
+          + "WHERE o.line < s.line AND (LOWER(o.email) = LOWER(s.email) "
+          + "OR LOWER(o.tradeName) = LOWER(s.tradeName) "
+          + "AND (LOWER(o.designation) = LOWER(s.designation) "
+          + "OR o.designation IS NULL AND s.designation IS NULL)))"
+  };
+
+  // Queries rejecting the staged supervisors that conflict with existing or earlier ones
+  private static final String[] RESPONSABLE_CHECKS = {
+      "UPDATE import_responsables s SET error = 'Unknown enterprise' "
+          + "WHERE NOT EXISTS (SELECT 1 FROM pae.enterprises e "
+          + "WHERE e.idEnterprise = s.enterprise)",
+      "UPDATE import_responsables s SET error = 'Email already exists' "
+          + "WHERE s.error IS NULL AND s.email IS NOT NULL "
+          + "AND EXISTS (SELECT 1 FROM pae.responsables_stages r "
+          + "WHERE LOWER(r.email) = LOWER(s.email))",
+      "UPDATE import_responsables s SET error = 'Duplicate of an earlier line' "
+          + "WHERE s.error IS NULL AND EXISTS (SELECT 1 FROM import_responsables o "
+          + "WHERE o.line < s.line AND LOWER(o.email) = LOWER(s.email))"
+  };
+
+  // Instance of DALBackServices for performing common DAL operations
+  @Inject
+  private DALBackServices dalBackServices;
+
+  /**
+   * Creates the staging table of the enterprises and starts a COPY operation on it.
+   *
+   * @return The sink receiving the rows.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public ImportSink startEnterpriseImport() {
+    execute("CREATE TEMP TABLE import_enterprises (line INTEGER PRIMARY KEY, tradeName TEXT, "
+        + "designation TEXT, phoneNumber TEXT, email TEXT, street TEXT, streetNumber TEXT, "
+        + "postalCode TEXT, city TEXT, country TEXT, error TEXT) ON COMMIT DROP");
+    return startCopy("COPY import_enterprises (line, tradeName, designation, phoneNumber, email, "
+        + "street, streetNumber, postalCode, city, country) FROM STDIN");
+  }
+
+  /**
+   * Rejects the conflicting staged enterprises and inserts the other ones.
+   *
+   * @return The rejected rows, as a map from their line to the reason of the rejection.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public SortedMap<Integer, String> mergeEnterprises() {
+    for (String check : ENTERPRISE_CHECKS) {
+      execute(check);
+    }
+    execute("INSERT INTO pae.enterprises (tradeName, designation, phoneNumber, email, street, "
+        + "streetNumber, postalCode, city, country, versionNumber) "
+        + "SELECT tradeName, designation, phoneNumber, email, street, streetNumber, postalCode, "
+        + "city, country, 1 FROM import_enterprises WHERE error IS NULL ORDER BY line");
+    return rejectedLines("import_enterprises");
+  }
+
+  /**
+   * Creates the staging table of the internship supervisors and starts a COPY operation on it.
+   *
+   * @return The sink receiving the rows.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public ImportSink startResponsableStageImport() {
+    execute("CREATE TEMP TABLE import_responsables (line INTEGER PRIMARY KEY, lastName TEXT, "
+        + "firstName TEXT, email TEXT, phoneNumber TEXT, enterprise INTEGER, error TEXT) "
+        + "ON COMMIT DROP");
+    return startCopy("COPY import_responsables (line, lastName, firstName, email, phoneNumber, "
+        + "enterprise) FROM STDIN");
+  }
+
+  /**
+   * Rejects the conflicting staged internship supervisors and inserts the other ones.
+   *
+   * @return The rejected rows, as a map from their line to the reason of the rejection.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public SortedMap<Integer, String> mergeResponsableStages() {
+    for (String check : RESPONSABLE_CHECKS) {
+      execute(check);
+    }
+    execute("INSERT INTO pae.responsables_stages (lastName, firstName, email, phoneNumber, "
+        + "enterprise) SELECT lastName, firstName, email, phoneNumber, enterprise "
+        + "FROM import_responsables WHERE error IS NULL ORDER BY line");
+    return rejectedLines("import_responsables");
+  }
+
+  /**
+   * Starts a COPY FROM STDIN operation.
+   *
+   * @param copy The COPY statement.
+   * @return The sink streaming the rows to the operation.
+   * @throws FatalException if a SQLException occurs.
+   */
+  private ImportSink startCopy(String copy) {
+    try {
+      return new CopySink(dalBackServices.getCopyManager().copyIn(copy));
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Executes a statement that does not return rows.
+   *
+   * @param query The statement to execute.
+   * @throws FatalException if a SQLException occurs.
+   */
+  private void execute(String query) {
+    try (PreparedStatement ps = dalBackServices.getPreparedStatement(query)) {
+      ps.executeUpdate();
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Reads the rejected rows of a staging table.
+   *
+   * @param table The staging table.
+   * @return The rejected rows, as a map from their line to the reason of the rejection.
+   * @throws FatalException if a SQLException occurs.
+   */
+  private SortedMap<Integer, String> rejectedLines(String table) {
+    SortedMap<Integer, String> rejected = new TreeMap<>();
+    try (PreparedStatement ps = dalBackServices.getPreparedStatement(
+        "SELECT line, error FROM " + table + " WHERE error IS NOT NULL")) {
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          rejected.put(rs.getInt(1), rs.getString(2));
+        }
+      }
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+    return rejected;
+  }
+}
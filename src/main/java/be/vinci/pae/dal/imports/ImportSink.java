@@ -0,0 +1,30 @@
+package be.vinci.pae.dal.imports;
+
+/**
+ * The ImportSink interface receives the validated rows of an import and streams them to a staging
+ * table. The rows are not kept in memory.
+ */
+public interface ImportSink {
+
+  /**
+   * Writes a row to the staging table.
+   *
+   * @param line   The line of the row in the imported file.
+   * @param values The values of the row, in the order of the columns of the staging table. A null
+   *               value is stored as NULL.
+   */
+  void write(int line, String... values);
+
+  /**
+   * Ends the streaming of the rows.
+   *
+   * @return The number of rows written to the staging table.
+   */
+  long finish();
+
+  /**
+   * Cancels the streaming of the rows, for example because the import failed. Nothing is written to
+   * the staging table.
+   */
+  void cancel();
+}
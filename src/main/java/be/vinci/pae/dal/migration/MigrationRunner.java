@@ -0,0 +1,412 @@
+package be.vinci.pae.dal.migration;
+
+import be.vinci.pae.exception.FatalException;
+import be.vinci.pae.logger.Log4J;
+import be.vinci.pae.utils.Config;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The MigrationRunner class brings the database schema up to date by applying the versioned SQL
+ * scripts of the db/migration classpath directory. The scripts are listed, in order, in the
+ * migrations.list file of that directory and are named V&lt;version&gt;__&lt;description&gt;.sql.
+ * Each script is applied once, in its own transaction, and recorded in the pae.schema_migrations
+ * table along with its checksum, so that a script modified after having been applied is detected.
+ *
+ * <p>A database created by init.sql before the migrations existed already holds the tables of the
+ * first script: it is baselined, the first script being recorded without being run. An advisory
+ * lock keeps two servers starting at the same time from applying the same scripts.
+ *
+ * <p>The runner is called by Main at startup, unless dbMigrateOnStartup is false, and can be run
+ * from the command line with the migrate or info command, for instance with
+ * {@code mvn exec:java -Dexec.mainClass=be.vinci.pae.dal.migration.MigrationRunner
+ * -Dexec.args=info}.
+ */
+public class MigrationRunner {
+
+  // Classpath directory of the scripts
+  private static final String LOCATION = "db/migration/";
+
+  // Name of the scripts
+  private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+  // Key of the advisory lock held while migrating
+  private static final long LOCK_KEY = 0x7061655f6d6967L;
+
+  private static final String HISTORY_TABLE = "CREATE TABLE IF NOT EXISTS pae.schema_migrations ("
+      + "version INTEGER PRIMARY KEY, description TEXT NOT NULL, checksum TEXT NOT NULL, "
+      + "installed_on TIMESTAMP NOT NULL DEFAULT now(), execution_ms BIGINT NOT NULL, "
+      + "baseline BOOLEAN NOT NULL DEFAULT FALSE)";
+
+  private static final String INSERT_HISTORY = "INSERT INTO pae.schema_migrations "
+      + "(version, description, checksum, execution_ms, baseline) VALUES (?, ?, ?, ?, ?)";
+
+  // Connection settings of the database
+  private final String url;
+  private final String user;
+  private final String password;
+
+  /**
+   * Creates a runner for a database.
+   *
+   * @param url      the JDBC URL of the database
+   * @param user     the user connecting to the database
+   * @param password the password of the user
+   */
+  public MigrationRunner(String url, String user, String password) {
+    this.url = url;
+    this.user = user;
+    this.password = password;
+  }
+
+  /**
+   * Creates a runner for the database of the configuration.
+   *
+   * @return a runner for the dbURL database
+   */
+  public static MigrationRunner fromConfig() {
+    return new MigrationRunner(Config.getProperty("dbURL"), Config.getProperty("dbUser"),
+        Config.getProperty("dbPassword"));
+  }
+
+  /**
+   * Applies the scripts that have not been applied yet.
+   *
+   * @return the number of applied scripts
+   * @throws FatalException if a script fails, or if an applied script has been modified
+   */
+  public int migrate() {
+    List<Migration> migrations = loadMigrations();
+    try (Connection conn = DriverManager.getConnection(url, user, password)) {
+      lock(conn, true);
+      try {
+        conn.setAutoCommit(false);
+        Map<Integer, String> applied = prepareHistory(conn, migrations);
+        List<Migration> pending = pending(migrations, applied);
+        for (Migration migration : pending) {
+          apply(conn, migration);
+        }
+        warnUnknownVersions(applied, migrations);
+        Log4J.LOGGER.info(pending.isEmpty() ? "Database schema up to date"
+            : "Applied " + pending.size() + " database migration(s)");
+        return pending.size();
+      } finally {
+        conn.setAutoCommit(true);
+        lock(conn, false);
+      }
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Returns the state of every script: applied, baselined or pending.
+   *
+   * @return the state of each script, keyed by its version
+   */
+  public Map<Integer, String> info() {
+    List<Migration> migrations = loadMigrations();
+    Map<Integer, String> info = new TreeMap<>();
+    try (Connection conn = DriverManager.getConnection(url, user, password)) {
+      Map<Integer, String> applied = new TreeMap<>();
+      if (tableExists(conn, "pae.schema_migrations")) {
+        try (PreparedStatement ps = conn.prepareStatement(
+            "SELECT version, installed_on, baseline FROM pae.schema_migrations");
+            ResultSet rs = ps.executeQuery()) {
+          while (rs.next()) {
+            applied.put(rs.getInt(1), (rs.getBoolean(3) ? "baselined on " : "applied on ")
+                + rs.getTimestamp(2));
+          }
+        }
+      }
+      for (Migration migration : migrations) {
+        info.put(migration.version(), migration.description() + ": "
+            + applied.getOrDefault(migration.version(), "pending"));
+      }
+      return info;
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Returns the scripts that have not been applied yet, after checking that none of the applied
+   * scripts has been modified since, so that nothing is run on a schema that does not match them.
+   *
+   * @param migrations the scripts, sorted by version
+   * @param applied    the checksum of the applied scripts, keyed by their version
+   * @return the scripts to apply, sorted by version
+   * @throws FatalException if an applied script has been modified
+   */
+  static List<Migration> pending(List<Migration> migrations, Map<Integer, String> applied) {
+    List<Migration> pending = new ArrayList<>();
+    for (Migration migration : migrations) {
+      String checksum = applied.get(migration.version());
+      if (checksum == null) {
+        pending.add(migration);
+      } else if (!checksum.equals(migration.checksum())) {
+        throw new FatalException("Migration V" + migration.version()
+            + " has been modified after being applied");
+      }
+    }
+    return pending;
+  }
+
+  /**
+   * Creates the history table if needed, baselines a database created before the migrations and
+   * reads the applied scripts.
+   *
+   * @param conn       the connection to the database
+   * @param migrations the scripts
+   * @return the checksum of the applied scripts, keyed by their version
+   * @throws SQLException if the history cannot be read
+   */
+  private Map<Integer, String> prepareHistory(Connection conn, List<Migration> migrations)
+      throws SQLException {
+    boolean existingSchema = tableExists(conn, "pae.users");
+    try (Statement st = conn.createStatement()) {
+      st.execute("CREATE SCHEMA IF NOT EXISTS pae");
+      st.execute(HISTORY_TABLE);
+    }
+    Map<Integer, String> applied = new TreeMap<>();
+    try (PreparedStatement ps = conn.prepareStatement(
+        "SELECT version, checksum FROM pae.schema_migrations");
+        ResultSet rs = ps.executeQuery()) {
+      while (rs.next()) {
+        applied.put(rs.getInt(1), rs.getString(2));
+      }
+    }
+    if (applied.isEmpty() && existingSchema && !migrations.isEmpty()) {
+      Migration baseline = migrations.get(0);
+      record(conn, baseline, 0, true);
+      applied.put(baseline.version(), baseline.checksum());
+      Log4J.LOGGER.info("Existing database schema baselined at V" + baseline.version());
+    }
+    conn.commit();
+    return applied;
+  }
+
+  /**
+   * Runs a script and records it in the history, in a single transaction.
+   *
+   * @param conn      the connection to the database
+   * @param migration the script to run
+   * @throws SQLException if the transaction cannot be rolled back
+   */
+  private void apply(Connection conn, Migration migration) throws SQLException {
+    long start = System.nanoTime();
+    try (Statement st = conn.createStatement()) {
+      st.execute(migration.script());
+      long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+      record(conn, migration, elapsedMillis, false);
+      conn.commit();
+      Log4J.LOGGER.info("Applied migration V" + migration.version() + " ("
+          + migration.description() + ") in " + elapsedMillis + " ms");
+    } catch (SQLException e) {
+      conn.rollback();
+      throw new FatalException("Migration V" + migration.version() + " failed: "
+          + e.getMessage());
+    }
+  }
+
+  /**
+   * Records a script in the history.
+   *
+   * @param conn          the connection to the database
+   * @param migration     the script
+   * @param elapsedMillis the time spent running the script
+   * @param baseline      whether the script has been recorded without being run
+   * @throws SQLException if the history cannot be written
+   */
+  private static void record(Connection conn, Migration migration, long elapsedMillis,
+      boolean baseline) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement(INSERT_HISTORY)) {
+      ps.setInt(1, migration.version());
+      ps.setString(2, migration.description());
+      ps.setString(3, migration.checksum());
+      ps.setLong(4, elapsedMillis);
+      ps.setBoolean(5, baseline);
+      ps.executeUpdate();
+    }
+  }
+
+  /**
+   * Takes or releases the advisory lock of the migrations. Taking it waits for another server to
+   * finish its migrations.
+   *
+   * @param conn the connection to the database
+   * @param take true to take the lock, false to release it
+   * @throws SQLException if the lock cannot be taken or released
+   */
+  private static void lock(Connection conn, boolean take) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement(
+        take ? "SELECT pg_advisory_lock(?)" : "SELECT pg_advisory_unlock(?)")) {
+      ps.setLong(1, LOCK_KEY);
+      ps.execute();
+    }
+  }
+
+  /**
+   * Checks whether a table exists.
+   *
+   * @param conn  the connection to the database
+   * @param table the qualified name of the table
+   * @return true if the table exists
+   * @throws SQLException if the catalog cannot be read
+   */
+  private static boolean tableExists(Connection conn, String table) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+      ps.setString(1, table);
+      try (ResultSet rs = ps.executeQuery()) {
+        rs.next();
+        return rs.getBoolean(1);
+      }
+    }
+  }
+
+  /**
+   * Logs a warning for the applied versions that are not known by this version of the
+   * application, which means the database has been migrated by a newer one.
+   *
+   * @param applied    the applied scripts
+   * @param migrations the known scripts
+   */
+  private static void warnUnknownVersions(Map<Integer, String> applied,
+      List<Migration> migrations) {
+    for (Integer version : applied.keySet()) {
+      if (migrations.stream().noneMatch(migration -> migration.version() == version)) {
+        Log4J.LOGGER.warn("Database migration V" + version + " is unknown to this version");
+      }
+    }
+  }
+
+  /**
+   * Loads the scripts listed in the migrations.list file.
+   *
+   * @return the scripts, sorted by version
+   * @throws FatalException if a script cannot be read or is wrongly named
+   */
+  static List<Migration> loadMigrations() {
+    return loadMigrations(LOCATION);
+  }
+
+  /**
+   * Loads the scripts listed in the migrations.list file of a classpath directory.
+   *
+   * @param location the classpath directory of the scripts, ending with a slash
+   * @return the scripts, sorted by version
+   * @throws FatalException if a script cannot be read, is wrongly named or is listed out of order
+   */
+  static List<Migration> loadMigrations(String location) {
+    List<Migration> migrations = new ArrayList<>();
+    for (String name : readLines(location + "migrations.list")) {
+      Matcher matcher = SCRIPT_NAME.matcher(name);
+      if (!matcher.matches()) {
+        throw new FatalException("Invalid migration name: " + name);
+      }
+      String script = String.join("\n", readLines(location + name));
+      int version = Integer.parseInt(matcher.group(1));
+      if (!migrations.isEmpty() && migrations.get(migrations.size() - 1).version() >= version) {
+        throw new FatalException("Migrations must be listed by increasing version: " + name);
+      }
+      migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), script,
+          checksum(script)));
+    }
+    return migrations;
+  }
+
+  /**
+   * Reads the lines of a classpath resource, skipping the blank lines and, for the list of the
+   * scripts, the comments. Reading the lines also normalizes the line endings, so the checksum of
+   * a script does not depend on the platform it has been checked out on.
+   *
+   * @param resource the path of the resource
+   * @return the lines of the resource
+   */
+  private static List<String> readLines(String resource) {
+    InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(resource);
+    if (in == null) {
+      throw new FatalException("Missing migration resource: " + resource);
+    }
+    boolean list = resource.endsWith(".list");
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!list) {
+          lines.add(line);
+        } else if (!line.isBlank() && !line.startsWith("#")) {
+          lines.add(line.trim());
+        }
+      }
+    } catch (IOException e) {
+      throw new FatalException(e);
+    }
+    return lines;
+  }
+
+  /**
+   * Computes the checksum of a script.
+   *
+   * @param script the script
+   * @return the SHA-256 of the script, in hexadecimal
+   */
+  private static String checksum(String script) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(script.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Runs the migrations from the command line.
+   *
+   * @param args the command, migrate (the default) or info, and the configuration file,
+   *             dev.properties by default
+   */
+  public static void main(String[] args) {
+    System.setProperty("log4j.configurationFile", "log4j2.xml");
+    Config.load(args.length > 1 ? args[1] : "dev.properties");
+    MigrationRunner runner = fromConfig();
+    String command = args.length > 0 ? args[0] : "migrate";
+    switch (command) {
+      case "migrate" -> runner.migrate();
+      case "info" -> runner.info().forEach(
+          (version, state) -> System.out.println("V" + version + " " + state));
+      default -> System.err.println("Unknown command " + command + ", expected migrate or info");
+    }
+  }
+
+  /**
+   * A versioned script.
+   *
+   * @param version     the version of the script
+   * @param description the description of the script, taken from its name
+   * @param script      the SQL text of the script
+   * @param checksum    the checksum of the SQL text
+   */
+  record Migration(int version, String description, String script, String checksum) {
+
+  }
+}
@@ -1,7 +1,11 @@
 package be.vinci.pae.dal.responsable;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.responsable.ResponsableStageDTO;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * ResponsableStageDAO is an interface that defines the methods that must be implemented by a
@@ -36,4 +40,29 @@ public interface ResponsableStageDAO {
    * @return The internship supervisor.
    */
   List<ResponsableStageDTO> getAll();
+
+  /**
+   * Reads the version of the list of all the internship supervisors with an aggregate query,
+   * without reading them. As the supervisors are never updated, the version numbers summed are the
+   * ones of their enterprise.
+   *
+   * @return the version of the list of all the internship supervisors
+   */
+  CollectionVersion getListVersion();
+
+  /**
+   * Reads all the internship supervisors progressively, handing each one to a consumer as soon as
+   * it is read. It must be called inside a transaction.
+   *
+   * @param consumer The consumer receiving each internship supervisor.
+   */
+  void forEach(Consumer<? super ResponsableStageDTO> consumer);
+
+  /**
+   * Retrieves one page of the internship supervisors, sorted on the requested field.
+   *
+   * @param request The requested page.
+   * @return The internship supervisors of the page and the cursor of the next page.
+   */
+  Page<ResponsableStageDTO> getPage(PageRequest request);
 }
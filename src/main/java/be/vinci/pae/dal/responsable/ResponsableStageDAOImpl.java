@@ -1,14 +1,22 @@
 package be.vinci.pae.dal.responsable;
 
+import be.vinci.pae.business.CollectionVersion;
 import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.business.responsable.ResponsableStageDTO;
 import be.vinci.pae.dal.DALBackServices;
-import be.vinci.pae.dal.utils.Util;
+import be.vinci.pae.dal.utils.Keyset;
+import be.vinci.pae.dal.utils.RowMapper;
+import be.vinci.pae.dal.utils.VersionQueries;
 import be.vinci.pae.exception.FatalException;
 import jakarta.inject.Inject;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * ResponsableStageDAOImpl is a class that implements the ResponsableStageDAO interface. It provides
@@ -18,6 +26,25 @@ import java.util.List;
  */
 public class ResponsableStageDAOImpl implements ResponsableStageDAO {
 
+  // Tables and join condition of the queries reading the supervisors with their enterprise
+  private static final String SELECT_ALL =
+      "SELECT RE.*, EN.* FROM pae.responsables_stages RE, pae.enterprises EN";
+  private static final String JOIN_CONDITION = "RE.enterprise = EN.identerprise";
+
+  // Query reading all the internship supervisors along with their enterprise
+  private static final String ALL_QUERY = SELECT_ALL + " WHERE " + JOIN_CONDITION;
+
+  // Query reading the version of the list of all the internship supervisors
+  private static final String VERSION_QUERY = VersionQueries.select("RE.responsableId",
+      "EN.versionNumber") + "FROM pae.responsables_stages RE, pae.enterprises EN WHERE "
+      + JOIN_CONDITION;
+
+  // Columns on which the list of the internship supervisors can be sorted and paged
+  private static final Keyset<ResponsableStageDTO> KEYSET =
+      new Keyset<ResponsableStageDTO>("RE.responsableId", ResponsableStageDTO::getResponsableId)
+          .sortable("lastName", "RE.lastName", ResponsableStageDTO::getLastName)
+          .sortable("firstName", "RE.firstName", ResponsableStageDTO::getFirstName);
+
   // Instance of DALBackServices for performing common DAL operations
   @Inject
   private DALBackServices dalBackServices;
@@ -43,7 +70,8 @@ public class ResponsableStageDAOImpl implements ResponsableStageDAO {
       ps.setInt(1, id);
       try (var rs = ps.executeQuery()) {
         if (rs.next()) {
-          return (ResponsableStageDTO) Util.fillInfos(rs, domainFactory.getResponsableStage());
+          return RowMapper.of(rs, "responsables_stages", domainFactory::getResponsableStage)
+              .map(rs);
         }
         return null;
       }
@@ -91,25 +119,90 @@ public class ResponsableStageDAOImpl implements ResponsableStageDAO {
   @Override
   public List<ResponsableStageDTO> getAll() {
     List<ResponsableStageDTO> responsableStageList = new ArrayList<>();
-    String query = "SELECT RE.*, EN.* FROM pae.responsables_stages RE, pae.enterprises EN "
-        + "WHERE RE.enterprise = EN.identerprise;";
+    try (var ps = dalBackServices.getPreparedStatement(ALL_QUERY)) {
+      mapAll(ps, responsableStageList::add);
+    } catch (Exception e) {
+      throw new FatalException(e);
+    }
+    return responsableStageList;
+  }
+
+  /**
+   * Reads the version of the list of all the internship supervisors, from their count, their
+   * greatest id and the sum of the version numbers of their enterprise.
+   *
+   * @return The version of the list of all the internship supervisors.
+   */
+  @Override
+  public CollectionVersion getListVersion() {
+    try (var ps = dalBackServices.getPreparedStatement(VERSION_QUERY)) {
+      return VersionQueries.read(ps);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Reads all the internship supervisors progressively and hands each one, along with its
+   * enterprise, to a consumer as soon as it is read. Only a few rows are held in memory at once.
+   *
+   * @param consumer The consumer receiving each internship supervisor.
+   */
+  @Override
+  public void forEach(Consumer<? super ResponsableStageDTO> consumer) {
+    try (var ps = dalBackServices.getStreamingStatement(ALL_QUERY)) {
+      mapAll(ps, consumer);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Retrieves one page of the internship supervisors along with their enterprise. The page starts
+   * right after the supervisor of the cursor, so reading any page costs the same whatever its
+   * position in the list.
+   *
+   * @param request The requested page.
+   * @return The internship supervisors of the page and the cursor of the next page.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public Page<ResponsableStageDTO> getPage(PageRequest request) {
+    String query = KEYSET.sql(SELECT_ALL, JOIN_CONDITION, request);
+    List<ResponsableStageDTO> responsableStageList = new ArrayList<>();
     try (var ps = dalBackServices.getPreparedStatement(query)) {
-      try (var rs = ps.executeQuery()) {
-        while (rs.next()) {
-          ResponsableStageDTO myResponsable = (ResponsableStageDTO) Util.fillInfos(rs,
-              domainFactory.getResponsableStage());
-          EnterpriseDTO myEnterprise = (EnterpriseDTO) Util.fillInfos(rs,
-              domainFactory.getEnterprise());
+      KEYSET.bind(ps, 1, request);
+      mapAll(ps, responsableStageList::add);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+    return KEYSET.page(responsableStageList, request);
+  }
+
+  /**
+   * Executes a query joining the internship supervisors with their enterprise and maps each row to
+   * a ResponsableStageDTO object.
+   *
+   * @param ps       The query to execute.
+   * @param consumer The consumer receiving each internship supervisor.
+   * @throws SQLException if a SQLException occurs.
+   */
+  private void mapAll(PreparedStatement ps, Consumer<? super ResponsableStageDTO> consumer)
+      throws SQLException {
+    try (var rs = ps.executeQuery()) {
+      RowMapper<ResponsableStageDTO> responsableMapper = RowMapper.of(rs,
+          "responsables_stages", domainFactory::getResponsableStage);
+      RowMapper<EnterpriseDTO> enterpriseMapper = RowMapper.of(rs, "enterprises",
+          domainFactory::getEnterprise);
+      while (rs.next()) {
+        ResponsableStageDTO myResponsable = responsableMapper.map(rs);
+        EnterpriseDTO myEnterprise = enterpriseMapper.map(rs);
 
-          myResponsable.setEnterpriseDTO(myEnterprise);
+        myResponsable.setEnterpriseDTO(myEnterprise);
 
-          responsableStageList.add(myResponsable);
-        }
+        consumer.accept(myResponsable);
       }
-    } catch (Exception e) {
-      throw new FatalException(e);
     }
-    return responsableStageList;
   }
 
 }
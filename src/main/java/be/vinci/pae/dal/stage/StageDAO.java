@@ -17,6 +17,16 @@ public interface StageDAO {
    */
   StageDTO getOne(int id);
 
+  /**
+   * Reads only the version of the stage of a request, without reading the stage. As the stage
+   * embeds its internship supervisor and enterprise, the version is made of the id and version
+   * number of the stage and of the version number of the enterprise.
+   *
+   * @param id the id of the request
+   * @return the version of the stage, or null if there is no stage
+   */
+  String getVersion(int id);
+
   /**
    * Creates a new stage.
    *
@@ -25,6 +35,14 @@ public interface StageDAO {
    */
   StageDTO createStage(StageDTO stage);
 
+  /**
+   * Creates several stages in batches, setting the generated id of each one.
+   *
+   * @param stages the stages to create
+   * @return the created stages
+   */
+  List<StageDTO> createMany(List<StageDTO> stages);
+
   /**
    * Updates a single StageDTO object in the database.
    *
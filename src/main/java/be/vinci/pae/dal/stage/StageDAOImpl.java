@@ -5,11 +5,12 @@ import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.business.responsable.ResponsableStageDTO;
 import be.vinci.pae.business.stage.StageDTO;
 import be.vinci.pae.dal.DALBackServices;
-import be.vinci.pae.dal.utils.Util;
+import be.vinci.pae.dal.utils.RowMapper;
 import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.ObjectNotFoundException;
 import be.vinci.pae.exception.WrongBodyDataException;
 import jakarta.inject.Inject;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -25,6 +26,12 @@ import java.util.Map;
  */
 public class StageDAOImpl implements StageDAO {
 
+  // Query inserting a stage, shared by the single and the batched inserts
+  private static final String INSERT_QUERY =
+      "INSERT INTO pae.stages (userid, internshipproject, internshipsupervisor, "
+          + "contact, signaturedate, versionnumber)"
+          + " VALUES (?, ?, ?, ?, ?, ?)";
+
   // Instance of DALBackServices for performing common DAL operations
   @Inject
   private DALBackServices dalBackServices;
@@ -53,13 +60,13 @@ public class StageDAOImpl implements StageDAO {
       ps.setInt(1, id);
       try (ResultSet rs = ps.executeQuery()) {
         if (rs.next()) {
-          StageDTO stage = (StageDTO) Util.fillInfos(rs, domainFactory.getStage());
+          StageDTO stage = RowMapper.of(rs, "stages", domainFactory::getStage).map(rs);
 
-          ResponsableStageDTO myIntershipSupervisor = (ResponsableStageDTO) Util.fillInfos(rs,
-              domainFactory.getResponsableStage());
+          ResponsableStageDTO myIntershipSupervisor = RowMapper.of(rs, "responsables_stages",
+              domainFactory::getResponsableStage).map(rs);
 
-          EnterpriseDTO enterprise = (EnterpriseDTO) Util.fillInfos(rs,
-              domainFactory.getEnterprise());
+          EnterpriseDTO enterprise = RowMapper.of(rs, "enterprises",
+              domainFactory::getEnterprise).map(rs);
           myIntershipSupervisor.setEnterpriseDTO(enterprise);
 
           stage.setInternshipSupervisorDTO(myIntershipSupervisor);
@@ -73,6 +80,36 @@ public class StageDAOImpl implements StageDAO {
     return null;
   }
 
+  /**
+   * Returns the version of the stage of a request, read from the stage and its enterprise only. The
+   * internship supervisors are never updated, so their version is the one of their enterprise.
+   *
+   * @param id The ID of the request.
+   * @return The id and version number of the stage and the version number of its enterprise,
+   *     separated by dashes, or null if no stage is found.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public String getVersion(int id) {
+    String query =
+        "SELECT S.idStage, S.versionNumber, E.versionNumber "
+            + "FROM pae.stages S "
+            + "JOIN pae.responsables_stages R ON R.responsableid = S.internshipSupervisor "
+            + "JOIN pae.enterprises E ON E.identerprise = R.enterprise "
+            + "WHERE S.userId = ?";
+    try (var ps = dalBackServices.getPreparedStatement(query)) {
+      ps.setInt(1, id);
+      try (ResultSet rs = ps.executeQuery()) {
+        if (rs.next()) {
+          return rs.getInt(1) + "-" + rs.getInt(2) + "-" + rs.getInt(3);
+        }
+        return null;
+      }
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
   /**
    * Creates a new stage.
    *
@@ -81,17 +118,9 @@ public class StageDAOImpl implements StageDAO {
    */
   @Override
   public StageDTO createStage(StageDTO stage) {
-    String query =
-        "INSERT INTO pae.stages (userid, internshipproject, internshipsupervisor, "
-            + "contact, signaturedate, versionnumber)"
-            + " VALUES (?, ?, ?, ?, ?, ?) RETURNING idstage;";
+    String query = INSERT_QUERY + " RETURNING idstage;";
     try (var ps = dalBackServices.getPreparedStatement(query)) {
-      ps.setInt(1, stage.getUserId());
-      ps.setString(2, stage.getInternshipProject());
-      ps.setInt(3, stage.getInternshipSupervisorId());
-      ps.setInt(4, stage.getContact());
-      ps.setString(5, stage.getSignatureDate());
-      ps.setInt(6, 1);
+      bindInsert(ps, 0, stage);
       try (ResultSet rs = ps.executeQuery()) {
         if (rs.next()) {
           stage.setIdStage(rs.getInt("idstage"));
@@ -104,6 +133,38 @@ public class StageDAOImpl implements StageDAO {
     }
   }
 
+  /**
+   * Creates several stages with batched inserts. The generated id of each stage is set on its
+   * StageDTO object.
+   *
+   * @param stages the stages to create
+   * @return the created stages
+   */
+  @Override
+  public List<StageDTO> createMany(List<StageDTO> stages) {
+    dalBackServices.executeBatch(INSERT_QUERY, stages, StageDAOImpl::bindInsert, "idstage",
+        StageDTO::setIdStage);
+    return stages;
+  }
+
+  /**
+   * Sets the parameters of the insert query from a stage. A new stage always starts at version 1.
+   *
+   * @param ps     the insert statement
+   * @param offset The number of parameters set before those of the stage.
+   * @param stage  the stage to insert
+   * @throws SQLException if a parameter cannot be set
+   */
+  private static void bindInsert(PreparedStatement ps, int offset, StageDTO stage)
+      throws SQLException {
+    ps.setInt(offset + 1, stage.getUserId());
+    ps.setString(offset + 2, stage.getInternshipProject());
+    ps.setInt(offset + 3, stage.getInternshipSupervisorId());
+    ps.setInt(offset + 4, stage.getContact());
+    ps.setString(offset + 5, stage.getSignatureDate());
+    ps.setInt(offset + 6, 1);
+  }
+
   /**
    * Updates a single StageDTO object in the database.
    *
@@ -0,0 +1,40 @@
+package be.vinci.pae.dal.token;
+
+import be.vinci.pae.exception.FatalException;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The RevokedTokenDAO interface provides the structure for a Data Access Object (DAO) that handles
+ * the revoked tokens. A token is identified by its "jti" claim, and is kept until it expires, after
+ * which it would be rejected anyway.
+ */
+public interface RevokedTokenDAO {
+
+  /**
+   * Records a revoked token. Nothing is done if the token is already revoked.
+   *
+   * @param jti       The id of the token.
+   * @param expiresAt The expiration of the token.
+   * @throws FatalException if a database access error occurs.
+   */
+  void createOne(String jti, Instant expiresAt);
+
+  /**
+   * Retrieves the revoked tokens which have not expired yet.
+   *
+   * @param now The current time.
+   * @return The expiration of each revoked token, by id.
+   * @throws FatalException if a database access error occurs.
+   */
+  Map<String, Instant> getAllActive(Instant now);
+
+  /**
+   * Deletes the revoked tokens which have expired.
+   *
+   * @param now The current time.
+   * @return The number of deleted tokens.
+   * @throws FatalException if a database access error occurs.
+   */
+  int deleteExpired(Instant now);
+}
@@ -0,0 +1,82 @@
+package be.vinci.pae.dal.token;
+
+import be.vinci.pae.dal.DALBackServices;
+import be.vinci.pae.exception.FatalException;
+import jakarta.inject.Inject;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RevokedTokenDAOImpl is a class that implements the RevokedTokenDAO interface. It stores the
+ * revoked tokens in the pae.revoked_tokens table.
+ */
+public class RevokedTokenDAOImpl implements RevokedTokenDAO {
+
+  // Instance of DALBackServices
+  @Inject
+  private DALBackServices dalBackServices;
+
+  /**
+   * Records a revoked token. Nothing is done if the token is already revoked.
+   *
+   * @param jti       The id of the token.
+   * @param expiresAt The expiration of the token.
+   */
+  @Override
+  public void createOne(String jti, Instant expiresAt) {
+    try (PreparedStatement ps = dalBackServices.getPreparedStatement(
+        "INSERT INTO pae.revoked_tokens (jti, expiresAt) VALUES (?, ?) "
+            + "ON CONFLICT (jti) DO NOTHING")) {
+      ps.setString(1, jti);
+      ps.setTimestamp(2, Timestamp.from(expiresAt));
+      ps.executeUpdate();
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Retrieves the revoked tokens which have not expired yet.
+   *
+   * @param now The current time.
+   * @return The expiration of each revoked token, by id.
+   */
+  @Override
+  public Map<String, Instant> getAllActive(Instant now) {
+    try (PreparedStatement ps = dalBackServices.getPreparedStatement(
+        "SELECT jti, expiresAt FROM pae.revoked_tokens WHERE expiresAt > ?")) {
+      ps.setTimestamp(1, Timestamp.from(now));
+      Map<String, Instant> tokens = new HashMap<>();
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          tokens.put(rs.getString(1), rs.getTimestamp(2).toInstant());
+        }
+      }
+      return tokens;
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Deletes the revoked tokens which have expired.
+   *
+   * @param now The current time.
+   * @return The number of deleted tokens.
+   */
+  @Override
+  public int deleteExpired(Instant now) {
+    try (PreparedStatement ps = dalBackServices.getPreparedStatement(
+        "DELETE FROM pae.revoked_tokens WHERE expiresAt <= ?")) {
+      ps.setTimestamp(1, Timestamp.from(now));
+      return ps.executeUpdate();
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+}
@@ -1,8 +1,12 @@
 package be.vinci.pae.dal.user;
 
+import be.vinci.pae.business.CollectionVersion;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.exception.FatalException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The UserDAO interface provides the structure for a Data Access Object (DAO) that handles the data
@@ -37,6 +41,14 @@ public interface UserDAO {
    */
   UserDTO createOne(UserDTO user);
 
+  /**
+   * Creates several users in the database in batches, setting the generated id of each one.
+   *
+   * @param users The UserDTO objects containing the user data.
+   * @return The created UserDTO objects.
+   */
+  List<UserDTO> createMany(List<UserDTO> users);
+
   /**
    * This method creates a new user in the database.
    *
@@ -45,6 +57,41 @@ public interface UserDAO {
    */
   List<UserDTO> getAll();
 
+  /**
+   * Reads the version number of a user, without reading the user.
+   *
+   * @param id the id of the user
+   * @return the version number of the user, or null if it does not exist
+   * @throws FatalException if a database access error occurs.
+   */
+  Integer getVersion(int id);
+
+  /**
+   * Reads the version of the list of all users with an aggregate query, without reading the users.
+   *
+   * @return the version of the list of all users
+   * @throws FatalException if a database access error occurs.
+   */
+  CollectionVersion getListVersion();
+
+  /**
+   * Reads all users progressively, handing each one to a consumer as soon as it is read. It must be
+   * called inside a transaction.
+   *
+   * @param consumer The consumer receiving each user.
+   * @throws FatalException if a database access error occurs.
+   */
+  void forEach(Consumer<? super UserDTO> consumer);
+
+  /**
+   * Retrieves one page of the users, sorted on the requested field.
+   *
+   * @param request The requested page.
+   * @return The users of the page and the cursor of the next page.
+   * @throws FatalException if a database access error occurs.
+   */
+  Page<UserDTO> getPage(PageRequest request);
+
   /**
    * This method edits the data of the user in the database.
    *
@@ -54,4 +101,16 @@ public interface UserDAO {
    */
   UserDTO updateOne(UserDTO user);
 
+  /**
+   * Replaces the hash of the password of a user, if it has not changed since it was read. The
+   * version number is kept, as the password itself stays the same.
+   *
+   * @param idUser  The id of the user.
+   * @param oldHash The hash read from the database.
+   * @param newHash The new hash of the same password.
+   * @return true if the hash was replaced, false if it changed in the meantime.
+   * @throws FatalException if a database access error occurs.
+   */
+  boolean updatePasswordHash(int idUser, String oldHash, String newHash);
+
 }
\ No newline at end of file
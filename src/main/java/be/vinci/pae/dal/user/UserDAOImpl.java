@@ -1,9 +1,14 @@
 package be.vinci.pae.dal.user;
 
+import be.vinci.pae.business.CollectionVersion;
 import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.dal.DALBackServices;
-import be.vinci.pae.dal.utils.Util;
+import be.vinci.pae.dal.utils.Keyset;
+import be.vinci.pae.dal.utils.RowMapper;
+import be.vinci.pae.dal.utils.VersionQueries;
 import be.vinci.pae.exception.ConflictException;
 import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.ObjectNotFoundException;
@@ -12,6 +17,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * UserDAOImpl is a class that implements the UserDAO interface. It provides the implementation for
@@ -20,6 +26,19 @@ import java.util.List;
  */
 public class UserDAOImpl implements UserDAO {
 
+  // Query inserting a user, shared by the single and the batched inserts
+  private static final String INSERT_QUERY = "INSERT INTO pae.users "
+      + "(email, password, lastName, firstName, phoneNumber, "
+      + "registrationDate, role, schoolYear) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  // Columns on which the list of the users can be sorted and paged
+  private static final Keyset<UserDTO> KEYSET =
+      new Keyset<UserDTO>("idUser", UserDTO::getIdUser)
+          .sortable("lastName", "lastName", UserDTO::getLastName)
+          .sortable("firstName", "firstName", UserDTO::getFirstName)
+          .sortable("role", "role", UserDTO::getRole)
+          .sortable("schoolYear", "schoolYear", UserDTO::getSchoolYear);
+
   // Instance of DomainFactory
   @Inject
   private DomainFactory myDomainFactory;
@@ -44,8 +63,7 @@ public class UserDAOImpl implements UserDAO {
       userByEmail.setString(1, email);
       try (var rs = userByEmail.executeQuery()) {
         if (rs.next()) {
-          UserDTO user = myDomainFactory.getUser();
-          return (UserDTO) Util.fillInfos(rs, user);
+          return RowMapper.of(rs, "users", myDomainFactory::getUser).map(rs);
         }
       }
     } catch (SQLException e) {
@@ -69,8 +87,7 @@ public class UserDAOImpl implements UserDAO {
       userById.setInt(1, id);
       try (var rs = userById.executeQuery()) {
         if (rs.next()) {
-          UserDTO user = myDomainFactory.getUser();
-          return (UserDTO) Util.fillInfos(rs, user);
+          return RowMapper.of(rs, "users", myDomainFactory::getUser).map(rs);
         }
       }
     } catch (SQLException e) {
@@ -90,20 +107,8 @@ public class UserDAOImpl implements UserDAO {
   @Override
   public UserDTO createOne(UserDTO user) {
     try (PreparedStatement userByEmail =
-        dalBackServices.getPreparedStatement(
-            "INSERT INTO pae.users "
-                + "(email, password, lastName, firstName, phoneNumber, "
-                + "registrationDate, role, schoolYear) VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
-                + "RETURNING idUser"
-        )) {
-      userByEmail.setString(1, user.getEmail());
-      userByEmail.setString(2, user.getPassword());
-      userByEmail.setString(3, user.getLastName());
-      userByEmail.setString(4, user.getFirstName());
-      userByEmail.setString(5, user.getPhoneNumber());
-      userByEmail.setString(6, user.getRegistrationDate());
-      userByEmail.setString(7, user.getRole().toString());
-      userByEmail.setString(8, user.getSchoolYear());
+        dalBackServices.getPreparedStatement(INSERT_QUERY + " RETURNING idUser")) {
+      bindInsert(userByEmail, 0, user);
       try (var rs = userByEmail.executeQuery()) {
         if (rs.next()) {
           user.setIdUser(rs.getInt(1));
@@ -116,6 +121,41 @@ public class UserDAOImpl implements UserDAO {
     }
   }
 
+  /**
+   * Creates several users in the database with batched inserts. The generated id of each user is
+   * set on its UserDTO object.
+   *
+   * @param users The UserDTO objects containing the user data.
+   * @return The created UserDTO objects.
+   * @throws FatalException if a SQLException occurs.
+   */
+  @Override
+  public List<UserDTO> createMany(List<UserDTO> users) {
+    dalBackServices.executeBatch(INSERT_QUERY, users, UserDAOImpl::bindInsert, "iduser",
+        UserDTO::setIdUser);
+    return users;
+  }
+
+  /**
+   * Sets the parameters of the insert query from a user.
+   *
+   * @param ps     The insert statement.
+   * @param offset The number of parameters set before those of the user.
+   * @param user   The user to insert.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void bindInsert(PreparedStatement ps, int offset, UserDTO user)
+      throws SQLException {
+    ps.setString(offset + 1, user.getEmail());
+    ps.setString(offset + 2, user.getPassword());
+    ps.setString(offset + 3, user.getLastName());
+    ps.setString(offset + 4, user.getFirstName());
+    ps.setString(offset + 5, user.getPhoneNumber());
+    ps.setString(offset + 6, user.getRegistrationDate());
+    ps.setString(offset + 7, user.getRole().toString());
+    ps.setString(offset + 8, user.getSchoolYear());
+  }
+
   /**
    * Retrieves all users from the database.
    *
@@ -127,18 +167,106 @@ public class UserDAOImpl implements UserDAO {
     try (PreparedStatement users =
         dalBackServices.getPreparedStatement(
             "SELECT * FROM pae.users ")) {
-      try (var rs = users.executeQuery()) {
-        while (rs.next()) {
-          UserDTO user = myDomainFactory.getUser();
-          liste.add((UserDTO) Util.fillInfos(rs, user));
-        }
-      }
+      mapAll(users, liste::add);
     } catch (SQLException e) {
       throw new FatalException(e);
     }
     return liste;
   }
 
+  /**
+   * Reads the version number of a user, without reading the user.
+   *
+   * @param id The id of the user.
+   * @return The version number of the user, or null if it does not exist.
+   * @throws FatalException if a database access error occurs.
+   */
+  @Override
+  public Integer getVersion(int id) {
+    try (PreparedStatement ps = dalBackServices.getPreparedStatement(
+        "SELECT versionNumber FROM pae.users WHERE idUser = ?")) {
+      ps.setInt(1, id);
+      try (var rs = ps.executeQuery()) {
+        return rs.next() ? rs.getInt(1) : null;
+      }
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Reads the version of the list of all users, from the count, greatest id and sum of the version
+   * numbers of the users.
+   *
+   * @return The version of the list of all users.
+   * @throws FatalException if a database access error occurs.
+   */
+  @Override
+  public CollectionVersion getListVersion() {
+    try (PreparedStatement version = dalBackServices.getPreparedStatement(
+        VersionQueries.select("idUser", "versionNumber") + "FROM pae.users")) {
+      return VersionQueries.read(version);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Reads all users from the database progressively and hands each one to a consumer as soon as it
+   * is read. Only a few rows are held in memory at once.
+   *
+   * @param consumer The consumer receiving each user.
+   * @throws FatalException if a database access error occurs.
+   */
+  @Override
+  public void forEach(Consumer<? super UserDTO> consumer) {
+    try (PreparedStatement users =
+        dalBackServices.getStreamingStatement(
+            "SELECT * FROM pae.users ")) {
+      mapAll(users, consumer);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Retrieves one page of the users. The page starts right after the user of the cursor, so reading
+   * any page costs the same whatever its position in the list.
+   *
+   * @param request The requested page.
+   * @return The users of the page and the cursor of the next page.
+   * @throws FatalException if a database access error occurs.
+   */
+  @Override
+  public Page<UserDTO> getPage(PageRequest request) {
+    String query = KEYSET.sql("SELECT * FROM pae.users", null, request);
+    List<UserDTO> liste = new ArrayList<>();
+    try (PreparedStatement users = dalBackServices.getPreparedStatement(query)) {
+      KEYSET.bind(users, 1, request);
+      mapAll(users, liste::add);
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+    return KEYSET.page(liste, request);
+  }
+
+  /**
+   * Executes a query on the users table and maps each row to a UserDTO object.
+   *
+   * @param ps       The query to execute.
+   * @param consumer The consumer receiving each user.
+   * @throws SQLException if a database access error occurs.
+   */
+  private void mapAll(PreparedStatement ps, Consumer<? super UserDTO> consumer)
+      throws SQLException {
+    try (var rs = ps.executeQuery()) {
+      RowMapper<UserDTO> mapper = RowMapper.of(rs, "users", myDomainFactory::getUser);
+      while (rs.next()) {
+        consumer.accept(mapper.map(rs));
+      }
+    }
+  }
+
   /**
    * This method is used to update the details of an existing user in the database. It takes a
    * UserDTO object as a parameter, which contains the updated user data. The method updates the
@@ -182,4 +310,24 @@ public class UserDAOImpl implements UserDAO {
     }
   }
 
+  /**
+   * Replaces the hash of the password of a user, if it has not changed since it was read.
+   *
+   * @param idUser  The id of the user.
+   * @param oldHash The hash read from the database.
+   * @param newHash The new hash of the same password.
+   * @return true if the hash was replaced, false if it changed in the meantime.
+   */
+  @Override
+  public boolean updatePasswordHash(int idUser, String oldHash, String newHash) {
+    try (PreparedStatement ps = dalBackServices.getPreparedStatement(
+        "UPDATE pae.users SET password = ? WHERE idUser = ? AND password = ?")) {
+      ps.setString(1, newHash);
+      ps.setInt(2, idUser);
+      ps.setString(3, oldHash);
+      return ps.executeUpdate() == 1;
+    } catch (SQLException e) {
+      throw new FatalException(e);
+    }
+  }
 }
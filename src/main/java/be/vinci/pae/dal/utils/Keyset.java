@@ -0,0 +1,150 @@
+package be.vinci.pae.dal.utils;
+
+import be.vinci.pae.business.Page;
+import be.vinci.pae.business.PageRequest;
+import be.vinci.pae.exception.WrongBodyDataException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The Keyset class pages through the rows of a table with keyset pagination. Instead of skipping
+ * the rows of the previous pages with an OFFSET, the query starts right after the last row of the
+ * previous page, using a row comparison on the sort column and the id, so that an index on these
+ * two columns serves every page in the same time.
+ *
+ * <p>Only the columns declared with sortable() can sort the list, which keeps the client away
+ * from the SQL text. A sortable column is compared as text, its NULL values being sorted as empty
+ * strings, so the matching indexes have to be built on COALESCE(column, '').
+ *
+ * @param <T> the type of the paged objects
+ */
+public final class Keyset<T> {
+
+  // Column holding the id, used as the tie-breaker of every sort
+  private final String idColumn;
+
+  // Getter of the id of an object
+  private final ToIntFunction<? super T> idGetter;
+
+  // The sortable columns, keyed by the name of the field given by the client
+  private final Map<String, SortColumn<T>> columns = new HashMap<>();
+
+  /**
+   * Creates the keyset of a table. The list can always be sorted on the id, with the id sort.
+   *
+   * @param idColumn the column holding the id, prefixed with its table alias if needed
+   * @param idGetter the getter of the id of an object
+   */
+  public Keyset(String idColumn, ToIntFunction<? super T> idGetter) {
+    this.idColumn = idColumn;
+    this.idGetter = idGetter;
+  }
+
+  /**
+   * Declares a column on which the list can be sorted.
+   *
+   * @param name   the name of the field, as given by the client
+   * @param column the column, prefixed with its table alias if needed
+   * @param getter the getter of the value of the column on an object
+   * @return this keyset
+   */
+  public Keyset<T> sortable(String name, String column, Function<? super T, ?> getter) {
+    columns.put(name, new SortColumn<>("COALESCE(" + column + ", '')", getter));
+    return this;
+  }
+
+  /**
+   * Builds the query reading a page.
+   *
+   * @param select  the SELECT and FROM clauses of the query
+   * @param where   the conditions of the query, or null if every row is listed
+   * @param request the requested page
+   * @return the query, whose parameters are bound by bind() after the ones of the conditions
+   * @throws WrongBodyDataException if the list cannot be sorted on the requested field
+   */
+  public String sql(String select, String where, PageRequest request) {
+    String direction = request.isDescending() ? " DESC" : " ASC";
+    StringBuilder sql = new StringBuilder(select);
+    String condition = null;
+    String orderBy;
+    if (PageRequest.DEFAULT_SORT.equals(request.getSort())) {
+      if (!request.isFirstPage()) {
+        condition = idColumn + (request.isDescending() ? " < ?" : " > ?");
+      }
+      orderBy = idColumn + direction;
+    } else {
+      SortColumn<T> column = columns.get(request.getSort());
+      if (column == null) {
+        throw new WrongBodyDataException("The list cannot be sorted on " + request.getSort());
+      }
+      if (!request.isFirstPage()) {
+        condition = "(" + column.expression() + ", " + idColumn + ")"
+            + (request.isDescending() ? " < (?, ?)" : " > (?, ?)");
+      }
+      orderBy = column.expression() + direction + ", " + idColumn + direction;
+    }
+    if (where != null) {
+      sql.append(" WHERE ").append(where);
+    }
+    if (condition != null) {
+      sql.append(where == null ? " WHERE " : " AND ").append(condition);
+    }
+    // One more row than asked tells whether there is a next page
+    return sql.append(" ORDER BY ").append(orderBy).append(" LIMIT ?").toString();
+  }
+
+  /**
+   * Binds the parameters added by sql() to the query.
+   *
+   * @param ps      the query built by sql()
+   * @param index   the index of the first parameter added by sql()
+   * @param request the requested page
+   * @throws SQLException if a parameter cannot be set
+   */
+  public void bind(PreparedStatement ps, int index, PageRequest request) throws SQLException {
+    if (!request.isFirstPage()) {
+      if (!PageRequest.DEFAULT_SORT.equals(request.getSort())) {
+        ps.setString(index++, request.getAfterValue());
+      }
+      ps.setInt(index++, request.getAfterId());
+    }
+    ps.setInt(index, request.getLimit() + 1);
+  }
+
+  /**
+   * Turns the rows read by the query into a page, computing the cursor of the next page when the
+   * query returned more rows than asked.
+   *
+   * @param rows    the rows read by the query
+   * @param request the requested page
+   * @return the page
+   */
+  public Page<T> page(List<T> rows, PageRequest request) {
+    if (rows.size() <= request.getLimit()) {
+      return new Page<>(rows, null);
+    }
+    List<T> items = rows.subList(0, request.getLimit());
+    T last = items.get(items.size() - 1);
+    int id = idGetter.applyAsInt(last);
+    String value = PageRequest.DEFAULT_SORT.equals(request.getSort()) ? Integer.toString(id)
+        : Objects.toString(columns.get(request.getSort()).getter().apply(last), "");
+    return new Page<>(List.copyOf(items), request.cursor(value, id));
+  }
+
+  /**
+   * A sortable column.
+   *
+   * @param expression the SQL expression compared and sorted on
+   * @param getter     the getter of the value of the column on an object
+   * @param <T>        the type of the paged objects
+   */
+  private record SortColumn<T>(String expression, Function<? super T, ?> getter) {
+
+  }
+}
@@ -0,0 +1,365 @@
+package be.vinci.pae.dal.utils;
+
+import be.vinci.pae.exception.FatalException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The RowMapper class maps the rows of a ResultSet onto domain objects. A mapping plan is built
+ * once for each (factory, table, column layout) combination and then cached, so mapping a row only
+ * reads the columns by index and writes the fields through precompiled MethodHandles. The factory
+ * is identified by its class, which is the same for every evaluation of a method reference such as
+ * domainFactory::getUser, and is expected to always create objects of the same class: that class
+ * is only looked up, from a created object, when the plan is built.
+ *
+ * <p>When a table name is given, only the columns coming from that table are mapped, which allows
+ * joined queries to fill several objects from the same row without their shared column names
+ * colliding.
+ *
+ * @param <T> the type of the objects created by this mapper
+ */
+public final class RowMapper<T> {
+
+  // Cache of the mapping plans, shared by every query of the application
+  private static final Map<PlanKey, ColumnBinding[]> PLANS = new ConcurrentHashMap<>();
+
+  // Factory used to create a new object for each mapped row
+  private final Supplier<? extends T> factory;
+
+  // The column bindings of the plan used by this mapper
+  private final ColumnBinding[] bindings;
+
+  private RowMapper(Supplier<? extends T> factory, ColumnBinding[] bindings) {
+    this.factory = factory;
+    this.bindings = bindings;
+  }
+
+  /**
+   * Creates a mapper that maps every column of the ResultSet, whatever table it comes from. When
+   * several columns have the same name, the first one is used.
+   *
+   * @param rs      the ResultSet whose rows will be mapped
+   * @param factory the factory creating the objects to fill
+   * @param <T>     the type of the objects created by the mapper
+   * @return a mapper for the column layout of the ResultSet
+   * @throws SQLException if the metadata of the ResultSet cannot be read
+   */
+  public static <T> RowMapper<T> of(ResultSet rs, Supplier<? extends T> factory)
+      throws SQLException {
+    return of(rs, null, factory);
+  }
+
+  /**
+   * Creates a mapper that maps only the columns of the ResultSet coming from the given table.
+   * Computed columns, which do not belong to any table, are mapped as well.
+   *
+   * @param rs      the ResultSet whose rows will be mapped
+   * @param table   the name of the table whose columns are mapped, or null for every table
+   * @param factory the factory creating the objects to fill
+   * @param <T>     the type of the objects created by the mapper
+   * @return a mapper for the column layout of the ResultSet
+   * @throws SQLException if the metadata of the ResultSet cannot be read
+   */
+  public static <T> RowMapper<T> of(ResultSet rs, String table, Supplier<? extends T> factory)
+      throws SQLException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int columnCount = metaData.getColumnCount();
+    String[] labels = new String[columnCount + 1];
+    String[] tables = new String[columnCount + 1];
+    StringBuilder layout = new StringBuilder();
+    for (int i = 1; i <= columnCount; i++) {
+      labels[i] = metaData.getColumnLabel(i).toLowerCase();
+      String tableName = metaData.getTableName(i);
+      tables[i] = tableName == null ? "" : tableName.toLowerCase();
+      layout.append(tables[i]).append('.').append(labels[i]).append(',');
+    }
+    PlanKey key = new PlanKey(factory.getClass(), table == null ? null : table.toLowerCase(),
+        layout.toString());
+    ColumnBinding[] plan = PLANS.get(key);
+    if (plan == null) {
+      plan = PLANS.computeIfAbsent(key,
+          k -> buildPlan(factory.get().getClass(), k.table(), labels, tables));
+    }
+    return new RowMapper<>(factory, plan);
+  }
+
+  /**
+   * Creates a new object and fills it with the current row of the ResultSet. Null values are left
+   * untouched, so the object keeps its default value for them.
+   *
+   * @param rs the ResultSet positioned on the row to map
+   * @return the filled object
+   * @throws SQLException if a column cannot be read
+   */
+  public T map(ResultSet rs) throws SQLException {
+    T obj = factory.get();
+    for (ColumnBinding binding : bindings) {
+      binding.apply(rs, obj);
+    }
+    return obj;
+  }
+
+  /**
+   * Returns the number of plans currently cached. This method is mainly useful for monitoring.
+   *
+   * @return the number of cached plans
+   */
+  public static int getCachedPlanCount() {
+    return PLANS.size();
+  }
+
+  /**
+   * Builds the mapping plan of a class for a column layout.
+   *
+   * @param type   the class of the mapped objects
+   * @param table  the table whose columns are mapped, or null for every table
+   * @param labels the lowercase labels of the columns, indexed from 1
+   * @param tables the lowercase table names of the columns, indexed from 1
+   * @return the column bindings of the plan
+   */
+  private static ColumnBinding[] buildPlan(Class<?> type, String table, String[] labels,
+      String[] tables) {
+    Map<String, Field> fields = new HashMap<>();
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())) {
+          fields.putIfAbsent(field.getName().toLowerCase(), field);
+        }
+      }
+    }
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+      List<ColumnBinding> bindings = new ArrayList<>();
+      for (int i = 1; i < labels.length; i++) {
+        if (table != null && !tables[i].isEmpty() && !tables[i].equals(table)) {
+          continue;
+        }
+        // Only the first column with a given name is mapped, like ResultSet.getObject(name)
+        Field field = fields.remove(labels[i]);
+        if (field != null) {
+          bindings.add(ColumnBinding.create(i, field, lookup.unreflectSetter(field)));
+        }
+      }
+      return bindings.toArray(new ColumnBinding[0]);
+    } catch (IllegalAccessException e) {
+      throw new FatalException(e);
+    }
+  }
+
+  /**
+   * Key of a cached mapping plan.
+   *
+   * @param factory the class of the factory creating the mapped objects
+   * @param table   the table whose columns are mapped, or null for every table
+   * @param layout  the column layout of the ResultSet
+   */
+  private record PlanKey(Class<?> factory, String table, String layout) {
+
+  }
+
+  /**
+   * Binding between a column of the ResultSet and a field of the mapped class. The way the column
+   * is read depends on the type of the field, so that primitive values are never boxed.
+   */
+  private abstract static class ColumnBinding {
+
+    // Index of the column in the ResultSet
+    protected final int index;
+
+    // Setter of the field, adapted to the type read from the column
+    protected final MethodHandle setter;
+
+    ColumnBinding(int index, MethodHandle setter) {
+      this.index = index;
+      this.setter = setter;
+    }
+
+    /**
+     * Creates the binding matching the type of a field.
+     *
+     * @param index  the index of the column
+     * @param field  the field to fill
+     * @param setter the setter of the field
+     * @return the binding of the column
+     */
+    static ColumnBinding create(int index, Field field, MethodHandle setter) {
+      Class<?> fieldType = field.getType();
+      if (fieldType == int.class) {
+        return new IntBinding(index, setter);
+      }
+      if (fieldType == boolean.class || fieldType == Boolean.class) {
+        return new BooleanBinding(index, setter);
+      }
+      if (fieldType.isEnum()) {
+        return new EnumBinding(index, setter, fieldType);
+      }
+      if (fieldType == String.class) {
+        return new StringBinding(index, setter);
+      }
+      return new ObjectBinding(index, setter);
+    }
+
+    /**
+     * Reads the column from the current row and writes it into the object.
+     *
+     * @param rs  the ResultSet positioned on the row to map
+     * @param obj the object to fill
+     * @throws SQLException if the column cannot be read
+     */
+    abstract void apply(ResultSet rs, Object obj) throws SQLException;
+
+    /**
+     * Rethrows a Throwable raised by a setter.
+     *
+     * @param t the Throwable raised by the setter
+     * @return never returns normally
+     */
+    static FatalException rethrow(Throwable t) {
+      if (t instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (t instanceof Error error) {
+        throw error;
+      }
+      return new FatalException(t);
+    }
+  }
+
+  /**
+   * Binding of an int field.
+   */
+  private static final class IntBinding extends ColumnBinding {
+
+    IntBinding(int index, MethodHandle setter) {
+      super(index, setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+    }
+
+    @Override
+    void apply(ResultSet rs, Object obj) throws SQLException {
+      int value = rs.getInt(index);
+      if (rs.wasNull()) {
+        return;
+      }
+      try {
+        setter.invokeExact(obj, value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * Binding of a boolean field.
+   */
+  private static final class BooleanBinding extends ColumnBinding {
+
+    BooleanBinding(int index, MethodHandle setter) {
+      super(index, setter.asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+    }
+
+    @Override
+    void apply(ResultSet rs, Object obj) throws SQLException {
+      Object value = rs.getObject(index);
+      if (value == null) {
+        return;
+      }
+      boolean bool = value instanceof Boolean b ? b : Boolean.parseBoolean(value.toString());
+      try {
+        setter.invokeExact(obj, bool);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * Binding of an enum field, whose column holds the name of the constant.
+   */
+  private static final class EnumBinding extends ColumnBinding {
+
+    // The constants of the enum, indexed by their name
+    private final Map<String, Object> constants = new HashMap<>();
+
+    EnumBinding(int index, MethodHandle setter, Class<?> enumType) {
+      super(index, setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+      for (Object constant : enumType.getEnumConstants()) {
+        constants.put(((Enum<?>) constant).name(), constant);
+      }
+    }
+
+    @Override
+    void apply(ResultSet rs, Object obj) throws SQLException {
+      String value = rs.getString(index);
+      if (value == null) {
+        return;
+      }
+      Object constant = constants.get(value);
+      if (constant == null) {
+        throw new FatalException("Unknown value " + value + " in column " + index);
+      }
+      try {
+        setter.invokeExact(obj, constant);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * Binding of a String field.
+   */
+  private static final class StringBinding extends ColumnBinding {
+
+    StringBinding(int index, MethodHandle setter) {
+      super(index, setter.asType(MethodType.methodType(void.class, Object.class, String.class)));
+    }
+
+    @Override
+    void apply(ResultSet rs, Object obj) throws SQLException {
+      String value = rs.getString(index);
+      if (value == null) {
+        return;
+      }
+      try {
+        setter.invokeExact(obj, value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * Binding of a field of any other type, filled with the value returned by the driver.
+   */
+  private static final class ObjectBinding extends ColumnBinding {
+
+    ObjectBinding(int index, MethodHandle setter) {
+      super(index, setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+    }
+
+    @Override
+    void apply(ResultSet rs, Object obj) throws SQLException {
+      Object value = rs.getObject(index);
+      if (value == null) {
+        return;
+      }
+      try {
+        setter.invokeExact(obj, value);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package be.vinci.pae.dal.utils;
+
+import be.vinci.pae.business.CollectionVersion;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The VersionQueries class builds and reads the aggregate queries giving the version of a whole
+ * list. They only read the id and version number columns, and return a single row whatever the
+ * size of the list, so the list can be tagged without mapping any row.
+ */
+public final class VersionQueries {
+
+  private VersionQueries() {
+  }
+
+  /**
+   * Returns the select clause of the version of a list.
+   *
+   * @param idColumn      the column of the id of the items
+   * @param versionColumn the column, or the expression, of the version number of the items
+   * @return the select clause, to be followed by the from clause of the list
+   */
+  public static String select(String idColumn, String versionColumn) {
+    return "SELECT COUNT(*), COALESCE(MAX(" + idColumn + "), 0), COALESCE(SUM(" + versionColumn
+        + "), 0) ";
+  }
+
+  /**
+   * Executes the aggregate query of the version of a list.
+   *
+   * @param ps the prepared aggregate query
+   * @return the version of the list
+   * @throws SQLException if the query fails
+   */
+  public static CollectionVersion read(PreparedStatement ps) throws SQLException {
+    try (ResultSet rs = ps.executeQuery()) {
+      if (!rs.next()) {
+        return new CollectionVersion(0, 0, 0);
+      }
+      return new CollectionVersion(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+    }
+  }
+}
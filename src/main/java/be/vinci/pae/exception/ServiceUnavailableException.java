@@ -0,0 +1,27 @@
+package be.vinci.pae.exception;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+
+/**
+ * The ServiceUnavailableException class extends the WebApplicationException class and is used to
+ * represent HTTP service unavailable errors (status code 503). This exception is thrown when the
+ * server is temporarily overloaded and rejects a request instead of queueing it. The response
+ * carries a Retry-After header telling the client when to try again.
+ */
+public class ServiceUnavailableException extends WebApplicationException {
+
+  /**
+   * Constructor with a message. Creates a new instance of ServiceUnavailableException with the
+   * specified message, an HTTP status code of 503 (Service Unavailable) and a Retry-After header.
+   *
+   * @param message           the message of the exception
+   * @param retryAfterSeconds the number of seconds after which the client may retry
+   */
+  public ServiceUnavailableException(String message, int retryAfterSeconds) {
+    super(message, Response.status(Status.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds).build());
+  }
+}
@@ -17,9 +17,10 @@ public class WebExceptionMapper implements ExceptionMapper<Throwable> {
 
   /**
    * This method maps an exception to an HTTP response. If the exception is a
-   * WebApplicationException, it returns a response with the same status and the exception message
-   * as the entity. Otherwise, it returns a response with a status of INTERNAL_SERVER_ERROR and the
-   * exception message as the entity. It also logs the exception message and stack trace.
+   * WebApplicationException, it returns a response with the same status and headers, and the
+   * exception message as the entity. Otherwise, it returns a response with a status of
+   * INTERNAL_SERVER_ERROR and the exception message as the entity. It also logs the exception
+   * message and stack trace.
    *
    * @param exception the exception to be mapped
    * @return the HTTP response
@@ -30,7 +31,7 @@ public class WebExceptionMapper implements ExceptionMapper<Throwable> {
     logMessage += "StackTrace:\n" + this.stackTraceToString(exception.getStackTrace());
     Log4J.LOGGER.log(Level.ERROR, logMessage);
     if (exception instanceof WebApplicationException) {
-      return Response.status(((WebApplicationException) exception).getResponse().getStatus())
+      return Response.fromResponse(((WebApplicationException) exception).getResponse())
           .entity(exception.getMessage())
           .build();
     }
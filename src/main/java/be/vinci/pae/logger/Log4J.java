@@ -15,4 +15,9 @@ public class Log4J {
    */
   public static final Logger LOGGER = LogManager.getLogger(Log4J.class);
 
+  /**
+   * Logger instance for the slow SQL queries, written to their own file.
+   */
+  public static final Logger SLOW_QUERIES = LogManager.getLogger("slowQueries");
+
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package be.vinci.pae.main;
 
+import be.vinci.pae.dal.migration.MigrationRunner;
 import be.vinci.pae.exception.mapper.WebExceptionMapper;
 import be.vinci.pae.presentation.filters.CorsFilter;
 import be.vinci.pae.utils.ApplicationBinder;
@@ -7,6 +8,7 @@ import be.vinci.pae.utils.Config;
 import java.io.IOException;
 import java.net.URI;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 
@@ -34,28 +36,58 @@ public class  Main {
    * This method starts the Grizzly HTTP server, exposing the JAX-RS resources defined in this
    * application.
    *
+   * <p>The transport and the threads of the server are tuned by the properties read by
+   * ServerProfile. When the serverVirtualThreads property is true and the runtime is Java 21 or
+   * later, the requests are handled on virtual threads instead of the bounded worker pool, so that
+   * the requests blocked on the database do not keep the others waiting for a worker thread. The
+   * number of requests using the database at the same time stays bounded by the connection pool.
+   *
+   * <p>When BaseUri is an https URI, the server speaks HTTPS with the key store read by
+   * ProtocolProfile, and HTTP/2 is negotiated with ALPN if serverHttp2 is true.
+   *
    * @return the Grizzly HTTP server
+   * @throws IOException if the server cannot be started
    */
-  public static HttpServer startServer() {
+  public static HttpServer startServer() throws IOException {
     // The package that contains the JAX-RS resources
     String resources = "be.vinci.pae.presentation";
 
+    // The threads running the requests, monitored by the administration endpoints
+    final ServerProfile profile = ServerProfile.fromConfig();
+    final WorkerPool workers = new WorkerPool(profile);
+    final ProtocolProfile protocols = ProtocolProfile.fromConfig(BASE_URI);
+
     // Create a resource config that scans for JAX-RS resources and providers in the package
     final ResourceConfig rc = new ResourceConfig().packages(resources).register(CorsFilter.class)
-        .register(ApplicationBinder.class).register(WebExceptionMapper.class);
+        .register(ApplicationBinder.class).register(WebExceptionMapper.class)
+        .register(new AbstractBinder() {
+          @Override
+          protected void configure() {
+            bind(workers).to(ServerMonitoring.class);
+          }
+        });
 
-    // Create and start a new instance of the Grizzly HTTP server
-    return GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc);
+    // Create, configure and start a new instance of the Grizzly HTTP server
+    final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc,
+        protocols.isSecure(), protocols.sslEngineConfigurator(), false);
+    profile.configure(server, workers);
+    protocols.configure(server);
+    server.start();
+    return server;
   }
 
   /**
-   * The main method of the application. It starts the server and waits for the user to hit enter to
-   * stop it.
+   * The main method of the application. It brings the database schema up to date, unless
+   * dbMigrateOnStartup is false, then starts the server and waits for the user to hit enter to stop
+   * it.
    *
    * @param args the command-line arguments
    * @throws IOException if an I/O error occurs
    */
   public static void main(String[] args) throws IOException {
+    if (Config.getBoolProperty("dbMigrateOnStartup", true)) {
+      MigrationRunner.fromConfig().migrate();
+    }
     final HttpServer server = startServer();
     System.out.println(String.format("Jersey app started with WADL available at "
         + "%sapplication.wadl\nHit enter to stop it...", BASE_URI));
@@ -0,0 +1,151 @@
+package be.vinci.pae.main;
+
+import be.vinci.pae.utils.Config;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http2.Http2AddOn;
+import org.glassfish.grizzly.http2.Http2Configuration;
+import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+
+/**
+ * The protocols served by the Grizzly HTTP server. The server speaks HTTPS when its base URI is
+ * an https URI, with the key and certificate of a key store. With HTTP/2 enabled, the browsers
+ * negotiate it during the TLS handshake with ALPN and send all their requests over a single
+ * connection, each in its own stream. Without TLS, HTTP/2 is offered in clear text (h2c) through
+ * the HTTP/1.1 upgrade, for local testing.
+ *
+ * <p>The TLS sessions are kept by the server so that a client reconnecting can resume its
+ * session without a full handshake. In TLS 1.3, the session is resumed from a ticket sent by the
+ * server, which the server does not need to keep.
+ *
+ * <p>The protocols are read from the following properties:
+ * <ul>
+ *   <li>serverKeyStore, serverKeyStorePassword and serverKeyStoreType: the key store holding the
+ *   key and certificate of the server, in PKCS12 by default, required for HTTPS</li>
+ *   <li>serverTlsSessionCacheSize and serverTlsSessionTimeoutSeconds: the number of TLS sessions
+ *   kept for resumption and how long they can be resumed</li>
+ *   <li>serverTlsSessionTickets: whether TLS sessions are resumed from tickets</li>
+ *   <li>serverHttp2: whether HTTP/2 is served</li>
+ *   <li>serverHttp2MaxConcurrentStreams: the number of requests a client can send at the same
+ *   time on a connection</li>
+ *   <li>serverHttp2InitialWindowSize, serverHttp2MaxFramePayloadSize and
+ *   serverHttp2MaxHeaderListSize: the flow control window of a stream, the largest frame and the
+ *   largest headers accepted, in bytes</li>
+ * </ul>
+ *
+ * @param keyStore                the path of the key store, or null to serve plain HTTP
+ * @param keyStorePassword        the password of the key store and of its key
+ * @param keyStoreType            the type of the key store
+ * @param tlsSessionCacheSize     the number of TLS sessions kept, 0 for no limit
+ * @param tlsSessionTimeout       the time a TLS session can be resumed, in seconds
+ * @param tlsSessionTickets       whether TLS sessions are resumed from tickets
+ * @param http2                   whether HTTP/2 is served
+ * @param maxConcurrentStreams    the maximum number of streams of a connection
+ * @param initialWindowSize       the initial flow control window of a stream
+ * @param maxFramePayloadSize     the maximum size of a frame
+ * @param maxHeaderListSize       the maximum size of the headers of a request
+ */
+public record ProtocolProfile(String keyStore, String keyStorePassword, String keyStoreType,
+                              int tlsSessionCacheSize, int tlsSessionTimeout,
+                              boolean tlsSessionTickets, boolean http2, int maxConcurrentStreams,
+                              int initialWindowSize, int maxFramePayloadSize,
+                              int maxHeaderListSize) {
+
+  /**
+   * Creates the protocols from the configuration. HTTPS is served when the base URI is an https
+   * URI.
+   *
+   * @param baseUri the base URI of the server
+   * @return the protocols of the server
+   * @throws IllegalArgumentException if the base URI is an https URI and no key store is given
+   */
+  public static ProtocolProfile fromConfig(String baseUri) {
+    String keyStore = null;
+    if (baseUri.regionMatches(true, 0, "https:", 0, 6)) {
+      keyStore = Config.getProperty("serverKeyStore", null);
+      if (keyStore == null) {
+        throw new IllegalArgumentException("The serverKeyStore property is required for HTTPS");
+      }
+    }
+    return new ProtocolProfile(keyStore,
+        Config.getProperty("serverKeyStorePassword", ""),
+        Config.getProperty("serverKeyStoreType", "PKCS12"),
+        Config.getIntProperty("serverTlsSessionCacheSize", 20_480),
+        Config.getIntProperty("serverTlsSessionTimeoutSeconds", 86_400),
+        Config.getBoolProperty("serverTlsSessionTickets", true),
+        Config.getBoolProperty("serverHttp2", false),
+        Config.getIntProperty("serverHttp2MaxConcurrentStreams", 100),
+        Config.getIntProperty("serverHttp2InitialWindowSize", 65_535),
+        Config.getIntProperty("serverHttp2MaxFramePayloadSize", 16_384),
+        Config.getIntProperty("serverHttp2MaxHeaderListSize", 8192));
+  }
+
+  /**
+   * Tells whether the server speaks HTTPS.
+   *
+   * @return true if a key store is given
+   */
+  public boolean isSecure() {
+    return keyStore != null;
+  }
+
+  /**
+   * Creates the configuration of the TLS engines of the server, with the key of the key store
+   * and the cache of the TLS sessions.
+   *
+   * @return the configuration of the TLS engines, or null if the server does not speak HTTPS
+   * @throws IOException if the key store cannot be read
+   */
+  public SSLEngineConfigurator sslEngineConfigurator() throws IOException {
+    if (!isSecure()) {
+      return null;
+    }
+    // Read by the TLS implementation when the first context is created
+    System.setProperty("jdk.tls.server.enableSessionTicketExtension",
+        String.valueOf(tlsSessionTickets));
+    try (InputStream input = Files.newInputStream(Path.of(keyStore))) {
+      char[] password = keyStorePassword.toCharArray();
+      KeyStore keys = KeyStore.getInstance(keyStoreType);
+      keys.load(input, password);
+      KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(
+          KeyManagerFactory.getDefaultAlgorithm());
+      keyManagers.init(keys, password);
+      SSLContext context = SSLContext.getInstance("TLS");
+      context.init(keyManagers.getKeyManagers(), null, null);
+      SSLSessionContext sessions = context.getServerSessionContext();
+      sessions.setSessionCacheSize(tlsSessionCacheSize);
+      sessions.setSessionTimeout(tlsSessionTimeout);
+      return new SSLEngineConfigurator(context, false, false, false);
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Unable to load the key store " + keyStore, e);
+    }
+  }
+
+  /**
+   * Adds HTTP/2 to the listeners of a server, if it is enabled. The server must not be started
+   * yet.
+   *
+   * @param server the server
+   */
+  public void configure(HttpServer server) {
+    if (!http2) {
+      return;
+    }
+    Http2Configuration configuration = Http2Configuration.builder()
+        .maxConcurrentStreams(maxConcurrentStreams).initialWindowSize(initialWindowSize)
+        .maxFramePayloadSize(maxFramePayloadSize).maxHeaderListSize(maxHeaderListSize)
+        .enablePush(false).build();
+    for (NetworkListener listener : server.getListeners()) {
+      listener.registerAddOn(new Http2AddOn(configuration));
+    }
+  }
+}
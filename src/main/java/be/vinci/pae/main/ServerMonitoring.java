@@ -0,0 +1,18 @@
+package be.vinci.pae.main;
+
+import java.util.Map;
+
+/**
+ * The ServerMonitoring interface provides read-only access to the runtime statistics of the HTTP
+ * server, such as the state of the threads running the requests. The returned maps are snapshots
+ * that can be serialized to JSON as they are.
+ */
+public interface ServerMonitoring {
+
+  /**
+   * Returns the live state of the threads running the requests and the settings of the server.
+   *
+   * @return a snapshot of the gauges of the worker pool
+   */
+  Map<String, Object> getWorkerPoolStats();
+}
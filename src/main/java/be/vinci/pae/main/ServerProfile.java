@@ -0,0 +1,134 @@
+package be.vinci.pae.main;
+
+import be.vinci.pae.utils.Config;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpHandlerRegistration;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http.server.ServerConfiguration;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+
+/**
+ * The settings of the transport and of the threads of the Grizzly HTTP server. The selector
+ * threads accept the connections and parse the requests, then each request is handed to a worker
+ * thread running the resources. The workers wait for their requests in a bounded queue: once it is
+ * full, the requests are answered at once with a 503 status instead of waiting.
+ *
+ * <p>The settings are read from the following properties:
+ * <ul>
+ *   <li>serverSelectorRunners: the number of selector threads, the Grizzly default if not set</li>
+ *   <li>serverWorkerCoreThreads and serverWorkerMaxThreads: the number of worker threads, the
+ *   threads above the core being started only when the queue is full</li>
+ *   <li>serverWorkerQueueLimit: the number of requests waiting for a worker, unbounded if
+ *   negative</li>
+ *   <li>serverKeepAliveMaxRequests and serverKeepAliveIdleSeconds: the number of requests of a
+ *   persistent connection and how long it stays open without request</li>
+ *   <li>serverReadTimeoutMillis and serverWriteTimeoutMillis: how long a blocking read or write of
+ *   a connection waits</li>
+ *   <li>serverMaxHeaderSize: the maximum size of the headers of a request, in bytes</li>
+ *   <li>serverVirtualThreads: whether each request runs on its own virtual thread instead of the
+ *   worker pool, on Java 21 or later</li>
+ * </ul>
+ *
+ * @param selectorRunners      the number of selector threads, or 0 for the Grizzly default
+ * @param workerCoreThreads    the number of worker threads kept alive
+ * @param workerMaxThreads     the maximum number of worker threads
+ * @param workerQueueLimit     the maximum number of waiting requests, or -1 for no limit
+ * @param keepAliveMaxRequests the maximum number of requests of a persistent connection
+ * @param keepAliveIdleSeconds the time a persistent connection stays open without request
+ * @param readTimeoutMillis    the timeout of the blocking reads
+ * @param writeTimeoutMillis   the timeout of the blocking writes
+ * @param maxHeaderSize        the maximum size of the headers of a request
+ * @param virtualThreads       whether the requests run on virtual threads
+ */
+public record ServerProfile(int selectorRunners, int workerCoreThreads, int workerMaxThreads,
+                            int workerQueueLimit, int keepAliveMaxRequests,
+                            int keepAliveIdleSeconds, int readTimeoutMillis,
+                            int writeTimeoutMillis, int maxHeaderSize, boolean virtualThreads) {
+
+  /**
+   * Checks the consistency of the settings.
+   *
+   * @throws IllegalArgumentException if the number of worker threads is not positive or the core
+   *                                  is larger than the maximum
+   */
+  public ServerProfile {
+    if (workerCoreThreads < 1 || workerMaxThreads < workerCoreThreads) {
+      throw new IllegalArgumentException("Invalid worker threads: core " + workerCoreThreads
+          + ", max " + workerMaxThreads);
+    }
+  }
+
+  /**
+   * Creates the settings from the configuration, the missing properties keeping the defaults of
+   * Grizzly. The queue of the workers is bounded to 256 requests by default.
+   *
+   * @return the settings of the server
+   */
+  public static ServerProfile fromConfig() {
+    int workerCoreThreads = Config.getIntProperty("serverWorkerCoreThreads",
+        Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+    return new ServerProfile(Config.getIntProperty("serverSelectorRunners", 0),
+        workerCoreThreads, Config.getIntProperty("serverWorkerMaxThreads", workerCoreThreads),
+        Config.getIntProperty("serverWorkerQueueLimit", 256),
+        Config.getIntProperty("serverKeepAliveMaxRequests", 256),
+        Config.getIntProperty("serverKeepAliveIdleSeconds", 30),
+        Config.getIntProperty("serverReadTimeoutMillis", 30_000),
+        Config.getIntProperty("serverWriteTimeoutMillis", 30_000),
+        Config.getIntProperty("serverMaxHeaderSize", 8192),
+        Config.getBoolProperty("serverVirtualThreads", false));
+  }
+
+  /**
+   * Applies the settings to the listeners of a server, and hands its requests to a worker pool.
+   * The server must not be started yet.
+   *
+   * @param server  the server
+   * @param workers the pool running the requests, created from these settings
+   */
+  public void configure(HttpServer server, WorkerPool workers) {
+    for (NetworkListener listener : server.getListeners()) {
+      TCPNIOTransport transport = listener.getTransport();
+      if (selectorRunners > 0) {
+        transport.setSelectorRunnersCount(selectorRunners);
+      }
+      transport.setReadTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+      transport.setWriteTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+      // The workers of the transport are replaced, so that Grizzly does not start its own
+      transport.setWorkerThreadPool(workers.executor());
+      listener.getKeepAlive().setMaxRequestsCount(keepAliveMaxRequests);
+      listener.getKeepAlive().setIdleTimeoutInSeconds(keepAliveIdleSeconds);
+      listener.setMaxHttpHeaderSize(maxHeaderSize);
+    }
+    ServerConfiguration configuration = server.getServerConfiguration();
+    Map<HttpHandler, HttpHandlerRegistration[]> handlers =
+        new LinkedHashMap<>(configuration.getHttpHandlersWithMapping());
+    handlers.forEach((handler, mappings) -> {
+      configuration.removeHttpHandler(handler);
+      configuration.addHttpHandler(new WorkerPoolHandler(handler, workers), mappings);
+    });
+  }
+
+  /**
+   * Returns the settings, suitable for JSON serialization.
+   *
+   * @return the settings, by property name
+   */
+  Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("selectorRunners", selectorRunners);
+    snapshot.put("workerCoreThreads", workerCoreThreads);
+    snapshot.put("workerMaxThreads", workerMaxThreads);
+    snapshot.put("workerQueueLimit", workerQueueLimit);
+    snapshot.put("keepAliveMaxRequests", keepAliveMaxRequests);
+    snapshot.put("keepAliveIdleSeconds", keepAliveIdleSeconds);
+    snapshot.put("readTimeoutMillis", readTimeoutMillis);
+    snapshot.put("writeTimeoutMillis", writeTimeoutMillis);
+    snapshot.put("maxHeaderSize", maxHeaderSize);
+    snapshot.put("virtualThreads", virtualThreads);
+    return snapshot;
+  }
+}
@@ -0,0 +1,55 @@
+package be.vinci.pae.main;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The VirtualThreads class creates executors running each task on a new virtual thread. The
+ * application is compiled for Java 17, where virtual threads do not exist, so the Java 21 API is
+ * reached by reflection. On an older runtime, no executor is created and the caller keeps its
+ * platform threads.
+ */
+final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Tells whether the runtime supports virtual threads.
+   *
+   * @return true on Java 21 or later
+   */
+  static boolean isSupported() {
+    return Runtime.version().feature() >= 21;
+  }
+
+  /**
+   * Creates an executor starting a new virtual thread for each task. The threads are named with
+   * the given prefix followed by a counter. Each request then runs on its own thread from start to
+   * end, so the ThreadLocal session of the data access layer stays bound to a single request.
+   *
+   * @param namePrefix the prefix of the names of the threads
+   * @return the executor, or null if the runtime does not support virtual threads
+   */
+  static ExecutorService newExecutor(String namePrefix) {
+    if (!isSupported()) {
+      return null;
+    }
+    try {
+      // Thread.ofVirtual().name(namePrefix, 0).factory()
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, namePrefix, 0L);
+      ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      // Executors.newThreadPerTaskExecutor(factory)
+      Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+          ThreadFactory.class);
+      return (ExecutorService) newExecutor.invoke(null, factory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Unable to create virtual threads", e);
+    }
+  }
+}
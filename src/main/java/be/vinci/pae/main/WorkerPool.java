@@ -0,0 +1,154 @@
+package be.vinci.pae.main;
+
+import be.vinci.pae.logger.Log4J;
+import be.vinci.pae.utils.LatencyHistogram;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The WorkerPool class runs the requests of the HTTP server, either on a pool of platform threads
+ * with a bounded queue, or on a new virtual thread for each request. It counts the requests
+ * rejected because the queue was full and measures how long the requests wait for a thread, so
+ * that a starvation of the workers can be seen from the administration endpoints.
+ */
+public final class WorkerPool implements ServerMonitoring {
+
+  // Time the extra threads above the core stay alive without request, in seconds
+  private static final long EXTRA_THREADS_KEEP_ALIVE_SECONDS = 30;
+
+  // The settings of the server
+  private final ServerProfile profile;
+
+  // The executor running the requests
+  private final ExecutorService executor;
+
+  // The pool of platform threads, or null when the requests run on virtual threads
+  private final ThreadPoolExecutor platformPool;
+
+  // Time spent by the requests waiting for a thread
+  private final LatencyHistogram waitTimes = new LatencyHistogram();
+
+  // Number of requests running
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  // Number of requests rejected because the queue was full
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Creates the threads running the requests. The requests run on virtual threads if the profile
+   * asks for them and the runtime supports them, on the pool of platform threads otherwise.
+   *
+   * @param profile the settings of the server
+   */
+  public WorkerPool(ServerProfile profile) {
+    this.profile = profile;
+    ExecutorService virtualExecutor = null;
+    if (profile.virtualThreads()) {
+      virtualExecutor = VirtualThreads.newExecutor("http-worker-");
+      if (virtualExecutor == null) {
+        Log4J.LOGGER.warn("Virtual threads require Java 21, the requests run on the worker pool");
+      } else {
+        Log4J.LOGGER.info("The requests run on virtual threads");
+      }
+    }
+    if (virtualExecutor == null) {
+      platformPool = newPlatformPool(profile);
+      executor = platformPool;
+    } else {
+      platformPool = null;
+      executor = virtualExecutor;
+    }
+  }
+
+  /**
+   * Returns the executor running the requests.
+   *
+   * @return the executor
+   */
+  ExecutorService executor() {
+    return executor;
+  }
+
+  /**
+   * Runs a request on a worker thread.
+   *
+   * @param request the processing of the request
+   * @throws RejectedExecutionException if the queue of the pool is full
+   */
+  void execute(Runnable request) {
+    long submittedAt = System.nanoTime();
+    try {
+      executor.execute(() -> {
+        waitTimes.record(System.nanoTime() - submittedAt);
+        inFlight.incrementAndGet();
+        try {
+          request.run();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the state and counters of the pool along with the settings of the server, suitable for
+   * JSON serialization. The utilisation is the share of the threads running a request.
+   *
+   * @return the threads, queue, rejections and wait times of the pool
+   */
+  @Override
+  public Map<String, Object> getWorkerPoolStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("virtualThreads", platformPool == null);
+    stats.put("inFlight", inFlight.get());
+    if (platformPool != null) {
+      int maxThreads = platformPool.getMaximumPoolSize();
+      int active = platformPool.getActiveCount();
+      BlockingQueue<Runnable> queue = platformPool.getQueue();
+      stats.put("threads", platformPool.getPoolSize());
+      stats.put("largestThreads", platformPool.getLargestPoolSize());
+      stats.put("maxThreads", maxThreads);
+      stats.put("active", active);
+      stats.put("utilisation", (double) active / maxThreads);
+      stats.put("queued", queue.size());
+      stats.put("queueCapacity", profile.workerQueueLimit() < 0 ? -1
+          : queue.size() + queue.remainingCapacity());
+      stats.put("completed", platformPool.getCompletedTaskCount());
+    }
+    stats.put("rejected", rejected.sum());
+    stats.put("waitTime", waitTimes.snapshot());
+    stats.put("settings", profile.snapshot());
+    return stats;
+  }
+
+  /**
+   * Creates the pool of platform threads. The threads above the core are started only once the
+   * queue is full, and stop after some time without request.
+   *
+   * @param profile the settings of the server
+   * @return the pool
+   */
+  private static ThreadPoolExecutor newPlatformPool(ServerProfile profile) {
+    BlockingQueue<Runnable> queue = profile.workerQueueLimit() < 0 ? new LinkedBlockingQueue<>()
+        : new ArrayBlockingQueue<>(Math.max(1, profile.workerQueueLimit()));
+    AtomicInteger threadNumber = new AtomicInteger();
+    return new ThreadPoolExecutor(profile.workerCoreThreads(), profile.workerMaxThreads(),
+        EXTRA_THREADS_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, runnable -> {
+          Thread thread = new Thread(runnable, "http-worker-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+}
@@ -0,0 +1,107 @@
+package be.vinci.pae.main;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.RequestExecutorProvider;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.HttpStatus;
+
+/**
+ * The WorkerPoolHandler class hands the requests of an HTTP handler, such as the Jersey container,
+ * to a worker pool. When the queue of the pool is full, the request is answered at once on the
+ * selector thread with a 503 status and a Retry-After header, so that the client knows the server
+ * is overloaded instead of seeing its connection closed.
+ */
+final class WorkerPoolHandler extends HttpHandler {
+
+  // Attribute of the requests rejected by the worker pool
+  private static final String REJECTED = WorkerPoolHandler.class.getName() + ".rejected";
+
+  // The handler running the requests
+  private final HttpHandler delegate;
+
+  // The pool running the requests
+  private final WorkerPool workers;
+
+  // The provider of the executor of each request
+  private final RequestExecutorProvider executorProvider;
+
+  /**
+   * Creates a handler handing the requests of another handler to a worker pool.
+   *
+   * @param delegate the handler running the requests
+   * @param workers  the pool running the requests
+   */
+  WorkerPoolHandler(HttpHandler delegate, WorkerPool workers) {
+    super(delegate.getName());
+    this.delegate = delegate;
+    this.workers = workers;
+    this.executorProvider = request -> task -> {
+      try {
+        this.workers.execute(task);
+      } catch (RejectedExecutionException e) {
+        request.setAttribute(REJECTED, Boolean.TRUE);
+        task.run();
+      }
+    };
+  }
+
+  /**
+   * Returns the provider of the executor of each request. A request rejected by the pool is marked
+   * and run on the calling thread, where it is answered without running the delegate.
+   *
+   * @return the provider of the executors
+   */
+  @Override
+  public RequestExecutorProvider getRequestExecutorProvider() {
+    return executorProvider;
+  }
+
+  /**
+   * Runs a request with the delegate, or answers it with a 503 status if it was rejected by the
+   * pool.
+   *
+   * @param request  the request
+   * @param response the response
+   * @throws Exception if the delegate fails
+   */
+  @Override
+  public void service(Request request, Response response) throws Exception {
+    if (request.getAttribute(REJECTED) != null) {
+      reject(response);
+      return;
+    }
+    delegate.service(request, response);
+  }
+
+  /**
+   * Starts the delegate.
+   */
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  /**
+   * Stops the delegate.
+   */
+  @Override
+  public void destroy() {
+    delegate.destroy();
+  }
+
+  /**
+   * Answers a rejected request.
+   *
+   * @param response the response
+   * @throws IOException if the response cannot be written
+   */
+  private static void reject(Response response) throws IOException {
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE_503);
+    response.setHeader("Retry-After", "1");
+    response.setContentType("text/plain");
+    response.getWriter().write("The server is overloaded, please retry later");
+  }
+}
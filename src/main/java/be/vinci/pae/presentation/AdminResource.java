@@ -0,0 +1,213 @@
+package be.vinci.pae.presentation;
+
+import be.vinci.pae.business.admin.AdminUCC;
+import be.vinci.pae.business.imports.ImportReport;
+import be.vinci.pae.business.imports.ImportUCC;
+import be.vinci.pae.business.user.UserDTO.Role;
+import be.vinci.pae.exception.WrongBodyDataException;
+import be.vinci.pae.presentation.filters.Authorize;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * This class provides the API endpoints for the administration of the application. It includes
+ * methods for monitoring the runtime state of the server. The @Singleton annotation specifies that
+ * only one instance of this class should be created. The @Path annotation specifies the base URI
+ * for the resource class.
+ */
+@Singleton
+@Path("/admin")
+public class AdminResource {
+
+  // The service for administration data
+  @Inject
+  private AdminUCC adminUCC;
+
+  // The service for bulk imports
+  @Inject
+  private ImportUCC importUCC;
+
+  /**
+   * This method provides the API endpoint for monitoring the database layer. It returns the live
+   * gauges of the connection pool, such as the active, idle and waiting connections, the borrow
+   * wait histogram and the age of the connections, along with the counters of the statement cache.
+   * It requires the user to be authenticated as an administrative.
+   *
+   * @return the statistics of the database layer
+   */
+  @GET
+  @Path("/database")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public Map<String, Object> getDatabaseStats() {
+    return adminUCC.getDatabaseStats();
+  }
+
+  /**
+   * This method provides the API endpoint for monitoring the SQL statements. For each SQL text, it
+   * returns the percentiles of the execution and fetch times, the number of rows and the types of
+   * the bound parameters, the most expensive statements first. It requires the user to be
+   * authenticated as an administrative.
+   *
+   * @param limit the maximum number of statements returned, 50 by default
+   * @return the statistics of the SQL statements
+   * @throws WrongBodyDataException if the limit is not positive
+   */
+  @GET
+  @Path("/database/statements")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public Map<String, Object> getStatementStats(
+      @QueryParam("limit") @DefaultValue("50") int limit) {
+    if (limit < 1) {
+      throw new WrongBodyDataException("The limit must be positive");
+    }
+    return adminUCC.getStatementStats(limit);
+  }
+
+  /**
+   * This method provides the API endpoint for monitoring the caches of the UCCs. For each cache, it
+   * returns its size and time to live, along with its hits, misses, loads, invalidations and
+   * evictions. It requires the user to be authenticated as an administrative.
+   *
+   * @return the counters of each cache, by name
+   */
+  @GET
+  @Path("/caches")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public Map<String, Object> getCacheStats() {
+    return adminUCC.getCacheStats();
+  }
+
+  /**
+   * This method provides the API endpoint for monitoring the hashing of the passwords. It returns
+   * the BCrypt cost, the state of the queue of the pool of threads, the number of rejected and
+   * timed out operations, and the time spent waiting and hashing. It requires the user to be
+   * authenticated as an administrative.
+   *
+   * @return the statistics of the password hashing
+   */
+  @GET
+  @Path("/password-hashing")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public Map<String, Object> getPasswordHashStats() {
+    return adminUCC.getPasswordHashStats();
+  }
+
+  /**
+   * This method provides the API endpoint for monitoring the threads running the HTTP requests. It
+   * returns the number of busy threads and their utilisation, the depth of the queue of the
+   * waiting requests, the number of requests rejected because the queue was full and the time
+   * spent waiting for a thread, along with the settings of the server. A high utilisation with a
+   * growing queue shows a starvation of the workers. It requires the user to be authenticated as
+   * an administrative.
+   *
+   * @return the statistics of the worker pool of the server
+   */
+  @GET
+  @Path("/server")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public Map<String, Object> getServerStats() {
+    return adminUCC.getServerStats();
+  }
+
+  /**
+   * This method provides the API endpoint for monitoring the compression of the responses. For
+   * each endpoint, it returns the number of responses whose client accepts gzip, how many of them
+   * were large enough to be compressed, the bytes before and after the compression and the time
+   * spent compressing. It requires the user to be authenticated as an administrative.
+   *
+   * @return the counters of each endpoint, by name
+   */
+  @GET
+  @Path("/compression")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public Map<String, Object> getCompressionStats() {
+    return adminUCC.getCompressionStats();
+  }
+
+  /**
+   * This method provides the API endpoint for emptying the caches of the UCCs, for example after
+   * the database has been modified by hand. It requires the user to be authenticated as an
+   * administrative.
+   */
+  @DELETE
+  @Path("/caches")
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public void clearCaches() {
+    adminUCC.clearCaches();
+  }
+
+  /**
+   * This method provides the API endpoint for importing enterprises from a CSV file. The file is
+   * received in full, then streamed to the database. It requires the user to be authenticated as an
+   * administrative. It returns the number of imported rows and the reason of the rejection of each
+   * rejected row.
+   *
+   * @param csv       the uploaded CSV file
+   * @param delimiter the character separating the fields, a comma by default
+   * @return the report of the import
+   * @throws WrongBodyDataException if the delimiter is not a single character or the file is too
+   *                                large or too slow to upload
+   */
+  @POST
+  @Path("/import/enterprises")
+  @Consumes("text/csv")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public ImportReport importEnterprises(InputStream csv,
+      @QueryParam("delimiter") @DefaultValue(",") String delimiter) {
+    return importUCC.importEnterprises(csv, checkDelimiter(delimiter));
+  }
+
+  /**
+   * This method provides the API endpoint for importing internship supervisors from a CSV file.
+   * The file is received in full, then streamed to the database. It requires the user to be
+   * authenticated as an administrative. It returns the number of imported rows and the reason of
+   * the rejection of each rejected row.
+   *
+   * @param csv       the uploaded CSV file
+   * @param delimiter the character separating the fields, a comma by default
+   * @return the report of the import
+   * @throws WrongBodyDataException if the delimiter is not a single character or the file is too
+   *                                large or too slow to upload
+   */
+  @POST
+  @Path("/import/responsables")
+  @Consumes("text/csv")
+  @Produces(MediaType.APPLICATION_JSON)
+  @Authorize(value = Role.ADMINISTRATIVE, loadUser = false)
+  public ImportReport importResponsableStages(InputStream csv,
+      @QueryParam("delimiter") @DefaultValue(",") String delimiter) {
+    return importUCC.importResponsableStages(csv, checkDelimiter(delimiter));
+  }
+
+  /**
+   * Checks that a delimiter is made of a single character.
+   *
+   * @param delimiter the delimiter given by the client
+   * @return the delimiter character
+   * @throws WrongBodyDataException if the delimiter is not a single character
+   */
+  private static char checkDelimiter(String delimiter) {
+    if (delimiter.length() != 1 || delimiter.charAt(0) == '"') {
+      throw new WrongBodyDataException("The delimiter must be a single character");
+    }
+    return delimiter.charAt(0);
+  }
+}
@@ -1,16 +1,21 @@
 package be.vinci.pae.presentation;
 
+import be.vinci.pae.business.PageRequest;
+import be.vinci.pae.business.token.TokenRevocationUCC;
 import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.business.user.UserDTO.Role;
 import be.vinci.pae.business.user.UserUCC;
 import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.WrongBodyDataException;
+import be.vinci.pae.logger.Log4J;
 import be.vinci.pae.presentation.filters.Authorize;
+import be.vinci.pae.presentation.requests.EditUserRequest;
+import be.vinci.pae.presentation.requests.LoginRequest;
 import be.vinci.pae.utils.Config;
 import be.vinci.pae.utils.Util;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.inject.Inject;
@@ -21,12 +26,15 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import java.util.Date;
-import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import org.glassfish.jersey.server.ContainerRequest;
@@ -45,8 +53,8 @@ public class AuthsResource {
   // Token duration in hours
   private final int tokenDuration = Config.getIntProperty("tokenExpiration");
 
-  // ObjectMapper instance for JSON processing
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  // ObjectMapper instance for JSON processing, shared by the application
+  private final ObjectMapper objectMapper = ObjectMapperResolver.objectMapper();
 
   // Regular expression for email validation
   private final String emailRegex =
@@ -60,12 +68,16 @@ public class AuthsResource {
   @Inject
   private UserUCC myUserUcc;
 
+  // The service for the revoked tokens
+  @Inject
+  private TokenRevocationUCC tokenRevocation;
+
   /**
    * This method provides the API endpoint for user login. It checks the provided credentials and
    * returns the user data if the login is successful. If the login or password is not provided or
    * incorrect, it throws a WebApplicationException with an appropriate response.
    *
-   * @param json the JSON object containing the login credentials
+   * @param credentials the login credentials
    * @return the user data if the login is successful
    * @throws WebApplicationException with BAD_REQUEST or UNAUTHORIZED status if login fails
    */
@@ -73,13 +85,13 @@ public class AuthsResource {
   @Path("login")
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
-  public ObjectNode login(JsonNode json) {
+  public ObjectNode login(LoginRequest credentials) {
     // Get and check credentials
-    if (!json.hasNonNull("email") || !json.hasNonNull("password")) {
+    if (credentials == null || credentials.email() == null || credentials.password() == null) {
       throw new WrongBodyDataException("Email or password required");
     }
-    String email = json.get("email").asText();
-    String password = json.get("password").asText();
+    String email = credentials.email();
+    String password = credentials.password();
 
     // Validate email and password
     if (!emailPattern.matcher(email).matches() || password.isBlank()) {
@@ -91,7 +103,7 @@ public class AuthsResource {
 
     ObjectNode objectNode = objectMapper.createObjectNode();
     objectNode.set("user", objectMapper.valueToTree(publicUser));
-    objectNode.put("token", createToken(publicUser.getIdUser()));
+    objectNode.put("token", createToken(publicUser));
     // Return the user data as a JSON object
     return objectNode;
   }
@@ -99,6 +111,8 @@ public class AuthsResource {
   /**
    * This method provides the API endpoint for refreshing a user token. It retrieves the
    * authenticated user from the request and returns a JSON object representing the refreshed user.
+   * The response is tagged with the version number of the user, and is a 304 Not Modified if the
+   * client already holds that version.
    *
    * @param request the ContainerRequest to retrieve the authenticated user
    * @return a JSON object representing the refreshed user
@@ -107,9 +121,29 @@ public class AuthsResource {
   @Path("refresh")
   @Produces(MediaType.APPLICATION_JSON)
   @Authorize
-  public UserDTO refresh(@Context ContainerRequest request) {
+  public Response refresh(@Context ContainerRequest request) {
     // Get the user from the request
-    return (UserDTO) request.getProperty("user");
+    UserDTO user = (UserDTO) request.getProperty("user");
+    return EntityTags.conditional(request,
+        EntityTags.of("user-" + user.getIdUser(), user.getVersionNumber()), () -> user);
+  }
+
+  /**
+   * This method provides the API endpoint for user logout. It revokes the token of the request, so
+   * that it is rejected until it expires even if it was copied. The tokens issued without an id
+   * cannot be revoked and stay valid until they expire.
+   *
+   * @param headers the headers of the request, containing the token
+   */
+  @POST
+  @Path("logout")
+  @Authorize(loadUser = false)
+  public void logout(@Context HttpHeaders headers) {
+    // The filter has already verified the token
+    DecodedJWT token = JWT.decode(headers.getHeaderString("Authorization"));
+    if (token.getId() != null) {
+      tokenRevocation.revoke(token.getId(), token.getExpiresAtAsInstant());
+    }
   }
 
   /**
@@ -144,37 +178,59 @@ public class AuthsResource {
 
     ObjectNode objectNode = objectMapper.createObjectNode();
     objectNode.set("user", objectMapper.valueToTree(publicUser));
-    objectNode.put("token", createToken(publicUser.getIdUser()));
+    objectNode.put("token", createToken(publicUser));
     // Return the user data as a JSON object
     return objectNode;
   }
 
   /**
-   * Retrieves all users from the database.
+   * Retrieves all users from the database. With the stream query parameter, the users are written
+   * to the response as they are read from the database instead of being loaded in memory first.
+   * With the limit, after or sort query parameters, only one page of the users is returned, along
+   * with the cursor of the next page. The whole list is tagged with its version, and is a 304 Not
+   * Modified if the client already holds it.
    *
-   * @return A list of UserDTO objects representing all users.
+   * @param stream  whether the users are streamed
+   * @param limit   the maximum number of users of the page
+   * @param after   the cursor of the page, as returned with the previous page
+   * @param sort    the field sorting the users: id, lastName, firstName, role or schoolYear,
+   *                prefixed by a minus sign for a descending order
+   * @param request the request, holding the preconditions
+   * @return A list of UserDTO objects representing all users, or one page of them.
    * @throws FatalException if a database access error occurs.
    */
   @GET
   @Path("all")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize({Role.ADMINISTRATIVE, Role.TEACHER})
-  public List<UserDTO> getAllUsers() {
-    return myUserUcc.getAllUsers();
+  @Authorize(value = {Role.ADMINISTRATIVE, Role.TEACHER}, loadUser = false)
+  public Response getAllUsers(@QueryParam("stream") boolean stream,
+      @QueryParam("limit") Integer limit, @QueryParam("after") String after,
+      @QueryParam("sort") String sort, @Context Request request) {
+    PageRequest page = PageRequest.of(limit, after, sort);
+    if (page != null) {
+      return Response.ok(myUserUcc.getUsersPage(page)).build();
+    }
+    return EntityTags.conditional(request,
+        EntityTags.of("users", myUserUcc.getUsersVersion().tag()),
+        () -> stream ? JsonStreaming.<UserDTO>array(myUserUcc::streamAllUsers)
+            : myUserUcc.getAllUsers());
   }
 
   /**
-   * This method creates a JWT token for the user with the given id. It sets the issuer to "auth0",
-   * the "user" claim to the user id, and the expiration date to the current time plus the token
-   * duration. If unable to create the token, it throws a WebApplicationException with
-   * INTERNAL_SERVER_ERROR status.
+   * This method creates a JWT token for the given user. It sets the issuer to "auth0", the id to a
+   * random UUID which identifies the token when it is revoked, the "user" claim to the user id,
+   * the "role" and "version" claims to the role and version number of the user, and the
+   * expiration date to the current time plus the token duration. The signed role lets the methods
+   * which do not need the user authorize the request by only reading the version number of the
+   * user, which tells whether the role is still current. If unable to create the token, it throws
+   * a WebApplicationException with INTERNAL_SERVER_ERROR status.
    *
-   * @param id the id of the user
+   * @param user the user
    * @return the created JWT token
    * @throws WebApplicationException with INTERNAL_SERVER_ERROR status if unable to create the
    *                                 token
    */
-  private String createToken(int id) {
+  private String createToken(UserDTO user) {
     try {
       Date date = new Date();
       long tokenDurationMillis = TimeUnit.HOURS.toMillis(tokenDuration);
@@ -182,7 +238,10 @@ public class AuthsResource {
       // Create a JWT token
       String token = JWT.create()
           .withIssuer("auth0")
-          .withClaim("user", id)
+          .withJWTId(UUID.randomUUID().toString())
+          .withClaim("user", user.getIdUser())
+          .withClaim("role", user.getRole().name())
+          .withClaim("version", user.getVersionNumber())
           .withExpiresAt(new Date(date.getTime() + tokenDurationMillis))
           .sign(this.jwtAlgorithm);
 
@@ -191,7 +250,7 @@ public class AuthsResource {
 
     } catch (Exception e) {
       // Log the error and throw a WebApplicationException if unable to create the token
-      System.out.println("Unable to create token");
+      Log4J.LOGGER.error("Unable to create token", e);
       throw new WebApplicationException("Unable to create token",
           Response.Status.INTERNAL_SERVER_ERROR);
     }
@@ -205,7 +264,7 @@ public class AuthsResource {
    * database. The method then returns a JSON object representing the updated user.
    *
    * @param request The ContainerRequest to retrieve the authenticated user.
-   * @param json    The JSON object containing the updated user data.
+   * @param body    The body of the request, containing the updated user data.
    * @return A JSON object representing the updated user.
    * @throws WrongBodyDataException If the email in the UserDTO object is not valid.
    */
@@ -213,13 +272,15 @@ public class AuthsResource {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Authorize
-  public UserDTO edit(JsonNode json, @Context ContainerRequest request) {
+  public UserDTO edit(EditUserRequest body, @Context ContainerRequest request) {
+    if (body == null) {
+      throw new WrongBodyDataException("No data to update");
+    }
     UserDTO user = (UserDTO) request.getProperty("user");
-    String phoneNumber = json.has("phoneNumber") ? json.get("phoneNumber").asText() : null;
-    String currentPassword =
-        json.has("currentPassword") ? json.get("currentPassword").asText() : null;
-    String newPassword = json.has("newPassword") ? json.get("newPassword").asText() : null;
-    int versionNumber = json.has("versionNumber") ? json.get("versionNumber").asInt() : -1;
+    String phoneNumber = body.phoneNumber();
+    String currentPassword = body.currentPassword();
+    String newPassword = body.newPassword();
+    int versionNumber = body.versionNumber() == null ? -1 : body.versionNumber();
     if (versionNumber < 1) {
       throw new WrongBodyDataException("Version number is incorrect");
     }
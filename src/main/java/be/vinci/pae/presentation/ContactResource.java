@@ -1,5 +1,6 @@
 package be.vinci.pae.presentation;
 
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.contact.ContactDTO;
 import be.vinci.pae.business.contact.ContactDTO.Status;
 import be.vinci.pae.business.contact.ContactUCC;
@@ -7,6 +8,10 @@ import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.business.user.UserDTO.Role;
 import be.vinci.pae.exception.WrongBodyDataException;
 import be.vinci.pae.presentation.filters.Authorize;
+import be.vinci.pae.presentation.requests.AdmitRequest;
+import be.vinci.pae.presentation.requests.CreateContactRequest;
+import be.vinci.pae.presentation.requests.TurnDownRequest;
+import be.vinci.pae.presentation.requests.VersionRequest;
 import be.vinci.pae.utils.Util;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -18,10 +23,11 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import org.glassfish.jersey.server.ContainerRequest;
 
@@ -35,8 +41,9 @@ import org.glassfish.jersey.server.ContainerRequest;
 @Path("/contact")
 public class ContactResource {
 
-  // The object mapper for JSON
-  ObjectMapper objectMapper = new ObjectMapper();
+  // The object mapper for JSON, shared by the application
+  private final ObjectMapper objectMapper = ObjectMapperResolver.objectMapper();
+
   // The service for authentication status
   @Inject
   private ContactUCC myContactUCC;
@@ -46,7 +53,7 @@ public class ContactResource {
    * the updated contact. If the acceptance is not successful, it throws a WebApplicationException
    * with an appropriate response.
    *
-   * @param json    the JSON object containing the acceptance data
+   * @param body    the body of the request, containing the version number of the contact
    * @param request the request context
    * @param id      the id of the contact to be accepted
    * @return the updated contact
@@ -56,14 +63,11 @@ public class ContactResource {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Authorize(Role.STUDENT)
-  public ContactDTO acceptContact(ObjectNode json, @Context ContainerRequest request,
+  public ContactDTO acceptContact(VersionRequest body, @Context ContainerRequest request,
       @PathParam("id") int id) {
     UserDTO userDTO = (UserDTO) request.getProperty("user");
     final int idUser = userDTO.getIdUser();
-    int versionNumber = -1;
-    if (json.has("versionNumber")) {
-      versionNumber = json.get("versionNumber").asInt();
-    }
+    int versionNumber = versionNumber(body == null ? null : body.versionNumber());
     if (versionNumber < 0) {
       throw new WrongBodyDataException("Invalid version number");
     }
@@ -77,7 +81,8 @@ public class ContactResource {
    *
    * @param request the request context
    * @param id      the id of the contact to be denied
-   * @param json    the JSON object containing the denial data
+   * @param body    the body of the request, containing the reason of the refusal and the version
+   *                number of the contact
    * @return the updated contact
    */
   @POST
@@ -85,24 +90,20 @@ public class ContactResource {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Authorize(Role.STUDENT)
-  public ContactDTO turnDownContact(ObjectNode json, @Context ContainerRequest request,
+  public ContactDTO turnDownContact(TurnDownRequest body, @Context ContainerRequest request,
       @PathParam("id") int id) {
+    if (body == null) {
+      throw new WrongBodyDataException("Invalid version number");
+    }
     UserDTO userDTO = (UserDTO) request.getProperty("user");
     final int idUser = userDTO.getIdUser();
-    String reasonRefusal = null;
-    int versionNumber = -1;
-
-    if (json.has("versionNumber")) {
-      versionNumber = json.get("versionNumber").asInt();
-    }
+    int versionNumber = versionNumber(body.versionNumber());
 
     if (versionNumber < 0) {
       throw new WrongBodyDataException("Invalid version number");
     }
 
-    if (json.has("reasonRefusal")) {
-      reasonRefusal = json.get("reasonRefusal").asText();
-    }
+    String reasonRefusal = body.reasonRefusal();
     if (Util.checkEmptyString(reasonRefusal)) {
       throw new WrongBodyDataException("Reason for refusal is required");
     }
@@ -117,7 +118,8 @@ public class ContactResource {
    *
    * @param request the request context
    * @param id      the id of the contact to be admitted
-   * @param json    the JSON object containing the admission data
+   * @param body    the body of the request, containing the place of the meeting and the version
+   *                number of the contact
    * @return the updated contact
    */
   @POST
@@ -125,15 +127,14 @@ public class ContactResource {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Authorize(Role.STUDENT)
-  public ContactDTO admitContact(ObjectNode json, @Context ContainerRequest request,
+  public ContactDTO admitContact(AdmitRequest body, @Context ContainerRequest request,
       @PathParam("id") int id) {
+    if (body == null) {
+      throw new WrongBodyDataException("Meeting place is required");
+    }
     UserDTO userDTO = (UserDTO) request.getProperty("user");
     final int idUser = userDTO.getIdUser();
-    String meetingPlace = null;
-    int versionNumber = -1;
-    if (json.has("meetingPlace")) {
-      meetingPlace = json.get("meetingPlace").asText();
-    }
+    String meetingPlace = body.meetingPlace();
     if (Util.checkEmptyString(meetingPlace)) {
       throw new WrongBodyDataException("Meeting place is required");
     }
@@ -141,9 +142,7 @@ public class ContactResource {
     if (!meetingPlace.equals("A distance") && !meetingPlace.equals("Dans l'entreprise")) {
       throw new WrongBodyDataException("Invalid meeting place");
     }
-    if (json.has("versionNumber")) {
-      versionNumber = json.get("versionNumber").asInt();
-    }
+    int versionNumber = versionNumber(body.versionNumber());
 
     if (versionNumber < 0) {
       throw new WrongBodyDataException("Invalid version number");
@@ -159,7 +158,7 @@ public class ContactResource {
    *
    * @param request the request context
    * @param id      the id of the contact to be unsupervised
-   * @param json    the JSON object containing the unsupervision data
+   * @param body    the body of the request, containing the version number of the contact
    * @return the updated contact
    */
   @POST
@@ -167,14 +166,11 @@ public class ContactResource {
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
   @Authorize(Role.STUDENT)
-  public ContactDTO unsupervisedContact(ObjectNode json, @Context ContainerRequest request,
+  public ContactDTO unsupervisedContact(VersionRequest body, @Context ContainerRequest request,
       @PathParam("id") int id) {
     UserDTO userDTO = (UserDTO) request.getProperty("user");
     final int idUser = userDTO.getIdUser();
-    int versionNumber = -1;
-    if (json.has("versionNumber")) {
-      versionNumber = json.get("versionNumber").asInt();
-    }
+    int versionNumber = versionNumber(body == null ? null : body.versionNumber());
 
     if (versionNumber < 0) {
       throw new WrongBodyDataException("Invalid version number");
@@ -220,7 +216,7 @@ public class ContactResource {
   /**
    * Creates a new contact using the provided JSON data.
    *
-   * @param json    The JSON object containing data for the new contact.
+   * @param body    The body of the request, containing the id of the enterprise.
    * @param request The ContainerRequest object representing the HTTP request context.
    * @return The JSON object representing the newly created contact.
    */
@@ -228,11 +224,11 @@ public class ContactResource {
   @Produces(MediaType.APPLICATION_JSON)
   @Consumes(MediaType.APPLICATION_JSON)
   @Authorize(Role.STUDENT)
-  public ContactDTO createContact(ObjectNode json, @Context ContainerRequest request) {
-    if (json.get("idEnterprise").isNull()) {
+  public ContactDTO createContact(CreateContactRequest body, @Context ContainerRequest request) {
+    if (body == null || body.idEnterprise() == null) {
       throw new WrongBodyDataException("idEnterprise can't be null");
     }
-    int idEnterprise = json.get("idEnterprise").asInt();
+    int idEnterprise = body.idEnterprise();
     UserDTO user = (UserDTO) request.getProperty("user");
     int idUser = user.getIdUser();
     if (idEnterprise < 1) {
@@ -245,39 +241,72 @@ public class ContactResource {
   /**
    * This method provides the API endpoint for getting the contact list of a specific user. It
    * returns the contacts of a user. If the user id is less than 1, it throws a
-   * WrongBodyDataException.
+   * WrongBodyDataException. With the limit, after or sort query parameters, only one page of the
+   * contacts is returned, along with the cursor of the next page.
    *
-   * @param id The id of the user whose contacts are to be fetched.
-   * @return The list of contacts of the user.
+   * @param id    The id of the user whose contacts are to be fetched.
+   * @param limit The maximum number of contacts of the page.
+   * @param after The cursor of the page, as returned with the previous page.
+   * @param sort  The field sorting the contacts: id, schoolYear or contactStatus, prefixed by a
+   *              minus sign for a descending order.
+   * @return The list of contacts of the user, or one page of them.
    * @throws WrongBodyDataException if the user id is less than 1.
    */
   @GET
   @Path("/{id}/contact")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize
-  public List<ContactDTO> getUserInfo(@PathParam("id") int id) {
+  @Authorize(loadUser = false)
+  public Response getUserInfo(@PathParam("id") int id, @QueryParam("limit") Integer limit,
+      @QueryParam("after") String after, @QueryParam("sort") String sort) {
     if (id < 1) {
       throw new WrongBodyDataException("Wrong user id");
     }
-    return myContactUCC.getUserContacts(id);
+    PageRequest page = PageRequest.of(limit, after, sort);
+    if (page != null) {
+      return Response.ok(myContactUCC.getUserContactsPage(id, page)).build();
+    }
+    return Response.ok(myContactUCC.getUserContacts(id)).build();
   }
 
   /**
    * This method provides the API endpoint for getting the contacts of a specific enterprise. It
-   * returns a list of ContactDTO objects representing the contacts of the enterprise.
+   * returns a list of ContactDTO objects representing the contacts of the enterprise. With the
+   * limit, after or sort query parameters, only one page of the contacts is returned, along with
+   * the cursor of the next page.
    *
-   * @param id The ID of the enterprise for which to get the contacts.
-   * @return A list of ContactDTO objects representing the contacts of the specified enterprise.
+   * @param id    The ID of the enterprise for which to get the contacts.
+   * @param limit The maximum number of contacts of the page.
+   * @param after The cursor of the page, as returned with the previous page.
+   * @param sort  The field sorting the contacts: id, schoolYear or contactStatus, prefixed by a
+   *              minus sign for a descending order.
+   * @return A list of ContactDTO objects representing the contacts of the specified enterprise, or
+   *     one page of them.
    * @throws WrongBodyDataException If the provided enterprise ID is under 1.
    */
   @GET
   @Path("/enterprise/{id}")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize(Role.TEACHER)
-  public List<ContactDTO> getEnterpriseContacts(@PathParam("id") int id) {
+  @Authorize(value = Role.TEACHER, loadUser = false)
+  public Response getEnterpriseContacts(@PathParam("id") int id,
+      @QueryParam("limit") Integer limit, @QueryParam("after") String after,
+      @QueryParam("sort") String sort) {
     if (id < 1) {
       throw new WrongBodyDataException("Wrong enterprise id");
     }
-    return myContactUCC.getEnterpriseContacts(id);
+    PageRequest page = PageRequest.of(limit, after, sort);
+    if (page != null) {
+      return Response.ok(myContactUCC.getEnterpriseContactsPage(id, page)).build();
+    }
+    return Response.ok(myContactUCC.getEnterpriseContacts(id)).build();
+  }
+
+  /**
+   * Returns the version number of a request body, or -1 if it is missing.
+   *
+   * @param versionNumber the version number of the body, or null
+   * @return the version number, or -1
+   */
+  private static int versionNumber(Integer versionNumber) {
+    return versionNumber == null ? -1 : versionNumber;
   }
 }
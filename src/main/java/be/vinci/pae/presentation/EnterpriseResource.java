@@ -1,12 +1,13 @@
 package be.vinci.pae.presentation;
 
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.business.entreprise.EnterpriseUCC;
 import be.vinci.pae.business.user.UserDTO.Role;
 import be.vinci.pae.exception.WrongBodyDataException;
 import be.vinci.pae.presentation.filters.Authorize;
+import be.vinci.pae.presentation.requests.BlacklistRequest;
 import be.vinci.pae.utils.Util;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.Consumes;
@@ -15,10 +16,12 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -39,33 +42,56 @@ public class EnterpriseResource {
   /**
    * This method provides the API endpoint for getting the information of an enterprise. It return
    * the information of an enterprise. If the id is not valid, it throws a WebApplicationException
-   * with an appropriate response.
+   * with an appropriate response. The response is tagged with the version number of the enterprise,
+   * and is a 304 Not Modified if the client already holds that version.
    *
-   * @param id the id of the enterprise
+   * @param id      the id of the enterprise
+   * @param request the request, holding the preconditions
    * @return the information of the enterprise
    */
   @GET
   @Path("/{id}/info")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize
-  public EnterpriseDTO getInformations(@PathParam("id") int id) {
+  @Authorize(loadUser = false)
+  public Response getInformations(@PathParam("id") int id, @Context Request request) {
     if (id <= 0) {
       throw new WebApplicationException("Invalid id must be positive", Response.Status.BAD_REQUEST);
     }
-    return enterpriseUCC.getEnterpriseInfo(id);
+    return EntityTags.conditional(request,
+        EntityTags.of("enterprise-" + id, enterpriseUCC.getEnterpriseVersion(id)),
+        () -> enterpriseUCC.getEnterpriseInfo(id));
   }
 
   /**
    * This method provides the API endpoint for getting all the enterprises. It returns all the
-   * enterprises. If there are no enterprises, it returns an empty list.
+   * enterprises. If there are no enterprises, it returns an empty list. With the stream query
+   * parameter, the enterprises are written to the response as they are read from the database
+   * instead of being loaded in memory first. With the limit, after or sort query parameters, only
+   * one page of the enterprises is returned, along with the cursor of the next page. The whole
+   * list is tagged with its version, and is a 304 Not Modified if the client already holds it.
    *
-   * @return all the enterprises
+   * @param stream  whether the enterprises are streamed
+   * @param limit   the maximum number of enterprises of the page
+   * @param after   the cursor of the page, as returned with the previous page
+   * @param sort    the field sorting the enterprises: id, tradeName or city, prefixed by a minus
+   *                sign for a descending order
+   * @param request the request, holding the preconditions
+   * @return all the enterprises, or one page of them
    */
   @GET
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize
-  public List<EnterpriseDTO> getAll() {
-    return enterpriseUCC.getAll();
+  @Authorize(loadUser = false)
+  public Response getAll(@QueryParam("stream") boolean stream,
+      @QueryParam("limit") Integer limit, @QueryParam("after") String after,
+      @QueryParam("sort") String sort, @Context Request request) {
+    PageRequest page = PageRequest.of(limit, after, sort);
+    if (page != null) {
+      return Response.ok(enterpriseUCC.getPage(page)).build();
+    }
+    return EntityTags.conditional(request,
+        EntityTags.of("enterprises", enterpriseUCC.getListVersion().tag()),
+        () -> stream ? JsonStreaming.<EnterpriseDTO>array(enterpriseUCC::streamAll)
+            : enterpriseUCC.getAll());
   }
 
   /**
@@ -81,7 +107,7 @@ public class EnterpriseResource {
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize(Role.STUDENT)
+  @Authorize(value = Role.STUDENT, loadUser = false)
   public EnterpriseDTO addEnterprise(EnterpriseDTO enterprise) {
     // Check if any of the required fields are empty
     if (Util.checkEmptyString(enterprise.getTradeName()) || Util.checkEmptyString(
@@ -117,7 +143,8 @@ public class EnterpriseResource {
    * be authenticated as a teacher. If the blacklist reason is empty or the version number is not
    * valid, it throws a WrongBodyDataException.
    *
-   * @param json         the JSON object containing the blacklist reason and the version number
+   * @param body         the body of the request, containing the blacklist reason and the version
+   *                     number
    * @param idEnterprise the id of the enterprise to be blacklisted
    * @return the updated EnterpriseDTO after the blacklisting operation
    * @throws WrongBodyDataException if the blacklist reason is empty or the version number is not
@@ -127,16 +154,17 @@ public class EnterpriseResource {
   @Path("/{id}/blacklist")
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize(Role.TEACHER)
-  public EnterpriseDTO blacklistEnterprise(ObjectNode json, @PathParam("id") int idEnterprise) {
-    // Check if the JSON object is null
-    if (json.get("blacklistReason") == null || json.get("versionNumber") == null) {
+  @Authorize(value = Role.TEACHER, loadUser = false)
+  public EnterpriseDTO blacklistEnterprise(BlacklistRequest body,
+      @PathParam("id") int idEnterprise) {
+    // Check if the body is complete
+    if (body == null || body.blacklistReason() == null || body.versionNumber() == null) {
       throw new WrongBodyDataException("Blacklist reason and version number are required");
     }
 
-    // Extract the blacklist reason and the version number from the JSON object
-    String blacklistReason = json.get("blacklistReason").asText();
-    int versionNumber = json.get("versionNumber").asInt();
+    // Extract the blacklist reason and the version number from the body
+    String blacklistReason = body.blacklistReason();
+    int versionNumber = body.versionNumber();
 
     // Check if the blacklist reason is empty
     if (Util.checkEmptyString(blacklistReason)) {
@@ -161,7 +189,7 @@ public class EnterpriseResource {
   @GET
   @Path("/stats")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize(Role.TEACHER)
+  @Authorize(value = Role.TEACHER, loadUser = false)
   public Map<Integer, Map<String, Integer>> getStats() {
     return enterpriseUCC.getStats();
   }
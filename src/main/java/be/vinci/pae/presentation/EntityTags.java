@@ -0,0 +1,80 @@
+package be.vinci.pae.presentation;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.ResponseBuilder;
+import java.util.function.Supplier;
+
+/**
+ * This class builds the conditional responses of the read endpoints. The entity tag of a resource
+ * is made of its version, read without reading the resource: when the client sends back the tag it
+ * holds in If-None-Match and the version has not changed, a 304 Not Modified is returned without
+ * reading the resource nor writing any JSON.
+ *
+ * <p>The tags are weak, as the same version may be sent compressed or not. The responses ask the
+ * clients to revalidate them on every use and keep them out of the shared caches, since they are
+ * only sent to authenticated users.
+ */
+final class EntityTags {
+
+  // Clients may keep the responses, but must ask whether they changed before using them
+  private static final CacheControl REVALIDATE = revalidate();
+
+  private EntityTags() {
+  }
+
+  /**
+   * Creates the entity tag of a resource.
+   *
+   * @param kind    the kind of the resource, which keeps the tags of different resources apart
+   * @param version the version of the resource, or null if the resource does not exist
+   * @return the weak entity tag, or null if the version is null
+   */
+  static EntityTag of(String kind, Object version) {
+    if (version == null) {
+      return null;
+    }
+    return new EntityTag(kind + "-" + version, true);
+  }
+
+  /**
+   * Creates the response of a conditional read. If the tag matches the If-None-Match header of the
+   * request, the response is a 304 Not Modified and the entity is not read. Otherwise the entity
+   * is read and sent with the tag. A null tag or entity gives a 204 No Content, as a null entity
+   * returned by a resource method does.
+   *
+   * @param request the request, holding the preconditions
+   * @param tag     the entity tag of the current version of the resource, or null
+   * @param entity  the supplier reading the entity, only called when it is sent
+   * @return the response
+   */
+  static Response conditional(Request request, EntityTag tag, Supplier<?> entity) {
+    if (tag == null) {
+      return Response.noContent().build();
+    }
+    ResponseBuilder notModified = request.evaluatePreconditions(tag);
+    if (notModified != null) {
+      return notModified.cacheControl(REVALIDATE).build();
+    }
+    Object body = entity.get();
+    if (body == null) {
+      return Response.noContent().build();
+    }
+    return Response.ok(body).tag(tag).cacheControl(REVALIDATE).build();
+  }
+
+  /**
+   * Creates the cache control of the tagged responses.
+   *
+   * @return a private cache control requiring a revalidation
+   */
+  private static CacheControl revalidate() {
+    CacheControl cacheControl = new CacheControl();
+    cacheControl.setNoCache(true);
+    cacheControl.setPrivate(true);
+    cacheControl.setNoTransform(false);
+    return cacheControl;
+  }
+}
@@ -0,0 +1,49 @@
+package be.vinci.pae.presentation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * This class builds the streamed JSON responses of the list endpoints. The items are written to
+ * the response one at a time, as soon as they are produced, so the memory used does not depend on
+ * the number of items and the client receives the first bytes early.
+ */
+final class JsonStreaming {
+
+  private JsonStreaming() {
+  }
+
+  /**
+   * Creates a response body writing a JSON array. The producer is only called when the body is
+   * written, and receives a consumer writing each item to the response. As the response has
+   * already started when an item fails to be produced, such an error aborts the response.
+   *
+   * @param producer the producer of the items, typically a streaming method of a UCC
+   * @param <T>      the type of the items
+   * @return the response body
+   */
+  static <T> StreamingOutput array(Consumer<Consumer<T>> producer) {
+    return output -> {
+      try (JsonGenerator generator = ObjectMapperResolver.objectMapper().getFactory()
+          .createGenerator(output)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        try {
+          producer.accept(item -> {
+            try {
+              generator.writeObject(item);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+        generator.writeEndArray();
+      }
+    };
+  }
+}
@@ -0,0 +1,42 @@
+package be.vinci.pae.presentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import jakarta.ws.rs.ext.ContextResolver;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * This class provides the ObjectMapper used by Jersey to read the request bodies and write the
+ * responses, and by the resources building JSON by hand. A single mapper is shared by the whole
+ * application, so that the serializers and deserializers of each class are only built once.
+ *
+ * <p>The mapper registers the Blackbird module, which replaces the reflective calls to the getters,
+ * setters and constructors of the DTOs and request records by generated lambdas.
+ */
+@Provider
+public class ObjectMapperResolver implements ContextResolver<ObjectMapper> {
+
+  // The mapper shared by the application
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+      .registerModule(new BlackbirdModule());
+
+  /**
+   * Returns the shared mapper, whatever the type read or written.
+   *
+   * @param type the type of the object read or written
+   * @return the shared ObjectMapper
+   */
+  @Override
+  public ObjectMapper getContext(Class<?> type) {
+    return OBJECT_MAPPER;
+  }
+
+  /**
+   * Returns the shared mapper, for the code which is not called by Jersey.
+   *
+   * @return the shared ObjectMapper
+   */
+  static ObjectMapper objectMapper() {
+    return OBJECT_MAPPER;
+  }
+}
@@ -1,5 +1,6 @@
 package be.vinci.pae.presentation;
 
+import be.vinci.pae.business.PageRequest;
 import be.vinci.pae.business.responsable.ResponsableStageDTO;
 import be.vinci.pae.business.responsable.ResponsableStageUCC;
 import be.vinci.pae.business.user.UserDTO.Role;
@@ -12,8 +13,11 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
-import java.util.List;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 
 /**
  * This class provides the API endpoints for the internship supervisor. It includes methods for
@@ -41,7 +45,7 @@ public class ResponsableStageResource {
   @Path("/create")
   @Consumes(MediaType.APPLICATION_JSON)
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize(Role.STUDENT)
+  @Authorize(value = Role.STUDENT, loadUser = false)
   public ResponsableStageDTO createResponsableStage(ResponsableStageDTO responsableStageDTO) {
 
     if (responsableStageDTO.getLastName() == null || responsableStageDTO.getFirstName() == null
@@ -58,16 +62,36 @@ public class ResponsableStageResource {
    * This method provides the API endpoint for getting an internship supervisor by its id. It
    * accepts the id of the internship supervisor and returns the internship supervisor. If the
    * internship supervisor is not found, it throws a WebApplicationException with an appropriate
-   * response.
+   * response. With the stream query parameter, the internship supervisors are written to the
+   * response as they are read from the database instead of being loaded in memory first. With the
+   * limit, after or sort query parameters, only one page of the internship supervisors is
+   * returned, along with the cursor of the next page. The whole list is tagged with its version,
+   * and is a 304 Not Modified if the client already holds it.
    *
+   * @param stream  whether the internship supervisors are streamed
+   * @param limit   the maximum number of internship supervisors of the page
+   * @param after   the cursor of the page, as returned with the previous page
+   * @param sort    the field sorting the internship supervisors: id, lastName or firstName,
+   *                prefixed by a minus sign for a descending order
+   * @param request the request, holding the preconditions
    * @return the internship supervisor
    */
   @GET
   @Path("/all")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize({Role.STUDENT, Role.TEACHER})
-  public List<ResponsableStageDTO> getResponsableStage() {
-    return myResponsableStageUCC.getAllResponsableStage();
+  @Authorize(value = {Role.STUDENT, Role.TEACHER}, loadUser = false)
+  public Response getResponsableStage(@QueryParam("stream") boolean stream,
+      @QueryParam("limit") Integer limit, @QueryParam("after") String after,
+      @QueryParam("sort") String sort, @Context Request request) {
+    PageRequest page = PageRequest.of(limit, after, sort);
+    if (page != null) {
+      return Response.ok(myResponsableStageUCC.getResponsableStagePage(page)).build();
+    }
+    return EntityTags.conditional(request,
+        EntityTags.of("supervisors", myResponsableStageUCC.getListVersion().tag()),
+        () -> stream ? JsonStreaming.<ResponsableStageDTO>array(
+            myResponsableStageUCC::streamAllResponsableStage)
+            : myResponsableStageUCC.getAllResponsableStage());
   }
 
 }
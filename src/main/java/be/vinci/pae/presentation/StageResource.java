@@ -6,8 +6,8 @@ import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.business.user.UserDTO.Role;
 import be.vinci.pae.exception.WrongBodyDataException;
 import be.vinci.pae.presentation.filters.Authorize;
+import be.vinci.pae.presentation.requests.InternshipProjectRequest;
 import be.vinci.pae.utils.Util;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.Consumes;
@@ -19,6 +19,8 @@ import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 import java.util.Map;
 import org.glassfish.jersey.server.ContainerRequest;
 
@@ -38,7 +40,8 @@ public class StageResource {
   /**
    * This method provides the API endpoint for getting the last stage of a user. It returns the last
    * stage of a user. If the user has no stages, it returns null. If the user is not found, it
-   * throws a WebApplicationException with an appropriate response.
+   * throws a WebApplicationException with an appropriate response. The response is tagged with
+   * the version of the stage, and is a 304 Not Modified if the client already holds that version.
    *
    * @param request the request context
    * @return the last stage of the user
@@ -46,30 +49,32 @@ public class StageResource {
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   @Authorize(Role.STUDENT)
-  public StageDTO getLastStage(@Context ContainerRequest request) {
+  public Response getLastStage(@Context ContainerRequest request) {
     // Retrieve the user from the request context
     UserDTO userDTO = (UserDTO) request.getProperty("user");
     // Get the id of the user
     int id = userDTO.getIdUser();
 
     // Return the last stage of the user
-    return myStageUCC.getOne(id);
+    return conditionalStage(id, request);
   }
 
   /**
    * This method provides the API endpoint for getting a stage of a student by their id. It returns
    * the stage of a student. If the student has no stages, it returns null. If the student is not
-   * found, it throws a WebApplicationException with an appropriate response.
+   * found, it throws a WebApplicationException with an appropriate response. Like the last stage
+   * of the user, the response is tagged with the version of the stage.
    *
    * @param idEtudiant the id of the student
+   * @param request    the request, holding the preconditions
    * @return the stage of the student
    */
   @GET
   @Path("{id}/getstage")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize({Role.TEACHER, Role.ADMINISTRATIVE})
-  public StageDTO getStage(@PathParam("id") int idEtudiant) {
-    return myStageUCC.getOne(idEtudiant);
+  @Authorize(value = {Role.TEACHER, Role.ADMINISTRATIVE}, loadUser = false)
+  public Response getStage(@PathParam("id") int idEtudiant, @Context Request request) {
+    return conditionalStage(idEtudiant, request);
   }
 
   /**
@@ -102,7 +107,8 @@ public class StageResource {
   /**
    * Provides the API for changing the internship project.
    *
-   * @param json    The JSON representation of the new internship project.
+   * @param body    The body of the request, containing the new internship project and the version
+   *                number of the stage.
    * @param request The HTTP request context.
    * @return The StageDTO object after changing the internship project.
    * @throws WrongBodyDataException If the provided JSON data is invalid or missing.
@@ -111,17 +117,18 @@ public class StageResource {
   @Produces(MediaType.APPLICATION_JSON)
   @Consumes(MediaType.APPLICATION_JSON)
   @Authorize(Role.STUDENT)
-  public StageDTO changeInternshipProject(ObjectNode json, @Context ContainerRequest request) {
-    if (json.get("internshipProject").isNull()) {
+  public StageDTO changeInternshipProject(InternshipProjectRequest body,
+      @Context ContainerRequest request) {
+    if (body == null || body.internshipProject() == null) {
       throw new WrongBodyDataException("Internship project can't be null");
     }
-    int numVersion = json.get("numVersion").asInt();
-    if (numVersion < 1) {
+    if (body.numVersion() == null || body.numVersion() < 1) {
       throw new WrongBodyDataException("Wrong numVersion");
     }
     UserDTO user = (UserDTO) request.getProperty("user");
     int idUser = user.getIdUser();
-    String internshipProject = json.get("internshipProject").asText();
+    String internshipProject = body.internshipProject();
+    int numVersion = body.numVersion();
     return myStageUCC.changeInternshipProject(idUser, internshipProject, numVersion);
   }
 
@@ -135,9 +142,22 @@ public class StageResource {
   @GET
   @Path("/stats")
   @Produces(MediaType.APPLICATION_JSON)
-  @Authorize(Role.TEACHER)
+  @Authorize(value = Role.TEACHER, loadUser = false)
   public Map<String, Map<String, Integer>> getStats() {
     return myStageUCC.getStatsStages();
   }
 
-}
\ No newline at end of file
+  /**
+   * Returns the stage of a student, or a 304 Not Modified if the version of the stage matches the
+   * entity tag held by the client. The version is read on its own, the stage only when it is sent.
+   *
+   * @param idEtudiant the id of the student
+   * @param request    the request, holding the preconditions
+   * @return the response holding the stage of the student
+   */
+  private Response conditionalStage(int idEtudiant, Request request) {
+    return EntityTags.conditional(request,
+        EntityTags.of("stage", myStageUCC.getVersion(idEtudiant)),
+        () -> myStageUCC.getOne(idEtudiant));
+  }
+}
@@ -0,0 +1,61 @@
+package be.vinci.pae.presentation.filters;
+
+import be.vinci.pae.business.token.TokenRevocationUCC;
+import be.vinci.pae.business.user.UserDTO.Role;
+import be.vinci.pae.business.user.UserUCC;
+import be.vinci.pae.utils.Config;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * This class implements the DynamicFeature interface and binds an AuthorizationRequestFilter to
+ * each resource method annotated with @Authorize, or belonging to a class annotated with it. The
+ * annotation is read once for each method when the application starts, so that the filters only
+ * compare the role of the user with a precomputed set of roles. The filters share the verifier of
+ * the tokens, the cache of the verified tokens and the list of the revoked tokens.
+ */
+@Provider
+public class AuthorizationFeature implements DynamicFeature {
+
+  // The tokens already verified, shared by the filters of every method
+  private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(
+      JWT.require(Algorithm.HMAC256(Config.getProperty("JWTSecret"))).withIssuer("auth0").build(),
+      Config.getLongProperty("tokenCacheMaxSize", 10_000));
+
+  // The service for user data
+  @Inject
+  private UserUCC myUserUcc;
+
+  // The service for the revoked tokens
+  @Inject
+  private TokenRevocationUCC tokenRevocation;
+
+  /**
+   * Binds an AuthorizationRequestFilter to the resource method if it requires an authorization.
+   *
+   * @param resourceInfo the resource method and its class
+   * @param context      the configuration of the resource method
+   */
+  @Override
+  public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+    Authorize authorize = resourceInfo.getResourceMethod().getAnnotation(Authorize.class);
+    if (authorize == null) {
+      authorize = resourceInfo.getResourceClass().getAnnotation(Authorize.class);
+    }
+    if (authorize == null) {
+      return;
+    }
+    EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+    roles.addAll(Arrays.asList(authorize.value()));
+    context.register(new AuthorizationRequestFilter(roles, authorize.loadUser(), verifiedTokens,
+        myUserUcc, tokenRevocation), Priorities.AUTHORIZATION);
+  }
+}
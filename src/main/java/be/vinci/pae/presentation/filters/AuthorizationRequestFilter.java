@@ -1,58 +1,77 @@
 package be.vinci.pae.presentation.filters;
 
+import be.vinci.pae.business.token.TokenRevocationUCC;
 import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.business.user.UserDTO.Role;
 import be.vinci.pae.business.user.UserUCC;
 import be.vinci.pae.exception.TokenDecodingException;
-import be.vinci.pae.utils.Config;
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.auth0.jwt.interfaces.JWTVerifier;
-import jakarta.inject.Inject;
-import jakarta.inject.Singleton;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
-import jakarta.ws.rs.container.ResourceInfo;
-import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
-import jakarta.ws.rs.ext.Provider;
-import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.Set;
 
 /**
  * This class implements the ContainerRequestFilter interface and provides a method for filtering
  * incoming HTTP requests based on the user's role. It uses the JWT (JSON Web Token) for
- * authentication and authorization.
+ * authentication and authorization. An instance is bound to each protected resource method by the
+ * AuthorizationFeature, with the roles the method requires.
+ *
+ * <p>The tokens carry the role and the version number of the user, signed with the id. When the
+ * method does not need the authenticated user, only the current version number of the user is read,
+ * from the cache of the users when it holds the user. If it still matches the token, the role of
+ * the token is checked. Otherwise the user changed since the token was issued, for example when
+ * its role was changed, and its current role is read again. A token of a deleted user is rejected.
+ * The user is also read for the tokens issued without a role.
+ *
+ * <p>The tokens revoked by a logout are rejected from the revocation list kept in memory, without
+ * going to the database.
  */
-@Singleton
-@Provider
-@Authorize
 public class AuthorizationRequestFilter implements ContainerRequestFilter {
 
-  // The algorithm used for JWT token verification
-  private final Algorithm jwtAlgorithm = Algorithm.HMAC256(Config.getProperty("JWTSecret"));
+  // The roles allowed to access the resource method
+  private final Set<Role> requiredRoles;
 
-  // The verifier for JWT tokens
-  private final JWTVerifier jwtVerifier = JWT.require(this.jwtAlgorithm).withIssuer("auth0")
-      .build();
+  // Whether the authenticated user is loaded and set as a property of the request
+  private final boolean loadUser;
+
+  // The tokens already verified, so that each request of a session does not verify them again
+  private final VerifiedTokenCache verifiedTokens;
 
   // The service for user data
-  @Inject
-  private UserUCC myUserUcc;
+  private final UserUCC myUserUcc;
+
+  // The service for the revoked tokens
+  private final TokenRevocationUCC tokenRevocation;
 
-  // The resource information for the current request
-  @Context
-  private ResourceInfo resourceInfo;
+  /**
+   * Creates the filter of a resource method.
+   *
+   * @param requiredRoles   the roles allowed to access the method
+   * @param loadUser        whether the authenticated user is loaded and set as the "user" property
+   * @param verifiedTokens  the cache of the verified tokens
+   * @param myUserUcc       the service for user data
+   * @param tokenRevocation the service for the revoked tokens
+   */
+  AuthorizationRequestFilter(Set<Role> requiredRoles, boolean loadUser,
+      VerifiedTokenCache verifiedTokens, UserUCC myUserUcc, TokenRevocationUCC tokenRevocation) {
+    this.requiredRoles = requiredRoles;
+    this.loadUser = loadUser;
+    this.verifiedTokens = verifiedTokens;
+    this.myUserUcc = myUserUcc;
+    this.tokenRevocation = tokenRevocation;
+  }
 
   /**
    * This method filters incoming requests. It checks for the presence of an Authorization token in
    * the request header. If the token is not present, it aborts the request with a UNAUTHORIZED
-   * response. If the token is present, it verifies the token and retrieves the user information. If
-   * the token is invalid or the user does not exist, it aborts the request with a FORBIDDEN
-   * response. If the token is valid and the user exists, it sets the user as a property in the
-   * request context.
+   * response. If the token is present, it verifies the token and reads the role of the user, from
+   * the user itself or from the token when the version number of the user still matches it. If the
+   * token is invalid, revoked, or the user does not exist, it aborts the request with a
+   * UNAUTHORIZED response. If the role is not allowed, it aborts the request with a FORBIDDEN
+   * response. Otherwise, the loaded user is set as a property in the request context.
    *
    * @param requestContext the context of the incoming request
    */
@@ -62,40 +81,63 @@ public class AuthorizationRequestFilter implements ContainerRequestFilter {
     if (token == null) {
       requestContext.abortWith(Response.status(Status.UNAUTHORIZED)
           .entity("You are not authorized to access this resource").build());
+      return;
+    }
+    // Verify the token
+    DecodedJWT decodedToken = verifyToken(token);
+    String tokenId = decodedToken.getId();
+    if (tokenId != null && tokenRevocation.isRevoked(tokenId)) {
+      requestContext.abortWith(Response.status(Status.UNAUTHORIZED)
+          .entity("This token has been revoked").build());
+      return;
+    }
+    int userId = decodedToken.getClaim("user").asInt();
+    Claim roleClaim = decodedToken.getClaim("role");
+    Role userRole;
+    UserDTO authenticatedUser = null;
+    if (!loadUser && !roleClaim.isMissing()) {
+      Integer version = myUserUcc.getUserVersion(userId);
+      if (version == null) {
+        requestContext.abortWith(Response.status(Status.UNAUTHORIZED)
+            .entity("The user of this token no longer exists").build());
+        return;
+      }
+      Claim versionClaim = decodedToken.getClaim("version");
+      if (!versionClaim.isMissing() && versionClaim.asInt() == version.intValue()) {
+        userRole = Role.valueOf(roleClaim.asString());
+      } else {
+        // The user changed since the token was issued, its role may have changed too
+        userRole = myUserUcc.refreshUser(userId).getRole();
+      }
     } else {
-      // Verify the token
-      DecodedJWT decodedToken = verifyToken(token);
       // Get the user's data
-      UserDTO authenticatedUser = myUserUcc.refreshUser(decodedToken.getClaim("user").asInt());
-      // Get the user's role
-      Role userRole = authenticatedUser.getRole();
-
-      // Get the required role from the @Authorize annotation
-      Method method = resourceInfo.getResourceMethod();
-      Role[] requiredRoles = method.getAnnotation(Authorize.class).value();
-
-      // Check if the user's role matches the required role
-      if (!Arrays.asList(requiredRoles).contains(userRole)) {
-        requestContext.abortWith(Response.status(Status.FORBIDDEN)
-            .entity("You do not have the required role to access this resource").build());
-      }
+      authenticatedUser = myUserUcc.refreshUser(userId);
+      userRole = authenticatedUser.getRole();
+    }
 
+    // Check if the user's role matches the required role
+    if (!requiredRoles.contains(userRole)) {
+      requestContext.abortWith(Response.status(Status.FORBIDDEN)
+          .entity("You do not have the required role to access this resource").build());
+      return;
+    }
+    if (loadUser) {
       requestContext.setProperty("user", authenticatedUser);
     }
   }
 
   /**
-   * This method verifies the JWT token. If the token cannot be verified, it throws a
-   * TokenDecodingException.
+   * This method verifies the JWT token, unless it was already verified and has not expired. If the
+   * token cannot be verified, it throws a TokenDecodingException.
    *
    * @param token the JWT token to be verified
    * @return the decoded JWT token
    */
   private DecodedJWT verifyToken(String token) {
     try {
-      return this.jwtVerifier.verify(token);
+      return this.verifiedTokens.verify(token);
     } catch (Exception e) {
       throw new TokenDecodingException(e);
     }
   }
-}
\ No newline at end of file
+}
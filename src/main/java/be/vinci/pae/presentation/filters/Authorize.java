@@ -1,18 +1,19 @@
 package be.vinci.pae.presentation.filters;
 
 import be.vinci.pae.business.user.UserDTO.Role;
-import jakarta.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 
 /**
- * This is a custom annotation used for binding a filter to a resource method. It is used in
- * conjunction with the AuthorizationRequestFilter to protect resources. The filter will only be
- * applied to methods annotated with @Authorize. The @Retention annotation specifies that this
- * annotation should be available at runtime.
+ * This is a custom annotation used for protecting a resource method, or every method of a resource
+ * class. The AuthorizationFeature reads it once for each resource method when the application
+ * starts, and binds an AuthorizationRequestFilter checking the roles it requires to the method. The
+ * Retention annotation specifies that this annotation should be available at runtime.
  */
-@NameBinding
 @Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
 public @interface Authorize {
 
   /**
@@ -22,4 +23,13 @@ public @interface Authorize {
    * @return An array of roles that are authorized to access the method.
    */
   Role[] value() default {Role.ADMINISTRATIVE, Role.STUDENT, Role.TEACHER};
-}
\ No newline at end of file
+
+  /**
+   * Returns whether the authenticated user is loaded and set as the "user" property of the
+   * request. The methods which do not read it can set it to false: their authorization then relies
+   * on the role signed in the token, without reading the database.
+   *
+   * @return true if the authenticated user is loaded, false otherwise
+   */
+  boolean loadUser() default true;
+}
@@ -34,7 +34,9 @@ public class CorsFilter implements ContainerResponseFilter {
     responseContext.getHeaders()
         .add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS, HEAD");
     responseContext.getHeaders().add("Access-Control-Allow-Headers",
-        "Content-Type, Authorization, X-Requested-With, Accept");
+        "Content-Type, Authorization, X-Requested-With, Accept, If-None-Match");
+    // Let the client read the entity tags, to send them back in If-None-Match
+    responseContext.getHeaders().add("Access-Control-Expose-Headers", "ETag");
     responseContext.getHeaders().add("Access-Control-Allow-Credentials", "true");
 
     // If it's a preflight request, we set the necessary options headers.
@@ -0,0 +1,363 @@
+package be.vinci.pae.presentation.filters;
+
+import be.vinci.pae.utils.CompressionStats;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class compresses the responses of a resource method with gzip. The response filter checks
+ * that the client accepts gzip and that the media type of the body can be compressed, then the
+ * writer interceptor compresses the body while it is written. The first bytes of the body are
+ * kept until the minimum size is reached: a smaller body is sent as it is, since the compression
+ * would save too few bytes for its cost. An instance is bound to each resource method by the
+ * CompressionFeature, with the name of the endpoint under which its bytes are counted.
+ */
+public class GzipCompressionFilter implements ContainerResponseFilter, WriterInterceptor {
+
+  // Property of the requests whose response is compressed
+  private static final String COMPRESS = GzipCompressionFilter.class.getName() + ".compress";
+
+  // Size of the header and trailer of a gzip stream
+  private static final int GZIP_OVERHEAD = 18;
+
+  // The name of the endpoint, for the statistics
+  private final String endpoint;
+
+  // The media types that can be compressed, such as application/json
+  private final Set<String> mediaTypes;
+
+  // The size of the smallest compressed body, in bytes
+  private final int minBytes;
+
+  // The compression level, from 1 for the fastest to 9 for the smallest
+  private final int level;
+
+  // The counters of the bytes saved
+  private final CompressionStats stats;
+
+  /**
+   * Creates the filter of a resource method.
+   *
+   * @param endpoint   the name of the endpoint, for the statistics
+   * @param mediaTypes the media types that can be compressed, in lower case and without parameter
+   * @param minBytes   the size of the smallest compressed body
+   * @param level      the compression level, from 1 to 9
+   * @param stats      the counters of the bytes saved
+   */
+  GzipCompressionFilter(String endpoint, Set<String> mediaTypes, int minBytes, int level,
+      CompressionStats stats) {
+    this.endpoint = endpoint;
+    this.mediaTypes = mediaTypes;
+    this.minBytes = minBytes;
+    this.level = level;
+    this.stats = stats;
+  }
+
+  /**
+   * Decides whether the body of the response is compressed. The response varies with the
+   * Accept-Encoding header of the request as soon as its media type can be compressed, so that
+   * the caches do not send a compressed body to a client that does not accept it.
+   *
+   * @param requestContext  the request context
+   * @param responseContext the response context
+   */
+  @Override
+  public void filter(ContainerRequestContext requestContext,
+      ContainerResponseContext responseContext) {
+    MediaType mediaType = responseContext.getMediaType();
+    if (!responseContext.hasEntity() || mediaType == null || !mediaTypes.contains(
+        (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase(Locale.ROOT))) {
+      return;
+    }
+    responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (responseContext.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+        || !acceptsGzip(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+      return;
+    }
+    requestContext.setProperty(COMPRESS, Boolean.TRUE);
+  }
+
+  /**
+   * Compresses the body of the response while it is written, if the filter decided to.
+   *
+   * @param context the context of the writing of the body
+   * @throws IOException if the body cannot be written
+   */
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+    if (context.getProperty(COMPRESS) == null) {
+      context.proceed();
+      return;
+    }
+    OutputStream output = context.getOutputStream();
+    GzipThresholdStream gzip = new GzipThresholdStream(output, context.getHeaders(), minBytes,
+        level);
+    context.setOutputStream(gzip);
+    try {
+      context.proceed();
+      gzip.finish();
+    } finally {
+      context.setOutputStream(output);
+    }
+    stats.record(endpoint, gzip.isCompressed(), gzip.getBodyBytes(), gzip.getSentBytes(),
+        gzip.getNanos());
+  }
+
+  /**
+   * Tells whether an Accept-Encoding header accepts gzip, either by name or with the wildcard,
+   * with a quality above zero.
+   *
+   * @param acceptEncoding the Accept-Encoding header, or null
+   * @return true if the client accepts a body compressed with gzip
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Boolean wildcard = null;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim().toLowerCase(Locale.ROOT);
+      boolean accepted = quality(parts) > 0;
+      if (name.equals("gzip") || name.equals("x-gzip")) {
+        return accepted;
+      }
+      if (name.equals("*")) {
+        wildcard = accepted;
+      }
+    }
+    return Boolean.TRUE.equals(wildcard);
+  }
+
+  /**
+   * Reads the quality of a content coding, 1 if it is not given.
+   *
+   * @param parts the name of the coding followed by its parameters
+   * @return the quality of the coding
+   */
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * A stream keeping the first bytes of a body until it reaches the minimum size, then
+   * compressing it. When the body ends below the minimum size, it is written as it is.
+   */
+  static final class GzipThresholdStream extends OutputStream {
+
+    // The stream of the response
+    private final OutputStream output;
+
+    // The headers of the response, not sent yet
+    private final MultivaluedMap<String, Object> headers;
+
+    // The size from which the body is compressed
+    private final int minBytes;
+
+    // The compression level
+    private final int level;
+
+    // The first bytes of the body, until the compression starts
+    private ByteArrayOutputStream buffer;
+
+    // The compressing stream, once the minimum size is reached
+    private LevelGzipOutputStream gzip;
+
+    // The size of the body before the compression
+    private long bodyBytes;
+
+    // The size of the compressed body, once it is complete
+    private long compressedBytes;
+
+    // The time spent compressing
+    private long nanos;
+
+    // Whether the body has been entirely written
+    private boolean finished;
+
+    /**
+     * Creates a stream compressing a body.
+     *
+     * @param output   the stream of the response
+     * @param headers  the headers of the response, not sent yet
+     * @param minBytes the size from which the body is compressed
+     * @param level    the compression level
+     */
+    GzipThresholdStream(OutputStream output, MultivaluedMap<String, Object> headers,
+        int minBytes, int level) {
+      this.output = output;
+      this.headers = headers;
+      this.minBytes = minBytes;
+      this.level = level;
+      this.buffer = new ByteArrayOutputStream(Math.min(minBytes, 8192));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      bodyBytes += length;
+      if (gzip == null) {
+        buffer.write(bytes, offset, length);
+        if (buffer.size() < minBytes) {
+          return;
+        }
+        startCompression();
+        bytes = buffer.toByteArray();
+        offset = 0;
+        length = bytes.length;
+        buffer = null;
+      }
+      long start = System.nanoTime();
+      gzip.write(bytes, offset, length);
+      nanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Keeps the bytes of a body below the minimum size, which may still be compressed, and does
+     * not flush the compression, which would make the body larger.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Ends the body, without closing the stream of the response.
+     *
+     * @throws IOException if the body cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+      finish();
+    }
+
+    /**
+     * Ends the body: the compression is completed, or the body is written as it is if it is
+     * below the minimum size.
+     *
+     * @throws IOException if the body cannot be written
+     */
+    void finish() throws IOException {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      if (gzip == null) {
+        buffer.writeTo(output);
+        return;
+      }
+      long start = System.nanoTime();
+      gzip.finish();
+      nanos += System.nanoTime() - start;
+      compressedBytes = gzip.getCompressedBytes();
+      // The stream of the response stays open, so the native memory is released here
+      gzip.end();
+    }
+
+    /**
+     * Tells whether the body is compressed.
+     *
+     * @return true if the body reached the minimum size
+     */
+    boolean isCompressed() {
+      return gzip != null;
+    }
+
+    /**
+     * Returns the size of the body before the compression.
+     *
+     * @return the number of bytes written to this stream
+     */
+    long getBodyBytes() {
+      return bodyBytes;
+    }
+
+    /**
+     * Returns the number of bytes sent to the client.
+     *
+     * @return the size of the compressed body, or of the body if it is not compressed
+     */
+    long getSentBytes() {
+      return gzip == null ? bodyBytes : compressedBytes;
+    }
+
+    /**
+     * Returns the time spent compressing the body.
+     *
+     * @return the time in nanoseconds
+     */
+    long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * Marks the response as compressed, before its headers are sent.
+     *
+     * @throws IOException if the compressing stream cannot be created
+     */
+    private void startCompression() throws IOException {
+      headers.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+      headers.remove(HttpHeaders.CONTENT_LENGTH);
+      gzip = new LevelGzipOutputStream(output, level);
+    }
+  }
+
+  /**
+   * A gzip stream with a given compression level, counting the compressed bytes.
+   */
+  private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+    /**
+     * Creates a gzip stream.
+     *
+     * @param output the stream receiving the compressed bytes
+     * @param level  the compression level
+     * @throws IOException if the gzip header cannot be written
+     */
+    private LevelGzipOutputStream(OutputStream output, int level) throws IOException {
+      super(output, 8192);
+      def.setLevel(level);
+    }
+
+    /**
+     * Returns the number of compressed bytes, header and trailer included.
+     *
+     * @return the size of the compressed body
+     */
+    private long getCompressedBytes() {
+      return def.getBytesWritten() + GZIP_OVERHEAD;
+    }
+
+    /**
+     * Releases the compressor, once the stream is finished.
+     */
+    private void end() {
+      def.end();
+    }
+  }
+}
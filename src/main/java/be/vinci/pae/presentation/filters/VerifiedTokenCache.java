@@ -0,0 +1,126 @@
+package be.vinci.pae.presentation.filters;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The VerifiedTokenCache class keeps the tokens which were successfully verified, so that the next
+ * requests of a session skip the decoding of the token and the check of its signature. The tokens
+ * are kept by their SHA-256 digest rather than by value, and each of them expires from the cache at
+ * the time of its "exp" claim. The tokens which fail the verification are never cached.
+ *
+ * <p>A maximum size of 0 disables the cache, every token then being verified.
+ */
+final class VerifiedTokenCache {
+
+  // The verifier checking the tokens missing from the cache
+  private final JWTVerifier verifier;
+
+  // The verified tokens, by digest, or null if the cache is disabled
+  private final Cache<ByteBuffer, DecodedJWT> tokens;
+
+  /**
+   * Creates a cache of the tokens verified by a verifier.
+   *
+   * @param verifier the verifier of the tokens
+   * @param maxSize  the maximum number of tokens kept
+   */
+  VerifiedTokenCache(JWTVerifier verifier, long maxSize) {
+    this.verifier = verifier;
+    if (maxSize <= 0) {
+      this.tokens = null;
+      return;
+    }
+    this.tokens = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new Expiry<ByteBuffer, DecodedJWT>() {
+          @Override
+          public long expireAfterCreate(ByteBuffer key, DecodedJWT token, long currentTime) {
+            Instant expiresAt = token.getExpiresAtAsInstant();
+            if (expiresAt == null) {
+              // A token without expiration is verified on each request
+              return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()));
+          }
+
+          @Override
+          public long expireAfterUpdate(ByteBuffer key, DecodedJWT token, long currentTime,
+              long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(ByteBuffer key, DecodedJWT token, long currentTime,
+              long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Returns the decoded token, verifying it only if it is not in the cache.
+   *
+   * @param token the token to verify
+   * @return the decoded token
+   * @throws JWTVerificationException if the token is invalid
+   */
+  DecodedJWT verify(String token) {
+    if (tokens == null) {
+      return verifier.verify(token);
+    }
+    ByteBuffer key = digest(token);
+    DecodedJWT decoded = tokens.getIfPresent(key);
+    if (decoded == null) {
+      decoded = verifier.verify(token);
+      tokens.put(key, decoded);
+    }
+    return decoded;
+  }
+
+  /**
+   * Removes every token from the cache.
+   */
+  void invalidateAll() {
+    if (tokens != null) {
+      tokens.invalidateAll();
+    }
+  }
+
+  /**
+   * Returns the number of tokens in the cache.
+   *
+   * @return the approximate number of tokens
+   */
+  long size() {
+    return tokens == null ? 0 : tokens.estimatedSize();
+  }
+
+  /**
+   * Computes the SHA-256 digest of a token.
+   *
+   * @param token the token
+   * @return the digest, wrapped to be used as a key
+   */
+  private static ByteBuffer digest(String token) {
+    try {
+      return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+          .digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
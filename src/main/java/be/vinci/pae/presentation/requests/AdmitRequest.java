@@ -0,0 +1,14 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a request admitting a contact.
+ *
+ * @param meetingPlace  the place of the meeting
+ * @param versionNumber the version number of the contact
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AdmitRequest(String meetingPlace, Integer versionNumber) {
+
+}
@@ -0,0 +1,14 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a request blacklisting an enterprise.
+ *
+ * @param blacklistReason the reason of the blacklisting
+ * @param versionNumber   the version number of the enterprise
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BlacklistRequest(String blacklistReason, Integer versionNumber) {
+
+}
@@ -0,0 +1,13 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a request creating a contact.
+ *
+ * @param idEnterprise the id of the enterprise contacted
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CreateContactRequest(Integer idEnterprise) {
+
+}
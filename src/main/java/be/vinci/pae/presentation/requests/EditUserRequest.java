@@ -0,0 +1,18 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a request editing the data of the authenticated user. The fields which are not
+ * edited are null.
+ *
+ * @param phoneNumber     the new phone number
+ * @param currentPassword the current password, required to change the password
+ * @param newPassword     the new password
+ * @param versionNumber   the version number of the user
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record EditUserRequest(String phoneNumber, String currentPassword, String newPassword,
+                              Integer versionNumber) {
+
+}
@@ -0,0 +1,14 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a request changing the internship project of a stage.
+ *
+ * @param internshipProject the new internship project
+ * @param numVersion        the version number of the stage
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record InternshipProjectRequest(String internshipProject, Integer numVersion) {
+
+}
@@ -0,0 +1,14 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a login request.
+ *
+ * @param email    the email of the user
+ * @param password the password of the user
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LoginRequest(String email, String password) {
+
+}
@@ -0,0 +1,14 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a request turning down a contact.
+ *
+ * @param reasonRefusal the reason of the refusal
+ * @param versionNumber the version number of the contact
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TurnDownRequest(String reasonRefusal, Integer versionNumber) {
+
+}
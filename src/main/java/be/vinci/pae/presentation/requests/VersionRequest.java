@@ -0,0 +1,14 @@
+package be.vinci.pae.presentation.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The body of a request changing the state of an object, which only carries the version number
+ * of the object.
+ *
+ * @param versionNumber the version number of the object
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record VersionRequest(Integer versionNumber) {
+
+}
@@ -4,27 +4,43 @@ package be.vinci.pae.utils;
 
 import be.vinci.pae.business.DomainFactory;
 import be.vinci.pae.business.DomainFactoryImpl;
+import be.vinci.pae.business.admin.AdminUCC;
+import be.vinci.pae.business.admin.AdminUCCImpl;
+import be.vinci.pae.business.cache.CacheRegistry;
 import be.vinci.pae.business.contact.ContactUCC;
 import be.vinci.pae.business.contact.ContactUCCImpl;
+import be.vinci.pae.business.entreprise.CachedEnterpriseUCC;
 import be.vinci.pae.business.entreprise.EnterpriseUCC;
 import be.vinci.pae.business.entreprise.EnterpriseUCCImpl;
+import be.vinci.pae.business.imports.ImportUCC;
+import be.vinci.pae.business.imports.ImportUCCImpl;
+import be.vinci.pae.business.responsable.CachedResponsableStageUCC;
 import be.vinci.pae.business.responsable.ResponsableStageUCC;
 import be.vinci.pae.business.responsable.ResponsableStageUCCImpl;
 import be.vinci.pae.business.stage.StageUCC;
 import be.vinci.pae.business.stage.StageUCCImpl;
+import be.vinci.pae.business.token.TokenRevocationUCC;
+import be.vinci.pae.business.token.TokenRevocationUCCImpl;
+import be.vinci.pae.business.user.CachedUserUCC;
+import be.vinci.pae.business.user.PasswordHasher;
 import be.vinci.pae.business.user.UserUCC;
 import be.vinci.pae.business.user.UserUCCImpl;
 import be.vinci.pae.dal.DALBackServices;
+import be.vinci.pae.dal.DALMonitoring;
 import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.DALServicesImpl;
 import be.vinci.pae.dal.contact.ContactDAO;
 import be.vinci.pae.dal.contact.ContactDAOImpl;
 import be.vinci.pae.dal.enterprise.EnterpriseDAO;
 import be.vinci.pae.dal.enterprise.EnterpriseDAOImpl;
+import be.vinci.pae.dal.imports.ImportDAO;
+import be.vinci.pae.dal.imports.ImportDAOImpl;
 import be.vinci.pae.dal.responsable.ResponsableStageDAO;
 import be.vinci.pae.dal.responsable.ResponsableStageDAOImpl;
 import be.vinci.pae.dal.stage.StageDAO;
 import be.vinci.pae.dal.stage.StageDAOImpl;
+import be.vinci.pae.dal.token.RevokedTokenDAO;
+import be.vinci.pae.dal.token.RevokedTokenDAOImpl;
 import be.vinci.pae.dal.user.UserDAO;
 import be.vinci.pae.dal.user.UserDAOImpl;
 import jakarta.inject.Singleton;
@@ -46,26 +62,58 @@ public class ApplicationBinder extends AbstractBinder {
    * to the UserDAOImpl class. The UserUCC interface is bound to the UserUCCImpl class. The
    * DALBackServices interface is bound to the DALServicesImpl class. All bindings are in Singleton
    * scope, which means only one instance of each class will be created.
+   *
+   * <p>Unless the cacheEnabled property is false, the UserUCC, EnterpriseUCC and
+   * ResponsableStageUCC interfaces are bound to caching decorators of their implementations.
    */
   @Override
   protected void configure() {
     bind(DomainFactoryImpl.class).to(DomainFactory.class).in(Singleton.class);
 
+    final boolean cacheEnabled = Config.getBoolProperty("cacheEnabled", true);
+    bind(CacheRegistry.class).to(CacheRegistry.class).in(Singleton.class);
+
     bind(UserDAOImpl.class).to(UserDAO.class).in(Singleton.class);
-    bind(UserUCCImpl.class).to(UserUCC.class).in(Singleton.class);
+    bind(PasswordHasher.class).to(PasswordHasher.class).in(Singleton.class);
+    if (cacheEnabled) {
+      bind(UserUCCImpl.class).to(UserUCCImpl.class).in(Singleton.class);
+      bind(CachedUserUCC.class).to(UserUCC.class).in(Singleton.class);
+    } else {
+      bind(UserUCCImpl.class).to(UserUCC.class).in(Singleton.class);
+    }
 
-    bind(DALServicesImpl.class).to(DALBackServices.class).to(DALServices.class).in(Singleton.class);
+    bind(DALServicesImpl.class).to(DALBackServices.class).to(DALServices.class)
+        .to(DALMonitoring.class).in(Singleton.class);
 
     bind(ContactDAOImpl.class).to(ContactDAO.class).in(Singleton.class);
     bind(ContactUCCImpl.class).to(ContactUCC.class).in(Singleton.class);
 
     bind(EnterpriseDAOImpl.class).to(EnterpriseDAO.class).in(Singleton.class);
-    bind(EnterpriseUCCImpl.class).to(EnterpriseUCC.class).in(Singleton.class);
+    if (cacheEnabled) {
+      bind(EnterpriseUCCImpl.class).to(EnterpriseUCCImpl.class).in(Singleton.class);
+      bind(CachedEnterpriseUCC.class).to(EnterpriseUCC.class).in(Singleton.class);
+    } else {
+      bind(EnterpriseUCCImpl.class).to(EnterpriseUCC.class).in(Singleton.class);
+    }
 
     bind(StageDAOImpl.class).to(StageDAO.class).in(Singleton.class);
     bind(StageUCCImpl.class).to(StageUCC.class).in(Singleton.class);
 
     bind(ResponsableStageDAOImpl.class).to(ResponsableStageDAO.class).in(Singleton.class);
-    bind(ResponsableStageUCCImpl.class).to(ResponsableStageUCC.class).in(Singleton.class);
+    if (cacheEnabled) {
+      bind(ResponsableStageUCCImpl.class).to(ResponsableStageUCCImpl.class).in(Singleton.class);
+      bind(CachedResponsableStageUCC.class).to(ResponsableStageUCC.class).in(Singleton.class);
+    } else {
+      bind(ResponsableStageUCCImpl.class).to(ResponsableStageUCC.class).in(Singleton.class);
+    }
+
+    bind(RevokedTokenDAOImpl.class).to(RevokedTokenDAO.class).in(Singleton.class);
+    bind(TokenRevocationUCCImpl.class).to(TokenRevocationUCC.class).in(Singleton.class);
+
+    bind(CompressionStats.class).to(CompressionStats.class).in(Singleton.class);
+    bind(AdminUCCImpl.class).to(AdminUCC.class).in(Singleton.class);
+
+    bind(ImportDAOImpl.class).to(ImportDAO.class).in(Singleton.class);
+    bind(ImportUCCImpl.class).to(ImportUCC.class).in(Singleton.class);
   }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package be.vinci.pae.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The BloomFilter class tells whether a string may belong to a set, using a fixed array of bits.
+ * It never answers false for a string added to it, but may answer true for a string which was not,
+ * with a probability chosen when it is created. Adding and checking a string is lock-free and
+ * allocation-free, so the filter can be checked on every request before an exact lookup.
+ *
+ * <p>The strings cannot be removed: a filter is rebuilt from scratch to forget them.
+ */
+public class BloomFilter {
+
+  // The bits of the filter
+  private final AtomicLongArray bits;
+
+  // Number of bits of the filter
+  private final int size;
+
+  // Number of bits set for each string
+  private final int hashCount;
+
+  /**
+   * Creates an empty filter sized for a number of strings and a false positive probability.
+   *
+   * @param expectedInsertions         the number of strings the filter is sized for
+   * @param falsePositiveProbability the probability of answering true for a string not added,
+   *                                   once the expected number of strings is added
+   */
+  public BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+    int insertions = Math.max(1, expectedInsertions);
+    double optimalBits = -insertions * Math.log(falsePositiveProbability)
+        / (Math.log(2) * Math.log(2));
+    this.size = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, Math.ceil(optimalBits)));
+    this.hashCount = (int) Math.max(1, Math.round((double) size / insertions * Math.log(2)));
+    this.bits = new AtomicLongArray((size + 63) / 64);
+  }
+
+  /**
+   * Adds a string to the filter.
+   *
+   * @param value the string
+   */
+  public void add(String value) {
+    long hash = mix(value.hashCode());
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      int bit = index(hash1 + i * hash2);
+      long mask = 1L << bit;
+      bits.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+    }
+  }
+
+  /**
+   * Tells whether a string may have been added to the filter.
+   *
+   * @param value the string
+   * @return false if the string was never added, true if it may have been
+   */
+  public boolean mightContain(String value) {
+    long hash = mix(value.hashCode());
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      int bit = index(hash1 + i * hash2);
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of bits of the filter.
+   *
+   * @return the number of bits
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the number of bits set for each string.
+   *
+   * @return the number of hash functions
+   */
+  public int getHashCount() {
+    return hashCount;
+  }
+
+  /**
+   * Maps a combined hash to a bit of the filter.
+   *
+   * @param hash the combined hash
+   * @return the index of the bit
+   */
+  private int index(int hash) {
+    return (hash & Integer.MAX_VALUE) % size;
+  }
+
+  /**
+   * Spreads the bits of a hash code over 64 bits, with the finalizer of MurmurHash3.
+   *
+   * @param hashCode the hash code
+   * @return the mixed hash
+   */
+  private static long mix(int hashCode) {
+    long hash = hashCode * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,81 @@
+package be.vinci.pae.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CompressionStats class counts, for each endpoint, the responses that could be compressed
+ * and the bytes saved by the compression, along with the time spent compressing them. An endpoint
+ * is named after its HTTP method and path template, such as GET /enterprise.
+ */
+public class CompressionStats {
+
+  // The counters, by endpoint
+  private final Map<String, Counters> endpoints = new ConcurrentHashMap<>();
+
+  /**
+   * Records a response whose client accepts a compressed body.
+   *
+   * @param endpoint   the name of the endpoint
+   * @param compressed whether the body was compressed, false if it was below the minimum size
+   * @param bodyBytes  the size of the body before the compression
+   * @param sentBytes  the number of bytes sent
+   * @param nanos      the time spent compressing the body
+   */
+  public void record(String endpoint, boolean compressed, long bodyBytes, long sentBytes,
+      long nanos) {
+    Counters counters = endpoints.computeIfAbsent(endpoint, name -> new Counters());
+    counters.responses.increment();
+    if (compressed) {
+      counters.compressed.increment();
+    }
+    counters.bodyBytes.add(bodyBytes);
+    counters.sentBytes.add(sentBytes);
+    counters.nanos.add(nanos);
+  }
+
+  /**
+   * Returns the counters of every endpoint, suitable for JSON serialization.
+   *
+   * @return the responses, bytes and compression time of each endpoint, by name
+   */
+  public Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new TreeMap<>();
+    endpoints.forEach((name, counters) -> snapshot.put(name, counters.snapshot()));
+    return snapshot;
+  }
+
+  /**
+   * The counters of an endpoint.
+   */
+  private static final class Counters {
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder bodyBytes = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Returns the counters, suitable for JSON serialization.
+     *
+     * @return the counters, by name
+     */
+    private Map<String, Object> snapshot() {
+      long body = bodyBytes.sum();
+      long sent = sentBytes.sum();
+      Map<String, Object> snapshot = new LinkedHashMap<>();
+      snapshot.put("responses", responses.sum());
+      snapshot.put("compressed", compressed.sum());
+      snapshot.put("bodyBytes", body);
+      snapshot.put("sentBytes", sent);
+      snapshot.put("bytesSaved", body - sent);
+      snapshot.put("ratio", sent == 0 ? 1.0 : (double) body / sent);
+      snapshot.put("compressionMillis", nanos.sum() / 1_000_000.0);
+      return snapshot;
+    }
+  }
+}
@@ -38,6 +38,21 @@ public class Config {
     return props.getProperty(key);
   }
 
+  /**
+   * Retrieves a property as a string, or a default value if the property is not defined.
+   *
+   * @param key          the key of the property
+   * @param defaultValue the value returned if the property is not defined
+   * @return the value of the property, or the default value
+   */
+  public static String getProperty(String key, String defaultValue) {
+    if (props == null) {
+      return defaultValue;
+    }
+    String value = props.getProperty(key);
+    return value == null || value.isBlank() ? defaultValue : value.trim();
+  }
+
   /**
    * Retrieves a property as an integer.
    *
@@ -48,6 +63,30 @@ public class Config {
     return Integer.parseInt(props.getProperty(key));
   }
 
+  /**
+   * Retrieves a property as an integer, or a default value if the property is not defined.
+   *
+   * @param key          the key of the property
+   * @param defaultValue the value returned if the property is not defined
+   * @return the value of the property, or the default value
+   */
+  public static int getIntProperty(String key, int defaultValue) {
+    String value = getProperty(key, null);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  /**
+   * Retrieves a property as a long, or a default value if the property is not defined.
+   *
+   * @param key          the key of the property
+   * @param defaultValue the value returned if the property is not defined
+   * @return the value of the property, or the default value
+   */
+  public static long getLongProperty(String key, long defaultValue) {
+    String value = getProperty(key, null);
+    return value == null ? defaultValue : Long.parseLong(value);
+  }
+
   /**
    * Retrieves a property as a boolean.
    *
@@ -58,4 +97,16 @@ public class Config {
     return Boolean.parseBoolean(props.getProperty(key));
   }
 
+  /**
+   * Retrieves a property as a boolean, or a default value if the property is not defined.
+   *
+   * @param key          the key of the property
+   * @param defaultValue the value returned if the property is not defined
+   * @return the value of the property, or the default value
+   */
+  public static boolean getBoolProperty(String key, boolean defaultValue) {
+    String value = getProperty(key, null);
+    return value == null ? defaultValue : Boolean.parseBoolean(value);
+  }
+
 }
\ No newline at end of file
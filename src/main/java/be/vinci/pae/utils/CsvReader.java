@@ -0,0 +1,182 @@
+package be.vinci.pae.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The CsvReader class reads the records of a CSV document one at a time, so that a file of any size
+ * can be processed without being loaded in memory. It follows RFC 4180: the fields are separated
+ * by a delimiter, and a field between double quotes can contain delimiters, line breaks and
+ * doubled double quotes.
+ */
+public class CsvReader implements Closeable {
+
+  // Size of the buffer used to read the characters
+  private static final int BUFFER_SIZE = 8_192;
+
+  // The source of the document
+  private final Reader reader;
+
+  // The character separating the fields
+  private final char delimiter;
+
+  // Buffer of the characters read from the source
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  // Position of the next character in the buffer and number of characters in the buffer
+  private int position;
+  private int limit;
+
+  // Line of the next character, starting at 1
+  private int line = 1;
+
+  // Line on which the last returned record started
+  private int recordLine;
+
+  /**
+   * Creates a reader for a CSV document.
+   *
+   * @param reader    the source of the document
+   * @param delimiter the character separating the fields, usually a comma or a semicolon
+   */
+  public CsvReader(Reader reader, char delimiter) {
+    this.reader = reader;
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Reads the next record of the document. The empty lines are skipped.
+   *
+   * @return the fields of the record, or null at the end of the document
+   * @throws IOException if the source cannot be read or a quoted field is not closed
+   */
+  public List<String> next() throws IOException {
+    int c = read();
+    while (c == '\r' || c == '\n') {
+      skipLineBreak(c);
+      c = read();
+    }
+    if (c == -1) {
+      return null;
+    }
+    recordLine = line;
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    while (true) {
+      if (c == '"' && field.length() == 0) {
+        c = readQuoted(field);
+      } else if (c == delimiter) {
+        fields.add(field.toString());
+        field.setLength(0);
+        c = read();
+      } else if (c == '\r' || c == '\n' || c == -1) {
+        fields.add(field.toString());
+        if (c != -1) {
+          skipLineBreak(c);
+        }
+        return fields;
+      } else {
+        field.append((char) c);
+        c = read();
+      }
+    }
+  }
+
+  /**
+   * Returns the line on which the last record returned by next() started.
+   *
+   * @return the line of the last record, starting at 1
+   */
+  public int getRecordLine() {
+    return recordLine;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Reads a quoted field, whose opening quote has already been read.
+   *
+   * @param field the builder receiving the content of the field
+   * @return the first character following the closing quote
+   * @throws IOException if the source cannot be read or the field is not closed
+   */
+  private int readQuoted(StringBuilder field) throws IOException {
+    int start = line;
+    while (true) {
+      int c = read();
+      if (c == -1) {
+        throw new IOException("Unclosed quoted field starting on line " + start);
+      }
+      if (c == '"') {
+        int following = read();
+        if (following != '"') {
+          return following;
+        }
+      } else if (c == '\n' || c == '\r' && peek() != '\n') {
+        line++;
+      }
+      field.append((char) c);
+    }
+  }
+
+  /**
+   * Consumes a line break, which can be made of a carriage return followed by a line feed.
+   *
+   * @param c the first character of the line break, already consumed
+   * @throws IOException if the source cannot be read
+   */
+  private void skipLineBreak(int c) throws IOException {
+    line++;
+    if (c == '\r' && peek() == '\n') {
+      position++;
+    }
+  }
+
+  /**
+   * Returns the next character without consuming it.
+   *
+   * @return the next character, or -1 at the end of the source
+   * @throws IOException if the source cannot be read
+   */
+  private int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position];
+  }
+
+  /**
+   * Consumes the next character.
+   *
+   * @return the next character, or -1 at the end of the source
+   * @throws IOException if the source cannot be read
+   */
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return -1;
+    }
+    return buffer[position++];
+  }
+
+  /**
+   * Fills the buffer with the next characters of the source.
+   *
+   * @return false if the end of the source has been reached
+   * @throws IOException if the source cannot be read
+   */
+  private boolean fill() throws IOException {
+    limit = reader.read(buffer, 0, buffer.length);
+    position = 0;
+    if (limit <= 0) {
+      limit = 0;
+      return false;
+    }
+    return true;
+  }
+}
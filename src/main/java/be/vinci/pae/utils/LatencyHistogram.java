@@ -0,0 +1,143 @@
+package be.vinci.pae.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class records durations in fixed, exponentially growing buckets. Recording
+ * a value is lock-free and allocation-free, so the histogram can be updated on every request.
+ * Percentiles are approximated by the upper bound of the bucket containing them.
+ */
+public class LatencyHistogram {
+
+  // Upper bounds of the buckets, in microseconds. The last bucket holds every larger value.
+  private static final long[] BOUNDS_MICROS = {50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000,
+      25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000,
+      30_000_000, 60_000_000};
+
+  // Number of values recorded in each bucket
+  private final LongAdder[] buckets = new LongAdder[BOUNDS_MICROS.length + 1];
+
+  // Number of recorded values
+  private final LongAdder count = new LongAdder();
+
+  // Sum of the recorded values, in nanoseconds
+  private final LongAdder totalNanos = new LongAdder();
+
+  // Largest recorded value, in nanoseconds
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Creates a new empty histogram.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    long micros = value / 1_000;
+    int bucket = 0;
+    while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+      bucket++;
+    }
+    buckets[bucket].increment();
+    count.increment();
+    totalNanos.add(value);
+    maxNanos.accumulate(value);
+  }
+
+  /**
+   * Returns the number of recorded durations.
+   *
+   * @return the number of recorded durations
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the sum of the recorded durations.
+   *
+   * @return the sum of the recorded durations, in milliseconds
+   */
+  public double getTotalMillis() {
+    return totalNanos.sum() / 1_000_000.0;
+  }
+
+  /**
+   * Returns the mean of the recorded durations.
+   *
+   * @return the mean duration in milliseconds, or 0 if nothing has been recorded
+   */
+  public double getMeanMillis() {
+    long n = count.sum();
+    return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+  }
+
+  /**
+   * Returns the largest recorded duration.
+   *
+   * @return the largest duration in milliseconds
+   */
+  public double getMaxMillis() {
+    return maxNanos.get() / 1_000_000.0;
+  }
+
+  /**
+   * Returns an approximation of a percentile of the recorded durations.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the upper bound of the bucket containing the percentile, in milliseconds
+   */
+  public double getPercentileMillis(double percentile) {
+    long n = count.sum();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile / 100 * n);
+    long seen = 0;
+    for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+      seen += buckets[i].sum();
+      if (seen >= rank) {
+        return Math.min(BOUNDS_MICROS[i] / 1_000.0, getMaxMillis());
+      }
+    }
+    return getMaxMillis();
+  }
+
+  /**
+   * Returns a snapshot of the histogram, suitable for JSON serialization.
+   *
+   * @return the count, mean, main percentiles and maximum of the recorded durations
+   */
+  public Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("count", getCount());
+    snapshot.put("meanMs", round(getMeanMillis()));
+    snapshot.put("p50Ms", round(getPercentileMillis(50)));
+    snapshot.put("p90Ms", round(getPercentileMillis(90)));
+    snapshot.put("p99Ms", round(getPercentileMillis(99)));
+    snapshot.put("maxMs", round(getMaxMillis()));
+    return snapshot;
+  }
+
+  /**
+   * Rounds a value to three decimals.
+   *
+   * @param value the value to round
+   * @return the rounded value
+   */
+  private static double round(double value) {
+    return Math.round(value * 1_000) / 1_000.0;
+  }
+}
@@ -0,0 +1,61 @@
+-- Schéma initial de l'application, tel que créé par init.sql
+CREATE SCHEMA IF NOT EXISTS pae;
+
+CREATE TABLE pae.users (
+                           idUser SERIAL PRIMARY KEY,
+                           lastName TEXT,
+                           firstName TEXT,
+                           email TEXT,
+                           password TEXT,
+                           phoneNumber TEXT,
+                           registrationDate TEXT,
+                           role TEXT,
+                           schoolYear TEXT,
+                           versionNumber INTEGER
+);
+
+CREATE TABLE pae.enterprises (
+                                 idEnterprise SERIAL PRIMARY KEY,
+                                 tradeName TEXT,
+                                 designation TEXT,
+                                 phoneNumber TEXT,
+                                 email TEXT,
+                                 isBlacklisted BOOLEAN,
+                                 blacklistedReason TEXT,
+                                 street TEXT,
+                                 streetNumber TEXT,
+                                 postalCode TEXT,
+                                 city TEXT,
+                                 country TEXT,
+                                 versionNumber INTEGER
+);
+
+CREATE TABLE pae.contacts (
+                              idContact SERIAL PRIMARY KEY,
+                              userId INTEGER REFERENCES pae.users(idUser),
+                              enterprise INTEGER REFERENCES pae.enterprises(idEnterprise),
+                              contactStatus TEXT,
+                              meetingPlace TEXT,
+                              reasonForRefusal TEXT,
+                              schoolYear TEXT,
+                              versionNumber INTEGER
+);
+
+CREATE TABLE pae.responsables_stages(
+                                        responsableId SERIAL PRIMARY KEY,
+                                        lastName TEXT,
+                                        firstName TEXT,
+                                        email TEXT,
+                                        phoneNumber TEXT,
+                                        enterprise INTEGER REFERENCES pae.enterprises(idEnterprise)
+);
+
+CREATE TABLE pae.stages(
+                           idStage SERIAL PRIMARY KEY,
+                           userId INTEGER REFERENCES pae.users(idUser),
+                           internshipProject TEXT,
+                           internshipSupervisor INTEGER REFERENCES pae.responsables_stages(responsableId),
+                           contact INTEGER REFERENCES pae.contacts(idContact),
+                           signatureDate TEXT,
+                           versionNumber INTEGER
+);
@@ -0,0 +1,45 @@
+-- Index des recherches par email, insensibles à la casse (getOneByEmail)
+CREATE INDEX IF NOT EXISTS users_email_lower_idx ON pae.users (LOWER(email));
+CREATE INDEX IF NOT EXISTS enterprises_email_lower_idx ON pae.enterprises (LOWER(email));
+
+-- Index de la recherche d'une entreprise par nom et appellation (getOneByTradeNameAndDesignation)
+CREATE INDEX IF NOT EXISTS enterprises_name_lower_idx
+    ON pae.enterprises (LOWER(tradeName), LOWER(designation));
+
+-- Index des contacts : par étudiant, par entreprise, et contact existant pour une année
+CREATE INDEX IF NOT EXISTS contacts_user_idx ON pae.contacts (userId, idContact);
+CREATE INDEX IF NOT EXISTS contacts_enterprise_idx ON pae.contacts (enterprise, idContact);
+CREATE INDEX IF NOT EXISTS contacts_enterprise_user_year_idx
+    ON pae.contacts (enterprise, userId, schoolYear);
+
+-- Index partiels des contacts acceptés (contact accepté d'un étudiant, statistiques)
+CREATE INDEX IF NOT EXISTS contacts_accepted_user_idx
+    ON pae.contacts (userId) WHERE contactStatus = 'ACCEPTED';
+CREATE INDEX IF NOT EXISTS contacts_accepted_enterprise_idx
+    ON pae.contacts (enterprise, schoolYear) WHERE contactStatus = 'ACCEPTED';
+
+-- Index des clés étrangères
+CREATE INDEX IF NOT EXISTS stages_user_idx ON pae.stages (userId);
+CREATE INDEX IF NOT EXISTS stages_supervisor_idx ON pae.stages (internshipSupervisor);
+CREATE INDEX IF NOT EXISTS stages_contact_idx ON pae.stages (contact);
+CREATE INDEX IF NOT EXISTS responsables_enterprise_idx ON pae.responsables_stages (enterprise);
+
+-- Index des listes paginées : colonne de tri puis identifiant (pagination par clé)
+CREATE INDEX IF NOT EXISTS users_lastname_idx ON pae.users ((COALESCE(lastName, '')), idUser);
+CREATE INDEX IF NOT EXISTS users_firstname_idx ON pae.users ((COALESCE(firstName, '')), idUser);
+CREATE INDEX IF NOT EXISTS users_role_idx ON pae.users ((COALESCE(role, '')), idUser);
+CREATE INDEX IF NOT EXISTS users_schoolyear_idx ON pae.users ((COALESCE(schoolYear, '')), idUser);
+CREATE INDEX IF NOT EXISTS enterprises_tradename_idx
+    ON pae.enterprises ((COALESCE(tradeName, '')), idEnterprise);
+CREATE INDEX IF NOT EXISTS enterprises_city_idx
+    ON pae.enterprises ((COALESCE(city, '')), idEnterprise);
+CREATE INDEX IF NOT EXISTS responsables_lastname_idx
+    ON pae.responsables_stages ((COALESCE(lastName, '')), responsableId);
+CREATE INDEX IF NOT EXISTS responsables_firstname_idx
+    ON pae.responsables_stages ((COALESCE(firstName, '')), responsableId);
+
+ANALYZE pae.users;
+ANALYZE pae.enterprises;
+ANALYZE pae.contacts;
+ANALYZE pae.stages;
+ANALYZE pae.responsables_stages;
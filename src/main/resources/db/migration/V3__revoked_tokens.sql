@@ -0,0 +1,8 @@
+-- Jetons révoqués (déconnexion), identifiés par leur claim jti et conservés jusqu'à leur expiration
+CREATE TABLE IF NOT EXISTS pae.revoked_tokens (
+    jti       TEXT PRIMARY KEY,
+    expiresAt TIMESTAMPTZ NOT NULL
+);
+
+-- Index de la compaction des jetons expirés
+CREATE INDEX IF NOT EXISTS revoked_tokens_expires_idx ON pae.revoked_tokens (expiresAt);
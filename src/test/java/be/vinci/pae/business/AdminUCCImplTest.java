@@ -0,0 +1,89 @@
+package be.vinci.pae.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import be.vinci.pae.business.admin.AdminUCC;
+import be.vinci.pae.dal.DALMonitoring;
+import be.vinci.pae.main.ServerMonitoring;
+import be.vinci.pae.utils.ApplicationBinderTest;
+import be.vinci.pae.utils.CompressionStats;
+import java.util.Map;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the AdminUCCImpl class.
+ */
+class AdminUCCImplTest {
+
+  private final ServiceLocator locator = ServiceLocatorUtilities.bind(new ApplicationBinderTest());
+  private final AdminUCC adminUCC = locator.getService(AdminUCC.class);
+  private final DALMonitoring dalMonitoring = locator.getService(DALMonitoring.class);
+  private final ServerMonitoring serverMonitoring = locator.getService(ServerMonitoring.class);
+  private final CompressionStats compressionStats = locator.getService(CompressionStats.class);
+
+  /**
+   * Set up the test environment.
+   */
+  @BeforeEach
+  void setup() {
+    Mockito.when(dalMonitoring.getConnectionPoolStats())
+        .thenReturn(Map.of("primary", Map.of("active", 2)));
+    Mockito.when(dalMonitoring.getSessionStats()).thenReturn(Map.of("lazyConnection", true));
+    Mockito.when(dalMonitoring.getStatementCacheStats()).thenReturn(Map.of("enabled", false));
+  }
+
+  /**
+   * Test for getDatabaseStats() method.
+   */
+  @DisplayName("test getDatabaseStats method")
+  @Test
+  void getDatabaseStats() {
+    Map<String, Object> stats = adminUCC.getDatabaseStats();
+    assertEquals(Map.of("primary", Map.of("active", 2)), stats.get("connectionPool"));
+    assertEquals(Map.of("lazyConnection", true), stats.get("sessions"));
+    assertEquals(Map.of("enabled", false), stats.get("statementCache"));
+  }
+
+  /**
+   * Test for getStatementStats() method.
+   */
+  @DisplayName("test getStatementStats method")
+  @Test
+  void getStatementStats() {
+    Mockito.when(dalMonitoring.getStatementStats(10))
+        .thenReturn(Map.of("enabled", true, "slowQueries", 3L));
+    Map<String, Object> stats = adminUCC.getStatementStats(10);
+    assertEquals(3L, stats.get("slowQueries"));
+    Mockito.verify(dalMonitoring).getStatementStats(10);
+  }
+
+  /**
+   * Test for getServerStats() method.
+   */
+  @DisplayName("test getServerStats method")
+  @Test
+  void getServerStats() {
+    Mockito.when(serverMonitoring.getWorkerPoolStats())
+        .thenReturn(Map.of("queued", 3, "rejected", 1L));
+    Map<String, Object> stats = adminUCC.getServerStats();
+    assertEquals(3, stats.get("queued"));
+    assertEquals(1L, stats.get("rejected"));
+  }
+
+  /**
+   * Test for getCompressionStats() method.
+   */
+  @DisplayName("test getCompressionStats method")
+  @Test
+  void getCompressionStats() {
+    compressionStats.record("GET /admin-test", true, 10_000, 1_000, 50_000);
+    Map<?, ?> counters = (Map<?, ?>) adminUCC.getCompressionStats().get("GET /admin-test");
+    assertEquals(9_000L, counters.get("bytesSaved"));
+    assertEquals(10.0, counters.get("ratio"));
+  }
+}
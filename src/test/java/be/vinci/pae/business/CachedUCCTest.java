@@ -0,0 +1,328 @@
+package be.vinci.pae.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import be.vinci.pae.business.cache.CacheRegistry;
+import be.vinci.pae.business.cache.VersionedCache;
+import be.vinci.pae.business.entreprise.CachedEnterpriseUCC;
+import be.vinci.pae.business.entreprise.EnterpriseDTO;
+import be.vinci.pae.business.entreprise.EnterpriseUCC;
+import be.vinci.pae.business.entreprise.EnterpriseUCCImpl;
+import be.vinci.pae.business.responsable.CachedResponsableStageUCC;
+import be.vinci.pae.business.responsable.ResponsableStageDTO;
+import be.vinci.pae.business.responsable.ResponsableStageUCC;
+import be.vinci.pae.business.responsable.ResponsableStageUCCImpl;
+import be.vinci.pae.business.user.CachedUserUCC;
+import be.vinci.pae.business.user.UserDTO;
+import be.vinci.pae.business.user.UserUCC;
+import be.vinci.pae.business.user.UserUCCImpl;
+import be.vinci.pae.dal.enterprise.EnterpriseDAO;
+import be.vinci.pae.dal.responsable.ResponsableStageDAO;
+import be.vinci.pae.dal.user.UserDAO;
+import be.vinci.pae.exception.ConflictException;
+import be.vinci.pae.exception.WrongBodyDataException;
+import be.vinci.pae.utils.ApplicationBinderTest;
+import jakarta.inject.Singleton;
+import java.util.List;
+import java.util.Map;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the caching decorators of the UCCs and for the VersionedCache class.
+ */
+class CachedUCCTest {
+
+  private final ServiceLocator locator = ServiceLocatorUtilities.bind(new ApplicationBinderTest(),
+      new AbstractBinder() {
+        @Override
+        protected void configure() {
+          bind(EnterpriseUCCImpl.class).to(EnterpriseUCCImpl.class).in(Singleton.class);
+          bind(CachedEnterpriseUCC.class).to(CachedEnterpriseUCC.class).in(Singleton.class);
+          bind(ResponsableStageUCCImpl.class).to(ResponsableStageUCCImpl.class)
+              .in(Singleton.class);
+          bind(CachedResponsableStageUCC.class).to(CachedResponsableStageUCC.class)
+              .in(Singleton.class);
+          bind(UserUCCImpl.class).to(UserUCCImpl.class).in(Singleton.class);
+          bind(CachedUserUCC.class).to(CachedUserUCC.class).in(Singleton.class);
+        }
+      });
+  private final EnterpriseUCC enterpriseUCC = locator.getService(CachedEnterpriseUCC.class);
+  private final ResponsableStageUCC responsableStageUCC = locator.getService(
+      CachedResponsableStageUCC.class);
+  private final UserUCC userUCC = locator.getService(CachedUserUCC.class);
+  private final CacheRegistry cacheRegistry = locator.getService(CacheRegistry.class);
+  private final DomainFactory domainFactory = locator.getService(DomainFactory.class);
+  private final EnterpriseDAO enterpriseDAO = locator.getService(EnterpriseDAO.class);
+  private final ResponsableStageDAO responsableStageDAO = locator.getService(
+      ResponsableStageDAO.class);
+  private final UserDAO userDAO = locator.getService(UserDAO.class);
+
+  private EnterpriseDTO enterprise;
+
+  /**
+   * Set up the test environment. The locator, and thus the caches and the mocks, are shared with
+   * the other tests, so they are emptied first.
+   */
+  @BeforeEach
+  void setup() {
+    cacheRegistry.invalidateAll();
+    Mockito.clearInvocations(enterpriseDAO, responsableStageDAO, userDAO);
+    enterprise = enterprise(1, 1, false);
+    Mockito.when(enterpriseDAO.getOneById(1)).thenReturn(enterprise);
+    Mockito.when(enterpriseDAO.getAll()).thenReturn(List.of(enterprise));
+  }
+
+  /**
+   * Creates an enterprise.
+   *
+   * @param id            the id of the enterprise
+   * @param versionNumber the version number of the enterprise
+   * @param blacklisted   whether the enterprise is blacklisted
+   * @return the enterprise
+   */
+  private EnterpriseDTO enterprise(int id, int versionNumber, boolean blacklisted) {
+    EnterpriseDTO dto = domainFactory.getEnterprise();
+    dto.setIdEnterprise(id);
+    dto.setVersionNumber(versionNumber);
+    dto.setBlacklisted(blacklisted);
+    return dto;
+  }
+
+  /**
+   * Test that an enterprise is only read once from the database.
+   */
+  @DisplayName("test getEnterpriseInfo is cached")
+  @Test
+  void getEnterpriseInfoCached() {
+    final Map<?, ?> before = (Map<?, ?>) cacheRegistry.snapshot()
+        .get(CachedEnterpriseUCC.ENTERPRISES_CACHE);
+    assertSame(enterprise, enterpriseUCC.getEnterpriseInfo(1));
+    assertSame(enterprise, enterpriseUCC.getEnterpriseInfo(1));
+    Mockito.verify(enterpriseDAO, Mockito.times(1)).getOneById(1);
+    Map<?, ?> after = (Map<?, ?>) cacheRegistry.snapshot()
+        .get(CachedEnterpriseUCC.ENTERPRISES_CACHE);
+    assertEquals(1L, (Long) after.get("hits") - (Long) before.get("hits"));
+    assertEquals(1L, (Long) after.get("loads") - (Long) before.get("loads"));
+  }
+
+  /**
+   * Test that the list of the enterprises is read again once an enterprise is added.
+   */
+  @DisplayName("test getAll is invalidated by addEnterprise")
+  @Test
+  void getAllInvalidatedByAddEnterprise() {
+    enterpriseUCC.getAll();
+    enterpriseUCC.getAll();
+    Mockito.verify(enterpriseDAO, Mockito.times(1)).getAll();
+    enterpriseUCC.addEnterprise(enterprise(2, 0, false));
+    enterpriseUCC.getAll();
+    Mockito.verify(enterpriseDAO, Mockito.times(2)).getAll();
+  }
+
+  /**
+   * Test that a blacklisted enterprise is served with its new version, without reading it again,
+   * and that the lists embedding it are invalidated.
+   */
+  @DisplayName("test blacklist updates the caches")
+  @Test
+  void blacklistUpdatesCaches() {
+    Mockito.when(responsableStageDAO.getAll()).thenReturn(List.of());
+    enterpriseUCC.getEnterpriseInfo(1);
+    enterpriseUCC.getAll();
+    responsableStageUCC.getAllResponsableStage();
+
+    Mockito.when(enterpriseDAO.getOneById(1)).thenReturn(enterprise(1, 1, false));
+    EnterpriseDTO blacklisted = enterpriseUCC.blacklist(1, "reason", 1);
+    assertEquals(2, blacklisted.getVersionNumber());
+    assertSame(blacklisted, enterpriseUCC.getEnterpriseInfo(1));
+
+    enterpriseUCC.getAll();
+    responsableStageUCC.getAllResponsableStage();
+    Mockito.verify(enterpriseDAO, Mockito.times(2)).getAll();
+    Mockito.verify(responsableStageDAO, Mockito.times(2)).getAll();
+  }
+
+  /**
+   * Test that a failed blacklist drops the cached enterprise.
+   */
+  @DisplayName("test a failed blacklist invalidates the enterprise")
+  @Test
+  void blacklistFailureInvalidates() {
+    enterpriseUCC.getEnterpriseInfo(1);
+    Mockito.when(enterpriseDAO.getOneById(1)).thenReturn(enterprise(1, 3, true));
+    assertThrows(ConflictException.class, () -> enterpriseUCC.blacklist(1, "reason", 2));
+    assertEquals(3, enterpriseUCC.getEnterpriseInfo(1).getVersionNumber());
+  }
+
+  /**
+   * Test that the list of the internship supervisors is read again once one is created.
+   */
+  @DisplayName("test getAllResponsableStage is invalidated by createResponsableStage")
+  @Test
+  void responsableListInvalidatedByCreate() {
+    ResponsableStageDTO responsable = domainFactory.getResponsableStage();
+    responsable.setEnterprise(1);
+    Mockito.when(responsableStageDAO.getAll()).thenReturn(List.of());
+    Mockito.when(responsableStageDAO.createResponsableStage(responsable)).thenReturn(responsable);
+    responsableStageUCC.getAllResponsableStage();
+    responsableStageUCC.getAllResponsableStage();
+    Mockito.verify(responsableStageDAO, Mockito.times(1)).getAll();
+    responsableStageUCC.createResponsableStage(responsable);
+    responsableStageUCC.getAllResponsableStage();
+    Mockito.verify(responsableStageDAO, Mockito.times(2)).getAll();
+  }
+
+  /**
+   * Creates a user whose password is "password".
+   *
+   * @param versionNumber the version number of the user
+   * @return the user
+   */
+  private UserDTO user(int versionNumber) {
+    UserDTO user = domainFactory.getUser();
+    user.setIdUser(7);
+    user.setEmail("cached.user@vinci.be");
+    user.setPassword("$2a$10$CIdqI8rNAs15op/5PUID0e8H2A6mQ7so3RzEtKx3tdk1jsJ2I9JaW");
+    user.setRole("TEACHER");
+    user.setVersionNumber(versionNumber);
+    return user;
+  }
+
+  /**
+   * Test that a user is only read once from the database, and that each read gets its own copy.
+   */
+  @DisplayName("test refreshUser is cached and returns copies")
+  @Test
+  void refreshUserCachedCopies() {
+    Mockito.when(userDAO.getOneById(7)).thenReturn(user(1));
+    UserDTO first = userUCC.refreshUser(7);
+    first.setPhoneNumber("0400 00 00 00");
+    UserDTO second = userUCC.refreshUser(7);
+    assertNotSame(first, second);
+    assertEquals(null, second.getPhoneNumber());
+    assertEquals(UserDTO.Role.TEACHER, second.getRole());
+    Mockito.verify(userDAO, Mockito.times(1)).getOneById(7);
+  }
+
+  /**
+   * Test that the version number of a user is read from the cache when the user is cached.
+   */
+  @DisplayName("test getUserVersion reads the cached user or only its version number")
+  @Test
+  void getUserVersion() {
+    Mockito.when(userDAO.getVersion(7)).thenReturn(3);
+    assertEquals(3, userUCC.getUserVersion(7));
+    Mockito.verify(userDAO, Mockito.never()).getOneById(7);
+
+    Mockito.when(userDAO.getOneById(7)).thenReturn(user(4));
+    userUCC.refreshUser(7);
+    assertEquals(4, userUCC.getUserVersion(7));
+    Mockito.verify(userDAO, Mockito.times(1)).getVersion(7);
+  }
+
+  /**
+   * Test that an edited user is served with its new version, and that a failed edition drops it.
+   */
+  @DisplayName("test editData updates or invalidates the cached user")
+  @Test
+  void editDataUpdatesCache() {
+    Mockito.when(userDAO.getOneById(7)).thenReturn(user(1));
+    UserDTO user = userUCC.refreshUser(7);
+    user.setPhoneNumber("0400 00 00 00");
+    userUCC.editData(user, "password", null, 1);
+    UserDTO edited = userUCC.refreshUser(7);
+    assertEquals(2, edited.getVersionNumber());
+    assertEquals("0400 00 00 00", edited.getPhoneNumber());
+    Mockito.verify(userDAO, Mockito.times(1)).getOneById(7);
+
+    assertThrows(WrongBodyDataException.class,
+        () -> userUCC.editData(edited, "wrong", null, 2));
+    userUCC.refreshUser(7);
+    Mockito.verify(userDAO, Mockito.times(2)).getOneById(7);
+  }
+
+  /**
+   * Test that an older version never replaces a newer one.
+   */
+  @DisplayName("test VersionedCache keeps the newest version")
+  @Test
+  void versionedCacheKeepsNewest() {
+    VersionedCache<Integer, EnterpriseDTO> cache = cacheRegistry.create("test", 10, 60,
+        EnterpriseDTO::getVersionNumber);
+    EnterpriseDTO newer = enterprise(1, 2, true);
+    cache.put(1, newer);
+    cache.put(1, enterprise(1, 1, false));
+    assertSame(newer, cache.get(1, () -> enterprise(1, 0, false)));
+  }
+
+  /**
+   * Test that a value loaded while an invalidation happens is not kept.
+   */
+  @DisplayName("test VersionedCache discards the loads racing an invalidation")
+  @Test
+  void versionedCacheDiscardsRacingLoad() {
+    VersionedCache<String, String> cache = cacheRegistry.create("test", 10, 60, null);
+    assertEquals("stale", cache.get("key", () -> {
+      cache.invalidateAll();
+      return "stale";
+    }));
+    assertEquals("fresh", cache.get("key", () -> "fresh"));
+    Map<?, ?> stats = (Map<?, ?>) cacheRegistry.snapshot().get("test");
+    assertEquals(1L, stats.get("discardedLoads"));
+    assertTrue((Long) stats.get("size") <= 1);
+  }
+
+  /**
+   * Test that the version of an enterprise is read from the database until the enterprise is
+   * cached, then from the cache, so that it describes the enterprise the next read returns.
+   */
+  @DisplayName("test getEnterpriseVersion is taken from the cached enterprise")
+  @Test
+  void enterpriseVersionFromCache() {
+    Mockito.when(enterpriseDAO.getVersion(1)).thenReturn(1);
+    assertEquals(1, enterpriseUCC.getEnterpriseVersion(1));
+    Mockito.verify(enterpriseDAO, Mockito.times(1)).getVersion(1);
+
+    enterpriseUCC.getEnterpriseInfo(1);
+    Mockito.when(enterpriseDAO.getOneById(1)).thenReturn(enterprise(1, 1, false));
+    enterpriseUCC.blacklist(1, "reason", 1);
+    assertEquals(2, enterpriseUCC.getEnterpriseVersion(1));
+    Mockito.verify(enterpriseDAO, Mockito.times(1)).getVersion(1);
+  }
+
+  /**
+   * Test that the version of a cached list is computed from the list, and matches the one an
+   * aggregate query would read.
+   */
+  @DisplayName("test the list versions are computed from the cached lists")
+  @Test
+  void listVersionsFromCache() {
+    final CollectionVersion empty = new CollectionVersion(0, 0, 0);
+    Mockito.when(enterpriseDAO.getListVersion()).thenReturn(empty);
+    Mockito.when(responsableStageDAO.getListVersion()).thenReturn(empty);
+    assertEquals(empty, enterpriseUCC.getListVersion());
+    assertEquals(empty, responsableStageUCC.getListVersion());
+
+    ResponsableStageDTO responsable = domainFactory.getResponsableStage();
+    responsable.setResponsableId(4);
+    responsable.setEnterpriseDTO(enterprise(1, 5, false));
+    Mockito.when(enterpriseDAO.getAll()).thenReturn(List.of(enterprise, enterprise(3, 2, false)));
+    Mockito.when(responsableStageDAO.getAll()).thenReturn(List.of(responsable));
+    enterpriseUCC.getAll();
+    responsableStageUCC.getAllResponsableStage();
+    assertEquals(new CollectionVersion(2, 3, 3), enterpriseUCC.getListVersion());
+    assertEquals("1-4-5", responsableStageUCC.getListVersion().tag());
+    Mockito.verify(enterpriseDAO, Mockito.times(1)).getListVersion();
+    Mockito.verify(responsableStageDAO, Mockito.times(1)).getListVersion();
+  }
+}
@@ -1,24 +1,33 @@
 package be.vinci.pae.business;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.business.entreprise.EnterpriseUCC;
+import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.enterprise.EnterpriseDAO;
 import be.vinci.pae.exception.ConflictException;
+import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.ObjectNotFoundException;
+import be.vinci.pae.exception.WrongBodyDataException;
 import be.vinci.pae.utils.ApplicationBinderTest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 /**
@@ -33,6 +42,8 @@ class EnterpriseUCCImplTest {
 
   private final EnterpriseDAO enterpriseDAO = locator.getService(EnterpriseDAO.class);
 
+  private final DALServices dalServices = locator.getService(DALServices.class);
+
   /**
    * Set up the test environment.
    */
@@ -62,6 +73,55 @@ class EnterpriseUCCImplTest {
     assertEquals(list, enterpriseUCC.getAll());
   }
 
+  /**
+   * Test for getPage() method.
+   */
+  @DisplayName("test getPage method")
+  @Test
+  void getPage() {
+    PageRequest request = PageRequest.of(2, null, "tradeName");
+    Page<EnterpriseDTO> page = new Page<>(list, request.cursor("AXIS SRL", 2));
+    Mockito.when(enterpriseDAO.getPage(request)).thenReturn(page);
+    assertEquals(page, enterpriseUCC.getPage(request));
+  }
+
+  /**
+   * Test that the cursor of a page gives back the position of the last item of the page.
+   */
+  @DisplayName("test the cursor of a page request")
+  @Test
+  void pageRequestCursor() {
+    assertNull(PageRequest.of(null, null, null));
+    PageRequest first = PageRequest.of(null, null, "-tradeName");
+    assertTrue(first.isFirstPage());
+    assertEquals(PageRequest.DEFAULT_LIMIT, first.getLimit());
+    PageRequest next = PageRequest.of(10, first.cursor("La route\ndu papier", 4), "-tradeName");
+    assertAll(
+        () -> assertEquals("tradeName", next.getSort()),
+        () -> assertTrue(next.isDescending()),
+        () -> assertEquals("La route\ndu papier", next.getAfterValue()),
+        () -> assertEquals(4, next.getAfterId())
+    );
+  }
+
+  /**
+   * Test that invalid page requests are rejected.
+   */
+  @DisplayName("test invalid page requests")
+  @Test
+  void pageRequestInvalid() {
+    String cursor = PageRequest.of(10, null, "tradeName").cursor("Niboo", 6);
+    assertAll(
+        () -> assertThrows(WrongBodyDataException.class, () -> PageRequest.of(0, null, null)),
+        () -> assertThrows(WrongBodyDataException.class,
+            () -> PageRequest.of(PageRequest.MAX_LIMIT + 1, null, null)),
+        () -> assertThrows(WrongBodyDataException.class,
+            () -> PageRequest.of(10, cursor, "city")),
+        () -> assertThrows(WrongBodyDataException.class,
+            () -> PageRequest.of(10, "not a cursor", null))
+    );
+  }
+
   /**
    * Test for getEnterpriseInfo() method.
    */
@@ -215,4 +275,88 @@ class EnterpriseUCCImplTest {
 
     assertEquals(stats, enterpriseUCC.getStats());
   }
+
+  /**
+   * Test for getEnterpriseVersion() method.
+   */
+  @DisplayName("test getEnterpriseVersion method")
+  @Test
+  void getEnterpriseVersion() {
+    Mockito.when(enterpriseDAO.getVersion(1)).thenReturn(4);
+    Mockito.when(enterpriseDAO.getVersion(9)).thenReturn(null);
+    assertAll(
+        () -> assertEquals(4, enterpriseUCC.getEnterpriseVersion(1)),
+        () -> assertNull(enterpriseUCC.getEnterpriseVersion(9))
+    );
+  }
+
+  /**
+   * Test for getListVersion() method.
+   */
+  @DisplayName("test getListVersion method")
+  @Test
+  void getListVersion() {
+    CollectionVersion version = new CollectionVersion(2, 2, 7);
+    Mockito.when(enterpriseDAO.getListVersion()).thenReturn(version);
+    assertEquals(version, enterpriseUCC.getListVersion());
+  }
+
+  /**
+   * Test for streamAll() method.
+   */
+  @DisplayName("test streamAll method streams the enterprises in a read-only transaction")
+  @Test
+  void streamAll() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doAnswer(invocation -> {
+      Consumer<EnterpriseDTO> consumer = invocation.getArgument(0);
+      list.forEach(consumer);
+      return null;
+    }).when(enterpriseDAO).forEach(Mockito.any());
+    List<EnterpriseDTO> streamed = new ArrayList<>();
+    enterpriseUCC.streamAll(streamed::add);
+    assertEquals(list, streamed);
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).commit();
+    Mockito.verify(dalServices, Mockito.never()).rollback();
+  }
+
+  /**
+   * Test for streamAll() method when the DAO fails.
+   */
+  @DisplayName("test streamAll method rolls back when the DAO fails")
+  @Test
+  void streamAllDaoFails() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doThrow(new FatalException("connection lost")).when(enterpriseDAO)
+        .forEach(Mockito.any());
+    assertThrows(FatalException.class, () -> enterpriseUCC.streamAll(item -> {
+    }));
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).rollback();
+    Mockito.verify(dalServices, Mockito.never()).commit();
+  }
+
+  /**
+   * Test for streamAll() method when the consumer fails.
+   */
+  @DisplayName("test streamAll method rolls back when the consumer fails")
+  @Test
+  void streamAllConsumerFails() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doAnswer(invocation -> {
+      Consumer<EnterpriseDTO> consumer = invocation.getArgument(0);
+      list.forEach(consumer);
+      return null;
+    }).when(enterpriseDAO).forEach(Mockito.any());
+    assertThrows(UncheckedIOException.class, () -> enterpriseUCC.streamAll(item -> {
+      throw new UncheckedIOException(new IOException("Broken pipe"));
+    }));
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).rollback();
+    Mockito.verify(dalServices, Mockito.never()).commit();
+  }
 }
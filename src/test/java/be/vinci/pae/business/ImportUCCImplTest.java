@@ -0,0 +1,175 @@
+package be.vinci.pae.business;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import be.vinci.pae.business.imports.ImportReport;
+import be.vinci.pae.business.imports.ImportUCC;
+import be.vinci.pae.dal.DALServices;
+import be.vinci.pae.dal.imports.ImportDAO;
+import be.vinci.pae.dal.imports.ImportSink;
+import be.vinci.pae.exception.FatalException;
+import be.vinci.pae.exception.WrongBodyDataException;
+import be.vinci.pae.utils.ApplicationBinderTest;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.TreeMap;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the ImportUCCImpl class.
+ */
+class ImportUCCImplTest {
+
+  private final ServiceLocator locator = ServiceLocatorUtilities.bind(new ApplicationBinderTest());
+  private final ImportUCC importUCC = locator.getService(ImportUCC.class);
+  private final ImportDAO importDAO = locator.getService(ImportDAO.class);
+  private final DALServices dalServices = locator.getService(DALServices.class);
+  private final ImportSink sink = Mockito.mock(ImportSink.class);
+
+  /**
+   * Set up the test environment.
+   */
+  @BeforeEach
+  void setup() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.when(importDAO.startEnterpriseImport()).thenReturn(sink);
+    Mockito.when(importDAO.startResponsableStageImport()).thenReturn(sink);
+  }
+
+  /**
+   * Creates an input stream from the content of a CSV file.
+   *
+   * @param content the content of the file
+   * @return the input stream
+   */
+  private static InputStream csv(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Test for importEnterprises() method with valid, invalid and conflicting rows.
+   */
+  @DisplayName("test importEnterprises method")
+  @Test
+  void importEnterprises() {
+    Mockito.when(sink.finish()).thenReturn(2L);
+    TreeMap<Integer, String> rejected = new TreeMap<>();
+    rejected.put(4, "Email already exists");
+    Mockito.when(importDAO.mergeEnterprises()).thenReturn(rejected);
+
+    ImportReport report = importUCC.importEnterprises(csv(
+        "country;city;postalCode;street;streetNumber;tradeName;designation;email;phoneNumber\n"
+            + "Belgique;Bruxelles;1000;Rue Haute;1;Vinci;;;\n"
+            + "Belgique;Bruxelles;1000;Rue Haute;2;;;;\n"
+            + "Belgique;Bruxelles;1000;Rue Haute;3;\"Acme; SA\";Nord;info@acme.be;02 123\n"),
+        ';');
+
+    assertAll(
+        () -> assertEquals(3, report.getTotalRows()),
+        () -> assertEquals(1, report.getImportedRows()),
+        () -> assertEquals(2, report.getRejectedRows()),
+        () -> assertEquals(3, report.getErrors().get(0).getLine()),
+        () -> assertEquals("Missing tradeName", report.getErrors().get(0).getMessage()),
+        () -> assertEquals(4, report.getErrors().get(1).getLine())
+    );
+    Mockito.verify(sink).write(2, "Vinci", null, null, null, "Rue Haute", "1", "1000",
+        "Bruxelles", "Belgique");
+    Mockito.verify(sink).write(4, "Acme; SA", "Nord", "02 123", "info@acme.be", "Rue Haute", "3",
+        "1000", "Bruxelles", "Belgique");
+  }
+
+  /**
+   * Test for importEnterprises() method with a missing column.
+   */
+  @DisplayName("test importEnterprises method with a missing column")
+  @Test
+  void importEnterprisesMissingColumn() {
+    assertThrows(WrongBodyDataException.class,
+        () -> importUCC.importEnterprises(csv("tradeName,city\nVinci,Bruxelles\n"), ','));
+  }
+
+  /**
+   * Test for importResponsableStages() method with invalid rows.
+   */
+  @DisplayName("test importResponsableStages method")
+  @Test
+  void importResponsableStages() {
+    Mockito.when(sink.finish()).thenReturn(1L);
+    Mockito.when(importDAO.mergeResponsableStages()).thenReturn(new TreeMap<>());
+
+    ImportReport report = importUCC.importResponsableStages(csv(
+        "lastName,firstName,email,phoneNumber,enterprise\n"
+            + "Dupont,Jean,jean@acme.be,0470,1\n"
+            + "Durant,Marie,wrong,0471,1\n"
+            + "Martin,Luc,,0472,abc\n"), ',');
+
+    assertAll(
+        () -> assertEquals(3, report.getTotalRows()),
+        () -> assertEquals(1, report.getImportedRows()),
+        () -> assertEquals("Wrong email format", report.getErrors().get(0).getMessage()),
+        () -> assertEquals("Invalid enterprise id", report.getErrors().get(1).getMessage())
+    );
+  }
+
+  /**
+   * Test for importResponsableStages() method when the database fails.
+   */
+  @DisplayName("test importResponsableStages method with a database error")
+  @Test
+  void importResponsableStagesFailure() {
+    Mockito.when(importDAO.mergeResponsableStages()).thenThrow(FatalException.class);
+
+    assertThrows(FatalException.class, () -> importUCC.importResponsableStages(
+        csv("lastName,firstName,email,phoneNumber,enterprise\nDupont,Jean,,0470,1\n"), ','));
+  }
+
+  /**
+   * Test for importEnterprises() method, the transaction starting once the file is received.
+   */
+  @DisplayName("test importEnterprises method reads the whole file before starting a transaction")
+  @Test
+  void importEnterprisesSpooled() {
+    Mockito.when(sink.finish()).thenReturn(1L);
+    Mockito.when(importDAO.mergeEnterprises()).thenReturn(new TreeMap<>());
+    InputStream upload = new SequenceInputStream(csv(
+        "tradeName,street,streetNumber,postalCode,city,country,designation,email,phoneNumber\n"
+            + "Vinci,Rue Haute,1,1000,Bruxelles,Belgique,,,\n"), new InputStream() {
+              @Override
+              public int read() {
+                Mockito.verify(dalServices, Mockito.never()).startTransaction();
+                return -1;
+              }
+            });
+
+    assertEquals(1, importUCC.importEnterprises(upload, ',').getImportedRows());
+    Mockito.verify(dalServices).startTransaction();
+    Mockito.verify(dalServices).commit();
+  }
+
+  /**
+   * Test for importEnterprises() method with a file larger than the maximum size.
+   */
+  @DisplayName("test importEnterprises method rejects a file that is too large")
+  @Test
+  void importEnterprisesTooLarge() {
+    InputStream upload = new InputStream() {
+      @Override
+      public int read() {
+        return 'a';
+      }
+    };
+
+    assertThrows(WrongBodyDataException.class, () -> importUCC.importEnterprises(upload, ','));
+    Mockito.verify(dalServices, Mockito.never()).startTransaction();
+    Mockito.verifyNoInteractions(sink);
+  }
+}
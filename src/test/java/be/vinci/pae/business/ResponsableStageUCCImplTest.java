@@ -7,15 +7,23 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import be.vinci.pae.business.entreprise.EnterpriseDTO;
 import be.vinci.pae.business.responsable.ResponsableStageDTO;
 import be.vinci.pae.business.responsable.ResponsableStageUCC;
+import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.enterprise.EnterpriseDAO;
 import be.vinci.pae.dal.responsable.ResponsableStageDAO;
+import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.ObjectNotFoundException;
 import be.vinci.pae.utils.ApplicationBinderTest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 /**
@@ -34,6 +42,9 @@ public class ResponsableStageUCCImplTest {
 
   // Mocked EnterpriseDAO for testing
   private final EnterpriseDAO myEnterpriseDAO = locator.getService(EnterpriseDAO.class);
+
+  // Mocked DALServices for testing
+  private final DALServices dalServices = locator.getService(DALServices.class);
   private final ResponsableStageUCC responsableStageUCC = locator.getService(
       ResponsableStageUCC.class);
   // Instance of ResponsableStageUCC for testing
@@ -89,4 +100,74 @@ public class ResponsableStageUCCImplTest {
     assertNull(responsableStageUCC.getAllResponsableStage());
   }
 
+  /**
+   * Test for the getListVersion method.
+   */
+  @DisplayName("Test getListVersion")
+  @Test
+  void getListVersion() {
+    CollectionVersion version = new CollectionVersion(1, 1, 1);
+    Mockito.when(myResponsableStageDAO.getListVersion()).thenReturn(version);
+    assertEquals(version, responsableStageUCC.getListVersion());
+  }
+
+  /**
+   * Test for streamAllResponsableStage() method.
+   */
+  @DisplayName("test streamAllResponsableStage method streams in a read-only transaction")
+  @Test
+  void streamAllResponsableStage() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doAnswer(invocation -> {
+      Consumer<ResponsableStageDTO> consumer = invocation.getArgument(0);
+      List.of(responsableStageDTO).forEach(consumer);
+      return null;
+    }).when(myResponsableStageDAO).forEach(Mockito.any());
+    List<ResponsableStageDTO> streamed = new ArrayList<>();
+    responsableStageUCC.streamAllResponsableStage(streamed::add);
+    assertEquals(List.of(responsableStageDTO), streamed);
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).commit();
+    Mockito.verify(dalServices, Mockito.never()).rollback();
+  }
+
+  /**
+   * Test for streamAllResponsableStage() method when the DAO fails.
+   */
+  @DisplayName("test streamAllResponsableStage method rolls back when the DAO fails")
+  @Test
+  void streamAllResponsableStageDaoFails() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doThrow(new FatalException("connection lost")).when(myResponsableStageDAO)
+        .forEach(Mockito.any());
+    assertThrows(FatalException.class, () -> responsableStageUCC.streamAllResponsableStage(item -> {
+    }));
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).rollback();
+    Mockito.verify(dalServices, Mockito.never()).commit();
+  }
+
+  /**
+   * Test for streamAllResponsableStage() method when the consumer fails.
+   */
+  @DisplayName("test streamAllResponsableStage method rolls back when the consumer fails")
+  @Test
+  void streamAllResponsableStageConsumerFails() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doAnswer(invocation -> {
+      Consumer<ResponsableStageDTO> consumer = invocation.getArgument(0);
+      List.of(responsableStageDTO).forEach(consumer);
+      return null;
+    }).when(myResponsableStageDAO).forEach(Mockito.any());
+    assertThrows(UncheckedIOException.class,
+        () -> responsableStageUCC.streamAllResponsableStage(item -> {
+          throw new UncheckedIOException(new IOException("Broken pipe"));
+        }));
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).rollback();
+    Mockito.verify(dalServices, Mockito.never()).commit();
+  }
 }
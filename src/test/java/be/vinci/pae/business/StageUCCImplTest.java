@@ -205,4 +205,14 @@ class StageUCCImplTest {
     Mockito.when(myStageDAO.getStudentsWithoutStage()).thenReturn(l);
     assertEquals(stats, stageUCC.getStatsStages());
   }
+
+  /**
+   * Test for the getVersion method.
+   */
+  @DisplayName("Test getVersion")
+  @Test
+  void getVersion() {
+    Mockito.when(myStageDAO.getVersion(1)).thenReturn("1-2-1");
+    assertEquals("1-2-1", stageUCC.getVersion(1));
+  }
 }
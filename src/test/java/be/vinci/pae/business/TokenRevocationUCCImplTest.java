@@ -0,0 +1,102 @@
+package be.vinci.pae.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import be.vinci.pae.business.token.TokenRevocationUCC;
+import be.vinci.pae.dal.DALServices;
+import be.vinci.pae.dal.token.RevokedTokenDAO;
+import be.vinci.pae.exception.FatalException;
+import be.vinci.pae.utils.ApplicationBinderTest;
+import java.time.Instant;
+import java.util.Map;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the TokenRevocationUCCImpl class.
+ */
+class TokenRevocationUCCImplTest {
+
+  private final ServiceLocator locator = ServiceLocatorUtilities.bind(new ApplicationBinderTest());
+  private final TokenRevocationUCC tokenRevocation =
+      locator.getService(TokenRevocationUCC.class);
+  private final RevokedTokenDAO revokedTokenDAO = locator.getService(RevokedTokenDAO.class);
+  private final DALServices dalServices = locator.getService(DALServices.class);
+
+  /**
+   * Set up the test environment, emptying the revoked tokens left by the previous tests.
+   */
+  @BeforeEach
+  void setup() {
+    Mockito.reset(revokedTokenDAO);
+    tokenRevocation.compact();
+    Mockito.clearInvocations(dalServices, revokedTokenDAO);
+  }
+
+  /**
+   * Test that a revoked token is stored and then reported as revoked.
+   */
+  @DisplayName("test revoke method")
+  @Test
+  void revoke() {
+    Instant expiresAt = Instant.now().plusSeconds(3600);
+    assertFalse(tokenRevocation.isRevoked("token"));
+    tokenRevocation.revoke("token", expiresAt);
+    Mockito.verify(revokedTokenDAO).createOne("token", expiresAt);
+    Mockito.verify(dalServices).commit();
+    assertTrue(tokenRevocation.isRevoked("token"));
+    assertFalse(tokenRevocation.isRevoked("other token"));
+  }
+
+  /**
+   * Test that a token is not reported as revoked when it could not be stored.
+   */
+  @DisplayName("test revoke method with a database error")
+  @Test
+  void revokeFailure() {
+    Instant expiresAt = Instant.now().plusSeconds(3600);
+    Mockito.doThrow(new FatalException("error")).when(revokedTokenDAO)
+        .createOne("token", expiresAt);
+    assertThrows(FatalException.class, () -> tokenRevocation.revoke("token", expiresAt));
+    Mockito.verify(dalServices).rollback();
+    assertFalse(tokenRevocation.isRevoked("token"));
+  }
+
+  /**
+   * Test that many revoked tokens are all reported, once the Bloom filter is rebuilt larger.
+   */
+  @DisplayName("test revoke method beyond the expected number of tokens")
+  @Test
+  void revokeMany() {
+    Instant expiresAt = Instant.now().plusSeconds(3600);
+    for (int i = 0; i < 25_000; i++) {
+      tokenRevocation.revoke("token " + i, expiresAt);
+    }
+    for (int i = 0; i < 25_000; i++) {
+      assertTrue(tokenRevocation.isRevoked("token " + i));
+    }
+    assertFalse(tokenRevocation.isRevoked("token 25000"));
+  }
+
+  /**
+   * Test that the compaction deletes the expired tokens and reloads the others.
+   */
+  @DisplayName("test compact method")
+  @Test
+  void compact() {
+    tokenRevocation.revoke("expired", Instant.now().plusSeconds(1));
+    Mockito.when(revokedTokenDAO.deleteExpired(Mockito.any())).thenReturn(1);
+    Mockito.when(revokedTokenDAO.getAllActive(Mockito.any()))
+        .thenReturn(Map.of("active", Instant.now().plusSeconds(3600)));
+    assertEquals(1, tokenRevocation.compact());
+    assertFalse(tokenRevocation.isRevoked("expired"));
+    assertTrue(tokenRevocation.isRevoked("active"));
+  }
+}
@@ -4,21 +4,29 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import be.vinci.pae.business.user.UserDTO;
 import be.vinci.pae.business.user.UserUCC;
+import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.user.UserDAO;
 import be.vinci.pae.exception.ConflictException;
+import be.vinci.pae.exception.FatalException;
 import be.vinci.pae.exception.UnauthorizedException;
 import be.vinci.pae.exception.WrongBodyDataException;
 import be.vinci.pae.utils.ApplicationBinderTest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 /**
@@ -36,6 +44,9 @@ class UserUCCImplTest {
   // Mocked UserDAO for testing
   private final UserDAO myUserDAO = locator.getService(UserDAO.class);
 
+  // Mocked DALServices for testing
+  private final DALServices dalServices = locator.getService(DALServices.class);
+
   // Instance of DomainFactory
   private final DomainFactory domainFactory = locator.getService(DomainFactory.class);
 
@@ -93,6 +104,24 @@ class UserUCCImplTest {
     assertEquals(user, userUCC.login("good.email@vinci.be", "password"));
   }
 
+  /**
+   * This test case checks that a login hashes the password again when its hash has another cost
+   * than the current one. It expects the new hash to be saved and set on the user.
+   */
+  @DisplayName("User login with an outdated hash")
+  @Test
+  void loginRehash() {
+    String oldHash = BCrypt.hashpw("password", BCrypt.gensalt(4));
+    user.setPassword(oldHash);
+    Mockito.when(myUserDAO.updatePasswordHash(Mockito.anyInt(), Mockito.eq(oldHash),
+        Mockito.anyString())).thenReturn(true);
+    UserDTO loggedIn = userUCC.login("good.email@vinci.be", "password");
+    assertTrue(loggedIn.getPassword().startsWith("$2a$10$"));
+    assertTrue(BCrypt.checkpw("password", loggedIn.getPassword()));
+    Mockito.verify(myUserDAO).updatePasswordHash(Mockito.anyInt(), Mockito.eq(oldHash),
+        Mockito.eq(loggedIn.getPassword()));
+  }
+
   /**
    * This test case checks the refreshUser functionality. It expects the user object as the return
    */
@@ -210,6 +239,27 @@ class UserUCCImplTest {
     assertNotEquals("password", user.getPassword());
   }
 
+  /**
+   * Test case checking that the password of a registered user is hashed before the transaction
+   * starts, so that the hashing does not hold a database connection.
+   */
+  @DisplayName("Register user hashes the password outside of the transaction")
+  @Test
+  void registerHashesBeforeTransaction() {
+    user.setEmail("test.test@vinci.be");
+    user.setRole("TEACHER");
+    user.setPassword("password");
+    List<String> passwordsAtStart = new ArrayList<>();
+    Mockito.doAnswer(invocation -> passwordsAtStart.add(user.getPassword()))
+        .when(dalServices).startTransaction();
+    try {
+      userUCC.register(user);
+    } finally {
+      Mockito.doNothing().when(dalServices).startTransaction();
+    }
+    assertEquals(List.of(user.getPassword()), passwordsAtStart);
+  }
+
   /**
    * Test case for registering a user with an email that already exists. This test case expects a
    * ConflictException to be thrown when trying to register a user with an email that already
@@ -280,7 +330,80 @@ class UserUCCImplTest {
   @DisplayName("test edit data method with wrong password")
   @Test
   void testEditData3() {
+    Mockito.clearInvocations(dalServices);
     assertThrows(WrongBodyDataException.class,
         () -> userUCC.editData(user, "wrongPassword", null, 1));
+    // The password is checked before any transaction is started
+    Mockito.verify(dalServices, Mockito.never()).startTransaction();
+  }
+
+  /**
+   * Test for the getUsersVersion method.
+   */
+  @DisplayName("test getUsersVersion")
+  @Test
+  void getUsersVersion() {
+    CollectionVersion version = new CollectionVersion(3, 12, 5);
+    Mockito.when(myUserDAO.getListVersion()).thenReturn(version);
+    assertEquals(version, userUCC.getUsersVersion());
+    assertEquals("3-12-5", userUCC.getUsersVersion().tag());
+  }
+
+  /**
+   * Test for streamAllUsers() method.
+   */
+  @DisplayName("test streamAllUsers method streams the users in a read-only transaction")
+  @Test
+  void streamAllUsers() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doAnswer(invocation -> {
+      Consumer<UserDTO> consumer = invocation.getArgument(0);
+      List.of(user).forEach(consumer);
+      return null;
+    }).when(myUserDAO).forEach(Mockito.any());
+    List<UserDTO> streamed = new ArrayList<>();
+    userUCC.streamAllUsers(streamed::add);
+    assertEquals(List.of(user), streamed);
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).commit();
+    Mockito.verify(dalServices, Mockito.never()).rollback();
+  }
+
+  /**
+   * Test for streamAllUsers() method when the DAO fails.
+   */
+  @DisplayName("test streamAllUsers method rolls back when the DAO fails")
+  @Test
+  void streamAllUsersDaoFails() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doThrow(new FatalException("connection lost")).when(myUserDAO).forEach(Mockito.any());
+    assertThrows(FatalException.class, () -> userUCC.streamAllUsers(item -> {
+    }));
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).rollback();
+    Mockito.verify(dalServices, Mockito.never()).commit();
+  }
+
+  /**
+   * Test for streamAllUsers() method when the consumer fails.
+   */
+  @DisplayName("test streamAllUsers method rolls back when the consumer fails")
+  @Test
+  void streamAllUsersConsumerFails() {
+    Mockito.clearInvocations(dalServices);
+    Mockito.doAnswer(invocation -> {
+      Consumer<UserDTO> consumer = invocation.getArgument(0);
+      List.of(user).forEach(consumer);
+      return null;
+    }).when(myUserDAO).forEach(Mockito.any());
+    assertThrows(UncheckedIOException.class, () -> userUCC.streamAllUsers(item -> {
+      throw new UncheckedIOException(new IOException("Broken pipe"));
+    }));
+    InOrder order = Mockito.inOrder(dalServices);
+    order.verify(dalServices).startReadOnlyTransaction();
+    order.verify(dalServices).rollback();
+    Mockito.verify(dalServices, Mockito.never()).commit();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package be.vinci.pae.dal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.DomainFactoryImpl;
+import be.vinci.pae.business.contact.ContactDTO;
+import be.vinci.pae.business.entreprise.EnterpriseDTO;
+import be.vinci.pae.business.stage.StageDTO;
+import be.vinci.pae.business.user.UserDTO;
+import be.vinci.pae.dal.contact.ContactDAO;
+import be.vinci.pae.dal.contact.ContactDAOImpl;
+import be.vinci.pae.dal.enterprise.EnterpriseDAO;
+import be.vinci.pae.dal.enterprise.EnterpriseDAOImpl;
+import be.vinci.pae.dal.stage.StageDAO;
+import be.vinci.pae.dal.stage.StageDAOImpl;
+import be.vinci.pae.dal.user.UserDAO;
+import be.vinci.pae.dal.user.UserDAOImpl;
+import jakarta.inject.Singleton;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the createMany methods of the DAOs. The DAOs run against a mocked
+ * DALBackServices, whose batches are written by a BatchWriter of two rows per chunk on a mocked
+ * connection, so the SQL text and the binders of the DAOs are checked as the database receives
+ * them.
+ */
+class BatchInsertDAOTest {
+
+  private static final DALBackServices DAL_BACK_SERVICES = Mockito.mock(DALBackServices.class);
+
+  // A locator of its own, the default one binding mocked DAOs
+  private static final ServiceLocator LOCATOR = ServiceLocatorUtilities.bind("batch-inserts",
+      new AbstractBinder() {
+        @Override
+        protected void configure() {
+          bind(DomainFactoryImpl.class).to(DomainFactory.class).in(Singleton.class);
+          bind(DAL_BACK_SERVICES).to(DALBackServices.class);
+          bind(UserDAOImpl.class).to(UserDAO.class).in(Singleton.class);
+          bind(ContactDAOImpl.class).to(ContactDAO.class).in(Singleton.class);
+          bind(EnterpriseDAOImpl.class).to(EnterpriseDAO.class).in(Singleton.class);
+          bind(StageDAOImpl.class).to(StageDAO.class).in(Singleton.class);
+        }
+      });
+
+  private final DomainFactory domainFactory = LOCATOR.getService(DomainFactory.class);
+  private final Connection conn = Mockito.mock(Connection.class);
+  private final PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+
+  /**
+   * Set up the batches of the mocked DALBackServices, the database returning the keys 10 and 11.
+   *
+   * @throws SQLException never
+   */
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setup() throws SQLException {
+    Mockito.reset(DAL_BACK_SERVICES);
+    Mockito.when(conn.prepareStatement(Mockito.anyString())).thenReturn(ps);
+    ResultSet keys = Mockito.mock(ResultSet.class);
+    Mockito.when(ps.executeQuery()).thenReturn(keys);
+    Mockito.when(keys.next()).thenReturn(true, true, false);
+    Mockito.when(keys.getInt(1)).thenReturn(11, 10);
+    BatchWriter writer = new BatchWriter(2, (statement, sql) -> statement);
+    Mockito.when(DAL_BACK_SERVICES.executeBatch(Mockito.anyString(), Mockito.anyList(),
+        Mockito.any(), Mockito.anyString(), Mockito.any())).thenAnswer(invocation ->
+        writer.insertReturningKeys(conn, invocation.getArgument(0), invocation.getArgument(1),
+            invocation.getArgument(2), invocation.getArgument(3),
+            (ObjIntConsumer<Object>) invocation.getArgument(4)));
+  }
+
+  /**
+   * Checks the multi-row insert prepared for two rows.
+   *
+   * @param table     the table of the insert
+   * @param keyColumn the generated key column
+   * @throws SQLException never
+   */
+  private void verifyInsert(String table, String keyColumn) throws SQLException {
+    Mockito.verify(conn).prepareStatement(Mockito.argThat(sql -> sql.startsWith(
+        "INSERT INTO pae." + table + " ") && sql.endsWith(") RETURNING " + keyColumn)
+        && sql.split("\\), \\(").length == 2));
+  }
+
+  /**
+   * Test for UserDAO.createMany().
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test createMany of the users binds each user and sets its id")
+  @Test
+  void createManyUsers() throws SQLException {
+    List<UserDTO> users = List.of(user("first@vinci.be"), user("second@vinci.be"));
+    assertSame(users, LOCATOR.getService(UserDAO.class).createMany(users));
+    verifyInsert("users", "iduser");
+    Mockito.verify(ps).setString(1, "first@vinci.be");
+    Mockito.verify(ps).setString(9, "second@vinci.be");
+    Mockito.verify(ps).setString(15, "TEACHER");
+    assertEquals(List.of(10, 11), users.stream().map(UserDTO::getIdUser).toList());
+  }
+
+  /**
+   * Test for ContactDAO.createMany().
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test createMany of the contacts binds each contact and sets its id")
+  @Test
+  void createManyContacts() throws SQLException {
+    List<ContactDTO> contacts = List.of(contact(3), contact(4));
+    assertSame(contacts, LOCATOR.getService(ContactDAO.class).createMany(contacts));
+    verifyInsert("contacts", "idcontact");
+    Mockito.verify(ps).setInt(2, 3);
+    Mockito.verify(ps).setInt(7, 4);
+    Mockito.verify(ps).setString(8, "STARTED");
+    assertEquals(List.of(10, 11), contacts.stream().map(ContactDTO::getIdContact).toList());
+  }
+
+  /**
+   * Test for EnterpriseDAO.createMany().
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test createMany of the enterprises binds each enterprise and sets its id")
+  @Test
+  void createManyEnterprises() throws SQLException {
+    List<EnterpriseDTO> enterprises = List.of(enterprise("AXIS SRL"), enterprise("Wallonie"));
+    assertSame(enterprises, LOCATOR.getService(EnterpriseDAO.class).createMany(enterprises));
+    verifyInsert("enterprises", "identerprise");
+    Mockito.verify(ps).setString(1, "AXIS SRL");
+    Mockito.verify(ps).setString(11, "Wallonie");
+    Mockito.verify(ps, Mockito.times(2)).setInt(Mockito.intThat(i -> i % 10 == 0),
+        Mockito.eq(1));
+    assertEquals(List.of(10, 11),
+        enterprises.stream().map(EnterpriseDTO::getIdEnterprise).toList());
+  }
+
+  /**
+   * Test for StageDAO.createMany().
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test createMany of the internships binds each internship and sets its id")
+  @Test
+  void createManyStages() throws SQLException {
+    List<StageDTO> stages = List.of(stage("Project A"), stage("Project B"));
+    assertSame(stages, LOCATOR.getService(StageDAO.class).createMany(stages));
+    verifyInsert("stages", "idstage");
+    Mockito.verify(ps).setString(2, "Project A");
+    Mockito.verify(ps).setString(8, "Project B");
+    Mockito.verify(ps).setInt(12, 1);
+    assertEquals(List.of(10, 11), stages.stream().map(StageDTO::getIdStage).toList());
+  }
+
+  /**
+   * Creates a teacher.
+   *
+   * @param email the email of the teacher
+   * @return the teacher
+   */
+  private UserDTO user(String email) {
+    UserDTO user = domainFactory.getUser();
+    user.setEmail(email);
+    user.setRole("TEACHER");
+    return user;
+  }
+
+  /**
+   * Creates a started contact of the user 1.
+   *
+   * @param enterprise the id of the enterprise of the contact
+   * @return the contact
+   */
+  private ContactDTO contact(int enterprise) {
+    ContactDTO contact = domainFactory.getContact();
+    contact.setUserId(1);
+    contact.setEnterprise(enterprise);
+    contact.setContactStatus("STARTED");
+    return contact;
+  }
+
+  /**
+   * Creates an enterprise.
+   *
+   * @param tradeName the trade name of the enterprise
+   * @return the enterprise
+   */
+  private EnterpriseDTO enterprise(String tradeName) {
+    EnterpriseDTO enterprise = domainFactory.getEnterprise();
+    enterprise.setTradeName(tradeName);
+    enterprise.setVersionNumber(1);
+    return enterprise;
+  }
+
+  /**
+   * Creates an internship of the user 1.
+   *
+   * @param project the project of the internship
+   * @return the internship
+   */
+  private StageDTO stage(String project) {
+    StageDTO stage = domainFactory.getStage();
+    stage.setUserId(1);
+    stage.setInternshipProject(project);
+    return stage;
+  }
+}
@@ -0,0 +1,182 @@
+package be.vinci.pae.dal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import be.vinci.pae.exception.FatalException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the BatchWriter class, against mocked JDBC statements.
+ */
+class BatchWriterTest {
+
+  private static final String INSERT = "INSERT INTO pae.items (name, rank) VALUES (?, ?)";
+
+  private final Connection conn = Mockito.mock(Connection.class);
+  private final BatchWriter writer = new BatchWriter(2, (ps, sql) -> ps);
+  private final List<Item> items = new ArrayList<>();
+
+  /**
+   * An item written by the batches.
+   */
+  private static final class Item {
+
+    private final String name;
+    private int id;
+
+    private Item(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Set up five items.
+   */
+  @BeforeEach
+  void setup() {
+    for (int i = 1; i <= 5; i++) {
+      items.add(new Item("item " + i));
+    }
+  }
+
+  /**
+   * Sets the parameters of the insert from an item.
+   *
+   * @param ps     the insert statement
+   * @param offset the number of parameters before those of the item
+   * @param item   the item
+   * @throws SQLException if a parameter cannot be set
+   */
+  private static void bind(PreparedStatement ps, int offset, Item item) throws SQLException {
+    ps.setString(offset + 1, item.name);
+    ps.setInt(offset + 2, item.name.length());
+  }
+
+  /**
+   * Creates a result holding generated keys.
+   *
+   * @param keys the keys
+   * @return the result
+   * @throws SQLException never
+   */
+  private static ResultSet keys(int... keys) throws SQLException {
+    ResultSet rs = Mockito.mock(ResultSet.class);
+    int[] next = {0};
+    Mockito.when(rs.next()).thenAnswer(invocation -> next[0]++ < keys.length);
+    Mockito.when(rs.getInt(1)).thenAnswer(invocation -> keys[next[0] - 1]);
+    return rs;
+  }
+
+  /**
+   * Test for the chunks of the batches without keys.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test the rows without keys are sent in JDBC batches of dbBatchSize rows")
+  @Test
+  void executeInChunks() throws SQLException {
+    PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+    Mockito.when(conn.prepareStatement(INSERT)).thenReturn(ps);
+    Mockito.when(ps.executeBatch()).thenReturn(new int[]{1, 1},
+        new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}, new int[]{1});
+
+    assertEquals(5, writer.execute(conn, INSERT, items, BatchWriterTest::bind));
+    Mockito.verify(ps, Mockito.times(5)).addBatch();
+    Mockito.verify(ps, Mockito.times(3)).executeBatch();
+    Mockito.verify(ps).close();
+  }
+
+  /**
+   * Test for the multi-row inserts returning the keys.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test the keyed rows are inserted by multi-row chunks and get their sorted keys")
+  @Test
+  void insertReturningKeys() throws SQLException {
+    final PreparedStatement full = Mockito.mock(PreparedStatement.class);
+    final PreparedStatement last = Mockito.mock(PreparedStatement.class);
+    Mockito.when(conn.prepareStatement(BatchWriter.multiRowInsert(INSERT, 2, "id")))
+        .thenReturn(full);
+    Mockito.when(conn.prepareStatement(BatchWriter.multiRowInsert(INSERT, 1, "id")))
+        .thenReturn(last);
+    // The keys of a chunk are returned in no particular order
+    ResultSet first = keys(11, 10);
+    ResultSet second = keys(12, 13);
+    Mockito.when(full.executeQuery()).thenReturn(first, second);
+    ResultSet third = keys(14);
+    Mockito.when(last.executeQuery()).thenReturn(third);
+
+    assertEquals(5, writer.insertReturningKeys(conn, INSERT, items, BatchWriterTest::bind, "id",
+        (item, key) -> item.id = key));
+    assertEquals(List.of(10, 11, 12, 13, 14), items.stream().map(item -> item.id).toList());
+
+    // The second row of a chunk is bound after the parameters of the first one
+    InOrder order = Mockito.inOrder(full);
+    order.verify(full).setString(1, "item 1");
+    order.verify(full).setInt(2, 6);
+    order.verify(full).setString(3, "item 2");
+    order.verify(full).setInt(4, 6);
+    order.verify(full).executeQuery();
+    order.verify(full).setString(1, "item 3");
+    order.verify(full).setString(3, "item 4");
+    order.verify(full).executeQuery();
+    Mockito.verify(last).setString(1, "item 5");
+    Mockito.verify(conn, Mockito.times(2)).prepareStatement(Mockito.anyString());
+    Mockito.verify(full).close();
+    Mockito.verify(last).close();
+  }
+
+  /**
+   * Test for a chunk returning fewer keys than rows.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test a missing generated key fails the insert")
+  @Test
+  void missingKey() throws SQLException {
+    PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+    Mockito.when(conn.prepareStatement(Mockito.anyString())).thenReturn(ps);
+    ResultSet rs = keys(10);
+    Mockito.when(ps.executeQuery()).thenReturn(rs);
+    List<Item> two = items.subList(0, 2);
+    assertThrows(FatalException.class, () -> writer.insertReturningKeys(conn, INSERT, two,
+        BatchWriterTest::bind, "id", (item, key) -> item.id = key));
+    Mockito.verify(ps).close();
+  }
+
+  /**
+   * Test for the SQL text of the multi-row inserts.
+   */
+  @DisplayName("test the multi-row insert repeats the VALUES list and returns the keys")
+  @Test
+  void multiRowInsert() {
+    assertEquals("INSERT INTO pae.items (name, rank) VALUES (?, ?), (?, ?), (?, ?) RETURNING id",
+        BatchWriter.multiRowInsert(INSERT + " ", 3, "id"));
+    assertThrows(FatalException.class,
+        () -> BatchWriter.multiRowInsert("INSERT INTO pae.items SELECT 1", 2, "id"));
+  }
+
+  /**
+   * Test for the size of the chunks of the multi-row inserts.
+   */
+  @DisplayName("test the chunks stay under the parameter limit of a statement")
+  @Test
+  void rowsPerChunk() {
+    assertEquals(2, writer.rowsPerChunk(8));
+    BatchWriter large = new BatchWriter(100_000, (ps, sql) -> ps);
+    assertEquals(BatchWriter.MAX_PARAMETERS / 8, large.rowsPerChunk(8));
+  }
+}
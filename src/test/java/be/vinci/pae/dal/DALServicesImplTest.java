@@ -0,0 +1,139 @@
+package be.vinci.pae.dal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the routing of the sessions of the DALServicesImpl class, against mocked primary
+ * and replica pools.
+ */
+class DALServicesImplTest {
+
+  private final BasicDataSource primary = Mockito.mock(BasicDataSource.class);
+  private final BasicDataSource replica = Mockito.mock(BasicDataSource.class);
+  private final Connection primaryConnection = Mockito.mock(Connection.class);
+  private final Connection replicaConnection = Mockito.mock(Connection.class);
+  private DALServicesImpl dalServices;
+
+  /**
+   * Set up the pools, the replica not lagging.
+   *
+   * @throws SQLException never
+   */
+  @BeforeEach
+  void setup() throws SQLException {
+    Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+    Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+    PreparedStatement lagQuery = Mockito.mock(PreparedStatement.class);
+    ResultSet lag = Mockito.mock(ResultSet.class);
+    Mockito.when(replicaConnection.prepareStatement(Mockito.anyString())).thenReturn(lagQuery);
+    Mockito.when(lagQuery.executeQuery()).thenReturn(lag);
+    Mockito.when(lag.next()).thenReturn(true);
+    dalServices = new DALServicesImpl(primary, replica);
+  }
+
+  /**
+   * Test for the sessions opened with open().
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test a session opened with open() reads from the replica")
+  @Test
+  void openUsesReplica() throws SQLException {
+    dalServices.open();
+    dalServices.close();
+    Mockito.verify(replicaConnection).close();
+    Mockito.verify(primary, Mockito.never()).getConnection();
+  }
+
+  /**
+   * Test for a transaction started in a session holding a replica connection.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test a transaction started after open() gives back the replica and runs on the "
+      + "primary")
+  @Test
+  void startTransactionAfterOpen() throws SQLException {
+    dalServices.open();
+    dalServices.startTransaction();
+    dalServices.commit();
+
+    InOrder order = Mockito.inOrder(replicaConnection, primary, primaryConnection);
+    order.verify(replicaConnection).close();
+    order.verify(primary).getConnection();
+    order.verify(primaryConnection).setAutoCommit(false);
+    order.verify(primaryConnection).commit();
+    order.verify(primaryConnection).close();
+    Mockito.verify(replicaConnection, Mockito.never()).setAutoCommit(false);
+    Mockito.verify(replicaConnection, Mockito.never()).commit();
+  }
+
+  /**
+   * Returns the number of permits of a pool in use.
+   *
+   * @param services the services bounding the pools
+   * @param pool     the name of the pool, primary or replica
+   * @return the number of sessions holding a connection of the pool
+   */
+  @SuppressWarnings("unchecked")
+  private static Object permitsInUse(DALServicesImpl services, String pool) {
+    Map<String, Object> limits = (Map<String, Object>) services.getConnectionPoolStats()
+        .get("concurrencyLimit");
+    return ((Map<String, Object>) limits.get(pool)).get("inUse");
+  }
+
+  /**
+   * Test for the permits taken by the sessions, each pool holding a single connection.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test a session takes the permit of the pool it is routed to")
+  @Test
+  void permitOfRoutedPool() throws SQLException {
+    Mockito.when(primary.getMaxTotal()).thenReturn(1);
+    Mockito.when(replica.getMaxTotal()).thenReturn(1);
+    DALServicesImpl services = new DALServicesImpl(primary, replica);
+
+    services.open();
+    assertEquals(1, permitsInUse(services, "replica"));
+    assertEquals(0, permitsInUse(services, "primary"));
+    services.startTransaction();
+    assertEquals(0, permitsInUse(services, "replica"));
+    assertEquals(1, permitsInUse(services, "primary"));
+    services.commit();
+    assertEquals(0, permitsInUse(services, "primary"));
+  }
+
+  /**
+   * Test for the permit of a read-only session when the replica is down.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test a session falling back to the primary takes a permit of the primary")
+  @Test
+  void permitOfFallback() throws SQLException {
+    Mockito.when(primary.getMaxTotal()).thenReturn(1);
+    Mockito.when(replica.getMaxTotal()).thenReturn(1);
+    Mockito.when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+    DALServicesImpl services = new DALServicesImpl(primary, replica);
+
+    services.open();
+    assertEquals(0, permitsInUse(services, "replica"));
+    assertEquals(1, permitsInUse(services, "primary"));
+    services.close();
+    assertEquals(0, permitsInUse(services, "primary"));
+    Mockito.verify(primaryConnection).close();
+  }
+}
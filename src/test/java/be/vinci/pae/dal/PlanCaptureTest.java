@@ -0,0 +1,82 @@
+package be.vinci.pae.dal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the PlanCapture class, against a mocked connection source.
+ */
+class PlanCaptureTest {
+
+  private static final String QUERY = "SELECT * FROM pae.users WHERE id = ?";
+
+  private final Connection conn = Mockito.mock(Connection.class);
+  private final PlanCapture.ConnectionSource source =
+      Mockito.mock(PlanCapture.ConnectionSource.class);
+  private final PlanCapture planCapture = new PlanCapture(source, 1);
+
+  /**
+   * Returns the setter calls recorded by a timed statement.
+   *
+   * @return the setter call of the id
+   * @throws SQLException never
+   */
+  private static List<TimedStatement.Binding> bindings() throws SQLException {
+    TimedStatement statement = new TimedStatement(Mockito.mock(PreparedStatement.class), QUERY,
+        null, null, true);
+    statement.proxy().setInt(1, 42);
+    return statement.bindings();
+  }
+
+  /**
+   * Test for the capture of a plan.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test the plan is captured on a borrowed connection with the same parameters")
+  @Test
+  void explain() throws SQLException {
+    PreparedStatement explain = Mockito.mock(PreparedStatement.class);
+    ResultSet rs = Mockito.mock(ResultSet.class);
+    Mockito.when(source.borrow()).thenReturn(conn);
+    Mockito.when(conn.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + QUERY))
+        .thenReturn(explain);
+    Mockito.when(explain.executeQuery()).thenReturn(rs);
+    Mockito.when(rs.next()).thenReturn(true, false);
+    Mockito.when(rs.getString(1)).thenReturn("Index Scan using users_pkey on users");
+
+    assertEquals("Index Scan using users_pkey on users\n",
+        planCapture.explain(QUERY, bindings()));
+    Mockito.verify(explain).setInt(1, 42);
+    InOrder order = Mockito.inOrder(conn, source);
+    order.verify(conn).setAutoCommit(false);
+    order.verify(conn).rollback();
+    order.verify(source).giveBack(conn);
+  }
+
+  /**
+   * Test for a capture that fails.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test a failed capture gives its connection back and reports the failure")
+  @Test
+  void explainFails() throws SQLException {
+    Mockito.when(source.borrow()).thenReturn(conn);
+    Mockito.when(conn.prepareStatement(Mockito.anyString()))
+        .thenThrow(new SQLException("syntax error"));
+
+    assertTrue(planCapture.explain(QUERY, List.of()).contains("syntax error"));
+    Mockito.verify(source).giveBack(conn);
+  }
+}
@@ -0,0 +1,278 @@
+package be.vinci.pae.dal;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import be.vinci.pae.dal.SqlRecorder.RecordedStatement;
+import be.vinci.pae.dal.contact.ContactDAOImpl;
+import be.vinci.pae.dal.enterprise.EnterpriseDAOImpl;
+import be.vinci.pae.dal.migration.MigrationRunner;
+import be.vinci.pae.dal.responsable.ResponsableStageDAOImpl;
+import be.vinci.pae.dal.stage.StageDAOImpl;
+import be.vinci.pae.dal.token.RevokedTokenDAOImpl;
+import be.vinci.pae.dal.user.UserDAOImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Query plan regression suite. Every SQL statement issued by the DAOs, as found by SqlRecorder, is
+ * explained with EXPLAIN (FORMAT JSON) against a database seeded with a large synthetic dataset,
+ * and its plan must not read a large table with a sequential scan nor exceed the cost budget.
+ * When a baseline of the plan exists in src/test/resources/plans, the shape of the plan must also
+ * match it, a failure showing the difference between both.
+ *
+ * <p>The suite only runs when the PAE_TEST_DB_URL environment variable points to a PostgreSQL
+ * database, along with PAE_TEST_DB_USER and PAE_TEST_DB_PASSWORD. The pae schema of that database
+ * is dropped and recreated, so it must be a database dedicated to the tests. The cost budget is
+ * set by the pae.plan.maxCost system property, and the baselines are written or updated by running
+ * the suite with -Dpae.plan.update=true.
+ */
+@EnabledIfEnvironmentVariable(named = "PAE_TEST_DB_URL", matches = ".+")
+class QueryPlanTest {
+
+  // Tables large enough for a sequential scan to be a problem
+  private static final Set<String> LARGE_TABLES = Set.of("users", "enterprises", "contacts",
+      "stages", "responsables_stages");
+
+  // Methods reading a whole table by design, and why
+  private static final Map<String, String> FULL_SCANS = Map.ofEntries(
+      Map.entry("UserDAOImpl.getAll", "lists every user"),
+      Map.entry("UserDAOImpl.forEach", "streams every user"),
+      Map.entry("UserDAOImpl.getListVersion", "aggregates the version of every user"),
+      Map.entry("EnterpriseDAOImpl.getAll", "lists every enterprise"),
+      Map.entry("EnterpriseDAOImpl.forEach", "streams every enterprise"),
+      Map.entry("EnterpriseDAOImpl.getListVersion", "aggregates the version of every enterprise"),
+      Map.entry("EnterpriseDAOImpl.getStats", "counts the accepted contacts of every enterprise"),
+      Map.entry("ResponsableStageDAOImpl.getAll", "lists every internship supervisor"),
+      Map.entry("ResponsableStageDAOImpl.forEach", "streams every internship supervisor"),
+      Map.entry("ResponsableStageDAOImpl.getListVersion",
+          "aggregates the version of every internship supervisor"),
+      Map.entry("StageDAOImpl.getStudentsWithoutStage", "checks every student"),
+      Map.entry("StageDAOImpl.getNumberStagesBySchoolYear",
+          "counts the accepted contacts of every year"));
+
+  // Directory of the plan baselines
+  private static final Path BASELINES = Path.of("src", "test", "resources", "plans");
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final double MAX_COST =
+      Double.parseDouble(System.getProperty("pae.plan.maxCost", "1000"));
+
+  private static final boolean UPDATE_BASELINES = Boolean.getBoolean("pae.plan.update");
+
+  private static Connection connection;
+
+  /**
+   * Recreates the schema of the test database with the migrations and seeds it.
+   *
+   * @throws SQLException if the database cannot be prepared
+   * @throws IOException  if the dataset cannot be read
+   */
+  @BeforeAll
+  static void seed() throws SQLException, IOException {
+    String url = System.getenv("PAE_TEST_DB_URL");
+    String user = System.getenv("PAE_TEST_DB_USER");
+    String password = System.getenv("PAE_TEST_DB_PASSWORD");
+    connection = DriverManager.getConnection(url, user, password);
+    try (Statement st = connection.createStatement()) {
+      st.execute("DROP SCHEMA IF EXISTS pae CASCADE");
+    }
+    new MigrationRunner(url, user, password).migrate();
+    try (InputStream in = QueryPlanTest.class.getResourceAsStream("/db/synthetic-data.sql");
+        Statement st = connection.createStatement()) {
+      st.execute(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Closes the connection to the test database.
+   *
+   * @throws SQLException if the connection cannot be closed
+   */
+  @AfterAll
+  static void close() throws SQLException {
+    connection.close();
+  }
+
+  /**
+   * Checks the plan of every statement issued by the DAOs.
+   *
+   * @return one test for each statement
+   */
+  @DisplayName("Query plans of the DAO statements")
+  @TestFactory
+  Stream<DynamicTest> queryPlans() {
+    List<RecordedStatement> statements = new SqlRecorder().record(UserDAOImpl.class,
+        ContactDAOImpl.class, EnterpriseDAOImpl.class, StageDAOImpl.class,
+        ResponsableStageDAOImpl.class, RevokedTokenDAOImpl.class);
+    return statements.stream().map(statement -> DynamicTest.dynamicTest(statement.source(),
+        () -> checkPlan(statement)));
+  }
+
+  /**
+   * Explains a statement and checks its plan.
+   *
+   * @param statement the statement
+   * @throws SQLException if the statement cannot be explained
+   * @throws IOException  if the plan or its baseline cannot be read
+   */
+  private void checkPlan(RecordedStatement statement) throws SQLException, IOException {
+    String keyword = statement.sql().trim().split("\\s+")[0].toUpperCase(Locale.ROOT);
+    assumeTrue(Set.of("SELECT", "INSERT", "UPDATE", "DELETE", "WITH").contains(keyword),
+        "Only DML statements can be explained");
+    JsonNode plan = explain(statement);
+    String method = statement.source().replaceFirst("\\(.*\\)$", "");
+    boolean fullScan = FULL_SCANS.containsKey(method);
+    List<String> problems = new ArrayList<>();
+    if (!fullScan) {
+      collectSeqScans(plan, problems);
+      double cost = plan.get("Total Cost").asDouble();
+      if (cost > MAX_COST) {
+        problems.add("Estimated cost " + cost + " over the budget of " + MAX_COST);
+      }
+    }
+    String shape = render(plan, false, 0);
+    Path baseline = BASELINES.resolve(statement.source().replaceAll("[^\\w.=-]", "_") + ".txt");
+    if (UPDATE_BASELINES) {
+      Files.createDirectories(BASELINES);
+      Files.writeString(baseline, shape);
+    } else if (Files.exists(baseline)) {
+      String expected = Files.readString(baseline);
+      if (!expected.equals(shape)) {
+        problems.add("Plan differs from its baseline " + baseline + ":\n" + diff(expected, shape));
+      }
+    }
+    if (!problems.isEmpty()) {
+      fail(statement.source() + "\n" + statement.sql() + "\n\n" + String.join("\n", problems)
+          + "\n\nPlan:\n" + render(plan, true, 0));
+    }
+  }
+
+  /**
+   * Explains a statement with its recorded parameters.
+   *
+   * @param statement the statement
+   * @return the root node of the plan
+   * @throws SQLException if the statement cannot be explained
+   * @throws IOException  if the plan cannot be parsed
+   */
+  private JsonNode explain(RecordedStatement statement) throws SQLException, IOException {
+    try (PreparedStatement ps = connection.prepareStatement(
+        "EXPLAIN (FORMAT JSON) " + statement.sql())) {
+      for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+        if (parameter.getValue() == null) {
+          ps.setNull(parameter.getKey(), Types.NULL);
+        } else {
+          ps.setObject(parameter.getKey(), parameter.getValue());
+        }
+      }
+      try (ResultSet rs = ps.executeQuery()) {
+        rs.next();
+        return MAPPER.readTree(rs.getString(1)).get(0).get("Plan");
+      }
+    }
+  }
+
+  /**
+   * Collects the sequential scans of large tables in a plan.
+   *
+   * @param node     a node of the plan
+   * @param problems the list receiving the problems
+   */
+  private static void collectSeqScans(JsonNode node, List<String> problems) {
+    if ("Seq Scan".equals(node.path("Node Type").asText())
+        && LARGE_TABLES.contains(node.path("Relation Name").asText())) {
+      problems.add("Sequential scan on " + node.path("Relation Name").asText());
+    }
+    for (JsonNode child : node.path("Plans")) {
+      collectSeqScans(child, problems);
+    }
+  }
+
+  /**
+   * Renders a plan as an indented tree, one node per line.
+   *
+   * @param node      a node of the plan
+   * @param withCosts whether the estimated costs and rows are rendered
+   * @param depth     the depth of the node
+   * @return the rendered plan
+   */
+  private static String render(JsonNode node, boolean withCosts, int depth) {
+    StringBuilder line = new StringBuilder("  ".repeat(depth)).append(depth > 0 ? "-> " : "")
+        .append(node.path("Node Type").asText());
+    if (node.has("Index Name")) {
+      line.append(" using ").append(node.get("Index Name").asText());
+    }
+    if (node.has("Relation Name")) {
+      line.append(" on ").append(node.get("Relation Name").asText());
+    }
+    if (withCosts) {
+      line.append("  (cost=").append(node.path("Total Cost").asText())
+          .append(" rows=").append(node.path("Plan Rows").asText()).append(')');
+    }
+    line.append('\n');
+    for (JsonNode child : node.path("Plans")) {
+      line.append(render(child, withCosts, depth + 1));
+    }
+    return line.toString();
+  }
+
+  /**
+   * Computes a line diff between two texts, the removed lines being prefixed by a minus sign and
+   * the added ones by a plus sign.
+   *
+   * @param expected the expected text
+   * @param actual   the actual text
+   * @return the diff
+   */
+  private static String diff(String expected, String actual) {
+    String[] a = expected.split("\n");
+    String[] b = actual.split("\n");
+    int[][] common = new int[a.length + 1][b.length + 1];
+    for (int i = a.length - 1; i >= 0; i--) {
+      for (int j = b.length - 1; j >= 0; j--) {
+        common[i][j] = a[i].equals(b[j]) ? common[i + 1][j + 1] + 1
+            : Math.max(common[i + 1][j], common[i][j + 1]);
+      }
+    }
+    StringBuilder diff = new StringBuilder();
+    int i = 0;
+    int j = 0;
+    while (i < a.length || j < b.length) {
+      if (i < a.length && j < b.length && a[i].equals(b[j])) {
+        diff.append("  ").append(a[i++]).append('\n');
+        j++;
+      } else if (j < b.length && (i == a.length || common[i][j + 1] >= common[i + 1][j])) {
+        diff.append("+ ").append(b[j++]).append('\n');
+      } else {
+        diff.append("- ").append(a[i++]).append('\n');
+      }
+    }
+    return diff.toString();
+  }
+}
@@ -0,0 +1,276 @@
+package be.vinci.pae.dal;
+
+import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.DomainFactoryImpl;
+import be.vinci.pae.business.PageRequest;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+
+/**
+ * The SqlRecorder class finds the SQL statements issued by the DAOs. It calls every public method
+ * of the DAO implementations with sample arguments against a DALBackServices that never reaches a
+ * database: the statements it hands out record their SQL text and bound parameters, and return
+ * empty results. The methods taking a PageRequest are called once for every sort they accept.
+ */
+final class SqlRecorder {
+
+  // Fields tried as the sort of the paged methods, the ones a DAO does not accept are skipped
+  private static final List<String> SORTS = List.of("id", "-id", "lastName", "firstName", "role",
+      "schoolYear", "tradeName", "city", "contactStatus");
+
+  // The statements recorded so far, keyed by their SQL text
+  private final Map<String, RecordedStatement> statements = new LinkedHashMap<>();
+
+  // The DAO method being called
+  private String source;
+
+  // The sort given to the paged method being called
+  private String sort;
+
+  /**
+   * Calls every public method of the given DAO implementations and records their statements.
+   *
+   * @param daoClasses the DAO implementations
+   * @return the recorded statements, each one with the first method that issued it
+   */
+  List<RecordedStatement> record(Class<?>... daoClasses) {
+    DALBackServices dalBackServices = Mockito.mock(DALBackServices.class, this::answer);
+    ServiceLocator locator = ServiceLocatorUtilities.bind(new AbstractBinder() {
+      @Override
+      protected void configure() {
+        bind(DomainFactoryImpl.class).to(DomainFactory.class);
+        bind(dalBackServices).to(DALBackServices.class);
+      }
+    });
+    DomainFactory domainFactory = locator.getService(DomainFactory.class);
+    for (Class<?> daoClass : daoClasses) {
+      Object dao = locator.createAndInitialize(daoClass);
+      Method[] methods = daoClass.getDeclaredMethods();
+      Arrays.sort(methods, Comparator.comparing(Method::getName));
+      for (Method method : methods) {
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+            || method.isSynthetic()) {
+          continue;
+        }
+        boolean paged = Arrays.asList(method.getParameterTypes()).contains(PageRequest.class);
+        for (String candidate : paged ? SORTS : List.of("id")) {
+          sort = candidate;
+          source = daoClass.getSimpleName() + "." + method.getName()
+              + (paged ? "(sort=" + candidate + ")" : "");
+          call(dao, method, domainFactory);
+        }
+      }
+    }
+    return new ArrayList<>(statements.values());
+  }
+
+  /**
+   * Calls a DAO method with sample arguments. The exceptions are ignored: the statements issued
+   * before them are recorded all the same.
+   *
+   * @param dao           the DAO
+   * @param method        the method to call
+   * @param domainFactory the factory of the sample domain objects
+   */
+  private void call(Object dao, Method method, DomainFactory domainFactory) {
+    Type[] types = method.getGenericParameterTypes();
+    Object[] args = new Object[types.length];
+    for (int i = 0; i < types.length; i++) {
+      args[i] = sample(types[i], domainFactory);
+    }
+    try {
+      method.invoke(dao, args);
+    } catch (InvocationTargetException | IllegalAccessException e) {
+      // Unsupported sort, or a result the empty statements cannot provide
+    }
+  }
+
+  /**
+   * Creates a sample argument of a given type.
+   *
+   * @param type          the type of the argument
+   * @param domainFactory the factory of the sample domain objects
+   * @return the sample argument, or null for an unsupported type
+   */
+  private Object sample(Type type, DomainFactory domainFactory) {
+    Class<?> raw = (Class<?>) (type instanceof ParameterizedType parameterized
+        ? parameterized.getRawType() : type);
+    if (raw == int.class || raw == Integer.class) {
+      return 1;
+    }
+    if (raw == String.class) {
+      return "test";
+    }
+    if (raw == Instant.class) {
+      return Instant.now();
+    }
+    if (raw == PageRequest.class) {
+      String cursor = PageRequest.of(PageRequest.DEFAULT_LIMIT, null, sort).cursor("M", 1);
+      return PageRequest.of(PageRequest.DEFAULT_LIMIT, cursor, sort);
+    }
+    if (raw == List.class && type instanceof ParameterizedType parameterized) {
+      return List.of(sample(parameterized.getActualTypeArguments()[0], domainFactory));
+    }
+    if (raw == Consumer.class) {
+      return (Consumer<Object>) item -> {
+      };
+    }
+    for (Method factoryMethod : DomainFactory.class.getMethods()) {
+      if (factoryMethod.getParameterCount() == 0 && factoryMethod.getReturnType() == raw) {
+        try {
+          return fill(factoryMethod.invoke(domainFactory));
+        } catch (ReflectiveOperationException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+    return raw.isPrimitive() ? defaultValue(raw) : null;
+  }
+
+  /**
+   * Fills the String, int, boolean and enum properties of a domain object with sample values, so
+   * that the DAOs can bind them.
+   *
+   * @param dto the domain object
+   * @return the domain object
+   */
+  private static Object fill(Object dto) {
+    for (Method setter : dto.getClass().getMethods()) {
+      if (!setter.getName().startsWith("set") || setter.getParameterCount() != 1) {
+        continue;
+      }
+      Class<?> type = setter.getParameterTypes()[0];
+      Object value;
+      if (type == String.class) {
+        value = "test";
+      } else if (type == int.class) {
+        value = 1;
+      } else if (type == boolean.class) {
+        value = false;
+      } else if (type.isEnum()) {
+        value = type.getEnumConstants()[0];
+      } else {
+        continue;
+      }
+      try {
+        setter.invoke(dto, value);
+      } catch (ReflectiveOperationException e) {
+        // Not a plain property
+      }
+    }
+    return dto;
+  }
+
+  /**
+   * Answers the calls made to the recording DALBackServices.
+   *
+   * @param invocation the call
+   * @return a recording statement, or the number of rows of a batch
+   * @throws Throwable if a batch binder fails
+   */
+  @SuppressWarnings("unchecked")
+  private Object answer(InvocationOnMock invocation) throws Throwable {
+    switch (invocation.getMethod().getName()) {
+      case "getPreparedStatement", "getStreamingStatement" -> {
+        return statement(invocation.getArgument(0));
+      }
+      case "executeBatch" -> {
+        List<Object> rows = invocation.getArgument(1);
+        StatementBinder<Object> binder = invocation.getArgument(2);
+        PreparedStatement ps = statement(invocation.getArgument(0));
+        if (!rows.isEmpty()) {
+          binder.bind(ps, 0, rows.get(0));
+        }
+        return rows.size();
+      }
+      default -> {
+        return defaultValue(invocation.getMethod().getReturnType());
+      }
+    }
+  }
+
+  /**
+   * Creates a statement recording its SQL text and bound parameters.
+   *
+   * @param sql the SQL text
+   * @return the recording statement
+   */
+  private PreparedStatement statement(String sql) {
+    Map<Integer, Object> parameters = new TreeMap<>();
+    statements.putIfAbsent(sql, new RecordedStatement(source, sql, parameters));
+    return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+          String name = method.getName();
+          if (name.startsWith("set") && args != null && args.length >= 2
+              && args[0] instanceof Integer index) {
+            parameters.put(index, name.equals("setNull") ? null : args[1]);
+            return null;
+          }
+          return switch (name) {
+            case "executeQuery", "getGeneratedKeys", "getResultSet" -> emptyResultSet();
+            case "executeUpdate" -> 1;
+            case "executeBatch" -> new int[0];
+            default -> defaultValue(method.getReturnType());
+          };
+        });
+  }
+
+  /**
+   * Creates a ResultSet without any column nor row.
+   *
+   * @return the empty ResultSet
+   */
+  private ResultSet emptyResultSet() {
+    ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+        (proxy, method, args) -> defaultValue(method.getReturnType()));
+    return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[]{ResultSet.class},
+        (proxy, method, args) -> method.getName().equals("getMetaData") ? metaData
+            : defaultValue(method.getReturnType()));
+  }
+
+  /**
+   * Returns the default value of a type: false, zero or null.
+   *
+   * @param type the type
+   * @return the default value of the type
+   */
+  private static Object defaultValue(Class<?> type) {
+    return type.isPrimitive() && type != void.class ? Array.get(Array.newInstance(type, 1), 0)
+        : null;
+  }
+
+  /**
+   * A statement issued by a DAO.
+   *
+   * @param source     the DAO method that issued it first
+   * @param sql        the SQL text
+   * @param parameters the values bound to its parameters, keyed by their index
+   */
+  record RecordedStatement(String source, String sql, Map<Integer, Object> parameters) {
+
+  }
+}
@@ -0,0 +1,81 @@
+package be.vinci.pae.dal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.apache.commons.dbcp2.PoolingConnection;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the StatementCache class, against the mocked statement pool of a connection.
+ */
+class StatementCacheTest {
+
+  private final StatementCache statementCache = new StatementCache(64);
+  private final GenericKeyedObjectPool<?, ?> pool = Mockito.mock(GenericKeyedObjectPool.class);
+  private final DelegatingConnection<?> connection = Mockito.mock(DelegatingConnection.class);
+
+  /**
+   * Set up a pooled connection wrapping a connection whose pool served 10 statements, 3 of which
+   * were prepared and 1 closed.
+   */
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setup() {
+    PoolingConnection pooling = Mockito.mock(PoolingConnection.class);
+    Mockito.when(pooling.getStatementPool()).thenReturn((GenericKeyedObjectPool) pool);
+    Mockito.when(((DelegatingConnection<Connection>) connection).getDelegate())
+        .thenReturn(pooling);
+    Mockito.when(pool.getBorrowedCount()).thenReturn(10L);
+    Mockito.when(pool.getCreatedCount()).thenReturn(3L);
+    Mockito.when(pool.getDestroyedCount()).thenReturn(1L);
+    Mockito.when(pool.getNumIdle()).thenReturn(2);
+  }
+
+  /**
+   * Test for the counters of a registered statement pool.
+   */
+  @DisplayName("test the counters of a connection are read from its statement pool")
+  @Test
+  void register() {
+    statementCache.register(connection);
+    statementCache.register(connection);
+
+    assertEquals(7, statementCache.getHits());
+    assertEquals(3, statementCache.getMisses());
+    assertEquals(1, statementCache.getEvictions());
+    assertEquals(2, statementCache.getSize());
+    assertEquals(0.7, statementCache.getHitRatio(), 1e-9);
+  }
+
+  /**
+   * Test for the counters of a statement pool closed along with its connection.
+   */
+  @DisplayName("test the counters of a closed connection are kept in the totals")
+  @Test
+  void closedPool() {
+    statementCache.register(connection);
+    Mockito.when(pool.isClosed()).thenReturn(true);
+
+    assertEquals(7, statementCache.getHits());
+    assertEquals(3, statementCache.getMisses());
+    assertEquals(0, statementCache.getSize());
+  }
+
+  /**
+   * Test for a connection without a statement pool.
+   */
+  @DisplayName("test a connection without a statement pool is ignored")
+  @Test
+  void registerUnpooled() {
+    statementCache.register(Mockito.mock(Connection.class));
+
+    assertEquals(0, statementCache.getMisses());
+    assertEquals(0, statementCache.getHitRatio());
+  }
+}
@@ -0,0 +1,94 @@
+package be.vinci.pae.dal.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import be.vinci.pae.dal.migration.MigrationRunner.Migration;
+import be.vinci.pae.exception.FatalException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the MigrationRunner class, on the scripts of src/test/resources/db/migration-test
+ * and without any database.
+ */
+class MigrationRunnerTest {
+
+  private static final String LOCATION = "db/migration-test/";
+
+  /**
+   * Test for the parsing of the migrations.list file.
+   */
+  @DisplayName("test the listed scripts are loaded in order, skipping comments and blank lines")
+  @Test
+  void loadMigrations() {
+    List<Migration> migrations = MigrationRunner.loadMigrations(LOCATION + "ordered/");
+    assertEquals(List.of(1, 2), migrations.stream().map(Migration::version).toList());
+    assertEquals(List.of("create items", "index items"),
+        migrations.stream().map(Migration::description).toList());
+    assertEquals("CREATE INDEX items_name ON pae.items (name);", migrations.get(1).script());
+    assertTrue(migrations.get(0).checksum().matches("[0-9a-f]{64}"));
+  }
+
+  /**
+   * Test for the scripts shipped with the application.
+   */
+  @DisplayName("test the scripts of the application are listed by increasing version")
+  @Test
+  void loadApplicationMigrations() {
+    List<Integer> versions = MigrationRunner.loadMigrations().stream().map(Migration::version)
+        .toList();
+    assertEquals(versions.stream().sorted().distinct().toList(), versions);
+    assertEquals(1, versions.get(0));
+  }
+
+  /**
+   * Test for scripts listed out of order.
+   */
+  @DisplayName("test scripts listed by decreasing version are rejected")
+  @Test
+  void loadMigrationsUnordered() {
+    FatalException e = assertThrows(FatalException.class,
+        () -> MigrationRunner.loadMigrations(LOCATION + "unordered/"));
+    assertTrue(e.getMessage().contains("V1__create_items.sql"));
+  }
+
+  /**
+   * Test for a listed script that does not exist.
+   */
+  @DisplayName("test a listed script that is missing is rejected")
+  @Test
+  void loadMigrationsMissingScript() {
+    FatalException e = assertThrows(FatalException.class,
+        () -> MigrationRunner.loadMigrations(LOCATION + "missing/"));
+    assertTrue(e.getMessage().contains("V2__index_items.sql"));
+  }
+
+  /**
+   * Test for the scripts left to apply.
+   */
+  @DisplayName("test only the scripts that have not been applied are pending")
+  @Test
+  void pending() {
+    List<Migration> migrations = MigrationRunner.loadMigrations(LOCATION + "ordered/");
+    assertEquals(List.of(migrations.get(1)), MigrationRunner.pending(migrations,
+        Map.of(1, migrations.get(0).checksum())));
+    assertEquals(migrations, MigrationRunner.pending(migrations, Map.of()));
+  }
+
+  /**
+   * Test for an applied script modified afterwards.
+   */
+  @DisplayName("test an applied script whose checksum changed is detected")
+  @Test
+  void pendingModifiedScript() {
+    List<Migration> migrations = MigrationRunner.loadMigrations(LOCATION + "ordered/");
+    Map<Integer, String> applied = Map.of(1, migrations.get(0).checksum(), 2, "0".repeat(64));
+    FatalException e = assertThrows(FatalException.class,
+        () -> MigrationRunner.pending(migrations, applied));
+    assertTrue(e.getMessage().contains("V2"));
+  }
+}
@@ -0,0 +1,102 @@
+package be.vinci.pae.dal.utils;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the RowMapper class, against a mocked ResultSet joining two tables.
+ */
+class RowMapperTest {
+
+  private final ResultSet rs = Mockito.mock(ResultSet.class);
+  private final AtomicInteger created = new AtomicInteger();
+
+  /**
+   * Set up a row of the items table joined with the shops table, both having a name column.
+   *
+   * @throws SQLException never
+   */
+  @BeforeEach
+  void setup() throws SQLException {
+    ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+    Mockito.when(rs.getMetaData()).thenReturn(metaData);
+    Mockito.when(metaData.getColumnCount()).thenReturn(3);
+    Mockito.when(metaData.getColumnLabel(1)).thenReturn("idItem");
+    Mockito.when(metaData.getColumnLabel(2)).thenReturn("name");
+    Mockito.when(metaData.getColumnLabel(3)).thenReturn("name");
+    Mockito.when(metaData.getTableName(1)).thenReturn("items");
+    Mockito.when(metaData.getTableName(2)).thenReturn("shops");
+    Mockito.when(metaData.getTableName(3)).thenReturn("items");
+    Mockito.when(rs.getInt(1)).thenReturn(7);
+    Mockito.when(rs.getString(2)).thenReturn("Shop");
+    Mockito.when(rs.getString(3)).thenReturn("Item");
+  }
+
+  /**
+   * Returns a mapper of the items of the row, counting the created items.
+   *
+   * @return the mapper of the items
+   * @throws SQLException never
+   */
+  private RowMapper<Item> itemMapper() throws SQLException {
+    Supplier<Item> factory = () -> {
+      created.incrementAndGet();
+      return new Item();
+    };
+    return RowMapper.of(rs, "items", factory);
+  }
+
+  /**
+   * Test for the mapping of the columns of a table.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test only the columns of the table are mapped")
+  @Test
+  void mapTable() throws SQLException {
+    Item item = itemMapper().map(rs);
+    assertAll(
+        () -> assertEquals(7, item.idItem),
+        () -> assertEquals("Item", item.name),
+        () -> assertNull(item.missing)
+    );
+  }
+
+  /**
+   * Test for the objects created by the factory.
+   *
+   * @throws SQLException never
+   */
+  @DisplayName("test a cached plan creates an object for each mapped row only")
+  @Test
+  void cachedPlan() throws SQLException {
+    itemMapper();
+    created.set(0);
+    RowMapper<Item> mapper = itemMapper();
+    assertEquals(0, created.get());
+    mapper.map(rs);
+    mapper.map(rs);
+    assertEquals(2, created.get());
+  }
+
+  /**
+   * A mapped object.
+   */
+  private static final class Item {
+
+    private int idItem;
+    private String name;
+    private String missing;
+  }
+}
@@ -0,0 +1,188 @@
+package be.vinci.pae.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.security.KeyStore;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the ProtocolProfile class.
+ */
+class ProtocolProfileTest {
+
+  private static final String PASSWORD = "test password";
+
+  @TempDir
+  java.nio.file.Path directory;
+
+  private HttpServer server;
+
+  /**
+   * Stops the server.
+   */
+  @AfterEach
+  void tearDown() {
+    if (server != null) {
+      server.shutdownNow();
+    }
+  }
+
+  /**
+   * Creates the protocols of the test server.
+   *
+   * @param keyStore the path of the key store, or null for plain HTTP
+   * @return the protocols
+   */
+  private static ProtocolProfile protocols(String keyStore) {
+    return new ProtocolProfile(keyStore, PASSWORD, "PKCS12", 100, 600, true, true, 16, 65_535,
+        16_384, 8192);
+  }
+
+  /**
+   * Starts a server with the given protocols.
+   *
+   * @param uri       the base URI of the server
+   * @param protocols the protocols
+   * @throws Exception if the server cannot be started
+   */
+  private void start(String uri, ProtocolProfile protocols) throws Exception {
+    ServerProfile profile = new ServerProfile(0, 2, 2, 16, 16, 5, 5000, 5000, 8192, false);
+    server = GrizzlyHttpServerFactory.createHttpServer(URI.create(uri),
+        new ResourceConfig(PingResource.class), protocols.isSecure(),
+        protocols.sslEngineConfigurator(), false);
+    profile.configure(server, new WorkerPool(profile));
+    protocols.configure(server);
+    server.start();
+  }
+
+  /**
+   * Creates a key store holding a self-signed certificate for localhost, with the keytool of the
+   * running JDK.
+   *
+   * @return the path of the key store
+   * @throws Exception if the key store cannot be created
+   */
+  private java.nio.file.Path createKeyStore() throws Exception {
+    java.nio.file.Path keyStore = directory.resolve("server.p12");
+    String keytool = java.nio.file.Path.of(System.getProperty("java.home"), "bin", "keytool")
+        .toString();
+    Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "server", "-keyalg",
+        "EC", "-dname", "CN=localhost", "-ext", "san=dns:localhost", "-validity", "1",
+        "-storetype", "PKCS12", "-keystore", keyStore.toString(), "-storepass", PASSWORD)
+        .redirectErrorStream(true).start();
+    process.getInputStream().readAllBytes();
+    assertEquals(0, process.waitFor());
+    return keyStore;
+  }
+
+  /**
+   * Test for HTTP/2 negotiated with ALPN over TLS.
+   *
+   * @throws Exception if the server cannot be started or the request fails
+   */
+  @DisplayName("test HTTP/2 is negotiated over HTTPS")
+  @Test
+  void http2OverTls() throws Exception {
+    java.nio.file.Path keyStore = createKeyStore();
+    start("https://localhost:18443/", protocols(keyStore.toString()));
+
+    KeyStore trusted = KeyStore.getInstance("PKCS12");
+    try (InputStream input = Files.newInputStream(keyStore)) {
+      trusted.load(input, PASSWORD.toCharArray());
+    }
+    TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+        TrustManagerFactory.getDefaultAlgorithm());
+    trustManagers.init(trusted);
+    SSLContext context = SSLContext.getInstance("TLS");
+    context.init(null, trustManagers.getTrustManagers(), null);
+    HttpClient client = HttpClient.newBuilder().sslContext(context)
+        .version(HttpClient.Version.HTTP_2).build();
+
+    HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+        URI.create("https://localhost:18443/ping")).build(), HttpResponse.BodyHandlers.ofString());
+    assertEquals(200, response.statusCode());
+    assertEquals(HttpClient.Version.HTTP_2, response.version());
+    assertEquals("pong", response.body());
+  }
+
+  /**
+   * Test for HTTP/2 in clear text, through the HTTP/1.1 upgrade.
+   *
+   * @throws Exception if the server cannot be started or the request fails
+   */
+  @DisplayName("test HTTP/2 is served in clear text")
+  @Test
+  void http2CleartextUpgrade() throws Exception {
+    start("http://localhost:18084/", protocols(null));
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:18084/ping"))
+        .build();
+
+    // The first request upgrades the connection, the next ones are sent over HTTP/2
+    assertEquals("pong", client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    assertEquals(HttpClient.Version.HTTP_2, response.version());
+    assertEquals("pong", response.body());
+  }
+
+  /**
+   * Test for the protocols read from the configuration.
+   */
+  @DisplayName("test fromConfig method")
+  @Test
+  void fromConfig() {
+    ProtocolProfile protocols = ProtocolProfile.fromConfig("http://localhost:8080/");
+    assertFalse(protocols.isSecure());
+    assertFalse(protocols.http2());
+    assertEquals(100, protocols.maxConcurrentStreams());
+    assertThrows(IllegalArgumentException.class,
+        () -> ProtocolProfile.fromConfig("https://localhost:8443/"));
+  }
+
+  /**
+   * Test for the TLS configuration of a plain HTTP server.
+   *
+   * @throws Exception if the configuration fails
+   */
+  @DisplayName("test sslEngineConfigurator method without HTTPS")
+  @Test
+  void sslEngineConfiguratorWithoutHttps() throws Exception {
+    assertNull(protocols(null).sslEngineConfigurator());
+  }
+
+  /**
+   * A resource answering at once.
+   */
+  @Path("/ping")
+  public static class PingResource {
+
+    /**
+     * Answers the request.
+     *
+     * @return a text
+     */
+    @GET
+    public String ping() {
+      return "pong";
+    }
+  }
+}
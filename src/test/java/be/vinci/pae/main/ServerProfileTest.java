@@ -0,0 +1,163 @@
+package be.vinci.pae.main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Predicate;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ServerProfile class and the worker pool of the server.
+ */
+class ServerProfileTest {
+
+  private static final String BASE_URI = "http://localhost:18082/";
+
+  // Blocks the requests of the test resource until it is counted down
+  private static CountDownLatch release;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private WorkerPool workers;
+  private HttpServer server;
+
+  /**
+   * Starts a server with a single worker thread and a queue of a single request.
+   *
+   * @throws Exception if the server cannot be started
+   */
+  @BeforeEach
+  void setup() throws Exception {
+    release = new CountDownLatch(1);
+    ServerProfile profile = new ServerProfile(1, 1, 1, 1, 16, 5, 5000, 5000, 8192, false);
+    workers = new WorkerPool(profile);
+    server = GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI),
+        new ResourceConfig(BlockingResource.class), false);
+    profile.configure(server, workers);
+    server.start();
+  }
+
+  /**
+   * Releases the blocked requests and stops the server.
+   */
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    server.shutdownNow();
+  }
+
+  /**
+   * Test for the rejection of the requests once the queue of the workers is full.
+   *
+   * @throws Exception if a request fails
+   */
+  @DisplayName("test the requests are rejected with a 503 status when the queue is full")
+  @Test
+  void rejectWhenQueueFull() throws Exception {
+    final CompletableFuture<HttpResponse<String>> running = send();
+    awaitStats(stats -> stats.get("inFlight").equals(1));
+    final CompletableFuture<HttpResponse<String>> queued = send();
+    awaitStats(stats -> stats.get("queued").equals(1));
+
+    HttpResponse<String> rejected = send().get();
+    assertEquals(503, rejected.statusCode());
+    assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null));
+    assertEquals(1L, workers.getWorkerPoolStats().get("rejected"));
+
+    release.countDown();
+    assertEquals(200, running.get().statusCode());
+    assertEquals(200, queued.get().statusCode());
+  }
+
+  /**
+   * Test for the statistics of the worker pool.
+   */
+  @DisplayName("test getWorkerPoolStats method")
+  @Test
+  void getWorkerPoolStats() {
+    Map<String, Object> stats = workers.getWorkerPoolStats();
+    assertFalse((Boolean) stats.get("virtualThreads"));
+    assertEquals(1, stats.get("maxThreads"));
+    assertEquals(1, stats.get("queueCapacity"));
+    assertEquals(0L, stats.get("rejected"));
+    assertEquals(8192, ((Map<?, ?>) stats.get("settings")).get("maxHeaderSize"));
+  }
+
+  /**
+   * Test for the checks of the settings.
+   */
+  @DisplayName("test the core of the workers cannot be larger than the maximum")
+  @Test
+  void invalidWorkerThreads() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ServerProfile(0, 4, 2, 10, 16, 5, 5000, 5000, 8192, false));
+  }
+
+  /**
+   * Test for the default settings.
+   */
+  @DisplayName("test fromConfig method without properties")
+  @Test
+  void fromConfigDefaults() {
+    ServerProfile profile = ServerProfile.fromConfig();
+    assertEquals(256, profile.workerQueueLimit());
+    assertEquals(profile.workerCoreThreads(), profile.workerMaxThreads());
+    assertFalse(profile.virtualThreads());
+  }
+
+  /**
+   * Sends a request to the blocking resource.
+   *
+   * @return the future response
+   */
+  private CompletableFuture<HttpResponse<String>> send() {
+    return client.sendAsync(HttpRequest.newBuilder(URI.create(BASE_URI + "blocking")).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  /**
+   * Waits until the statistics of the worker pool match a condition.
+   *
+   * @param condition the condition
+   * @throws InterruptedException if the thread is interrupted
+   */
+  private void awaitStats(Predicate<Map<String, Object>> condition) throws InterruptedException {
+    for (int i = 0; i < 500 && !condition.test(workers.getWorkerPoolStats()); i++) {
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * A resource whose requests wait for the test.
+   */
+  @Path("/blocking")
+  public static class BlockingResource {
+
+    /**
+     * Waits until the test releases the requests.
+     *
+     * @return a text
+     * @throws InterruptedException if the thread is interrupted
+     */
+    @GET
+    public String block() throws InterruptedException {
+      release.await();
+      return "done";
+    }
+  }
+}
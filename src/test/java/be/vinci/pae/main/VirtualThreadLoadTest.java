@@ -0,0 +1,228 @@
+package be.vinci.pae.main;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+
+/**
+ * Load test of the embedded server with a pool of worker threads and with virtual threads. The
+ * clients send a burst of requests, most of them holding a simulated database connection for a
+ * few milliseconds, the others answering at once. The number of requests using the database at
+ * the same time is bounded by a semaphore sized like the connection pool, as in the data access
+ * layer. The throughput and the 50th and 99th percentiles of the latency are printed for each
+ * configuration.
+ *
+ * <p>It is not run by the test suite, and the virtual threads require Java 21. Run it after mvn
+ * test-compile with:
+ * {@code java -cp target/classes:target/test-classes:<dependencies>
+ * be.vinci.pae.main.VirtualThreadLoadTest [clients] [seconds] [queryMillis] [poolSize]}
+ */
+public final class VirtualThreadLoadTest {
+
+  // Port of the server under test
+  private static final int PORT = 18_081;
+
+  // Connections of the simulated pool
+  private static Semaphore pool;
+
+  // Duration of a simulated query
+  private static long queryMillis;
+
+  private VirtualThreadLoadTest() {
+  }
+
+  /**
+   * Runs the load test.
+   *
+   * @param args the number of clients, the duration of each run in seconds, the duration of a
+   *             query in milliseconds and the size of the pool
+   * @throws Exception if the server cannot be started
+   */
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    queryMillis = args.length > 2 ? Long.parseLong(args[2]) : 10;
+    int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+    pool = new Semaphore(poolSize, true);
+
+    System.out.printf("%d clients, %d s per run, %d ms queries, pool of %d, Java %d%n", clients,
+        seconds, queryMillis, poolSize, Runtime.version().feature());
+    run("platform", false, clients, seconds);
+    if (VirtualThreads.isSupported()) {
+      run("virtual", true, clients, seconds);
+    } else {
+      System.out.println("virtual: requires Java 21");
+    }
+  }
+
+  /**
+   * Starts a server, sends the requests of the clients and prints the results.
+   *
+   * @param name           the name of the configuration
+   * @param virtualThreads whether the requests run on virtual threads
+   * @param clients        the number of clients
+   * @param seconds        the duration of the run
+   * @throws Exception if the server cannot be started
+   */
+  private static void run(String name, boolean virtualThreads, int clients, int seconds)
+      throws Exception {
+    ResourceConfig config = new ResourceConfig(LoadResource.class);
+    HttpServer server = GrizzlyHttpServerFactory.createHttpServer(
+        URI.create("http://localhost:" + PORT + "/"), config, false);
+    // Two workers, as Grizzly creates by default on a single processor, and an unbounded queue
+    ServerProfile profile = new ServerProfile(0, 2, 2, -1, 256, 30, 30_000, 30_000, 8192,
+        virtualThreads);
+    profile.configure(server, new WorkerPool(profile));
+    server.start();
+    try {
+      // The first seconds warm up the server and the clients
+      load(clients, Math.max(1, seconds / 3));
+      Map<String, long[]> latencies = load(clients, seconds);
+      latencies.forEach((path, values) -> {
+        Arrays.sort(values);
+        System.out.printf("%-9s %-6s %8.0f req/s  p50 %7.1f ms  p99 %7.1f ms%n", name, path,
+            (double) values.length / seconds, percentile(values, 0.50),
+            percentile(values, 0.99));
+      });
+    } finally {
+      server.shutdownNow();
+    }
+  }
+
+  /**
+   * Sends requests from several clients during a given time, each client sending its next
+   * request as soon as the previous one is answered. One request in ten is a ping.
+   *
+   * @param clients the number of clients
+   * @param seconds the duration of the load
+   * @return the latencies of the requests, in nanoseconds, by path
+   * @throws Exception if a client fails
+   */
+  private static Map<String, long[]> load(int clients, int seconds) throws Exception {
+    HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10)).build();
+    HttpRequest query = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + PORT + "/load/query")).build();
+    HttpRequest ping = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + PORT + "/load/ping")).build();
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    try {
+      long end = System.nanoTime() + seconds * 1_000_000_000L;
+      List<Callable<long[][]>> tasks = new ArrayList<>();
+      for (int i = 0; i < clients; i++) {
+        tasks.add(() -> {
+          List<Long> queries = new ArrayList<>();
+          List<Long> pings = new ArrayList<>();
+          while (System.nanoTime() < end) {
+            boolean isPing = ThreadLocalRandom.current().nextInt(10) == 0;
+            long start = System.nanoTime();
+            http.send(isPing ? ping : query, HttpResponse.BodyHandlers.discarding());
+            (isPing ? pings : queries).add(System.nanoTime() - start);
+          }
+          return new long[][]{toArray(queries), toArray(pings)};
+        });
+      }
+      List<long[]> queries = new ArrayList<>();
+      List<long[]> pings = new ArrayList<>();
+      for (Future<long[][]> future : executor.invokeAll(tasks)) {
+        queries.add(future.get()[0]);
+        pings.add(future.get()[1]);
+      }
+      return Map.of("query", concat(queries), "ping", concat(pings));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Returns a percentile of sorted values.
+   *
+   * @param sorted   the sorted latencies, in nanoseconds
+   * @param quantile the quantile, between 0 and 1
+   * @return the percentile, in milliseconds
+   */
+  private static double percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1_000_000.0;
+  }
+
+  /**
+   * Converts a list of latencies to an array.
+   *
+   * @param values the latencies
+   * @return the array of the latencies
+   */
+  private static long[] toArray(List<Long> values) {
+    return values.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * Concatenates arrays of latencies.
+   *
+   * @param arrays the arrays
+   * @return the concatenated array
+   */
+  private static long[] concat(List<long[]> arrays) {
+    return arrays.stream().flatMapToLong(Arrays::stream).toArray();
+  }
+
+  /**
+   * The resource under load.
+   */
+  @Path("/load")
+  public static class LoadResource {
+
+    /**
+     * Holds a connection of the simulated pool during a query.
+     *
+     * @return a small JSON body
+     * @throws InterruptedException if the thread is interrupted
+     */
+    @GET
+    @Path("/query")
+    @Produces(MediaType.APPLICATION_JSON)
+    public String query() throws InterruptedException {
+      pool.acquire();
+      try {
+        Thread.sleep(queryMillis);
+      } finally {
+        pool.release();
+      }
+      return "{\"rows\":1}";
+    }
+
+    /**
+     * Answers at once, without using the database.
+     *
+     * @return a small JSON body
+     */
+    @GET
+    @Path("/ping")
+    @Produces(MediaType.APPLICATION_JSON)
+    public String ping() {
+      return "{\"pong\":true}";
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package be.vinci.pae.presentation;
+
+import be.vinci.pae.business.DomainFactory;
+import be.vinci.pae.business.DomainFactoryImpl;
+import be.vinci.pae.business.contact.ContactDTO;
+import be.vinci.pae.business.entreprise.EnterpriseDTO;
+import be.vinci.pae.business.responsable.ResponsableStageDTO;
+import be.vinci.pae.business.user.UserDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Microbenchmark of the gzip compression of the responses of the list endpoints. The bodies are
+ * serialized from DTOs filled like the synthetic data set of the query plan tests. For each body
+ * and compression level, the size of the compressed body and the CPU time spent compressing it are
+ * printed, along with the CPU time spent for each kilobyte saved.
+ *
+ * <p>It is not run by the test suite. Run it after mvn test-compile with:
+ * {@code java -cp target/classes:target/test-classes:<dependencies>
+ * be.vinci.pae.presentation.CompressionBenchmark [iterations]}
+ */
+public final class CompressionBenchmark {
+
+  // The compression levels compared
+  private static final int[] LEVELS = {1, 3, 6, 9};
+
+  private static final DomainFactory FACTORY = new DomainFactoryImpl();
+
+  private CompressionBenchmark() {
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of compressions of each measure
+   * @throws IOException if a body cannot be compressed
+   */
+  public static void main(String[] args) throws IOException {
+    final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    ObjectMapper mapper = ObjectMapperResolver.objectMapper();
+    Map<String, byte[]> bodies = new LinkedHashMap<>();
+    bodies.put("GET /contact/all (8)", mapper.writeValueAsBytes(myContacts(mapper, 8)));
+    bodies.put("GET /enterprise (100)", mapper.writeValueAsBytes(enterprises(100)));
+    bodies.put("GET /enterprise (5000)", mapper.writeValueAsBytes(enterprises(5000)));
+    bodies.put("GET /auths/all (2000)", mapper.writeValueAsBytes(users(2000)));
+    bodies.put("GET /responsableStage/all (1000)",
+        mapper.writeValueAsBytes(responsables(1000)));
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    System.out.printf("%d compressions per measure%n", iterations);
+    for (int round = 0; round < 2; round++) {
+      // The first round warms up the JIT compiler
+      for (Map.Entry<String, byte[]> body : bodies.entrySet()) {
+        byte[] bytes = body.getValue();
+        for (int level : LEVELS) {
+          int size = 0;
+          long start = threads.getCurrentThreadCpuTime();
+          for (int i = 0; i < iterations; i++) {
+            size = gzip(bytes, level);
+          }
+          double micros = (threads.getCurrentThreadCpuTime() - start) / 1_000.0 / iterations;
+          if (round == 1) {
+            System.out.printf("%-34s level %d  %8d -> %7d bytes  x%5.1f  %8.1f us CPU"
+                    + "  %6.2f us per KB saved%n", body.getKey(), level, bytes.length, size,
+                (double) bytes.length / size, micros,
+                micros * 1024 / Math.max(1, bytes.length - size));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Compresses a body as the GzipCompressionFilter does.
+   *
+   * @param body  the body
+   * @param level the compression level
+   * @return the size of the compressed body
+   * @throws IOException if the body cannot be compressed
+   */
+  private static int gzip(byte[] body, int level) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4);
+    try (OutputStream gzip = new LevelGzipOutputStream(output, level)) {
+      gzip.write(body);
+    }
+    return output.size();
+  }
+
+  /**
+   * Creates enterprises like the synthetic data set.
+   *
+   * @param count the number of enterprises
+   * @return the enterprises
+   */
+  private static List<EnterpriseDTO> enterprises(int count) {
+    List<EnterpriseDTO> enterprises = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      enterprises.add(enterprise(i));
+    }
+    return enterprises;
+  }
+
+  /**
+   * Creates an enterprise like the synthetic data set.
+   *
+   * @param i the id of the enterprise
+   * @return the enterprise
+   */
+  private static EnterpriseDTO enterprise(int i) {
+    EnterpriseDTO enterprise = FACTORY.getEnterprise();
+    enterprise.setIdEnterprise(i);
+    enterprise.setTradeName("Entreprise " + Integer.toHexString(i * 0x9E3779B1));
+    enterprise.setDesignation(i % 4 == 0 ? "Site " + i % 7 : null);
+    enterprise.setPhoneNumber(String.format("02 000 %05d", i));
+    enterprise.setEmail("contact" + i + "@entreprise" + i + ".be");
+    enterprise.setBlacklisted(i % 50 == 0);
+    enterprise.setStreet("Rue " + i % 500);
+    enterprise.setStreetNumber(String.valueOf(i % 200));
+    enterprise.setPostalCode(String.valueOf(1000 + i % 9000));
+    enterprise.setCity("Ville " + i % 300);
+    enterprise.setCountry("Belgique");
+    enterprise.setVersionNumber(1);
+    return enterprise;
+  }
+
+  /**
+   * Creates users like the synthetic data set.
+   *
+   * @param count the number of users
+   * @return the users
+   */
+  private static List<UserDTO> users(int count) {
+    List<UserDTO> users = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      UserDTO user = FACTORY.getUser();
+      user.setIdUser(i);
+      user.setLastName("Nom" + Integer.toHexString(i * 31_337));
+      user.setFirstName("Prenom" + i % 997);
+      user.setEmail("user" + i + "@student.vinci.be");
+      user.setPhoneNumber(String.format("0490 %06d", i));
+      user.setRegistrationDate(String.format("01/09/%02d", 15 + i % 10));
+      user.setRole(i % 100 == 0 ? "TEACHER" : i % 100 == 1 ? "ADMINISTRATIVE" : "STUDENT");
+      user.setSchoolYear((2015 + i % 10) + "-" + (2016 + i % 10));
+      user.setVersionNumber(1);
+      users.add(user);
+    }
+    return users;
+  }
+
+  /**
+   * Creates internship supervisors like the synthetic data set.
+   *
+   * @param count the number of supervisors
+   * @return the supervisors
+   */
+  private static List<ResponsableStageDTO> responsables(int count) {
+    List<ResponsableStageDTO> responsables = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      ResponsableStageDTO responsable = FACTORY.getResponsableStage();
+      responsable.setResponsableId(i);
+      responsable.setLastName("Responsable" + Integer.toHexString(i * 7_919));
+      responsable.setFirstName("Prenom" + i % 389);
+      responsable.setEmail("responsable" + i + "@entreprise.be");
+      responsable.setPhoneNumber(String.format("0470 %06d", i));
+      responsable.setEnterprise(1 + i % 5000);
+      responsables.add(responsable);
+    }
+    return responsables;
+  }
+
+  /**
+   * Creates the body of GET /contact/all for a student, each contact with its enterprise.
+   *
+   * @param mapper the mapper
+   * @param count  the number of contacts
+   * @return the body
+   */
+  private static ObjectNode myContacts(ObjectMapper mapper, int count) {
+    String[] statuses = {"STARTED", "ADMITTED", "TURNED_DOWN", "ON_HOLD", "UNSUPERVISED",
+        "ACCEPTED"};
+    List<ContactDTO> contacts = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      ContactDTO contact = FACTORY.getContact();
+      contact.setIdContact(i);
+      contact.setUserId(42);
+      contact.setEnterprise(i * 7);
+      contact.setEnterpriseDTO(enterprise(i * 7));
+      contact.setContactStatus(statuses[i % statuses.length]);
+      contact.setMeetingPlace(i % 3 == 0 ? "Dans l'entreprise" : null);
+      contact.setReasonForRefusal(i % 5 == 2 ? "Pas de place" : null);
+      contact.setSchoolYear("2023-2024");
+      contact.setVersionNumber(1);
+      contacts.add(contact);
+    }
+    ObjectNode body = mapper.createObjectNode();
+    body.set("contacts", mapper.valueToTree(contacts));
+    body.set("statusCount", mapper.valueToTree(Map.of("number_started", 2, "number_admitted",
+        1, "number_turned_down", 2, "number_on_hold", 1, "number_unsupervised", 1,
+        "number_accepted", 1)));
+    return body;
+  }
+
+  /**
+   * A gzip stream with a given compression level.
+   */
+  private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+    /**
+     * Creates a gzip stream.
+     *
+     * @param output the stream receiving the compressed bytes
+     * @param level  the compression level
+     * @throws IOException if the gzip header cannot be written
+     */
+    private LevelGzipOutputStream(OutputStream output, int level) throws IOException {
+      super(output, 8192);
+      def.setLevel(level);
+    }
+  }
+}
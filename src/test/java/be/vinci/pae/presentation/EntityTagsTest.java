@@ -0,0 +1,163 @@
+package be.vinci.pae.presentation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the EntityTags class, through a resource handled in memory by Jersey.
+ */
+class EntityTagsTest {
+
+  // Number of times the resource was read
+  private static final AtomicInteger READS = new AtomicInteger();
+
+  // Version of the resource, null when it does not exist
+  private static volatile Integer version;
+
+  private static final ApplicationHandler HANDLER =
+      new ApplicationHandler(new ResourceConfig(TaggedResource.class));
+
+  /**
+   * A resource tagged with its version.
+   */
+  @Path("/tagged")
+  public static class TaggedResource {
+
+    /**
+     * Returns the resource, or a 304 Not Modified if the client holds its version.
+     *
+     * @param request the request, holding the preconditions
+     * @return the response
+     */
+    @GET
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response get(@Context Request request) {
+      return EntityTags.conditional(request, EntityTags.of("item", version), () -> {
+        READS.incrementAndGet();
+        return "item version " + version;
+      });
+    }
+  }
+
+  /**
+   * Set up a resource at version 3.
+   */
+  @BeforeEach
+  void setup() {
+    version = 3;
+    READS.set(0);
+  }
+
+  /**
+   * Sends a GET request to the resource.
+   *
+   * @param ifNoneMatch the If-None-Match header, or null
+   * @return the response
+   * @throws Exception if the request fails
+   */
+  private ContainerResponse get(String ifNoneMatch) throws Exception {
+    ContainerRequest request = new ContainerRequest(URI.create("http://localhost/"),
+        URI.create("http://localhost/tagged"), "GET", null, new MapPropertiesDelegate(), null);
+    if (ifNoneMatch != null) {
+      request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+    return HANDLER.apply(request, new ByteArrayOutputStream()).get();
+  }
+
+  /**
+   * Test for the tag of a response.
+   *
+   * @throws Exception if the request fails
+   */
+  @DisplayName("test the response is tagged with a weak tag and must be revalidated")
+  @Test
+  void tagResponse() throws Exception {
+    ContainerResponse response = get(null);
+    assertEquals(200, response.getStatus());
+    assertEquals("W/\"item-3\"", response.getHeaderString(HttpHeaders.ETAG));
+    String cacheControl = response.getHeaderString(HttpHeaders.CACHE_CONTROL);
+    assertTrue(cacheControl.contains("private") && cacheControl.contains("no-cache"),
+        cacheControl);
+    assertEquals(1, READS.get());
+  }
+
+  /**
+   * Test for a request holding the current version.
+   *
+   * @throws Exception if the request fails
+   */
+  @DisplayName("test an unchanged resource is not read and gives a 304")
+  @Test
+  void notModified() throws Exception {
+    ContainerResponse response = get("W/\"item-3\"");
+    assertEquals(304, response.getStatus());
+    assertEquals("W/\"item-3\"", response.getHeaderString(HttpHeaders.ETAG));
+    assertNull(response.getEntity());
+    assertEquals(0, READS.get());
+  }
+
+  /**
+   * Test for a request holding one of several tags.
+   *
+   * @throws Exception if the request fails
+   */
+  @DisplayName("test a list of tags matches when it holds the current one")
+  @Test
+  void notModifiedAmongTags() throws Exception {
+    assertEquals(304, get("W/\"item-2\", W/\"item-3\"").getStatus());
+    assertEquals(304, get("*").getStatus());
+    assertEquals(0, READS.get());
+  }
+
+  /**
+   * Test for a request holding an outdated version.
+   *
+   * @throws Exception if the request fails
+   */
+  @DisplayName("test a changed resource is read and sent with its new tag")
+  @Test
+  void modified() throws Exception {
+    version = 4;
+    ContainerResponse response = get("W/\"item-3\"");
+    assertEquals(200, response.getStatus());
+    assertEquals("W/\"item-4\"", response.getHeaderString(HttpHeaders.ETAG));
+    assertEquals("item version 4", response.getEntity());
+    assertEquals(1, READS.get());
+  }
+
+  /**
+   * Test for a resource which does not exist.
+   *
+   * @throws Exception if the request fails
+   */
+  @DisplayName("test a missing resource gives a 204 without being read")
+  @Test
+  void missing() throws Exception {
+    version = null;
+    ContainerResponse response = get("W/\"item-3\"");
+    assertEquals(204, response.getStatus());
+    assertNull(response.getHeaderString(HttpHeaders.ETAG));
+    assertEquals(0, READS.get());
+  }
+}
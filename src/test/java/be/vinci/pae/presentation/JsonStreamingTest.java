@@ -0,0 +1,82 @@
+package be.vinci.pae.presentation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the JsonStreaming class.
+ */
+class JsonStreamingTest {
+
+  /**
+   * Writes the streamed array of a list of items.
+   *
+   * @param items the items
+   * @return the JSON written
+   * @throws IOException never
+   */
+  private static String write(List<?> items) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    Consumer<Consumer<Object>> producer = items::forEach;
+    JsonStreaming.array(producer).write(output);
+    return output.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Test for an empty array.
+   *
+   * @throws IOException never
+   */
+  @DisplayName("test no item gives an empty array")
+  @Test
+  void empty() throws IOException {
+    assertEquals("[]", write(List.of()));
+  }
+
+  /**
+   * Test for an array of one item.
+   *
+   * @throws IOException never
+   */
+  @DisplayName("test a single item gives an array of one object")
+  @Test
+  void single() throws IOException {
+    assertEquals("[{\"id\":1}]", write(List.of(Map.of("id", 1))));
+  }
+
+  /**
+   * Test for an array of several items.
+   *
+   * @throws IOException never
+   */
+  @DisplayName("test several items are written in order and separated by commas")
+  @Test
+  void many() throws IOException {
+    assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]",
+        write(List.of(Map.of("id", 1), Map.of("id", 2), Map.of("id", 3))));
+  }
+
+  /**
+   * Test for a producer failing during the write.
+   */
+  @DisplayName("test a failure of the producer aborts the response")
+  @Test
+  void producerFails() {
+    Consumer<Consumer<Object>> producer = consumer -> {
+      consumer.accept(Map.of("id", 1));
+      throw new UncheckedIOException(new IOException("Broken pipe"));
+    };
+    assertThrows(IOException.class,
+        () -> JsonStreaming.array(producer).write(new ByteArrayOutputStream()));
+  }
+}
@@ -0,0 +1,76 @@
+package be.vinci.pae.presentation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import be.vinci.pae.business.user.UserDTO;
+import be.vinci.pae.presentation.requests.EditUserRequest;
+import be.vinci.pae.presentation.requests.LoginRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ObjectMapperResolver class and the binding of the request records.
+ */
+class ObjectMapperResolverTest {
+
+  private final ObjectMapperResolver resolver = new ObjectMapperResolver();
+  private final ObjectMapper objectMapper = resolver.getContext(Object.class);
+
+  /**
+   * Test that every type shares the mapper, which registers the Blackbird module.
+   */
+  @DisplayName("test getContext returns the shared mapper")
+  @Test
+  void getContext() {
+    assertSame(objectMapper, resolver.getContext(UserDTO.class));
+    assertSame(objectMapper, ObjectMapperResolver.objectMapper());
+    assertTrue(objectMapper.getRegisteredModuleIds().stream()
+        .anyMatch(id -> id.toString().contains("Blackbird")));
+  }
+
+  /**
+   * Test that a request record ignores the unknown fields and leaves the missing ones null.
+   *
+   * @throws Exception if the body cannot be read
+   */
+  @DisplayName("test request record with unknown and missing fields")
+  @Test
+  void readRequest() throws Exception {
+    LoginRequest login = objectMapper.readValue(
+        "{\"email\":\"a.b@vinci.be\",\"remember\":true}", LoginRequest.class);
+    assertEquals("a.b@vinci.be", login.email());
+    assertNull(login.password());
+  }
+
+  /**
+   * Test that a request record accepts the numbers sent as strings, as the JSON trees did.
+   *
+   * @throws Exception if the body cannot be read
+   */
+  @DisplayName("test request record with a number sent as a string")
+  @Test
+  void readRequestCoercion() throws Exception {
+    EditUserRequest edit = objectMapper.readValue(
+        "{\"phoneNumber\":\"0499\",\"versionNumber\":\"3\"}", EditUserRequest.class);
+    assertEquals("0499", edit.phoneNumber());
+    assertEquals(3, edit.versionNumber());
+  }
+
+  /**
+   * Test that the DTOs are still read through their implementation.
+   *
+   * @throws Exception if the body cannot be read
+   */
+  @DisplayName("test DTO read through the shared mapper")
+  @Test
+  void readDto() throws Exception {
+    UserDTO user = objectMapper.readValue(
+        "{\"email\":\"a.b@vinci.be\",\"firstName\":\"A\",\"role\":\"TEACHER\"}", UserDTO.class);
+    assertEquals("A", user.getFirstName());
+    assertEquals(UserDTO.Role.TEACHER, user.getRole());
+  }
+}
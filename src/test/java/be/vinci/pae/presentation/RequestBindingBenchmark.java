@@ -0,0 +1,166 @@
+package be.vinci.pae.presentation;
+
+import be.vinci.pae.presentation.requests.BlacklistRequest;
+import be.vinci.pae.presentation.requests.EditUserRequest;
+import be.vinci.pae.presentation.requests.LoginRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Microbenchmark of the reading of the request bodies, comparing the JSON trees the resources
+ * used to read with the request records read by the shared mapper. For each body, the bytes
+ * allocated and the time spent per request are printed for both.
+ *
+ * <p>It is not run by the test suite. Run it after mvn test-compile with:
+ * {@code java -cp target/classes:target/test-classes:<dependencies>
+ * be.vinci.pae.presentation.RequestBindingBenchmark [iterations]}
+ */
+public final class RequestBindingBenchmark {
+
+  // The bodies sent by the single page application
+  private static final byte[] LOGIN = bytes(
+      "{\"email\":\"jean.dupont@student.vinci.be\",\"password\":\"mot de passe\"}");
+  private static final byte[] EDIT = bytes(
+      "{\"phoneNumber\":\"0499 12 34 56\",\"currentPassword\":\"ancien\","
+          + "\"newPassword\":\"nouveau\",\"versionNumber\":3}");
+  private static final byte[] BLACKLIST = bytes(
+      "{\"blacklistReason\":\"Ne respecte pas les conventions\",\"versionNumber\":2}");
+
+  private RequestBindingBenchmark() {
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of requests of each measure
+   * @throws Exception if a body cannot be read
+   */
+  public static void main(String[] args) throws Exception {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    // The mapper Jersey used before, reading the bodies as trees
+    ObjectMapper treeMapper = new ObjectMapper();
+    ObjectMapper recordMapper = ObjectMapperResolver.objectMapper();
+
+    System.out.printf("%d requests per measure%n", iterations);
+    for (int round = 0; round < 2; round++) {
+      // The first round warms up the JIT compiler
+      boolean print = round == 1;
+      compare("login", print, iterations, body -> {
+        JsonNode json = read(treeMapper, body);
+        return json.get("email").asText().length() + json.get("password").asText().length();
+      }, body -> {
+        LoginRequest login = read(recordMapper, body, LoginRequest.class);
+        return login.email().length() + login.password().length();
+      }, LOGIN);
+      compare("edit", print, iterations, body -> {
+        JsonNode json = read(treeMapper, body);
+        return json.get("phoneNumber").asText().length() + json.get("versionNumber").asInt();
+      }, body -> {
+        EditUserRequest edit = read(recordMapper, body, EditUserRequest.class);
+        return edit.phoneNumber().length() + edit.versionNumber();
+      }, EDIT);
+      compare("blacklist", print, iterations, body -> {
+        JsonNode json = read(treeMapper, body);
+        return json.get("blacklistReason").asText().length() + json.get("versionNumber").asInt();
+      }, body -> {
+        BlacklistRequest blacklist = read(recordMapper, body, BlacklistRequest.class);
+        return blacklist.blacklistReason().length() + blacklist.versionNumber();
+      }, BLACKLIST);
+    }
+  }
+
+  /**
+   * Measures the tree and the record readings of a body.
+   *
+   * @param name       the name of the body
+   * @param print      whether the results are printed
+   * @param iterations the number of requests of each measure
+   * @param tree       the reading of the body as a tree
+   * @param record     the reading of the body as a record
+   * @param body       the body
+   */
+  private static void compare(String name, boolean print, int iterations,
+      Function<byte[], Integer> tree, Function<byte[], Integer> record, byte[] body) {
+    double[] treeCost = measure(tree, body, iterations);
+    double[] recordCost = measure(record, body, iterations);
+    if (print) {
+      System.out.printf("%-10s tree   %7.0f B/op %7.0f ns/op%n", name, treeCost[0], treeCost[1]);
+      System.out.printf("%-10s record %7.0f B/op %7.0f ns/op%n", name, recordCost[0],
+          recordCost[1]);
+    }
+  }
+
+  /**
+   * Reads a body many times on the current thread.
+   *
+   * @param reader     the reading of the body
+   * @param body       the body
+   * @param iterations the number of readings
+   * @return the bytes allocated and the nanoseconds spent per reading
+   */
+  private static double[] measure(Function<byte[], Integer> reader, byte[] body,
+      int iterations) {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long sink = 0;
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      sink += reader.apply(body);
+    }
+    long nanos = System.nanoTime() - start;
+    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    if (sink == 42) {
+      System.out.println();
+    }
+    return new double[]{(double) allocated / iterations, (double) nanos / iterations};
+  }
+
+  /**
+   * Reads a body as a tree.
+   *
+   * @param mapper the mapper
+   * @param body   the body
+   * @return the tree
+   */
+  private static JsonNode read(ObjectMapper mapper, byte[] body) {
+    try {
+      return mapper.readTree(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads a body as a record.
+   *
+   * @param mapper the mapper
+   * @param body   the body
+   * @param type   the class of the record
+   * @param <T>    the type of the record
+   * @return the record
+   */
+  private static <T> T read(ObjectMapper mapper, byte[] body, Class<T> type) {
+    try {
+      return mapper.readValue(body, type);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Encodes a body in UTF-8.
+   *
+   * @param json the body
+   * @return the bytes of the body
+   */
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,187 @@
+package be.vinci.pae.presentation.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import be.vinci.pae.business.token.TokenRevocationUCC;
+import be.vinci.pae.business.user.UserDTO;
+import be.vinci.pae.business.user.UserDTO.Role;
+import be.vinci.pae.business.user.UserImpl;
+import be.vinci.pae.business.user.UserUCC;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Response;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the AuthorizationRequestFilter class.
+ */
+class AuthorizationRequestFilterTest {
+
+  private final Algorithm algorithm = Algorithm.HMAC256("test secret");
+  private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(
+      JWT.require(algorithm).withIssuer("auth0").build(), 100);
+  private final UserUCC userUCC = Mockito.mock(UserUCC.class);
+  private final TokenRevocationUCC tokenRevocation = Mockito.mock(TokenRevocationUCC.class);
+  private final ContainerRequestContext requestContext =
+      Mockito.mock(ContainerRequestContext.class);
+  private UserDTO teacher;
+
+  /**
+   * Set up the test environment.
+   */
+  @BeforeEach
+  void setup() {
+    teacher = new UserImpl();
+    teacher.setIdUser(7);
+    teacher.setRole("TEACHER");
+    teacher.setVersionNumber(1);
+    Mockito.when(userUCC.refreshUser(7)).thenReturn(teacher);
+    Mockito.when(userUCC.getUserVersion(7)).thenReturn(1);
+  }
+
+  /**
+   * Creates a token for the user 7.
+   *
+   * @param role the role claim of the token, or null to create a token without role
+   * @return the signed token
+   */
+  private String token(String role) {
+    JWTCreator.Builder builder = JWT.create().withIssuer("auth0").withJWTId("token id")
+        .withClaim("user", 7).withExpiresAt(Instant.now().plusSeconds(3600));
+    if (role != null) {
+      builder.withClaim("role", role).withClaim("version", 1);
+    }
+    return builder.sign(algorithm);
+  }
+
+  /**
+   * Creates the filter of a method.
+   *
+   * @param loadUser whether the method loads the user
+   * @param roles    the roles allowed to access the method
+   * @return the filter
+   */
+  private AuthorizationRequestFilter filter(boolean loadUser, Role... roles) {
+    EnumSet<Role> requiredRoles = EnumSet.noneOf(Role.class);
+    requiredRoles.addAll(List.of(roles));
+    return new AuthorizationRequestFilter(requiredRoles, loadUser, verifiedTokens, userUCC,
+        tokenRevocation);
+  }
+
+  /**
+   * Returns the status of the response the request was aborted with.
+   *
+   * @return the status of the response
+   */
+  private int abortStatus() {
+    ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+    Mockito.verify(requestContext).abortWith(response.capture());
+    return response.getValue().getStatus();
+  }
+
+  /**
+   * Test that a method not loading the user is authorized from the role of the token.
+   */
+  @DisplayName("test filter authorizes from the role of the token")
+  @Test
+  void filterWithoutUser() {
+    Mockito.when(requestContext.getHeaderString("Authorization")).thenReturn(token("TEACHER"));
+    filter(false, Role.TEACHER).filter(requestContext);
+    Mockito.verify(requestContext, Mockito.never()).abortWith(Mockito.any());
+    Mockito.verify(requestContext, Mockito.never()).setProperty(Mockito.any(), Mockito.any());
+    Mockito.verify(userUCC, Mockito.never()).refreshUser(Mockito.anyInt());
+  }
+
+  /**
+   * Test that the role of a user changed since the token was issued is read again.
+   */
+  @DisplayName("test filter reads the current role of a user changed since the token")
+  @Test
+  void filterChangedUser() {
+    teacher.setRole("STUDENT");
+    teacher.setVersionNumber(2);
+    Mockito.when(userUCC.getUserVersion(7)).thenReturn(2);
+    Mockito.when(requestContext.getHeaderString("Authorization")).thenReturn(token("TEACHER"));
+    filter(false, Role.TEACHER).filter(requestContext);
+    Mockito.verify(userUCC).refreshUser(7);
+    assertEquals(403, abortStatus());
+  }
+
+  /**
+   * Test that the token of a deleted user is unauthorized.
+   */
+  @DisplayName("test filter rejects the token of a deleted user")
+  @Test
+  void filterDeletedUser() {
+    Mockito.when(userUCC.getUserVersion(7)).thenReturn(null);
+    Mockito.when(requestContext.getHeaderString("Authorization")).thenReturn(token("TEACHER"));
+    filter(false, Role.TEACHER).filter(requestContext);
+    assertEquals(401, abortStatus());
+  }
+
+  /**
+   * Test that a role missing from the required roles is forbidden.
+   */
+  @DisplayName("test filter forbids another role")
+  @Test
+  void filterForbidden() {
+    Mockito.when(requestContext.getHeaderString("Authorization")).thenReturn(token("STUDENT"));
+    filter(false, Role.TEACHER, Role.ADMINISTRATIVE).filter(requestContext);
+    assertEquals(403, abortStatus());
+  }
+
+  /**
+   * Test that a method loading the user reads it and sets it on the request.
+   */
+  @DisplayName("test filter loads the user")
+  @Test
+  void filterWithUser() {
+    Mockito.when(requestContext.getHeaderString("Authorization")).thenReturn(token("TEACHER"));
+    filter(true, Role.TEACHER).filter(requestContext);
+    Mockito.verify(requestContext).setProperty("user", teacher);
+  }
+
+  /**
+   * Test that a token without role is authorized from the role of the user.
+   */
+  @DisplayName("test filter reads the role of the user for a token without role")
+  @Test
+  void filterTokenWithoutRole() {
+    Mockito.when(requestContext.getHeaderString("Authorization")).thenReturn(token(null));
+    filter(false, Role.STUDENT).filter(requestContext);
+    Mockito.verify(userUCC).refreshUser(7);
+    assertEquals(403, abortStatus());
+  }
+
+  /**
+   * Test that a request without token is unauthorized.
+   */
+  @DisplayName("test filter without token")
+  @Test
+  void filterWithoutToken() {
+    filter(false, Role.TEACHER).filter(requestContext);
+    assertEquals(401, abortStatus());
+  }
+
+  /**
+   * Test that a revoked token is unauthorized.
+   */
+  @DisplayName("test filter with a revoked token")
+  @Test
+  void filterRevokedToken() {
+    Mockito.when(requestContext.getHeaderString("Authorization")).thenReturn(token("TEACHER"));
+    Mockito.when(tokenRevocation.isRevoked("token id")).thenReturn(true);
+    filter(true, Role.TEACHER).filter(requestContext);
+    assertEquals(401, abortStatus());
+    Mockito.verifyNoInteractions(userUCC);
+  }
+}
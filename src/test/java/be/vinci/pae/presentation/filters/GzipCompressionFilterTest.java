@@ -0,0 +1,209 @@
+package be.vinci.pae.presentation.filters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import be.vinci.pae.presentation.ContactResource;
+import be.vinci.pae.utils.CompressionStats;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the GzipCompressionFilter and CompressionFeature classes.
+ */
+class GzipCompressionFilterTest {
+
+  private final CompressionStats stats = new CompressionStats();
+  private final GzipCompressionFilter filter = new GzipCompressionFilter("GET /enterprise",
+      Set.of("application/json"), 1024, 6, stats);
+  private final ContainerRequestContext requestContext =
+      Mockito.mock(ContainerRequestContext.class);
+  private final ContainerResponseContext responseContext =
+      Mockito.mock(ContainerResponseContext.class);
+  private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+  /**
+   * Set up a JSON response.
+   */
+  @BeforeEach
+  void setup() {
+    Mockito.when(responseContext.hasEntity()).thenReturn(true);
+    Mockito.when(responseContext.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+    Mockito.when(responseContext.getHeaders()).thenReturn(headers);
+  }
+
+  /**
+   * Runs the filter and writes a body through the interceptor.
+   *
+   * @param acceptEncoding the Accept-Encoding header of the request
+   * @param body           the body of the response
+   * @return the bytes sent to the client
+   * @throws Exception if the body cannot be written
+   */
+  private byte[] respond(String acceptEncoding, byte[] body) throws Exception {
+    Mockito.when(requestContext.getHeaderString("Accept-Encoding")).thenReturn(acceptEncoding);
+    filter.filter(requestContext, responseContext);
+    ArgumentCaptor<Object> property = ArgumentCaptor.forClass(Object.class);
+    Mockito.verify(requestContext, Mockito.atMost(1))
+        .setProperty(Mockito.anyString(), property.capture());
+
+    ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    AtomicReference<OutputStream> output = new AtomicReference<>(sent);
+    WriterInterceptorContext context = Mockito.mock(WriterInterceptorContext.class);
+    Mockito.when(context.getProperty(Mockito.anyString()))
+        .thenReturn(property.getAllValues().isEmpty() ? null : property.getValue());
+    Mockito.when(context.getHeaders()).thenReturn(headers);
+    Mockito.when(context.getOutputStream()).thenAnswer(invocation -> output.get());
+    Mockito.doAnswer(invocation -> {
+      output.set(invocation.getArgument(0));
+      return null;
+    }).when(context).setOutputStream(Mockito.any());
+    Mockito.doAnswer(invocation -> {
+      // The body is written in several parts, as a streamed list
+      OutputStream stream = output.get();
+      stream.write(body, 0, body.length / 2);
+      stream.flush();
+      stream.write(body, body.length / 2, body.length - body.length / 2);
+      return null;
+    }).when(context).proceed();
+    filter.aroundWriteTo(context);
+    return sent.toByteArray();
+  }
+
+  /**
+   * Creates a JSON body of a given size.
+   *
+   * @param items the number of items of the list
+   * @return the body
+   */
+  private static byte[] json(int items) {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < items; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"idEnterprise\":").append(i)
+          .append(",\"tradeName\":\"Entreprise ").append(i).append("\",\"versionNumber\":1}");
+    }
+    return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Test for the compression of a large body.
+   *
+   * @throws Exception if the body cannot be written
+   */
+  @DisplayName("test a large body is compressed when the client accepts gzip")
+  @Test
+  void compressLargeBody() throws Exception {
+    byte[] body = json(200);
+    byte[] sent = respond("gzip, deflate, br", body);
+    assertEquals("gzip", headers.getFirst("Content-Encoding"));
+    assertEquals("Accept-Encoding", headers.getFirst("Vary"));
+    assertTrue(sent.length < body.length / 4);
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(sent))) {
+      assertArrayEquals(body, gzip.readAllBytes());
+    }
+    Map<?, ?> counters = (Map<?, ?>) stats.snapshot().get("GET /enterprise");
+    assertEquals(1L, counters.get("compressed"));
+    assertEquals((long) body.length, counters.get("bodyBytes"));
+    assertEquals((long) sent.length, counters.get("sentBytes"));
+  }
+
+  /**
+   * Test for a body below the minimum size.
+   *
+   * @throws Exception if the body cannot be written
+   */
+  @DisplayName("test a body below the minimum size is not compressed")
+  @Test
+  void keepSmallBody() throws Exception {
+    byte[] body = json(3);
+    assertArrayEquals(body, respond("gzip", body));
+    assertNull(headers.getFirst("Content-Encoding"));
+    Map<?, ?> counters = (Map<?, ?>) stats.snapshot().get("GET /enterprise");
+    assertEquals(1L, counters.get("responses"));
+    assertEquals(0L, counters.get("compressed"));
+    assertEquals(0L, counters.get("bytesSaved"));
+  }
+
+  /**
+   * Test for a client not accepting gzip.
+   *
+   * @throws Exception if the body cannot be written
+   */
+  @DisplayName("test a body is not compressed when the client does not accept gzip")
+  @Test
+  void keepBodyWithoutGzip() throws Exception {
+    byte[] body = json(200);
+    assertArrayEquals(body, respond("gzip;q=0, identity", body));
+    assertNull(headers.getFirst("Content-Encoding"));
+    assertEquals("Accept-Encoding", headers.getFirst("Vary"));
+    assertTrue(stats.snapshot().isEmpty());
+  }
+
+  /**
+   * Test for a media type that cannot be compressed.
+   *
+   * @throws Exception if the body cannot be written
+   */
+  @DisplayName("test a body is not compressed when its media type is not allowed")
+  @Test
+  void keepOtherMediaType() throws Exception {
+    Mockito.when(responseContext.getMediaType())
+        .thenReturn(MediaType.APPLICATION_OCTET_STREAM_TYPE);
+    byte[] body = json(200);
+    assertArrayEquals(body, respond("gzip", body));
+    assertFalse(headers.containsKey("Vary"));
+  }
+
+  /**
+   * Test for the reading of the Accept-Encoding header.
+   */
+  @DisplayName("test acceptsGzip method")
+  @Test
+  void acceptsGzip() {
+    assertTrue(GzipCompressionFilter.acceptsGzip("gzip"));
+    assertTrue(GzipCompressionFilter.acceptsGzip("deflate, GZIP;q=0.5"));
+    assertTrue(GzipCompressionFilter.acceptsGzip("br, *;q=0.1"));
+    assertFalse(GzipCompressionFilter.acceptsGzip(null));
+    assertFalse(GzipCompressionFilter.acceptsGzip("deflate, br"));
+    assertFalse(GzipCompressionFilter.acceptsGzip("gzip;q=0"));
+    assertFalse(GzipCompressionFilter.acceptsGzip("*, gzip;q=0"));
+  }
+
+  /**
+   * Test for the naming of the endpoints.
+   *
+   * @throws Exception if the resource method does not exist
+   */
+  @DisplayName("test the endpoints are named after their method and path")
+  @Test
+  void endpoint() throws Exception {
+    ResourceInfo resourceInfo = Mockito.mock(ResourceInfo.class);
+    Mockito.when(resourceInfo.getResourceMethod()).thenReturn(
+        ContactResource.class.getMethod("getMyContacts",
+            ContainerRequest.class));
+    Mockito.doReturn(ContactResource.class).when(resourceInfo).getResourceClass();
+    assertEquals("GET /contact/all", CompressionFeature.endpoint(resourceInfo));
+  }
+}
@@ -0,0 +1,99 @@
+package be.vinci.pae.presentation.filters;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Microbenchmark of the verification of the tokens by the authorization filter, with and without
+ * the VerifiedTokenCache. Several threads verify the tokens of a set of sessions, as the requests
+ * of the single page application do, and the average time per verification is printed for both.
+ *
+ * <p>It is not run by the test suite. Run it after mvn test-compile with:
+ * {@code java -cp target/classes:target/test-classes:<dependencies>
+ * be.vinci.pae.presentation.filters.VerifiedTokenCacheBenchmark [threads] [sessions] [seconds]}
+ */
+public final class VerifiedTokenCacheBenchmark {
+
+  private VerifiedTokenCacheBenchmark() {
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of threads, of sessions, and the duration of each measure in seconds
+   * @throws Exception if a thread fails
+   */
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+    Algorithm algorithm = Algorithm.HMAC256("benchmark secret");
+    JWTVerifier verifier = JWT.require(algorithm).withIssuer("auth0").build();
+    String[] tokens = new String[sessions];
+    for (int i = 0; i < sessions; i++) {
+      tokens[i] = JWT.create().withIssuer("auth0").withClaim("user", i)
+          .withExpiresAt(Instant.now().plusSeconds(3600)).sign(algorithm);
+    }
+    VerifiedTokenCache cache = new VerifiedTokenCache(verifier, 10_000);
+
+    System.out.printf("%d threads, %d sessions, %d s per measure%n", threads, sessions, seconds);
+    // The first runs warm up the JIT compiler
+    measure("warm-up verifier", verifier::verify, tokens, threads, seconds);
+    measure("warm-up cache", cache::verify, tokens, threads, seconds);
+    double verified = measure("verifier", verifier::verify, tokens, threads, seconds);
+    double cached = measure("cache", cache::verify, tokens, threads, seconds);
+    System.out.printf("saving: %.0f ns per request (%.1fx)%n", verified - cached,
+        verified / cached);
+  }
+
+  /**
+   * Verifies random tokens from several threads during a given time.
+   *
+   * @param name    the name of the measure
+   * @param verify  the verification of a token
+   * @param tokens  the tokens of the sessions
+   * @param threads the number of threads
+   * @param seconds the duration of the measure
+   * @return the average time of a verification, in nanoseconds of a thread
+   * @throws Exception if a thread fails
+   */
+  private static double measure(String name, Function<String, ?> verify, String[] tokens,
+      int threads, int seconds) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long end = System.nanoTime() + seconds * 1_000_000_000L;
+      List<Callable<Long>> tasks = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        tasks.add(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          long operations = 0;
+          while (System.nanoTime() < end) {
+            verify.apply(tokens[random.nextInt(tokens.length)]);
+            operations++;
+          }
+          return operations;
+        });
+      }
+      long operations = 0;
+      for (Future<Long> future : executor.invokeAll(tasks)) {
+        operations += future.get();
+      }
+      double nanos = (double) seconds * 1_000_000_000L * threads / operations;
+      System.out.printf("%-16s %,12d verifications %10.0f ns/op%n", name, operations, nanos);
+      return nanos;
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
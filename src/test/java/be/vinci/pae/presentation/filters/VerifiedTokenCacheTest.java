@@ -0,0 +1,93 @@
+package be.vinci.pae.presentation.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the VerifiedTokenCache class.
+ */
+class VerifiedTokenCacheTest {
+
+  private final Algorithm algorithm = Algorithm.HMAC256("test secret");
+  private final JWTVerifier verifier = Mockito.mock(JWTVerifier.class,
+      AdditionalAnswers.delegatesTo(JWT.require(algorithm).withIssuer("auth0").build()));
+
+  /**
+   * Creates a token.
+   *
+   * @param expiresAt the expiration of the token
+   * @return the signed token
+   */
+  private String token(Instant expiresAt) {
+    return JWT.create().withIssuer("auth0").withClaim("user", 7).withExpiresAt(expiresAt)
+        .sign(algorithm);
+  }
+
+  /**
+   * Test that a token is verified once, then read from the cache.
+   */
+  @DisplayName("test verify caches the verified tokens")
+  @Test
+  void verifyCached() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(verifier, 100);
+    String token = token(Instant.now().plusSeconds(3600));
+    assertEquals(7, cache.verify(token).getClaim("user").asInt());
+    assertEquals(7, cache.verify(token).getClaim("user").asInt());
+    Mockito.verify(verifier, Mockito.times(1)).verify(token);
+    assertEquals(1, cache.size());
+  }
+
+  /**
+   * Test that the invalid tokens are never cached.
+   */
+  @DisplayName("test verify does not cache the invalid tokens")
+  @Test
+  void verifyInvalid() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(verifier, 100);
+    String forged = JWT.create().withIssuer("auth0").withClaim("user", 1)
+        .withExpiresAt(Instant.now().plusSeconds(3600)).sign(Algorithm.HMAC256("other secret"));
+    assertThrows(JWTVerificationException.class, () -> cache.verify(forged));
+    assertThrows(JWTVerificationException.class, () -> cache.verify(forged));
+    Mockito.verify(verifier, Mockito.times(2)).verify(forged);
+    assertEquals(0, cache.size());
+  }
+
+  /**
+   * Test that a token leaves the cache when it expires.
+   */
+  @DisplayName("test verify rejects a cached token once expired")
+  @Test
+  void verifyExpired() throws InterruptedException {
+    VerifiedTokenCache cache = new VerifiedTokenCache(verifier, 100);
+    // The "exp" claim is in seconds, the token expires at the start of the second after the next
+    Instant expiresAt = Instant.ofEpochSecond(Instant.now().getEpochSecond() + 2);
+    String token = token(expiresAt);
+    cache.verify(token);
+    Thread.sleep(expiresAt.toEpochMilli() - System.currentTimeMillis() + 100);
+    assertThrows(TokenExpiredException.class, () -> cache.verify(token));
+  }
+
+  /**
+   * Test that a maximum size of 0 disables the cache.
+   */
+  @DisplayName("test verify without cache")
+  @Test
+  void verifyDisabled() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(verifier, 0);
+    String token = token(Instant.now().plusSeconds(3600));
+    cache.verify(token);
+    cache.verify(token);
+    Mockito.verify(verifier, Mockito.times(2)).verify(token);
+  }
+}
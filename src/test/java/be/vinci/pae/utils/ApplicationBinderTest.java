@@ -2,22 +2,34 @@ package be.vinci.pae.utils;
 
 import be.vinci.pae.business.DomainFactory;
 import be.vinci.pae.business.DomainFactoryImpl;
+import be.vinci.pae.business.admin.AdminUCC;
+import be.vinci.pae.business.admin.AdminUCCImpl;
+import be.vinci.pae.business.cache.CacheRegistry;
 import be.vinci.pae.business.contact.ContactUCC;
 import be.vinci.pae.business.contact.ContactUCCImpl;
 import be.vinci.pae.business.entreprise.EnterpriseUCC;
 import be.vinci.pae.business.entreprise.EnterpriseUCCImpl;
+import be.vinci.pae.business.imports.ImportUCC;
+import be.vinci.pae.business.imports.ImportUCCImpl;
 import be.vinci.pae.business.responsable.ResponsableStageUCC;
 import be.vinci.pae.business.responsable.ResponsableStageUCCImpl;
 import be.vinci.pae.business.stage.StageUCC;
 import be.vinci.pae.business.stage.StageUCCImpl;
+import be.vinci.pae.business.token.TokenRevocationUCC;
+import be.vinci.pae.business.token.TokenRevocationUCCImpl;
+import be.vinci.pae.business.user.PasswordHasher;
 import be.vinci.pae.business.user.UserUCC;
 import be.vinci.pae.business.user.UserUCCImpl;
+import be.vinci.pae.dal.DALMonitoring;
 import be.vinci.pae.dal.DALServices;
 import be.vinci.pae.dal.contact.ContactDAO;
 import be.vinci.pae.dal.enterprise.EnterpriseDAO;
+import be.vinci.pae.dal.imports.ImportDAO;
 import be.vinci.pae.dal.responsable.ResponsableStageDAO;
 import be.vinci.pae.dal.stage.StageDAO;
+import be.vinci.pae.dal.token.RevokedTokenDAO;
 import be.vinci.pae.dal.user.UserDAO;
+import be.vinci.pae.main.ServerMonitoring;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.ext.Provider;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
@@ -42,7 +54,10 @@ public class ApplicationBinderTest extends AbstractBinder {
 
     bind(Mockito.mock(DALServices.class)).to(DALServices.class);
 
+    bind(CacheRegistry.class).to(CacheRegistry.class).in(Singleton.class);
+
     bind(Mockito.mock(UserDAO.class)).to(UserDAO.class);
+    bind(PasswordHasher.class).to(PasswordHasher.class).in(Singleton.class);
     bind(UserUCCImpl.class).to(UserUCC.class).in(Singleton.class);
 
     bind(EnterpriseUCCImpl.class).to(EnterpriseUCC.class).in(Singleton.class);
@@ -56,5 +71,16 @@ public class ApplicationBinderTest extends AbstractBinder {
 
     bind(Mockito.mock(ResponsableStageDAO.class)).to(ResponsableStageDAO.class);
     bind(ResponsableStageUCCImpl.class).to(ResponsableStageUCC.class).in(Singleton.class);
+
+    bind(Mockito.mock(RevokedTokenDAO.class)).to(RevokedTokenDAO.class);
+    bind(TokenRevocationUCCImpl.class).to(TokenRevocationUCC.class).in(Singleton.class);
+
+    bind(Mockito.mock(DALMonitoring.class)).to(DALMonitoring.class);
+    bind(Mockito.mock(ServerMonitoring.class)).to(ServerMonitoring.class);
+    bind(CompressionStats.class).to(CompressionStats.class).in(Singleton.class);
+    bind(AdminUCCImpl.class).to(AdminUCC.class).in(Singleton.class);
+
+    bind(Mockito.mock(ImportDAO.class)).to(ImportDAO.class);
+    bind(ImportUCCImpl.class).to(ImportUCC.class).in(Singleton.class);
   }
 }
\ No newline at end of file
@@ -0,0 +1 @@
+CREATE TABLE pae.items (id SERIAL PRIMARY KEY, name TEXT NOT NULL);
@@ -0,0 +1 @@
+CREATE INDEX items_name ON pae.items (name);
@@ -0,0 +1,62 @@
+-- Jeu de données synthétique pour QueryPlanTest, appliqué sur un schéma vide créé par les
+-- migrations. Les volumes correspondent à plusieurs années scolaires d'utilisation.
+
+INSERT INTO pae.enterprises (tradeName, designation, phoneNumber, email, isBlacklisted, street,
+                             streetNumber, postalCode, city, country, versionNumber)
+SELECT 'Entreprise ' || md5(i::text),
+       CASE WHEN i % 4 = 0 THEN 'Site ' || (i % 7) END,
+       '02 000 ' || lpad(i::text, 5, '0'),
+       'contact' || i || '@entreprise' || i || '.be',
+       i % 50 = 0,
+       'Rue ' || (i % 500),
+       (i % 200)::text,
+       (1000 + i % 9000)::text,
+       'Ville ' || (i % 300),
+       'Belgique',
+       1
+FROM generate_series(1, 5000) AS i;
+
+INSERT INTO pae.users (lastName, firstName, email, password, phoneNumber, registrationDate, role,
+                       schoolYear, versionNumber)
+SELECT 'Nom' || md5(i::text),
+       'Prenom' || (i % 997),
+       'user' || i || '@student.vinci.be',
+       '$2a$10$abcdefghijklmnopqrstuuAbCdEfGhIjKlMnOpQrStUvWxYz01234',
+       '0490 ' || lpad(i::text, 6, '0'),
+       '01/09/' || lpad((15 + i % 10)::text, 2, '0'),
+       CASE WHEN i % 100 = 0 THEN 'TEACHER' WHEN i % 100 = 1 THEN 'ADMINISTRATIVE' ELSE 'STUDENT' END,
+       (2015 + i % 10) || '-' || (2016 + i % 10),
+       1
+FROM generate_series(1, 50000) AS i;
+
+INSERT INTO pae.responsables_stages (lastName, firstName, email, phoneNumber, enterprise)
+SELECT 'Responsable' || md5(i::text),
+       'Prenom' || (i % 389),
+       'responsable' || i || '@entreprise.be',
+       '0470 ' || lpad(i::text, 6, '0'),
+       1 + i % 5000
+FROM generate_series(1, 10000) AS i;
+
+INSERT INTO pae.contacts (userId, enterprise, contactStatus, meetingPlace, reasonForRefusal,
+                          schoolYear, versionNumber)
+SELECT 1 + i % 50000,
+       1 + (i * 7) % 5000,
+       (ARRAY ['STARTED', 'ADMITTED', 'TURNED_DOWN', 'ON_HOLD', 'UNSUPERVISED', 'STARTED',
+           'ADMITTED', 'TURNED_DOWN', 'ON_HOLD', 'ACCEPTED'])[1 + i % 10],
+       CASE WHEN i % 10 IN (1, 6, 9) THEN 'Dans l''entreprise' END,
+       CASE WHEN i % 10 IN (2, 7) THEN 'Pas de place' END,
+       (2015 + i % 10) || '-' || (2016 + i % 10),
+       1
+FROM generate_series(1, 200000) AS i;
+
+INSERT INTO pae.stages (userId, internshipProject, internshipSupervisor, contact, signatureDate,
+                        versionNumber)
+SELECT c.userId, 'Projet ' || c.idContact, 1 + c.idContact % 10000, c.idContact, '01/02/24', 1
+FROM pae.contacts c
+WHERE c.contactStatus = 'ACCEPTED';
+
+ANALYZE pae.users;
+ANALYZE pae.enterprises;
+ANALYZE pae.responsables_stages;
+ANALYZE pae.contacts;
+ANALYZE pae.stages;
@@ -1,10 +1,14 @@
 // Logout.js: Manages the logout process, refreshes the navigation bar, and redirects to the login page.
 
 import { clearAuthenticatedUser } from '../../utils/auths';
+import { logout } from '../../utils/backendRequest';
 import Navbar from '../Navbar/Navbar';
 import Navigate from '../Router/Navigate';
 
-const Logout = () => {
+const Logout = async () => {
+  // Revoke the token on the server, so that a copy of it cannot be used anymore.
+  await logout();
+
   // Clear authentication details from the client's local storage or session storage.
   clearAuthenticatedUser();
 
@@ -38,6 +38,23 @@ async function register(email, password, firstName, lastName, phoneNumber, role)
   return response.json();
 }
 
+async function logout() {
+  const token = getToken();
+  if (!token) return;
+
+  // The token is dropped by the client even if the server cannot revoke it
+  try {
+    await fetch(`${process.env.API_BASE_URL}/auths/logout`, {
+      method: 'POST',
+      headers: {
+        Authorization: `${token}`,
+      },
+    });
+  } catch (error) {
+    // Ignore the errors
+  }
+}
+
 async function getAllContacts() {
   try {
     const token = getToken();
@@ -463,6 +480,7 @@ async function getStage(id) {
 module.exports = {
   login,
   register,
+  logout,
   getAllContacts,
   getEnterpriseInfo,
   getLastStage,